@@ -0,0 +1,50 @@
+package pw.ee.lot.domain;
+
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * A departed or cancelled flight moved out of the live tables, keeping the id it had as a {@link Flight}. Archived flights are
+ * written in bulk by SQL and only read through JPA.
+ */
+@Entity
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ArchivedFlight {
+
+    @Id
+    private Long id;
+
+    @NotNull
+    private String flightNumber;
+
+    @NotNull
+    private LocalDateTime departureTime;
+
+    @NotNull
+    private Integer availableSeats;
+
+    /**
+     * Route encoded like {@link FlightSearchView#getRoute()}.
+     */
+    @NotNull
+    private String route;
+
+    @NotNull
+    private LocalDateTime archivedAt;
+
+    @NotNull
+    private Boolean cancelled;
+
+    @ElementCollection
+    private Set<ArchivedPassenger> passengers;
+}
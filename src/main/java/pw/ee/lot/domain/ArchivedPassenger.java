@@ -0,0 +1,35 @@
+package pw.ee.lot.domain;
+
+import jakarta.persistence.Embeddable;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Snapshot of a passenger on the manifest of an {@link ArchivedFlight}.
+ */
+@Embeddable
+@Getter
+@Setter
+@Builder
+@EqualsAndHashCode
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class ArchivedPassenger {
+
+    @NotNull
+    private UUID passengerId;
+
+    @NotNull
+    private String firstName;
+
+    @NotNull
+    private String lastName;
+
+    @NotNull
+    private String countryCode;
+
+    @NotNull
+    private String phoneNumber;
+}
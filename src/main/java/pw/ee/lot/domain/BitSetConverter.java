@@ -0,0 +1,23 @@
+package pw.ee.lot.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.BitSet;
+
+/**
+ * Stores a bitmap as its little-endian bytes, one bit per element.
+ */
+@Converter
+class BitSetConverter implements AttributeConverter<BitSet, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(BitSet bits) {
+        return bits == null ? null : bits.toByteArray();
+    }
+
+    @Override
+    public BitSet convertToEntityAttribute(byte[] bytes) {
+        return bytes == null ? null : BitSet.valueOf(bytes);
+    }
+}
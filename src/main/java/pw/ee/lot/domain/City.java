@@ -0,0 +1,23 @@
+package pw.ee.lot.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entry of the city dictionary referenced by route stops, see {@link pw.ee.lot.shared.dictionary.CityDictionary}.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class City {
+
+    @Id
+    private Short id;
+
+    @NotNull
+    private String name;
+}
@@ -3,12 +3,18 @@ package pw.ee.lot.domain;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import pw.ee.lot.shared.dictionary.CityConverter;
+import pw.ee.lot.shared.dictionary.CityRegistration;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 @Entity
+@EntityListeners(CityRegistration.class)
 @Builder
 @Getter
 @Setter
@@ -31,8 +37,32 @@ public class Flight {
     private Integer availableSeats;
 
     @ElementCollection
+    @OrderColumn(name = "route_order")
+    @Column(name = "city_id")
+    @Convert(converter = CityConverter.class)
     private List<String> route;
 
     @ManyToMany
+    @JoinTable(
+        name = "flight_passengers",
+        joinColumns = @JoinColumn(name = "flights_id"),
+        inverseJoinColumns = @JoinColumn(name = "passengers_id")
+    )
     private Set<Passenger> passengers;
+
+    /**
+     * Absent for flights sold without seat assignment.
+     */
+    @Embedded
+    private SeatMap seatMap;
+
+    /**
+     * Seat of each booked passenger, by passenger id.
+     */
+    @ElementCollection
+    @CollectionTable(name = "flight_seat_assignments", joinColumns = @JoinColumn(name = "flight_id"))
+    @MapKeyColumn(name = "passenger_id")
+    @Column(name = "seat")
+    @Builder.Default
+    private Map<UUID, Integer> seatAssignments = new HashMap<>();
 }
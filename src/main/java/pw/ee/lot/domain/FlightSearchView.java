@@ -0,0 +1,67 @@
+package pw.ee.lot.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Flat, search-optimized projection of a {@link Flight}, one row per flight. Written only by the projection
+ * following flight changes, read by flight listings and searches.
+ */
+@Entity
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class FlightSearchView {
+
+    private static final String ROUTE_DELIMITER = "|";
+
+    @Id
+    private Long flightId;
+
+    @NotNull
+    private String flightNumber;
+
+    @NotNull
+    private LocalDateTime departureTime;
+
+    @NotNull
+    private Integer availableSeats;
+
+    /**
+     * Route stops enclosed in and separated by {@value #ROUTE_DELIMITER}, empty for a flight without a route.
+     */
+    @NotNull
+    private String route;
+
+    public static String encodeRoute(List<String> route) {
+        if (route == null || route.isEmpty()) {
+            return "";
+        }
+
+        return ROUTE_DELIMITER + String.join(ROUTE_DELIMITER, route) + ROUTE_DELIMITER;
+    }
+
+    public static List<String> decodeRoute(String route) {
+        if (route.isEmpty()) {
+            return List.of();
+        }
+
+        return Arrays.asList(route.substring(1, route.length() - 1).split("\\" + ROUTE_DELIMITER, -1));
+    }
+
+    /**
+     * LIKE pattern matching routes that stop at the city, with {@code \} as the escape character.
+     */
+    public static String routeStopPattern(String city) {
+        final var escaped = city.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + ROUTE_DELIMITER + escaped + ROUTE_DELIMITER + "%";
+    }
+}
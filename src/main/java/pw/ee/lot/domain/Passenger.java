@@ -3,6 +3,7 @@ package pw.ee.lot.domain;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.springframework.data.domain.Persistable;
 
 import java.util.Set;
 import java.util.UUID;
@@ -13,13 +14,13 @@ import java.util.UUID;
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor
-public class Passenger {
+public class Passenger implements Persistable<UUID> {
 
+    /**
+     * Public identifier and primary key. New passengers get a time-ordered version 7 UUID, passengers created
+     * before that keep their random one.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    @NotNull
     private UUID passengerId;
 
     @NotNull
@@ -33,4 +34,29 @@ public class Passenger {
 
     @ManyToMany(mappedBy = "passengers")
     private Set<Flight> flights;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Override
+    public UUID getId() {
+        return passengerId;
+    }
+
+    /**
+     * The key is assigned before saving, so a new passenger is told apart by not having been loaded or persisted
+     * yet; saving it then inserts it right away instead of looking it up first.
+     */
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
@@ -0,0 +1,35 @@
+package pw.ee.lot.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A seat of a flight reserved for a checkout until {@code expiresAt}. The seat, if the flight has a seat map, is
+ * taken in the map and the hold counts against the available seats.
+ */
+@Entity
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class SeatHold {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @NotNull
+    private Long flightId;
+
+    private Integer seat;
+
+    @NotNull
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,179 @@
+package pw.ee.lot.domain;
+
+import jakarta.persistence.Convert;
+import jakarta.persistence.Embeddable;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.BitSet;
+
+/**
+ * Seats of a flight: {@code seatRows} rows of the letters in {@code seatLayout}, aisles written as {@code -}
+ * (e.g. {@code ABC-DEF}), the first {@code premiumRows} rows in the premium cabin. Taken seats are a bitmap with one
+ * bit per seat in row-major order, so finding a free seat or a block of adjacent free seats is a scan over a few
+ * machine words.
+ * <p>
+ * Every change replaces the bitmap, so it is never shared between two versions of the map.
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class SeatMap {
+
+    public static final String PREMIUM = "PREMIUM";
+    public static final String ECONOMY = "ECONOMY";
+    private static final char AISLE = '-';
+
+    private Integer seatRows;
+
+    private String seatLayout;
+
+    private Integer premiumRows;
+
+    @Convert(converter = BitSetConverter.class)
+    private BitSet takenSeats;
+
+    public static SeatMap of(int rows, String layout, int premiumRows) {
+        if (rows < 1 || premiumRows < 0 || premiumRows > rows) {
+            throw new IllegalArgumentException("Seat map needs at least one row and at most as many premium rows");
+        }
+        if (!layout.matches("[A-Z]+(-[A-Z]+)*") || layout.chars().filter(Character::isLetter).distinct().count() != lettersOf(layout).length()) {
+            throw new IllegalArgumentException("Seat layout must be distinct letters with aisles as '-', e.g. ABC-DEF");
+        }
+
+        return new SeatMap(rows, layout, premiumRows, new BitSet());
+    }
+
+    public SeatMap copy() {
+        return new SeatMap(seatRows, seatLayout, premiumRows, (BitSet) takenSeats.clone());
+    }
+
+    public int capacity() {
+        return seatRows * seatsPerRow();
+    }
+
+    public int freeSeats() {
+        return capacity() - takenSeats.cardinality();
+    }
+
+    public boolean isTaken(int seat) {
+        return takenSeats.get(seat);
+    }
+
+    /**
+     * @return the seat with the label, e.g. {@code 12C}
+     * @throws IllegalArgumentException if the flight has no such seat
+     */
+    public int seatOf(String label) {
+        final var letters = lettersOf(seatLayout);
+        if (label == null || !label.matches("[1-9][0-9]*[A-Z]")) {
+            throw new IllegalArgumentException("Seat must be a row number followed by a letter, e.g. 12C");
+        }
+
+        final var row = Integer.parseInt(label.substring(0, label.length() - 1));
+        final var position = letters.indexOf(label.charAt(label.length() - 1));
+        if (row > seatRows || position < 0) {
+            throw new IllegalArgumentException("Flight has no seat " + label);
+        }
+        return (row - 1) * letters.length() + position;
+    }
+
+    public String labelOf(int seat) {
+        final var letters = lettersOf(seatLayout);
+        return (seat / letters.length() + 1) + String.valueOf(letters.charAt(seat % letters.length()));
+    }
+
+    public String cabinOf(int seat) {
+        return seat / seatsPerRow() < premiumRows ? PREMIUM : ECONOMY;
+    }
+
+    /**
+     * @return whether the seat was free and is now taken
+     */
+    public boolean claim(int seat) {
+        if (takenSeats.get(seat)) {
+            return false;
+        }
+
+        takenSeats = with(seat, seat + 1, true);
+        return true;
+    }
+
+    /**
+     * Takes the free seat closest to the front.
+     *
+     * @return the seat taken, {@code -1} if the flight is full
+     */
+    public int claimFirstFree() {
+        final var seat = takenSeats.nextClearBit(0);
+        if (seat >= capacity()) {
+            return -1;
+        }
+
+        takenSeats = with(seat, seat + 1, true);
+        return seat;
+    }
+
+    /**
+     * Takes the first block of {@code count} free seats next to each other in one row, preferring blocks that do
+     * not span an aisle.
+     *
+     * @return the first seat of the block taken, {@code -1} if no row has such a block
+     */
+    public int claimAdjacent(int count) {
+        var first = findAdjacent(count, true);
+        if (first < 0) {
+            first = findAdjacent(count, false);
+        }
+        if (first >= 0) {
+            takenSeats = with(first, first + count, true);
+        }
+        return first;
+    }
+
+    public void release(int seat) {
+        takenSeats = with(seat, seat + 1, false);
+    }
+
+    private int findAdjacent(int count, boolean withinAisles) {
+        final var perRow = seatsPerRow();
+        if (count < 1 || count > perRow) {
+            return -1;
+        }
+
+        final var blocks = withinAisles ? seatLayout.split(String.valueOf(AISLE)) : new String[]{lettersOf(seatLayout)};
+        for (var row = 0; row < seatRows; row++) {
+            var blockStart = row * perRow;
+            for (String block : blocks) {
+                final var blockEnd = blockStart + block.length();
+                var free = takenSeats.nextClearBit(blockStart);
+                while (free + count <= blockEnd) {
+                    final var taken = takenSeats.nextSetBit(free);
+                    if (taken < 0 || taken >= free + count) {
+                        return free;
+                    }
+                    free = takenSeats.nextClearBit(taken);
+                }
+                blockStart = blockEnd;
+            }
+        }
+        return -1;
+    }
+
+    private BitSet with(int from, int to, boolean taken) {
+        final var next = (BitSet) takenSeats.clone();
+        next.set(from, to, taken);
+        return next;
+    }
+
+    private int seatsPerRow() {
+        return lettersOf(seatLayout).length();
+    }
+
+    private static String lettersOf(String layout) {
+        return layout.replace(String.valueOf(AISLE), "");
+    }
+}
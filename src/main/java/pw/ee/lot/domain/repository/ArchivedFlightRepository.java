@@ -0,0 +1,46 @@
+package pw.ee.lot.domain.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import pw.ee.lot.domain.ArchivedFlight;
+
+import java.util.Collection;
+
+@Repository
+public interface ArchivedFlightRepository extends JpaRepository<ArchivedFlight, Long> {
+
+    Page<ArchivedFlight> findByFlightNumber(String flightNumber, Pageable pageable);
+
+    /**
+     * Copies the flights with their routes into the archive.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+        INSERT INTO archived_flight (id, flight_number, departure_time, available_seats, route, archived_at, cancelled)
+        SELECT f.id, f.flight_number, f.departure_time, f.available_seats,
+               COALESCE('|' || string_agg(c.name, '|' ORDER BY r.route_order) || '|', ''), LOCALTIMESTAMP, :cancelled
+        FROM flight f
+                 LEFT JOIN flight_route r ON r.flight_id = f.id
+                 LEFT JOIN city c ON c.id = r.city_id
+        WHERE f.id IN (:flightIds)
+        GROUP BY f.id
+        """)
+    int archiveFlights(Collection<Long> flightIds, boolean cancelled);
+
+    /**
+     * Copies a snapshot of the passengers booked on the flights into the archived manifests.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+        INSERT INTO archived_flight_passengers (archived_flight_id, passenger_id, first_name, last_name, country_code, phone_number)
+        SELECT fp.flights_id, p.passenger_id, p.first_name, p.last_name, p.country_code, p.phone_number
+        FROM flight_passengers fp
+                 JOIN passenger p ON p.passenger_id = fp.passengers_id
+        WHERE fp.flights_id IN (:flightIds)
+        """)
+    int archiveManifests(Collection<Long> flightIds);
+}
@@ -0,0 +1,22 @@
+package pw.ee.lot.domain.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import pw.ee.lot.domain.City;
+
+import java.util.Optional;
+
+@Repository
+public interface CityRepository extends JpaRepository<City, Short> {
+
+    Optional<City> findByName(String name);
+
+    /**
+     * Adds the city unless a concurrent writer already did.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO city (name) VALUES (:name) ON CONFLICT (name) DO NOTHING")
+    int insertIfAbsent(String name);
+}
@@ -1,13 +1,22 @@
 package pw.ee.lot.domain.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import pw.ee.lot.domain.Flight;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface FlightRepository extends JpaRepository<Flight, Long> {
@@ -15,5 +24,131 @@ public interface FlightRepository extends JpaRepository<Flight, Long> {
 
     Optional<Flight> findByFlightNumber(String flightNumber);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Flight> findWithLockByFlightNumber(String flightNumber);
+
+    List<Flight> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
     Page<Flight> findAll(Specification<Flight> specification, Pageable pageable);
+
+    long count(Specification<Flight> specification);
+
+    @Query("select f.flightNumber from Flight f")
+    Stream<String> streamFlightNumbers();
+
+    long countByDepartureTimeAfterAndAvailableSeatsLessThanEqual(LocalDateTime departureTime, int availableSeats);
+
+    /**
+     * Figures of the flights after the id, in the order of their ids, without loading the entities.
+     */
+    @Query("""
+        select f.id as id, f.departureTime as departureTime, f.availableSeats as availableSeats, size(f.passengers) as bookedSeats
+        from Flight f
+        where f.id > :id
+        order by f.id
+        """)
+    List<FlightFigures> findFiguresByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("""
+        select f.id as id, f.departureTime as departureTime, f.availableSeats as availableSeats, size(f.passengers) as bookedSeats
+        from Flight f
+        where f.id in :ids
+        """)
+    List<FlightFigures> findFiguresByIdIn(Collection<Long> ids);
+
+    /**
+     * Flights departing after the time with ids after the given one, in the order of their ids, without loading the
+     * entities.
+     */
+    @Query("""
+        select f.id as id, f.flightNumber as flightNumber, f.departureTime as departureTime
+        from Flight f
+        where f.departureTime > :departureTime and f.id > :id
+        order by f.id
+        """)
+    List<UpcomingFlight> findUpcomingByIdGreaterThan(LocalDateTime departureTime, Long id, Pageable pageable);
+
+    @Query("""
+        select f.id as id, f.flightNumber as flightNumber, f.departureTime as departureTime
+        from Flight f
+        where f.departureTime > :departureTime and f.id in :ids
+        """)
+    List<UpcomingFlight> findUpcomingByIdIn(LocalDateTime departureTime, Collection<Long> ids);
+
+    /**
+     * Route stops of the flights, each route in its order.
+     */
+    @Query(nativeQuery = true, value = """
+        SELECT r.flight_id AS "flightId", c.name AS city
+        FROM flight_route r
+                 JOIN city c ON c.id = r.city_id
+        WHERE r.flight_id IN (:flightIds)
+        ORDER BY r.flight_id, r.route_order
+        """)
+    List<RouteStop> findRouteStops(Collection<Long> flightIds);
+
+    /**
+     * Locks the earliest flights that departed before the cutoff, skipping the ones locked by a concurrent run.
+     */
+    @Query(nativeQuery = true, value = """
+        SELECT id, flight_number AS "flightNumber"
+        FROM flight
+        WHERE departure_time < :cutoff
+        ORDER BY departure_time
+        LIMIT :limit FOR UPDATE SKIP LOCKED
+        """)
+    List<FlightKey> lockDepartedBefore(LocalDateTime cutoff, int limit);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE flight SET departure_time = departure_time + make_interval(secs => :seconds) WHERE id IN (:flightIds)")
+    int shiftDepartures(Collection<Long> flightIds, long seconds);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM flight_passengers WHERE flights_id IN (:flightIds)")
+    int deleteBookingsOf(Collection<Long> flightIds);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM flight_route WHERE flight_id IN (:flightIds)")
+    int deleteRoutesOf(Collection<Long> flightIds);
+
+    /**
+     * Deletes the flights, which must no longer have bookings or a route.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM flight WHERE id IN (:flightIds)")
+    int deleteFlights(Collection<Long> flightIds);
+
+    interface FlightFigures {
+
+        Long getId();
+
+        LocalDateTime getDepartureTime();
+
+        Integer getAvailableSeats();
+
+        Integer getBookedSeats();
+    }
+
+    interface UpcomingFlight {
+
+        Long getId();
+
+        String getFlightNumber();
+
+        LocalDateTime getDepartureTime();
+    }
+
+    interface RouteStop {
+
+        Long getFlightId();
+
+        String getCity();
+    }
+
+    interface FlightKey {
+
+        Long getId();
+
+        String getFlightNumber();
+    }
 }
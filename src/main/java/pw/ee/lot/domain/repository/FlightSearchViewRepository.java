@@ -0,0 +1,112 @@
+package pw.ee.lot.domain.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import pw.ee.lot.domain.FlightSearchView;
+import pw.ee.lot.dto.flight.FlightSearchCriteria;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FlightSearchViewRepository extends JpaRepository<FlightSearchView, Long> {
+
+    Page<FlightSearchView> findAll(Specification<FlightSearchView> specification, Pageable pageable);
+
+    /**
+     * Flights matching the criteria, which the specification expresses for JPA. Storages that cannot run
+     * specifications match the criteria instead.
+     */
+    default Page<FlightSearchView> search(FlightSearchCriteria criteria, Specification<FlightSearchView> specification, Pageable pageable) {
+        return findAll(specification, pageable);
+    }
+
+    /**
+     * Flights on the encoded route departing within the window with seats left, earliest first.
+     */
+    @Query("""
+        select v from FlightSearchView v
+        where v.route = :route and v.departureTime between :from and :to and v.availableSeats > 0
+        order by v.departureTime, v.flightNumber
+        """)
+    List<FlightSearchView> findAlternatives(String route, LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE flight_search_view SET departure_time = departure_time + make_interval(secs => :seconds) WHERE flight_id IN (:flightIds)")
+    int shiftDepartures(Collection<Long> flightIds, long seconds);
+
+    /**
+     * Brings the row of the flight up to date with the flight, or leaves it out when the flight is gone. Projections
+     * of the same flight are applied one after another, each reading the flight once the previous one has committed,
+     * so the last one to commit is never older than the one before.
+     *
+     * @return the number of rows that had to be changed
+     */
+    default int project(long flightId) {
+        lockProjection(flightId);
+        return upsert(flightId);
+    }
+
+    /**
+     * Rebuilds the rows that are missing or differ from the flights they project, one flight at a time, so a newer
+     * projection committed meanwhile is never overwritten. Rows of deleted flights are removed by the foreign key
+     * already.
+     *
+     * @return the number of rows that had to be corrected
+     */
+    default int reconcile() {
+        return findDrifted().stream().mapToInt(this::project).sum();
+    }
+
+    /**
+     * Holds off other projections of the flight until the current transaction ends.
+     */
+    @Query(nativeQuery = true, value = "SELECT 1 FROM pg_advisory_xact_lock(:flightId)")
+    int lockProjection(long flightId);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+        INSERT INTO flight_search_view (flight_id, flight_number, departure_time, available_seats, route)
+        SELECT f.id, f.flight_number, f.departure_time, f.available_seats,
+               COALESCE('|' || string_agg(c.name, '|' ORDER BY r.route_order) || '|', '')
+        FROM flight f
+                 LEFT JOIN flight_route r ON r.flight_id = f.id
+                 LEFT JOIN city c ON c.id = r.city_id
+        WHERE f.id = :flightId
+        GROUP BY f.id
+        ON CONFLICT (flight_id) DO UPDATE SET flight_number   = EXCLUDED.flight_number,
+                                              departure_time  = EXCLUDED.departure_time,
+                                              available_seats = EXCLUDED.available_seats,
+                                              route           = EXCLUDED.route
+        WHERE (flight_search_view.flight_number, flight_search_view.departure_time,
+               flight_search_view.available_seats, flight_search_view.route)
+                  IS DISTINCT FROM (EXCLUDED.flight_number, EXCLUDED.departure_time,
+                                    EXCLUDED.available_seats, EXCLUDED.route)
+        """)
+    int upsert(long flightId);
+
+    /**
+     * Ids of the flights whose row is missing or differs from the flight.
+     */
+    @Query(nativeQuery = true, value = """
+        WITH projected AS (SELECT f.id, f.flight_number, f.departure_time, f.available_seats,
+                                  COALESCE('|' || string_agg(c.name, '|' ORDER BY r.route_order) || '|', '') AS route
+                           FROM flight f
+                                    LEFT JOIN flight_route r ON r.flight_id = f.id
+                                    LEFT JOIN city c ON c.id = r.city_id
+                           GROUP BY f.id)
+        SELECT p.id
+        FROM projected p
+                 LEFT JOIN flight_search_view v ON v.flight_id = p.id
+        WHERE (v.flight_number, v.departure_time, v.available_seats, v.route)
+                  IS DISTINCT FROM (p.flight_number, p.departure_time, p.available_seats, p.route)
+        ORDER BY p.id
+        """)
+    List<Long> findDrifted();
+}
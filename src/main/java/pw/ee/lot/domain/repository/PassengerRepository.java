@@ -1,14 +1,15 @@
 package pw.ee.lot.domain.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import pw.ee.lot.domain.Passenger;
 
-import java.util.Optional;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface PassengerRepository extends JpaRepository<Passenger, Long> {
+public interface PassengerRepository extends JpaRepository<Passenger, UUID> {
 
-    Optional<Passenger> findByPassengerId(UUID passengerId);
+    List<Passenger> findByPassengerIdGreaterThanOrderByPassengerIdAsc(UUID passengerId, Limit limit);
 }
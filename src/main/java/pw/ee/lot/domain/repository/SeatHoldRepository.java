@@ -0,0 +1,43 @@
+package pw.ee.lot.domain.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import pw.ee.lot.domain.SeatHold;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface SeatHoldRepository extends JpaRepository<SeatHold, UUID> {
+
+    Optional<SeatHold> findByIdAndFlightId(UUID id, Long flightId);
+
+    List<SeatHold> findAllByFlightId(Long flightId);
+
+    @Query("""
+        select h.id as id, f.flightNumber as flightNumber, h.expiresAt as expiresAt
+        from SeatHold h join Flight f on f.id = h.flightId
+        """)
+    List<HoldKey> findAllKeys();
+
+    @Query("""
+        select h.id as id, f.flightNumber as flightNumber, h.expiresAt as expiresAt
+        from SeatHold h join Flight f on f.id = h.flightId
+        where h.expiresAt < :cutoff
+        order by h.expiresAt
+        """)
+    List<HoldKey> findKeysExpiredBefore(LocalDateTime cutoff, Limit limit);
+
+    interface HoldKey {
+
+        UUID getId();
+
+        String getFlightNumber();
+
+        LocalDateTime getExpiresAt();
+    }
+}
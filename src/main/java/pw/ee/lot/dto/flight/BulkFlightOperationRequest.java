@@ -0,0 +1,20 @@
+package pw.ee.lot.dto.flight;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Duration;
+
+/**
+ * @param filter flights the operation applies to, at least one criterion is required
+ * @param shift  how far to move the departures, only used when rescheduling
+ * @param dryRun only count the matching flights
+ */
+public record BulkFlightOperationRequest(
+    @NotNull
+    FlightSearchCriteria filter,
+
+    Duration shift,
+
+    boolean dryRun
+) {
+}
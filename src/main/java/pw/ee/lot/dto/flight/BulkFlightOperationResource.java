@@ -0,0 +1,11 @@
+package pw.ee.lot.dto.flight;
+
+/**
+ * @param flights flights matched on a dry run, flights changed otherwise
+ * @param dryRun  whether the operation only counted the flights
+ */
+public record BulkFlightOperationResource(
+    long flights,
+    boolean dryRun
+) {
+}
@@ -0,0 +1,14 @@
+package pw.ee.lot.dto.flight;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+/**
+ * @param passengerId passenger to book on the held seat
+ */
+public record ConfirmHoldRequest(
+    @NotNull
+    UUID passengerId
+) {
+}
@@ -1,5 +1,6 @@
 package pw.ee.lot.dto.flight;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -21,6 +22,13 @@ public record CreateFlightRequest(
     Integer availableSeats,
 
     @NotEmpty
-    List<String> route
+    List<String> route,
+
+    @Valid
+    SeatMapRequest seatMap
 ) {
+
+    public CreateFlightRequest(String flightNumber, LocalDateTime departureTime, Integer availableSeats, List<String> route) {
+        this(flightNumber, departureTime, availableSeats, route, null);
+    }
 }
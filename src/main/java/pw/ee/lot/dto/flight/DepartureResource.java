@@ -0,0 +1,11 @@
+package pw.ee.lot.dto.flight;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record DepartureResource(
+    String flightNumber,
+    LocalDateTime departureTime,
+    List<String> route
+) {
+}
@@ -0,0 +1,21 @@
+package pw.ee.lot.dto.flight;
+
+import java.util.Map;
+
+/**
+ * @param flights         flights departing within the window
+ * @param seats           their capacity, available and booked seats together
+ * @param bookedSeats     their seats taken by bookings
+ * @param loadFactor      booked seats per seat, 0 without any seats
+ * @param bookingsPerCity booked seats of the flights stopping at each city, most booked first
+ * @param departures      departures by day of the week, Monday first, and hour of the day
+ */
+public record FlightAnalyticsResource(
+    long flights,
+    long seats,
+    long bookedSeats,
+    double loadFactor,
+    Map<String, Long> bookingsPerCity,
+    long[][] departures
+) {
+}
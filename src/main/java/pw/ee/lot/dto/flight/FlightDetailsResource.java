@@ -5,7 +5,9 @@ import pw.ee.lot.dto.passenger.PassengerResource;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 @Builder
 public record FlightDetailsResource(
@@ -13,6 +15,7 @@ public record FlightDetailsResource(
     LocalDateTime departureTime,
     Integer availableSeats,
     List<String> route,
-    Set<PassengerResource> passengers
+    Set<PassengerResource> passengers,
+    Map<UUID, String> seats
 ) {
 }
@@ -0,0 +1,16 @@
+package pw.ee.lot.dto.flight;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * @param passengerIds passengers to seat next to each other
+ */
+public record GroupBookingRequest(
+    @NotEmpty
+    List<@NotNull UUID> passengerIds
+) {
+}
@@ -0,0 +1,12 @@
+package pw.ee.lot.dto.flight;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * @param seats seat assigned to each passenger, empty for flights without a seat map
+ */
+public record GroupBookingResource(
+    Map<UUID, String> seats
+) {
+}
@@ -0,0 +1,13 @@
+package pw.ee.lot.dto.flight;
+
+import java.time.Duration;
+
+/**
+ * @param seat seat to hold, e.g. 12C, or {@code null} for any free seat
+ * @param ttl  how long to hold the seat, or {@code null} for the default
+ */
+public record HoldSeatRequest(
+    String seat,
+    Duration ttl
+) {
+}
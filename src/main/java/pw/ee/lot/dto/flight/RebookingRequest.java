@@ -0,0 +1,12 @@
+package pw.ee.lot.dto.flight;
+
+import java.time.Duration;
+
+/**
+ * @param window how long after the cancelled departure alternative flights may depart, or {@code null} for the
+ *               default
+ */
+public record RebookingRequest(
+    Duration window
+) {
+}
@@ -0,0 +1,20 @@
+package pw.ee.lot.dto.flight;
+
+import lombok.Builder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * @param flightNumber the cancelled flight
+ * @param rebooked     the alternative flight number of every passenger placed on one
+ * @param unplaced     passengers no alternative flight had a seat for
+ */
+@Builder
+public record RebookingResource(
+    String flightNumber,
+    Map<UUID, String> rebooked,
+    List<UUID> unplaced
+) {
+}
@@ -0,0 +1,15 @@
+package pw.ee.lot.dto.flight;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Builder
+public record SeatHoldResource(
+    UUID holdId,
+    String flightNumber,
+    String seat,
+    LocalDateTime expiresAt
+) {
+}
@@ -0,0 +1,26 @@
+package pw.ee.lot.dto.flight;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * @param rows        number of seat rows
+ * @param layout      seat letters of a row with aisles as {@code -}, e.g. {@code ABC-DEF}
+ * @param premiumRows rows from the front in the premium cabin
+ */
+public record SeatMapRequest(
+    @NotNull
+    @Positive
+    @Max(999)
+    Integer rows,
+
+    @NotBlank
+    String layout,
+
+    @PositiveOrZero
+    int premiumRows
+) {
+}
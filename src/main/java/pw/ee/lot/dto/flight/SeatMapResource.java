@@ -0,0 +1,15 @@
+package pw.ee.lot.dto.flight;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record SeatMapResource(
+    Integer rows,
+    String layout,
+    Integer premiumRows,
+    int freeSeats,
+    List<SeatResource> seats
+) {
+}
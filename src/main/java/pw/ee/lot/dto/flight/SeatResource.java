@@ -0,0 +1,8 @@
+package pw.ee.lot.dto.flight;
+
+public record SeatResource(
+    String seat,
+    String cabin,
+    boolean taken
+) {
+}
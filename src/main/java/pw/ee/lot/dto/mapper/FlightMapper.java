@@ -2,12 +2,24 @@ package pw.ee.lot.dto.mapper;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import pw.ee.lot.domain.ArchivedFlight;
 import pw.ee.lot.domain.Flight;
+import pw.ee.lot.domain.FlightSearchView;
+import pw.ee.lot.domain.SeatMap;
+import pw.ee.lot.dto.flight.ArchivedFlightResource;
 import pw.ee.lot.dto.flight.CreateFlightRequest;
 import pw.ee.lot.dto.flight.FlightDetailsResource;
 import pw.ee.lot.dto.flight.FlightResource;
+import pw.ee.lot.dto.flight.SeatMapResource;
+import pw.ee.lot.dto.flight.SeatResource;
+import pw.ee.lot.dto.passenger.PassengerResource;
+import pw.ee.lot.shared.profiling.MappingEvent;
 
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Component
 @RequiredArgsConstructor
@@ -21,30 +33,113 @@ public class FlightMapper {
             .departureTime(request.departureTime())
             .availableSeats(request.availableSeats())
             .route(request.route())
+            .seatMap(request.seatMap() == null ? null
+                : SeatMap.of(request.seatMap().rows(), request.seatMap().layout(), request.seatMap().premiumRows()))
             .build();
     }
 
     public FlightResource mapFlightToFlightResource(Flight flight) {
-        return FlightResource.builder()
+        final var event = new MappingEvent("FlightResource");
+        event.begin();
+
+        final var resource = FlightResource.builder()
             .flightNumber(flight.getFlightNumber())
             .departureTime(flight.getDepartureTime())
             .availableSeats(flight.getAvailableSeats())
             .route(flight.getRoute())
             .build();
+
+        event.key = resource.flightNumber();
+        event.commit();
+        return resource;
+    }
+
+    public FlightResource mapFlightSearchViewToFlightResource(FlightSearchView view) {
+        final var event = new MappingEvent("FlightResource");
+        event.begin();
+
+        final var resource = FlightResource.builder()
+            .flightNumber(view.getFlightNumber())
+            .departureTime(view.getDepartureTime())
+            .availableSeats(view.getAvailableSeats())
+            .route(FlightSearchView.decodeRoute(view.getRoute()))
+            .build();
+
+        event.key = resource.flightNumber();
+        event.commit();
+        return resource;
     }
 
     public FlightDetailsResource mapFlightToFlightDetailsResource(Flight flight) {
-        return FlightDetailsResource.builder()
+        final var event = new MappingEvent("FlightDetailsResource");
+        event.begin();
+
+        // Details may outlive the persistence context in the flight details cache, so the lazy route is copied
+        final var resource = FlightDetailsResource.builder()
             .flightNumber(flight.getFlightNumber())
             .departureTime(flight.getDepartureTime())
             .availableSeats(flight.getAvailableSeats())
-            .route(flight.getRoute())
+            .route(List.copyOf(flight.getRoute()))
             .passengers(
                 flight.getPassengers()
                     .stream()
                     .map(passengerMapper::mapPassengerToPassengerResource)
                     .collect(Collectors.toSet())
             )
+            .seats(mapSeatAssignments(flight))
+            .build();
+
+        event.key = resource.flightNumber();
+        event.associations = resource.passengers().size();
+        event.commit();
+        return resource;
+    }
+
+    public Map<UUID, String> mapSeatAssignments(Flight flight) {
+        final var seatMap = flight.getSeatMap();
+        if (seatMap == null) {
+            return Map.of();
+        }
+
+        return flight.getSeatAssignments().entrySet()
+            .stream()
+            .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, assignment -> seatMap.labelOf(assignment.getValue())));
+    }
+
+    public SeatMapResource mapSeatMapToSeatMapResource(SeatMap seatMap) {
+        return SeatMapResource.builder()
+            .rows(seatMap.getSeatRows())
+            .layout(seatMap.getSeatLayout())
+            .premiumRows(seatMap.getPremiumRows())
+            .freeSeats(seatMap.freeSeats())
+            .seats(
+                IntStream.range(0, seatMap.capacity())
+                    .mapToObj(seat -> new SeatResource(seatMap.labelOf(seat), seatMap.cabinOf(seat), seatMap.isTaken(seat)))
+                    .toList()
+            )
+            .build();
+    }
+
+    public ArchivedFlightResource mapArchivedFlightToArchivedFlightResource(ArchivedFlight flight) {
+        return ArchivedFlightResource.builder()
+            .flightNumber(flight.getFlightNumber())
+            .departureTime(flight.getDepartureTime())
+            .availableSeats(flight.getAvailableSeats())
+            .route(FlightSearchView.decodeRoute(flight.getRoute()))
+            .passengers(
+                flight.getPassengers()
+                    .stream()
+                    .map(passenger -> PassengerResource.builder()
+                        .passengerId(passenger.getPassengerId())
+                        .firstName(passenger.getFirstName())
+                        .lastName(passenger.getLastName())
+                        .countryCode(passenger.getCountryCode())
+                        .phoneNumber(passenger.getPhoneNumber())
+                        .build())
+                    .collect(Collectors.toSet())
+            )
+            .archivedAt(flight.getArchivedAt())
+            .cancelled(flight.getCancelled())
             .build();
     }
 }
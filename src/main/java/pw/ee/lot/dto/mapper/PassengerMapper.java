@@ -8,8 +8,9 @@ import pw.ee.lot.domain.PhoneNumber;
 import pw.ee.lot.dto.passenger.CreatePassengerRequest;
 import pw.ee.lot.dto.passenger.PassengerDetailsResource;
 import pw.ee.lot.dto.passenger.PassengerResource;
+import pw.ee.lot.shared.id.UuidV7;
+import pw.ee.lot.shared.profiling.MappingEvent;
 
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
@@ -24,7 +25,10 @@ public class PassengerMapper {
 
 
     public PassengerDetailsResource mapPassengerToPassengerDetailsResource(Passenger passenger) {
-        return PassengerDetailsResource.builder()
+        final var event = new MappingEvent("PassengerDetailsResource");
+        event.begin();
+
+        final var resource = PassengerDetailsResource.builder()
             .passengerId(passenger.getPassengerId())
             .firstName(passenger.getFirstName())
             .lastName(passenger.getLastName())
@@ -37,6 +41,11 @@ public class PassengerMapper {
                     .collect(Collectors.toSet())
             )
             .build();
+
+        event.key = String.valueOf(resource.passengerId());
+        event.associations = resource.flights().size();
+        event.commit();
+        return resource;
     }
 
     public PassengerResource mapPassengerToPassengerResource(Passenger passenger) {
@@ -51,7 +60,7 @@ public class PassengerMapper {
 
     public Passenger mapCreatePassengerRequestToPassenger(CreatePassengerRequest request) {
         return Passenger.builder()
-            .passengerId(UUID.randomUUID())
+            .passengerId(UuidV7.generate())
             .firstName(request.firstName())
             .lastName(request.lastName())
             .phoneNumber(
@@ -0,0 +1,10 @@
+package pw.ee.lot.service;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import pw.ee.lot.dto.flight.ArchivedFlightResource;
+
+public interface ArchivedFlightUseCases {
+
+    Page<ArchivedFlightResource> getArchivedFlights(String flightNumber, Pageable pageable);
+}
@@ -0,0 +1,10 @@
+package pw.ee.lot.service;
+
+import pw.ee.lot.dto.flight.DepartureResource;
+
+import java.util.List;
+
+public interface DeparturesBoardUseCases {
+
+    List<DepartureResource> getDepartures(String city, int limit);
+}
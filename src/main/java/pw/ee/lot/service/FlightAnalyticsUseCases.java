@@ -0,0 +1,10 @@
+package pw.ee.lot.service;
+
+import pw.ee.lot.dto.flight.FlightAnalyticsResource;
+
+import java.time.LocalDateTime;
+
+public interface FlightAnalyticsUseCases {
+
+    FlightAnalyticsResource getFlightAnalytics(LocalDateTime departureFrom, LocalDateTime departureTo);
+}
@@ -5,6 +5,8 @@ import org.springframework.data.domain.Pageable;
 import pw.ee.lot.domain.Flight;
 import pw.ee.lot.dto.flight.*;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
 
 public interface FlightUseCases {
@@ -21,7 +23,27 @@ public interface FlightUseCases {
 
     void addPassengerToFlight(String flightNumber, UUID passengerId);
 
+    void addPassengerToFlight(String flightNumber, UUID passengerId, String seat);
+
+    GroupBookingResource addGroupToFlight(String flightNumber, List<UUID> passengerIds);
+
+    SeatMapResource getSeatMap(String flightNumber);
+
     void removePassengerFromFlight(String flightNumber, UUID passengerId);
 
+    SeatHoldResource holdSeat(String flightNumber, String seat, Duration ttl);
+
+    void confirmHold(String flightNumber, UUID holdId, UUID passengerId);
+
+    void releaseHold(String flightNumber, UUID holdId);
+
     Page<FlightResource> searchFlights(Pageable pageable, FlightSearchCriteria criteria);
+
+    RebookingResource cancelFlight(String flightNumber, Duration window);
+
+    BulkFlightOperationResource rescheduleFlights(FlightSearchCriteria filter, Duration shift, boolean dryRun);
+
+    BulkFlightOperationResource cancelFlights(FlightSearchCriteria filter, boolean dryRun);
+
+    BulkFlightOperationResource deleteFlights(FlightSearchCriteria filter, boolean dryRun);
 }
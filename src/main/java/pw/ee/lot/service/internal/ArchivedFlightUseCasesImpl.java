@@ -0,0 +1,68 @@
+package pw.ee.lot.service.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.repository.ArchivedFlightRepository;
+import pw.ee.lot.dto.flight.ArchivedFlightResource;
+import pw.ee.lot.dto.mapper.FlightMapper;
+import pw.ee.lot.service.ArchivedFlightUseCases;
+import pw.ee.lot.shared.sharding.ShardRegistry;
+
+import java.util.Comparator;
+
+/**
+ * Read path of the flight archive, kept apart from the live flights so that their queries never touch it.
+ */
+@Service
+@RequiredArgsConstructor
+class ArchivedFlightUseCasesImpl implements ArchivedFlightUseCases {
+
+    private static final Sort LATEST_FIRST = Sort.by(Sort.Direction.DESC, "departureTime");
+
+    private final ArchivedFlightRepository archivedFlightRepository;
+    private final FlightMapper flightMapper;
+    private final ObjectProvider<ShardRegistry> shardRegistry;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Retrieve the archived departures of a flight number, latest first. With sharding enabled the archive of every
+     * shard is read, as a flight number may have been archived on a shard that no longer owns it.
+     *
+     * @param flightNumber the flight number
+     * @param pageable     the page request, its sort is ignored
+     * @return a page of archived flights with their manifests
+     */
+    @Override
+    public Page<ArchivedFlightResource> getArchivedFlights(String flightNumber, Pageable pageable) {
+        final var shards = shardRegistry.getIfAvailable();
+        if (shards == null) {
+            return findArchivedFlights(flightNumber, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), LATEST_FIRST));
+        }
+
+        final var shardPageable = PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), LATEST_FIRST);
+        final var pages = shards.scatter(shard -> findArchivedFlights(flightNumber, shardPageable)).values();
+        final var content = pages.stream()
+            .flatMap(Page::stream)
+            .sorted(Comparator.comparing(ArchivedFlightResource::departureTime).reversed())
+            .skip(pageable.getOffset())
+            .limit(pageable.getPageSize())
+            .toList();
+
+        return new PageImpl<>(content, pageable, pages.stream().mapToLong(Page::getTotalElements).sum());
+    }
+
+    private Page<ArchivedFlightResource> findArchivedFlights(String flightNumber, Pageable pageable) {
+        final var transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> archivedFlightRepository.findByFlightNumber(flightNumber, pageable)
+            .map(flightMapper::mapArchivedFlightToArchivedFlightResource));
+    }
+}
@@ -0,0 +1,187 @@
+package pw.ee.lot.service.internal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Group commit of bookings: concurrent bookings on the same flight are applied in one transaction, so the flight is
+ * loaded, locked and updated once per batch instead of once per passenger.
+ * <p>
+ * The first booking on a flight opens a batch and waits up to {@code lot.booking-combiner.window} for others to
+ * join it, then applies the whole batch in its own thread, which keeps the caller's shard. Every other caller waits
+ * for the outcome of its own booking: a booking rejected within the batch fails only its caller, while a failure of
+ * the batch transaction fails all of them. Callers are released as soon as the batch commits, before the listeners
+ * of the committed changes run on the leader, and give up after {@code lot.booking-combiner.timeout}. Bookings made
+ * inside a running transaction are not coalesced, as they have to commit or roll back with it.
+ */
+@Component
+class BookingCombiner {
+
+    private final BookingCombinerProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final DistributionSummary batchSizes;
+    private final ConcurrentHashMap<String, Batch> open = new ConcurrentHashMap<>();
+
+    BookingCombiner(BookingCombinerProperties properties, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSizes = DistributionSummary.builder("lot.bookings.batch-size")
+            .description("Bookings applied in one transaction")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Books the passenger on the flight together with any concurrent bookings on it.
+     *
+     * @param apply applies a batch of bookings on the flight within a transaction, rejecting those that cannot be
+     *              made; throwing fails the whole batch
+     */
+    void book(String flightNumber, UUID passengerId, String seat, Consumer<List<Booking>> apply) {
+        final var booking = new Booking(passengerId, seat);
+        if (!properties.enabled() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            transactionTemplate.executeWithoutResult(status -> apply.accept(List.of(booking)));
+            booking.complete();
+            booking.await(properties.timeout());
+            return;
+        }
+
+        final var leader = new Batch();
+        final var batch = open.compute(flightNumber, (key, current) -> {
+            final var joined = current == null ? leader : current;
+            joined.bookings.add(booking);
+            if (joined.bookings.size() >= properties.maxBatch()) {
+                joined.full.countDown();
+            }
+            return joined;
+        });
+
+        if (batch == leader) {
+            apply(flightNumber, leader, apply);
+        }
+        booking.await(properties.timeout());
+    }
+
+    private void apply(String flightNumber, Batch batch, Consumer<List<Booking>> apply) {
+        try {
+            batch.full.await(properties.window().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        open.remove(flightNumber, batch);
+
+        // no booking joins once the batch is removed, and removing it synchronizes with every join
+        final var bookings = List.copyOf(batch.bookings);
+        batchSizes.record(bookings.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                TransactionSynchronizationManager.registerSynchronization(new Completion(bookings));
+                apply.accept(bookings);
+            });
+        } catch (Throwable e) {
+            // completing an already completed booking is a no-op, so a listener failing after commit fails no one
+            bookings.forEach(booking -> booking.result.completeExceptionally(e));
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * Completes the bookings of a batch once it commits, ahead of the listeners of the changes it made.
+     */
+    private record Completion(List<Booking> bookings) implements TransactionSynchronization {
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void afterCommit() {
+            bookings.forEach(Booking::complete);
+        }
+    }
+
+    private static final class Batch {
+
+        private final List<Booking> bookings = new ArrayList<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+    }
+
+    /**
+     * A passenger to book on a flight, in the given seat or any free one if {@code seat} is {@code null}.
+     */
+    static final class Booking {
+
+        private final UUID passengerId;
+        private final String seat;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private RuntimeException rejection;
+
+        private Booking(UUID passengerId, String seat) {
+            this.passengerId = passengerId;
+            this.seat = seat;
+        }
+
+        UUID passengerId() {
+            return passengerId;
+        }
+
+        String seat() {
+            return seat;
+        }
+
+        /**
+         * Fails this booking only, once the batch it belongs to is committed.
+         */
+        void reject(RuntimeException rejection) {
+            this.rejection = rejection;
+        }
+
+        private void complete() {
+            if (rejection != null) {
+                result.completeExceptionally(rejection);
+            } else {
+                result.complete(null);
+            }
+        }
+
+        private void await(Duration timeout) {
+            try {
+                result.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw new CompletionException(e.getCause());
+            } catch (TimeoutException e) {
+                throw new IllegalStateException("Booking of passenger " + passengerId + " not applied within " + timeout, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while booking passenger " + passengerId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package pw.ee.lot.service.internal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Coalescing of concurrent bookings on the same flight.
+ *
+ * @param enabled  whether concurrent bookings share a transaction, else every booking runs on its own
+ * @param window   how long the first booking of a batch waits for others to join it
+ * @param maxBatch bookings after which a batch is applied without waiting out the window
+ * @param timeout  how long a booking waits for the batch it joined to be applied before failing its caller
+ */
+@ConfigurationProperties("lot.booking-combiner")
+public record BookingCombinerProperties(
+    @DefaultValue("true")
+    boolean enabled,
+
+    @DefaultValue("2ms")
+    Duration window,
+
+    @DefaultValue("200")
+    int maxBatch,
+
+    @DefaultValue("30s")
+    Duration timeout
+) {
+}
@@ -0,0 +1,203 @@
+package pw.ee.lot.service.internal;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.Flight;
+import pw.ee.lot.domain.repository.ArchivedFlightRepository;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.FlightSearchViewRepository;
+import pw.ee.lot.dto.flight.FlightSearchCriteria;
+import pw.ee.lot.shared.FeatureDisabledException;
+import pw.ee.lot.shared.bloom.FlightNumberFilter;
+import pw.ee.lot.shared.cache.CacheNames;
+import pw.ee.lot.shared.collapsing.FlightReadCollapser;
+import pw.ee.lot.shared.dictionary.CityDictionary;
+import pw.ee.lot.shared.journal.BookingJournal;
+import pw.ee.lot.shared.readmodel.FlightsChangedEvent;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Applies a change to every flight matching a filter with a handful of set-based statements per chunk of
+ * {@code lot.bulk.chunk-size} flights, each chunk in its own transaction. Chunks are taken in id order, so a flight
+ * whose change makes it match the filter again is not picked twice. Every chunk publishes a {@link FlightsChangedEvent}
+ * for the read models held in memory.
+ */
+@Slf4j
+@Component
+class BulkFlightOperations {
+
+    private final FlightRepository flightRepository;
+    private final FlightSearchViewRepository flightSearchViewRepository;
+    private final ArchivedFlightRepository archivedFlightRepository;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
+    private final FlightNumberFilter flightNumberFilter;
+    private final FlightReadCollapser flightReadCollapser;
+    private final CityDictionary cityDictionary;
+    private final BookingJournal bookingJournal;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int chunkSize;
+
+    BulkFlightOperations(FlightRepository flightRepository, FlightSearchViewRepository flightSearchViewRepository,
+                         ArchivedFlightRepository archivedFlightRepository, EntityManager entityManager, CacheManager cacheManager,
+                         FlightNumberFilter flightNumberFilter, FlightReadCollapser flightReadCollapser, CityDictionary cityDictionary, BookingJournal bookingJournal,
+                         ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager, BulkOperationProperties properties) {
+        this.flightRepository = flightRepository;
+        this.flightSearchViewRepository = flightSearchViewRepository;
+        this.archivedFlightRepository = archivedFlightRepository;
+        this.entityManager = entityManager;
+        this.cacheManager = cacheManager;
+        this.flightNumberFilter = flightNumberFilter;
+        this.flightReadCollapser = flightReadCollapser;
+        this.cityDictionary = cityDictionary;
+        this.bookingJournal = bookingJournal;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = properties.enabled();
+        this.chunkSize = properties.chunkSize();
+    }
+
+    /**
+     * @throws FeatureDisabledException if bulk operations are disabled
+     */
+    void requireEnabled() {
+        if (!enabled) {
+            log.error("Cannot run a bulk operation as they are disabled");
+            throw new FeatureDisabledException("Bulk operations are disabled");
+        }
+    }
+
+    long count(FlightSearchCriteria filter) {
+        if (!cityKnown(filter)) {
+            return 0;
+        }
+        return flightRepository.count(FlightSpecifications.flights(filter));
+    }
+
+    /**
+     * Moves the departures, shifting the search read model in the same transaction.
+     */
+    long reschedule(FlightSearchCriteria filter, long seconds) {
+        return forEachChunk(filter, (flightIds, flightNumbers) -> {
+            flightRepository.shiftDepartures(flightIds, seconds);
+            flightSearchViewRepository.shiftDepartures(flightIds, seconds);
+        });
+    }
+
+    /**
+     * Moves the flights with their manifests into the archive, where they stay readable as cancelled flights.
+     */
+    long cancel(FlightSearchCriteria filter) {
+        final var cancelled = forEachChunk(filter, (flightIds, flightNumbers) -> {
+            archivedFlightRepository.archiveFlights(flightIds, true);
+            archivedFlightRepository.archiveManifests(flightIds);
+            delete(flightIds);
+            flightNumbers.forEach(bookingJournal::flightDeleted);
+        });
+        flightNumberFilter.removed(cancelled);
+        return cancelled;
+    }
+
+    /**
+     * Cancels a single flight like {@link #cancel(FlightSearchCriteria)}, within the caller's transaction.
+     */
+    void cancel(Long flightId, String flightNumber) {
+        final var flightIds = List.of(flightId);
+        archivedFlightRepository.archiveFlights(flightIds, true);
+        archivedFlightRepository.archiveManifests(flightIds);
+        delete(flightIds);
+        flightNumberFilter.removed(1);
+        bookingJournal.flightDeleted(flightNumber);
+        eventPublisher.publishEvent(new FlightsChangedEvent(flightIds));
+
+        final var cache = cacheManager.getCache(CacheNames.FLIGHT_DETAILS);
+        if (cache != null) {
+            cache.evict(flightNumber);
+        }
+    }
+
+    long delete(FlightSearchCriteria filter) {
+        final var deleted = forEachChunk(filter, (flightIds, flightNumbers) -> {
+            delete(flightIds);
+            flightNumbers.forEach(bookingJournal::flightDeleted);
+        });
+        flightNumberFilter.removed(deleted);
+        return deleted;
+    }
+
+    private void delete(List<Long> flightIds) {
+        flightRepository.deleteBookingsOf(flightIds);
+        flightRepository.deleteRoutesOf(flightIds);
+        flightRepository.deleteFlights(flightIds);
+    }
+
+    private long forEachChunk(FlightSearchCriteria filter, BiConsumer<List<Long>, List<String>> change) {
+        if (!cityKnown(filter)) {
+            return 0;
+        }
+
+        final var cache = cacheManager.getCache(CacheNames.FLIGHT_DETAILS);
+        var lastId = 0L;
+        var total = 0L;
+        List<Tuple> chunk;
+        do {
+            final var after = lastId;
+            chunk = transactionTemplate.execute(status -> {
+                final var flights = findChunk(filter, after);
+                if (!flights.isEmpty()) {
+                    final var flightIds = flights.stream().map(flight -> flight.get(0, Long.class)).toList();
+                    final var flightNumbers = flights.stream().map(flight -> flight.get(1, String.class)).toList();
+                    change.accept(flightIds, flightNumbers);
+                    eventPublisher.publishEvent(new FlightsChangedEvent(flightIds));
+                    if (cache != null) {
+                        flightNumbers.forEach(cache::evict);
+                    }
+                }
+                return flights;
+            });
+
+            if (!chunk.isEmpty()) {
+                flightReadCollapser.invalidate();
+                lastId = chunk.get(chunk.size() - 1).get(0, Long.class);
+                total += chunk.size();
+                log.debug("Bulk operation changed {} flights up to id {}", total, lastId);
+            }
+        } while (chunk.size() == chunkSize);
+
+        return total;
+    }
+
+    /**
+     * Whether a flight can stop at the city of the filter, loading the city if another instance added it, as the
+     * filter is matched against the city ids.
+     */
+    private boolean cityKnown(FlightSearchCriteria filter) {
+        return filter.city() == null || cityDictionary.find(filter.city()).isPresent();
+    }
+
+    private List<Tuple> findChunk(FlightSearchCriteria filter, long afterId) {
+        final var criteriaBuilder = entityManager.getCriteriaBuilder();
+        final var query = criteriaBuilder.createTupleQuery();
+        final var root = query.from(Flight.class);
+        final var matches = FlightSpecifications.flights(filter).toPredicate(root, query, criteriaBuilder);
+        final var afterLastChunk = criteriaBuilder.greaterThan(root.<Long>get("id"), afterId);
+
+        query.multiselect(root.get("id"), root.get("flightNumber"))
+            .where(matches == null ? afterLastChunk : criteriaBuilder.and(matches, afterLastChunk))
+            .orderBy(criteriaBuilder.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+            .setMaxResults(chunkSize)
+            .getResultList();
+    }
+}
@@ -0,0 +1,20 @@
+package pw.ee.lot.service.internal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Bulk flight operations.
+ *
+ * @param enabled   run bulk operations, which need the native statements of the JPA storage
+ * @param chunkSize flights changed per transaction
+ */
+@ConfigurationProperties("lot.bulk")
+public record BulkOperationProperties(
+    @DefaultValue("true")
+    boolean enabled,
+
+    @DefaultValue("1000")
+    int chunkSize
+) {
+}
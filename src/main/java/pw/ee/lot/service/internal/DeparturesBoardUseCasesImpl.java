@@ -0,0 +1,42 @@
+package pw.ee.lot.service.internal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pw.ee.lot.dto.flight.DepartureResource;
+import pw.ee.lot.service.DeparturesBoardUseCases;
+import pw.ee.lot.shared.board.DeparturesBoard;
+import pw.ee.lot.shared.board.DeparturesBoardProperties;
+
+import java.util.List;
+
+/**
+ * Departures boards of the cities, answered from the time-ordered index kept by {@link DeparturesBoard} instead of
+ * searching the flights on every refresh of a display.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+class DeparturesBoardUseCasesImpl implements DeparturesBoardUseCases {
+
+    private final DeparturesBoard departuresBoard;
+    private final DeparturesBoardProperties properties;
+
+    /**
+     * Retrieve the next departures of a city, earliest first.
+     *
+     * @param city  the city, any stop of the route
+     * @param limit how many departures to return
+     * @return the upcoming flights stopping at the city, empty for an unknown city
+     * @throws IllegalArgumentException if the limit is not between 1 and {@code lot.departures-board.max-departures}
+     */
+    @Override
+    public List<DepartureResource> getDepartures(String city, int limit) {
+        if (limit < 1 || limit > properties.maxDepartures()) {
+            log.error("Cannot return {} departures of {}", limit, city);
+            throw new IllegalArgumentException("Limit must be between 1 and " + properties.maxDepartures());
+        }
+
+        return departuresBoard.next(city, limit);
+    }
+}
@@ -0,0 +1,40 @@
+package pw.ee.lot.service.internal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pw.ee.lot.dto.flight.FlightAnalyticsResource;
+import pw.ee.lot.service.FlightAnalyticsUseCases;
+import pw.ee.lot.shared.analytics.FlightAnalytics;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flight reports, answered from the columnar copy of the flights kept by {@link FlightAnalytics}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+class FlightAnalyticsUseCasesImpl implements FlightAnalyticsUseCases {
+
+    private final FlightAnalytics flightAnalytics;
+
+    /**
+     * Load factor, bookings per city and departures by day of the week and hour of the flights departing within
+     * the window.
+     *
+     * @param departureFrom start of the window, included, or {@code null} for no start
+     * @param departureTo   end of the window, included, or {@code null} for no end
+     * @return the report over the flights in the window
+     * @throws IllegalArgumentException if the window ends before it starts
+     */
+    @Override
+    public FlightAnalyticsResource getFlightAnalytics(LocalDateTime departureFrom, LocalDateTime departureTo) {
+        if (departureFrom != null && departureTo != null && departureTo.isBefore(departureFrom)) {
+            log.error("Analytics window {} to {} ends before it starts", departureFrom, departureTo);
+            throw new IllegalArgumentException("Departure window ends before it starts");
+        }
+
+        return flightAnalytics.report(departureFrom, departureTo);
+    }
+}
@@ -0,0 +1,72 @@
+package pw.ee.lot.service.internal;
+
+import org.springframework.data.jpa.domain.Specification;
+import pw.ee.lot.domain.Flight;
+import pw.ee.lot.domain.FlightSearchView;
+import pw.ee.lot.dto.flight.FlightSearchCriteria;
+
+/**
+ * Translates {@link FlightSearchCriteria} into specifications, over the search read model for searches and over
+ * the flights themselves for bulk operations, which must not act on a stale read model.
+ */
+final class FlightSpecifications {
+
+    private FlightSpecifications() {
+    }
+
+    static Specification<FlightSearchView> searchView(FlightSearchCriteria criteria) {
+        Specification<FlightSearchView> spec = common(criteria);
+
+        if (criteria.city() != null) {
+            spec = spec.and(((root, query, criteriaBuilder) -> criteriaBuilder.like(root.get("route"), FlightSearchView.routeStopPattern(criteria.city()), '\\')));
+        }
+
+        return spec;
+    }
+
+    static Specification<Flight> flights(FlightSearchCriteria criteria) {
+        Specification<Flight> spec = common(criteria);
+
+        if (criteria.city() != null) {
+            // Not correlated with the outer flight, so the planner can drive a semi-join from the city index
+            spec = spec.and(((root, query, criteriaBuilder) -> {
+                final var stopping = query.subquery(Long.class);
+                final var flight = stopping.from(Flight.class);
+                stopping.select(flight.get("id")).where(criteriaBuilder.equal(flight.join("route"), criteria.city()));
+                return root.get("id").in(stopping);
+            }));
+        }
+
+        return spec;
+    }
+
+    static boolean isEmpty(FlightSearchCriteria criteria) {
+        return criteria.flightNumber() == null
+            && criteria.departureTimeFrom() == null
+            && criteria.departureTimeTo() == null
+            && criteria.availableSeatsFrom() == null
+            && criteria.city() == null;
+    }
+
+    private static <T> Specification<T> common(FlightSearchCriteria criteria) {
+        Specification<T> spec = Specification.where(null);
+
+        if (criteria.flightNumber() != null) {
+            spec = spec.and(((root, query, criteriaBuilder) -> criteriaBuilder.like(root.get("flightNumber"), criteria.flightNumber() + "%")));
+        }
+
+        if (criteria.departureTimeFrom() != null) {
+            spec = spec.and(((root, query, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(root.get("departureTime"), criteria.departureTimeFrom())));
+        }
+
+        if (criteria.departureTimeTo() != null) {
+            spec = spec.and(((root, query, criteriaBuilder) -> criteriaBuilder.lessThanOrEqualTo(root.get("departureTime"), criteria.departureTimeTo())));
+        }
+
+        if (criteria.availableSeatsFrom() != null) {
+            spec = spec.and(((root, query, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(root.get("availableSeats"), criteria.availableSeatsFrom())));
+        }
+
+        return spec;
+    }
+}
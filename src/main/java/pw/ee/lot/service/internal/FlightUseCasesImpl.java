@@ -2,24 +2,50 @@ package pw.ee.lot.service.internal;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pw.ee.lot.domain.Flight;
+import pw.ee.lot.domain.FlightSearchView;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.SeatHold;
 import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.FlightSearchViewRepository;
 import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.domain.repository.SeatHoldRepository;
 import pw.ee.lot.dto.flight.*;
 import pw.ee.lot.dto.mapper.FlightMapper;
 import pw.ee.lot.service.FlightUseCases;
-
+import pw.ee.lot.shared.FeatureDisabledException;
+import pw.ee.lot.shared.bloom.FlightNumberFilter;
+import pw.ee.lot.shared.cache.CacheNames;
+import pw.ee.lot.shared.dictionary.CityDictionary;
+import pw.ee.lot.shared.journal.BookingJournal;
+import pw.ee.lot.shared.profiling.FlightSearchEvent;
+import pw.ee.lot.shared.profiling.SeatClaimEvent;
+import pw.ee.lot.shared.readmodel.FlightChangedEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.UUID;
 
 /**
  * Implementation of the {@link FlightUseCases} interface providing operations related to flights.
  * This service class handles the business logic for creating, updating, deleting, and retrieving flights.
+ * Listings and searches are served by the {@link FlightSearchView} read model, which every change keeps in sync
+ * through a {@link FlightChangedEvent}. New flight numbers skip the uniqueness query when the
+ * {@link FlightNumberFilter} has never seen them. Concurrent bookings on the same flight share a transaction through
+ * the {@link BookingCombiner}.
  */
 @Service
 @Slf4j
@@ -27,8 +53,18 @@ import java.util.UUID;
 class FlightUseCasesImpl implements FlightUseCases {
 
     private final FlightRepository flightRepository;
+    private final FlightSearchViewRepository flightSearchViewRepository;
     private final PassengerRepository passengerRepository;
     private final FlightMapper flightMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BulkFlightOperations bulkFlightOperations;
+    private final FlightNumberFilter flightNumberFilter;
+    private final SeatHolds seatHolds;
+    private final BookingCombiner bookingCombiner;
+    private final RebookingEngine rebookingEngine;
+    private final SeatHoldRepository seatHoldRepository;
+    private final BookingJournal bookingJournal;
+    private final CityDictionary cityDictionary;
 
     /**
      * Create a new flight
@@ -40,14 +76,28 @@ class FlightUseCasesImpl implements FlightUseCases {
     @Override
     @Transactional
     public Flight createFlight(CreateFlightRequest request) {
-        if (flightRepository.existsByFlightNumber(request.flightNumber())) {
-            log.error("Flight with number {} already exists", request.flightNumber());
-            throw new IllegalArgumentException("Flight with number " + request.flightNumber() + " already exists");
+        if (flightNumberFilter.mightExist(request.flightNumber())) {
+            if (flightRepository.existsByFlightNumber(request.flightNumber())) {
+                log.error("Flight with number {} already exists", request.flightNumber());
+                throw new IllegalArgumentException("Flight with number " + request.flightNumber() + " already exists");
+            }
+            flightNumberFilter.falsePositive();
         }
 
         final var flight = flightMapper.mapCreateFlightRequestToFlight(request);
+        requireSeatsFor(flight);
         log.info("Creating flight {}", flight.getFlightNumber());
-        return flightRepository.save(flight);
+        final Flight created;
+        try {
+            created = flightRepository.save(flight);
+        } catch (DataIntegrityViolationException e) {
+            log.error("Flight with number {} already exists", request.flightNumber());
+            throw new IllegalArgumentException("Flight with number " + request.flightNumber() + " already exists");
+        }
+        flightNumberFilter.added(created.getFlightNumber());
+        eventPublisher.publishEvent(new FlightChangedEvent(created.getId()));
+        bookingJournal.flightCreated(created.getFlightNumber(), created.getAvailableSeats());
+        return created;
     }
 
     /**
@@ -58,8 +108,9 @@ class FlightUseCasesImpl implements FlightUseCases {
      */
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheNames.FLIGHT_DETAILS, key = "#flightNumber")
     public void deleteFlight(String flightNumber) {
-        final var flight = flightRepository.findByFlightNumber(flightNumber)
+        final var flight = flightRepository.findWithLockByFlightNumber(flightNumber)
             .orElseThrow(() -> {
                 log.error("Cannot delete flight with number {} as it's not found", flightNumber);
                 return new NoSuchElementException("Flight not found");
@@ -67,6 +118,9 @@ class FlightUseCasesImpl implements FlightUseCases {
 
         log.info("Deleting flight {}", flightNumber);
         flightRepository.delete(flight);
+        flightNumberFilter.removed(1);
+        eventPublisher.publishEvent(new FlightChangedEvent(flight.getId()));
+        bookingJournal.flightDeleted(flightNumber);
     }
 
     /**
@@ -78,8 +132,9 @@ class FlightUseCasesImpl implements FlightUseCases {
      */
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheNames.FLIGHT_DETAILS, key = "#flightNumber")
     public void updateFlight(String flightNumber, UpdateFlightRequest request) {
-        final var flight = flightRepository.findByFlightNumber(flightNumber)
+        final var flight = flightRepository.findWithLockByFlightNumber(flightNumber)
             .orElseThrow(() -> {
                 log.error("Cannot update flight with number {} as it's not found", flightNumber);
                 return new NoSuchElementException("Flight not found");
@@ -88,6 +143,8 @@ class FlightUseCasesImpl implements FlightUseCases {
         log.info("Updating flight {}", flightNumber);
         applyPartialUpdates(flight, request);
         flightRepository.save(flight);
+        eventPublisher.publishEvent(new FlightChangedEvent(flight.getId()));
+        bookingJournal.flightUpdated(flight.getFlightNumber(), flightNumber, flight.getAvailableSeats());
     }
 
     /**
@@ -99,6 +156,7 @@ class FlightUseCasesImpl implements FlightUseCases {
      */
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheNames.FLIGHT_DETAILS, condition = "@hotFlightTracker.shouldCache(#flightNumber)")
     public FlightDetailsResource getFlight(String flightNumber) {
         final var flight = flightRepository.findByFlightNumber(flightNumber)
             .orElseThrow(() -> {
@@ -118,8 +176,8 @@ class FlightUseCasesImpl implements FlightUseCases {
     @Override
     @Transactional(readOnly = true)
     public Page<FlightResource> getFlights(Pageable pageable) {
-        return flightRepository.findAll(pageable)
-            .map(flightMapper::mapFlightToFlightResource);
+        return flightSearchViewRepository.findAll(pageable)
+            .map(flightMapper::mapFlightSearchViewToFlightResource);
     }
 
     /**
@@ -132,72 +190,148 @@ class FlightUseCasesImpl implements FlightUseCases {
     @Override
     @Transactional(readOnly = true)
     public Page<FlightResource> searchFlights(Pageable pageable, FlightSearchCriteria criteria) {
-        Specification<Flight> spec = Specification.where(null);
-
-        if (criteria.flightNumber() != null) {
-            spec = spec.and(((root, query, criteriaBuilder) -> criteriaBuilder.like(root.get("flightNumber"), criteria.flightNumber() + "%")));
+        final var event = new FlightSearchEvent();
+        event.begin();
+
+        final var flights = flightSearchViewRepository.search(criteria, FlightSpecifications.searchView(criteria), pageable)
+            .map(flightMapper::mapFlightSearchViewToFlightResource);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.criteria = criteria.toString();
+            event.page = pageable.isPaged() ? pageable.getPageNumber() : 0;
+            event.pageSize = pageable.isPaged() ? pageable.getPageSize() : flights.getNumberOfElements();
+            event.rowsReturned = flights.getNumberOfElements();
+            event.totalRows = flights.getTotalElements();
+            event.commit();
         }
 
-        if (criteria.departureTimeFrom() != null) {
-            spec = spec.and(((root, query, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(root.get("departureTime"), criteria.departureTimeFrom())));
-        }
-
-        if (criteria.departureTimeTo() != null) {
-            spec = spec.and(((root, query, criteriaBuilder) -> criteriaBuilder.lessThanOrEqualTo(root.get("departureTime"), criteria.departureTimeTo())));
-        }
-
-        if (criteria.availableSeatsFrom() != null) {
-            spec = spec.and(((root, query, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(root.get("availableSeats"), criteria.availableSeatsFrom())));
-        }
-
-        if (criteria.city() != null) {
-            spec = spec.and(((root, query, criteriaBuilder) -> criteriaBuilder.isMember(criteria.city(), root.get("route"))));
-        }
+        return flights;
+    }
 
-        return flightRepository.findAll(spec, pageable)
-            .map(flightMapper::mapFlightToFlightResource);
+    /**
+     * Add a passenger to a flight by their passenger ID, in the free seat closest to the front if the flight has a
+     * seat map.
+     *
+     * @param flightNumber the flight number to add the passenger to
+     * @param passengerId  the passenger ID to add to the flight
+     * @throws NoSuchElementException   if the flight with the specified number is not found
+     * @throws NoSuchElementException   if the passenger with the specified ID is not found
+     * @throws IllegalArgumentException if the passenger is already on the flight
+     * @throws IllegalArgumentException if the flight is full
+     */
+    @Override
+    @CacheEvict(cacheNames = CacheNames.FLIGHT_DETAILS, key = "#flightNumber")
+    public void addPassengerToFlight(String flightNumber, UUID passengerId) {
+        bookingCombiner.book(flightNumber, passengerId, null, bookings -> addPassengers(flightNumber, bookings));
     }
 
     /**
-     * Add a passenger to a flight by their passenger ID.
+     * Add a passenger to a flight by their passenger ID in the given seat.
      *
      * @param flightNumber the flight number to add the passenger to
      * @param passengerId  the passenger ID to add to the flight
+     * @param seat         the seat to claim, e.g. 12C, or {@code null} for any free seat
      * @throws NoSuchElementException   if the flight with the specified number is not found
      * @throws NoSuchElementException   if the passenger with the specified ID is not found
      * @throws IllegalArgumentException if the passenger is already on the flight
      * @throws IllegalArgumentException if the flight is full
+     * @throws IllegalArgumentException if the flight has no seat map, no such seat or the seat is taken
+     */
+    @Override
+    @CacheEvict(cacheNames = CacheNames.FLIGHT_DETAILS, key = "#flightNumber")
+    public void addPassengerToFlight(String flightNumber, UUID passengerId, String seat) {
+        bookingCombiner.book(flightNumber, passengerId, seat, bookings -> addPassengers(flightNumber, bookings));
+    }
+
+    /**
+     * Add a group of passengers to a flight, seated next to each other in one row if the flight has a seat map.
+     *
+     * @param flightNumber the flight number to add the passengers to
+     * @param passengerIds the passenger IDs to add to the flight
+     * @return the seat assigned to each passenger
+     * @throws NoSuchElementException   if the flight with the specified number is not found
+     * @throws NoSuchElementException   if any of the passengers is not found
+     * @throws IllegalArgumentException if any of the passengers is already on the flight
+     * @throws IllegalArgumentException if the flight has not enough seats or no row with enough adjacent free seats
      */
     @Override
     @Transactional
-    public void addPassengerToFlight(String flightNumber, UUID passengerId) {
-        final var flight = flightRepository.findByFlightNumber(flightNumber)
+    @CacheEvict(cacheNames = CacheNames.FLIGHT_DETAILS, key = "#flightNumber")
+    public GroupBookingResource addGroupToFlight(String flightNumber, List<UUID> passengerIds) {
+        final var flight = flightRepository.findWithLockByFlightNumber(flightNumber)
             .orElseThrow(() -> {
-                log.error("Cannot add passenger to flight with number {} as it's not found", flightNumber);
+                log.error("Cannot add group to flight with number {} as it's not found", flightNumber);
                 return new NoSuchElementException("Flight not found");
             });
 
-        final var passenger = passengerRepository.findByPassengerId(passengerId)
-            .orElseThrow(() -> {
-                log.error("Cannot add passenger with id {} to flight {} as passenger is not found", passengerId, flightNumber);
-                return new NoSuchElementException("Passenger not found");
-            });
+        final var passengers = new ArrayList<Passenger>();
+        for (UUID passengerId : new LinkedHashSet<>(passengerIds)) {
+            final var passenger = passengerRepository.findById(passengerId)
+                .orElseThrow(() -> {
+                    log.error("Cannot add passenger with id {} to flight {} as passenger is not found", passengerId, flightNumber);
+                    return new NoSuchElementException("Passenger not found");
+                });
+            if (flight.getPassengers().contains(passenger)) {
+                log.error("Passenger with id {} is already on flight {}", passengerId, flightNumber);
+                throw new IllegalArgumentException("Passenger is already on the flight");
+            }
+            passengers.add(passenger);
+        }
 
-        if (flight.getPassengers().contains(passenger)) {
-            log.error("Passenger with id {} is already on flight {}", passengerId, flightNumber);
-            throw new IllegalArgumentException("Passenger is already on the flight");
+        if (flight.getAvailableSeats() < passengers.size()) {
+            log.error("Flight {} has not enough seats for a group of {}", flightNumber, passengers.size());
+            throw new IllegalArgumentException("Flight has not enough seats");
         }
 
-        var availableSeats = flight.getAvailableSeats();
-        if (availableSeats <= 0) {
-            log.error("Flight {} is full, cannot add passenger with id {}", flightNumber, passengerId);
-            throw new IllegalArgumentException("Flight is full");
+        final var seats = new LinkedHashMap<UUID, String>();
+        final var seatMap = flight.getSeatMap();
+        if (seatMap != null) {
+            final var first = seatMap.claimAdjacent(passengers.size());
+            if (first < 0) {
+                log.error("Flight {} has no {} adjacent free seats", flightNumber, passengers.size());
+                throw new IllegalArgumentException("Flight has no " + passengers.size() + " adjacent free seats");
+            }
+            for (var i = 0; i < passengers.size(); i++) {
+                flight.getSeatAssignments().put(passengers.get(i).getPassengerId(), first + i);
+                seats.put(passengers.get(i).getPassengerId(), seatMap.labelOf(first + i));
+            }
         }
 
-        log.info("Adding passenger {} to flight {}", passengerId, flightNumber);
-        flight.getPassengers().add(passenger);
-        flight.setAvailableSeats(availableSeats - 1);
+        log.info("Adding group of {} passengers to flight {}", passengers.size(), flightNumber);
+        flight.getPassengers().addAll(passengers);
+        final var availableSeats = flight.getAvailableSeats();
+        flight.setAvailableSeats(availableSeats - passengers.size());
         flightRepository.save(flight);
+        eventPublisher.publishEvent(FlightChangedEvent.seats(flight.getId()));
+        for (var i = 0; i < passengers.size(); i++) {
+            bookingJournal.passengerBooked(flightNumber, passengers.get(i).getPassengerId(), availableSeats - i - 1);
+        }
+
+        return new GroupBookingResource(seats);
+    }
+
+    /**
+     * Retrieve the seat map of a flight.
+     *
+     * @param flightNumber the flight number to retrieve the seat map of
+     * @return the seats with their cabin and whether they are taken
+     * @throws NoSuchElementException if the flight with the specified number is not found or has no seat map
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public SeatMapResource getSeatMap(String flightNumber) {
+        final var flight = flightRepository.findByFlightNumber(flightNumber)
+            .orElseThrow(() -> {
+                log.error("Cannot get seat map of flight with number {} as it's not found", flightNumber);
+                return new NoSuchElementException("Flight not found");
+            });
+
+        if (flight.getSeatMap() == null) {
+            throw new NoSuchElementException("Flight has no seat map");
+        }
+
+        return flightMapper.mapSeatMapToSeatMapResource(flight.getSeatMap());
     }
 
     /**
@@ -211,14 +345,20 @@ class FlightUseCasesImpl implements FlightUseCases {
      */
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheNames.FLIGHT_DETAILS, key = "#flightNumber")
     public void removePassengerFromFlight(String flightNumber, UUID passengerId) {
-        final var flight = flightRepository.findByFlightNumber(flightNumber)
+        final var event = new SeatClaimEvent(flightNumber, SeatClaimEvent.RELEASE);
+        event.begin();
+
+        final var lookupStart = System.nanoTime();
+        final var flight = flightRepository.findWithLockByFlightNumber(flightNumber)
             .orElseThrow(() -> {
                 log.error("Cannot remove passenger from flight with number {} as it's not found", flightNumber);
                 return new NoSuchElementException("Flight not found");
             });
+        event.lockWait = System.nanoTime() - lookupStart;
 
-        final var passenger = passengerRepository.findByPassengerId(passengerId)
+        final var passenger = passengerRepository.findById(passengerId)
             .orElseThrow(() -> {
                 log.error("Cannot remove passenger with id {} from flight {} as passenger is not found", passengerId, flightNumber);
                 return new NoSuchElementException("Passenger not found");
@@ -233,8 +373,312 @@ class FlightUseCasesImpl implements FlightUseCases {
 
         log.info("Removing passenger {} from flight {}", passengerId, flightNumber);
         flight.getPassengers().remove(passenger);
+        final var seat = flight.getSeatAssignments().remove(passengerId);
+        if (seat != null && flight.getSeatMap() != null) {
+            flight.getSeatMap().release(seat);
+        }
         flight.setAvailableSeats(availableSeats + 1);
         flightRepository.save(flight);
+        eventPublisher.publishEvent(FlightChangedEvent.seats(flight.getId()));
+        bookingJournal.passengerUnbooked(flightNumber, passengerId, flight.getAvailableSeats());
+
+        event.availableSeats = flight.getAvailableSeats();
+        event.commit();
+    }
+
+    /**
+     * Hold a seat on a flight for a checkout. The seat counts as taken until the hold is confirmed, released or
+     * expires.
+     *
+     * @param flightNumber the flight number to hold a seat on
+     * @param seat         the seat to hold, e.g. 12C, or {@code null} for any free seat
+     * @param ttl          how long to hold the seat, or {@code null} for the default
+     * @return the hold with its expiry
+     * @throws NoSuchElementException   if the flight with the specified number is not found
+     * @throws IllegalArgumentException if the flight is full, the seat is taken or the time is out of bounds
+     * @throws FeatureDisabledException if seat holds are disabled
+     */
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.FLIGHT_DETAILS, key = "#flightNumber")
+    public SeatHoldResource holdSeat(String flightNumber, String seat, Duration ttl) {
+        seatHolds.requireEnabled();
+        final var flight = flightRepository.findWithLockByFlightNumber(flightNumber)
+            .orElseThrow(() -> {
+                log.error("Cannot hold a seat on flight with number {} as it's not found", flightNumber);
+                return new NoSuchElementException("Flight not found");
+            });
+
+        final var hold = seatHolds.hold(flight, seat, ttl);
+        flightRepository.save(flight);
+        log.info("Holding seat {} on flight {} until {}", hold.getSeat(), flightNumber, hold.getExpiresAt());
+
+        return SeatHoldResource.builder()
+            .holdId(hold.getId())
+            .flightNumber(flightNumber)
+            .seat(hold.getSeat() != null ? flight.getSeatMap().labelOf(hold.getSeat()) : null)
+            .expiresAt(hold.getExpiresAt())
+            .build();
+    }
+
+    /**
+     * Book a passenger on the seat of a hold.
+     *
+     * @param flightNumber the flight number the seat is held on
+     * @param holdId       the hold to confirm
+     * @param passengerId  the passenger ID to add to the flight
+     * @throws NoSuchElementException   if the flight, the hold or the passenger is not found, e.g. as the hold expired
+     * @throws IllegalArgumentException if the passenger is already on the flight or the hold expired
+     * @throws FeatureDisabledException if seat holds are disabled
+     */
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.FLIGHT_DETAILS, key = "#flightNumber")
+    public void confirmHold(String flightNumber, UUID holdId, UUID passengerId) {
+        seatHolds.requireEnabled();
+        final var flight = flightRepository.findWithLockByFlightNumber(flightNumber)
+            .orElseThrow(() -> {
+                log.error("Cannot confirm hold on flight with number {} as it's not found", flightNumber);
+                return new NoSuchElementException("Flight not found");
+            });
+        final var hold = findHold(flight, holdId);
+
+        final var passenger = passengerRepository.findById(passengerId)
+            .orElseThrow(() -> {
+                log.error("Cannot confirm hold {} for passenger with id {} as passenger is not found", holdId, passengerId);
+                return new NoSuchElementException("Passenger not found");
+            });
+
+        if (flight.getPassengers().contains(passenger)) {
+            log.error("Passenger with id {} is already on flight {}", passengerId, flightNumber);
+            throw new IllegalArgumentException("Passenger is already on the flight");
+        }
+
+        log.info("Confirming hold {} on flight {} for passenger {}", holdId, flightNumber, passengerId);
+        seatHolds.confirm(flight, hold, passenger);
+        flightRepository.save(flight);
+    }
+
+    /**
+     * Give the seat of a hold back to the flight.
+     *
+     * @param flightNumber the flight number the seat is held on
+     * @param holdId       the hold to release
+     * @throws NoSuchElementException   if the flight or the hold is not found
+     * @throws FeatureDisabledException if seat holds are disabled
+     */
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.FLIGHT_DETAILS, key = "#flightNumber")
+    public void releaseHold(String flightNumber, UUID holdId) {
+        seatHolds.requireEnabled();
+        final var flight = flightRepository.findWithLockByFlightNumber(flightNumber)
+            .orElseThrow(() -> {
+                log.error("Cannot release hold on flight with number {} as it's not found", flightNumber);
+                return new NoSuchElementException("Flight not found");
+            });
+        final var hold = findHold(flight, holdId);
+
+        log.info("Releasing hold {} on flight {}", holdId, flightNumber);
+        seatHolds.release(flight, hold);
+        flightRepository.save(flight);
+    }
+
+    /**
+     * Cancel a flight, moving it with its passengers to the archive, and rebook the passengers onto later flights on
+     * the same route.
+     *
+     * @param flightNumber the flight number to cancel
+     * @param window       how long after the cancelled departure alternative flights may depart, or {@code null} for
+     *                     the default
+     * @return the alternative flight of every rebooked passenger and the passengers that could not be placed
+     * @throws NoSuchElementException   if the flight with the specified number is not found
+     * @throws IllegalArgumentException if the window is out of bounds
+     * @throws FeatureDisabledException if cancelling with rebooking is disabled
+     */
+    @Override
+    public RebookingResource cancelFlight(String flightNumber, Duration window) {
+        return rebookingEngine.cancelAndRebook(flightNumber, window);
+    }
+
+    /**
+     * Move the departures of all flights matching the filter.
+     *
+     * @param filter flights to reschedule
+     * @param shift  how far to move the departures
+     * @param dryRun only count the matching flights
+     * @return the number of matching or rescheduled flights
+     * @throws IllegalArgumentException if the filter is empty or the shift is missing
+     * @throws FeatureDisabledException if bulk operations are disabled
+     */
+    @Override
+    public BulkFlightOperationResource rescheduleFlights(FlightSearchCriteria filter, Duration shift, boolean dryRun) {
+        bulkFlightOperations.requireEnabled();
+        requireFilter(filter);
+        if (shift == null || shift.isZero()) {
+            log.error("Cannot reschedule flights matching {} without a shift", filter);
+            throw new IllegalArgumentException("Shift is required");
+        }
+
+        if (dryRun) {
+            return new BulkFlightOperationResource(bulkFlightOperations.count(filter), true);
+        }
+
+        log.info("Rescheduling flights matching {} by {}", filter, shift);
+        return new BulkFlightOperationResource(bulkFlightOperations.reschedule(filter, shift.toSeconds()), false);
+    }
+
+    /**
+     * Cancel all flights matching the filter, moving them with their passengers to the archive.
+     *
+     * @param filter flights to cancel
+     * @param dryRun only count the matching flights
+     * @return the number of matching or cancelled flights
+     * @throws IllegalArgumentException if the filter is empty
+     * @throws FeatureDisabledException if bulk operations are disabled
+     */
+    @Override
+    public BulkFlightOperationResource cancelFlights(FlightSearchCriteria filter, boolean dryRun) {
+        bulkFlightOperations.requireEnabled();
+        requireFilter(filter);
+        if (dryRun) {
+            return new BulkFlightOperationResource(bulkFlightOperations.count(filter), true);
+        }
+
+        log.info("Cancelling flights matching {}", filter);
+        return new BulkFlightOperationResource(bulkFlightOperations.cancel(filter), false);
+    }
+
+    /**
+     * Delete all flights matching the filter.
+     *
+     * @param filter flights to delete
+     * @param dryRun only count the matching flights
+     * @return the number of matching or deleted flights
+     * @throws IllegalArgumentException if the filter is empty
+     * @throws FeatureDisabledException if bulk operations are disabled
+     */
+    @Override
+    public BulkFlightOperationResource deleteFlights(FlightSearchCriteria filter, boolean dryRun) {
+        bulkFlightOperations.requireEnabled();
+        requireFilter(filter);
+        if (dryRun) {
+            return new BulkFlightOperationResource(bulkFlightOperations.count(filter), true);
+        }
+
+        log.info("Deleting flights matching {}", filter);
+        return new BulkFlightOperationResource(bulkFlightOperations.delete(filter), false);
+    }
+
+    private SeatHold findHold(Flight flight, UUID holdId) {
+        return seatHoldRepository.findByIdAndFlightId(holdId, flight.getId())
+            .orElseThrow(() -> {
+                log.error("Hold {} on flight {} is not found", holdId, flight.getFlightNumber());
+                return new NoSuchElementException("Hold not found");
+            });
+    }
+
+    private void requireFilter(FlightSearchCriteria filter) {
+        if (FlightSpecifications.isEmpty(filter)) {
+            log.error("Refusing a bulk operation on all flights");
+            throw new IllegalArgumentException("At least one filter is required");
+        }
+    }
+
+    private void addPassengers(String flightNumber, List<BookingCombiner.Booking> bookings) {
+        final var event = new SeatClaimEvent(flightNumber, SeatClaimEvent.CLAIM);
+        event.begin();
+
+        final var lookupStart = System.nanoTime();
+        final var flight = flightRepository.findWithLockByFlightNumber(flightNumber)
+            .orElseThrow(() -> {
+                log.error("Cannot add passenger to flight with number {} as it's not found", flightNumber);
+                return new NoSuchElementException("Flight not found");
+            });
+        event.lockWait = System.nanoTime() - lookupStart;
+
+        final var passengers = new HashMap<UUID, Passenger>();
+        passengerRepository.findAllById(bookings.stream().map(BookingCombiner.Booking::passengerId).toList())
+            .forEach(passenger -> passengers.put(passenger.getPassengerId(), passenger));
+
+        var added = 0;
+        for (BookingCombiner.Booking booking : bookings) {
+            try {
+                addPassenger(flight, passengers.get(booking.passengerId()), booking.passengerId(), booking.seat());
+                bookingJournal.passengerBooked(flightNumber, booking.passengerId(), flight.getAvailableSeats());
+                added++;
+            } catch (NoSuchElementException | IllegalArgumentException e) {
+                booking.reject(e);
+            }
+        }
+
+        if (added > 0) {
+            log.info("Added {} passengers to flight {}", added, flightNumber);
+            flightRepository.save(flight);
+            eventPublisher.publishEvent(FlightChangedEvent.seats(flight.getId()));
+        }
+
+        event.availableSeats = flight.getAvailableSeats();
+        event.bookings = added;
+        event.commit();
+    }
+
+    private void addPassenger(Flight flight, Passenger passenger, UUID passengerId, String seat) {
+        if (passenger == null) {
+            log.error("Cannot add passenger with id {} to flight {} as passenger is not found", passengerId, flight.getFlightNumber());
+            throw new NoSuchElementException("Passenger not found");
+        }
+
+        if (flight.getPassengers().contains(passenger)) {
+            log.error("Passenger with id {} is already on flight {}", passengerId, flight.getFlightNumber());
+            throw new IllegalArgumentException("Passenger is already on the flight");
+        }
+
+        if (flight.getAvailableSeats() <= 0) {
+            log.error("Flight {} is full, cannot add passenger with id {}", flight.getFlightNumber(), passengerId);
+            throw new IllegalArgumentException("Flight is full");
+        }
+
+        claimSeat(flight, passengerId, seat);
+
+        log.debug("Adding passenger {} to flight {}", passengerId, flight.getFlightNumber());
+        flight.getPassengers().add(passenger);
+        flight.setAvailableSeats(flight.getAvailableSeats() - 1);
+    }
+
+    private void claimSeat(Flight flight, UUID passengerId, String seat) {
+        final var seatMap = flight.getSeatMap();
+        if (seatMap == null) {
+            if (seat != null) {
+                log.error("Cannot claim seat {} on flight {} as it has no seat map", seat, flight.getFlightNumber());
+                throw new IllegalArgumentException("Flight has no seat map");
+            }
+            return;
+        }
+
+        final int claimed;
+        if (seat == null) {
+            claimed = seatMap.claimFirstFree();
+            if (claimed < 0) {
+                log.error("Flight {} has no free seat left", flight.getFlightNumber());
+                throw new IllegalArgumentException("Flight is full");
+            }
+        } else {
+            claimed = seatMap.seatOf(seat);
+            if (!seatMap.claim(claimed)) {
+                log.error("Seat {} on flight {} is already taken", seat, flight.getFlightNumber());
+                throw new IllegalArgumentException("Seat " + seat + " is already taken");
+            }
+        }
+        flight.getSeatAssignments().put(passengerId, claimed);
+    }
+
+    private void requireSeatsFor(Flight flight) {
+        final var seatMap = flight.getSeatMap();
+        if (seatMap != null && flight.getAvailableSeats() > seatMap.freeSeats()) {
+            log.error("Flight {} has only {} free seats for {} available seats", flight.getFlightNumber(), seatMap.freeSeats(), flight.getAvailableSeats());
+            throw new IllegalArgumentException("Flight has fewer free seats than available seats");
+        }
     }
 
     private void applyPartialUpdates(Flight flight, UpdateFlightRequest request) {
@@ -245,6 +689,8 @@ class FlightUseCasesImpl implements FlightUseCases {
             }
 
             flight.setFlightNumber(request.flightNumber());
+            flightNumberFilter.added(request.flightNumber());
+            flightNumberFilter.removed(1);
         }
 
         if (request.departureTime() != null) {
@@ -253,9 +699,11 @@ class FlightUseCasesImpl implements FlightUseCases {
 
         if (request.availableSeats() != null) {
             flight.setAvailableSeats(request.availableSeats());
+            requireSeatsFor(flight);
         }
 
         if (request.route() != null && !request.route().isEmpty()) {
+            cityDictionary.register(request.route());
             flight.setRoute(request.route());
         }
     }
@@ -2,6 +2,7 @@ package pw.ee.lot.service.internal;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pw.ee.lot.domain.Passenger;
@@ -11,6 +12,7 @@ import pw.ee.lot.dto.passenger.CreatePassengerRequest;
 import pw.ee.lot.dto.passenger.PassengerDetailsResource;
 import pw.ee.lot.dto.passenger.UpdatePassengerRequest;
 import pw.ee.lot.service.PassengerUseCases;
+import pw.ee.lot.shared.cache.CacheNames;
 
 import java.util.NoSuchElementException;
 import java.util.UUID;
@@ -44,7 +46,7 @@ class PassengerUseCasesImpl implements PassengerUseCases {
     @Override
     @Transactional
     public void deletePassenger(UUID passengerId) {
-        final var passenger = passengerRepository.findByPassengerId(passengerId)
+        final var passenger = passengerRepository.findById(passengerId)
             .orElseThrow(() -> {
                 log.error("Cannot delete passenger {} as it's not found", passengerId);
                 return new NoSuchElementException("Passenger not found");
@@ -66,8 +68,9 @@ class PassengerUseCasesImpl implements PassengerUseCases {
      */
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheNames.FLIGHT_DETAILS, allEntries = true)
     public void updatePassenger(UUID passengerId, UpdatePassengerRequest request) {
-        final var passenger = passengerRepository.findByPassengerId(passengerId)
+        final var passenger = passengerRepository.findById(passengerId)
             .orElseThrow(() -> {
                 log.error("Cannot update passenger {} as it's not found", passengerId);
                 return new NoSuchElementException("Passenger not found");
@@ -87,7 +90,7 @@ class PassengerUseCasesImpl implements PassengerUseCases {
     @Override
     @Transactional(readOnly = true)
     public PassengerDetailsResource getPassenger(UUID passengerId) {
-        final var passenger = passengerRepository.findByPassengerId(passengerId)
+        final var passenger = passengerRepository.findById(passengerId)
             .orElseThrow(() -> {
                 log.error("Cannot get passenger {} as it's not found", passengerId);
                 return new NoSuchElementException("Passenger not found");
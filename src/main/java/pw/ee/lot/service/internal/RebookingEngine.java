@@ -0,0 +1,280 @@
+package pw.ee.lot.service.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.FlightSearchView;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.FlightSearchViewRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.dto.flight.RebookingResource;
+import pw.ee.lot.shared.FeatureDisabledException;
+import pw.ee.lot.shared.cache.CacheNames;
+import pw.ee.lot.shared.collapsing.FlightReadCollapser;
+import pw.ee.lot.shared.journal.BookingJournal;
+import pw.ee.lot.shared.readmodel.FlightChangedEvent;
+import pw.ee.lot.shared.sharding.ShardRegistry;
+import pw.ee.lot.shared.sql.SqlStatementStatistics;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Cancels a flight and rebooks its passengers onto later flights on the same route.
+ * <p>
+ * The flight is archived as cancelled with its manifest first, so no passenger is lost whatever happens next. The
+ * passengers are then planned onto the alternatives departing within the window, earliest first and in booking order,
+ * by the seats the search read model reports. Every alternative is filled in its own thread, in transactions of
+ * {@code lot.rebooking.batch-size} passengers which lock the flight and re-check its seats, so a plan made on stale
+ * seat counts never overbooks: passengers that no longer fit are reported as unplaced, like those no alternative
+ * had room for.
+ */
+@Slf4j
+@Component
+class RebookingEngine implements DisposableBean {
+
+    private final FlightRepository flightRepository;
+    private final FlightSearchViewRepository flightSearchViewRepository;
+    private final PassengerRepository passengerRepository;
+    private final BulkFlightOperations bulkFlightOperations;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final FlightReadCollapser flightReadCollapser;
+    private final ObjectProvider<ShardRegistry> shardRegistry;
+    private final RebookingProperties properties;
+    private final BookingJournal bookingJournal;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final Counter rebooked;
+    private final Counter unplaced;
+
+    RebookingEngine(FlightRepository flightRepository, FlightSearchViewRepository flightSearchViewRepository,
+                    PassengerRepository passengerRepository, BulkFlightOperations bulkFlightOperations,
+                    ApplicationEventPublisher eventPublisher, CacheManager cacheManager, FlightReadCollapser flightReadCollapser,
+                    ObjectProvider<ShardRegistry> shardRegistry, RebookingProperties properties,
+                    BookingJournal bookingJournal, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.flightRepository = flightRepository;
+        this.flightSearchViewRepository = flightSearchViewRepository;
+        this.passengerRepository = passengerRepository;
+        this.bulkFlightOperations = bulkFlightOperations;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.flightReadCollapser = flightReadCollapser;
+        this.shardRegistry = shardRegistry;
+        this.properties = properties;
+        this.bookingJournal = bookingJournal;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = Executors.newFixedThreadPool(properties.parallelism(), new CustomizableThreadFactory("rebooking-"));
+        this.rebooked = Counter.builder("lot.rebooking.passengers")
+            .tag("outcome", "rebooked")
+            .description("Passengers of cancelled flights moved to an alternative flight")
+            .register(meterRegistry);
+        this.unplaced = Counter.builder("lot.rebooking.passengers")
+            .tag("outcome", "unplaced")
+            .description("Passengers of cancelled flights no alternative flight had a seat for")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Cancels the flight and rebooks its passengers.
+     *
+     * @param window how long after the cancelled departure alternatives may depart, {@code null} for the default
+     * @throws NoSuchElementException   if the flight is not found
+     * @throws IllegalArgumentException if the window is out of bounds
+     * @throws FeatureDisabledException if cancelling with rebooking is disabled
+     */
+    RebookingResource cancelAndRebook(String flightNumber, Duration window) {
+        if (!properties.enabled()) {
+            log.error("Cannot cancel flight {} as cancelling with rebooking is disabled", flightNumber);
+            throw new FeatureDisabledException("Cancelling flights is disabled");
+        }
+
+        final var within = window == null ? properties.defaultWindow() : window;
+        if (within.isNegative() || within.compareTo(properties.maxWindow()) > 0) {
+            log.error("Cannot rebook passengers of flight {} within {}", flightNumber, within);
+            throw new IllegalArgumentException("Alternative flights can depart at most " + properties.maxWindow() + " later");
+        }
+
+        final var cancelled = transactionTemplate.execute(status -> cancel(flightNumber));
+        flightReadCollapser.invalidate();
+        final var from = cancelled.departureTime().isAfter(LocalDateTime.now()) ? cancelled.departureTime() : LocalDateTime.now();
+        final var alternatives = findAlternatives(FlightSearchView.encodeRoute(cancelled.route()), from, cancelled.departureTime().plus(within));
+
+        final var plan = new ArrayList<CompletableFuture<Placement>>();
+        var next = 0;
+        for (Alternative alternative : alternatives) {
+            if (next == cancelled.passengerIds().size()) {
+                break;
+            }
+            if (alternative.seats() <= 0) {
+                continue;
+            }
+            final var passengerIds = cancelled.passengerIds().subList(next, Math.min(next + alternative.seats(), cancelled.passengerIds().size()));
+            next += passengerIds.size();
+            plan.add(CompletableFuture.supplyAsync(SqlStatementStatistics.propagate(() -> call(alternative.shard(), () -> place(alternative.flightNumber(), passengerIds))), executor)
+                .exceptionally(e -> {
+                    log.error("Cannot rebook {} passengers of flight {} onto flight {}", passengerIds.size(), flightNumber, alternative.flightNumber(), e);
+                    return new Placement(alternative.flightNumber(), List.of(), passengerIds);
+                }));
+        }
+
+        final var placed = new LinkedHashMap<UUID, String>();
+        final var left = new ArrayList<>(cancelled.passengerIds().subList(next, cancelled.passengerIds().size()));
+        for (CompletableFuture<Placement> placement : plan) {
+            final var result = placement.join();
+            result.placed().forEach(passengerId -> placed.put(passengerId, result.flightNumber()));
+            left.addAll(result.unplaced());
+        }
+
+        rebooked.increment(placed.size());
+        unplaced.increment(left.size());
+        log.info("Cancelled flight {}, rebooked {} passengers onto {} flights, {} unplaced", flightNumber, placed.size(), plan.size(), left.size());
+
+        return RebookingResource.builder()
+            .flightNumber(flightNumber)
+            .rebooked(placed)
+            .unplaced(left)
+            .build();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private Cancelled cancel(String flightNumber) {
+        final var flight = flightRepository.findWithLockByFlightNumber(flightNumber)
+            .orElseThrow(() -> {
+                log.error("Cannot cancel flight with number {} as it's not found", flightNumber);
+                return new NoSuchElementException("Flight not found");
+            });
+
+        // time-ordered passenger ids put the passengers who registered first first in line
+        final var passengerIds = flight.getPassengers().stream()
+            .map(Passenger::getPassengerId)
+            .sorted()
+            .toList();
+        final var cancelled = new Cancelled(List.copyOf(flight.getRoute()), flight.getDepartureTime(), passengerIds);
+
+        bulkFlightOperations.cancel(flight.getId(), flightNumber);
+        return cancelled;
+    }
+
+    private List<Alternative> findAlternatives(String route, LocalDateTime from, LocalDateTime to) {
+        final var shards = shardRegistry.getIfAvailable();
+        final var alternatives = new ArrayList<Alternative>();
+        if (shards == null) {
+            alternatives.addAll(findAlternatives(null, route, from, to));
+        } else {
+            shards.scatter(shard -> findAlternatives(shard, route, from, to)).values().forEach(alternatives::addAll);
+        }
+
+        alternatives.sort(Comparator.comparing(Alternative::departureTime).thenComparing(Alternative::flightNumber));
+        return alternatives;
+    }
+
+    private List<Alternative> findAlternatives(String shard, String route, LocalDateTime from, LocalDateTime to) {
+        return transactionTemplate.execute(status -> flightSearchViewRepository.findAlternatives(route, from, to).stream()
+            .map(view -> new Alternative(shard, view.getFlightNumber(), view.getDepartureTime(), view.getAvailableSeats()))
+            .toList());
+    }
+
+    private Placement place(String flightNumber, List<UUID> passengerIds) {
+        final var placed = new ArrayList<UUID>();
+        final var unplacedIds = new ArrayList<UUID>();
+        for (var from = 0; from < passengerIds.size(); from += properties.batchSize()) {
+            final var batch = passengerIds.subList(from, Math.min(from + properties.batchSize(), passengerIds.size()));
+            try {
+                final var result = transactionTemplate.execute(status -> placeBatch(flightNumber, batch));
+                placed.addAll(result.placed());
+                unplacedIds.addAll(result.unplaced());
+            } catch (RuntimeException e) {
+                log.error("Cannot rebook {} passengers onto flight {}", batch.size(), flightNumber, e);
+                unplacedIds.addAll(batch);
+            }
+        }
+
+        final var cache = cacheManager.getCache(CacheNames.FLIGHT_DETAILS);
+        if (cache != null) {
+            cache.evict(flightNumber);
+        }
+        return new Placement(flightNumber, placed, unplacedIds);
+    }
+
+    private Placement placeBatch(String flightNumber, List<UUID> passengerIds) {
+        final var placed = new ArrayList<UUID>();
+        final var unplacedIds = new ArrayList<UUID>();
+        final var flight = flightRepository.findWithLockByFlightNumber(flightNumber).orElse(null);
+        if (flight == null) {
+            return new Placement(flightNumber, placed, passengerIds);
+        }
+
+        final var passengers = new HashMap<UUID, Passenger>();
+        passengerRepository.findAllById(passengerIds).forEach(passenger -> passengers.put(passenger.getPassengerId(), passenger));
+
+        final var seatMap = flight.getSeatMap();
+        for (UUID passengerId : passengerIds) {
+            final var passenger = passengers.get(passengerId);
+            if (passenger != null && flight.getPassengers().contains(passenger)) {
+                placed.add(passengerId);
+                continue;
+            }
+            if (passenger == null || flight.getAvailableSeats() <= 0) {
+                unplacedIds.add(passengerId);
+                continue;
+            }
+
+            if (seatMap != null) {
+                final var seat = seatMap.claimFirstFree();
+                if (seat < 0) {
+                    unplacedIds.add(passengerId);
+                    continue;
+                }
+                flight.getSeatAssignments().put(passengerId, seat);
+            }
+            flight.getPassengers().add(passenger);
+            flight.setAvailableSeats(flight.getAvailableSeats() - 1);
+            bookingJournal.passengerBooked(flightNumber, passengerId, flight.getAvailableSeats());
+            placed.add(passengerId);
+        }
+
+        flightRepository.save(flight);
+        eventPublisher.publishEvent(FlightChangedEvent.seats(flight.getId()));
+        return new Placement(flightNumber, placed, unplacedIds);
+    }
+
+    private <T> T call(String shard, Supplier<T> action) {
+        final var shards = shardRegistry.getIfAvailable();
+        return shards == null || shard == null ? action.get() : shards.callOn(shard, action);
+    }
+
+    private record Cancelled(List<String> route, LocalDateTime departureTime, List<UUID> passengerIds) {
+    }
+
+    private record Alternative(String shard, String flightNumber, LocalDateTime departureTime, int seats) {
+    }
+
+    private record Placement(String flightNumber, List<UUID> placed, List<UUID> unplaced) {
+    }
+}
@@ -0,0 +1,36 @@
+package pw.ee.lot.service.internal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Rebooking of passengers of cancelled flights.
+ *
+ * @param enabled       cancel flights with rebooking, which archives them with the native statements of the JPA
+ *                      storage
+ * @param defaultWindow how long after the cancelled departure alternative flights may depart when the request does
+ *                      not say
+ * @param maxWindow     longest window a request may ask for
+ * @param batchSize     passengers added to an alternative flight per transaction
+ * @param parallelism   alternative flights filled at the same time
+ */
+@ConfigurationProperties("lot.rebooking")
+public record RebookingProperties(
+    @DefaultValue("true")
+    boolean enabled,
+
+    @DefaultValue("24h")
+    Duration defaultWindow,
+
+    @DefaultValue("7d")
+    Duration maxWindow,
+
+    @DefaultValue("500")
+    int batchSize,
+
+    @DefaultValue("4")
+    int parallelism
+) {
+}
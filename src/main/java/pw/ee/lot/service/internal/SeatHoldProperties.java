@@ -0,0 +1,43 @@
+package pw.ee.lot.service.internal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Seat holds.
+ *
+ * @param enabled       hold seats for checkouts, which needs the holds stored with JPA
+ * @param defaultTtl    how long a seat is held when the checkout does not ask for a time
+ * @param maxTtl        longest hold a checkout may ask for
+ * @param tick          resolution of the expiry timing wheel, holds are released at most this late
+ * @param wheelSize     buckets of the timing wheel, rounded up to a power of two
+ * @param sweepInterval how often holds overdue by more than this are released, e.g. after the instance tracking
+ *                      them went away
+ * @param sweepBatch    overdue holds released per sweep and shard
+ */
+@ConfigurationProperties("lot.holds")
+public record SeatHoldProperties(
+    @DefaultValue("true")
+    boolean enabled,
+
+    @DefaultValue("10m")
+    Duration defaultTtl,
+
+    @DefaultValue("30m")
+    Duration maxTtl,
+
+    @DefaultValue("1s")
+    Duration tick,
+
+    @DefaultValue("512")
+    int wheelSize,
+
+    @DefaultValue("5m")
+    Duration sweepInterval,
+
+    @DefaultValue("500")
+    int sweepBatch
+) {
+}
@@ -0,0 +1,289 @@
+package pw.ee.lot.service.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.Flight;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.SeatHold;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.SeatHoldRepository;
+import pw.ee.lot.shared.FeatureDisabledException;
+import pw.ee.lot.shared.cache.CacheNames;
+import pw.ee.lot.shared.journal.BookingJournal;
+import pw.ee.lot.shared.readmodel.FlightChangedEvent;
+import pw.ee.lot.shared.scheduling.TimingWheel;
+import pw.ee.lot.shared.sharding.ShardRegistry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Seat holds of checkouts and their expiry.
+ * <p>
+ * Holds are stored with their flight, so they survive a restart and every instance can confirm them, while the
+ * instance that created a hold tracks its deadline in a {@link TimingWheel}: expiring a hold costs one bucket visit
+ * instead of a database scan, however many holds are outstanding. The wheel ticks on a thread of its own, so expiry
+ * keeps to {@code lot.holds.tick} whatever the scheduled jobs sharing Spring's scheduler thread take. Holds of other
+ * instances are loaded into the wheel at startup, and a periodic sweep releases holds overdue by more than
+ * {@code lot.holds.sweep-interval}, e.g. of an instance that went away.
+ * <p>
+ * Creating, confirming and releasing holds runs in the caller's transaction, which holds the lock on the flight.
+ */
+@Slf4j
+@Component
+class SeatHolds implements DisposableBean {
+
+    private final FlightRepository flightRepository;
+    private final SeatHoldRepository seatHoldRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final ObjectProvider<ShardRegistry> shardRegistry;
+    private final SeatHoldProperties properties;
+    private final BookingJournal bookingJournal;
+    private final TransactionTemplate transactionTemplate;
+    private final TimingWheel<Expiry> wheel;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("seat-hold-expiry-"));
+    private final Counter expired;
+
+    SeatHolds(FlightRepository flightRepository, SeatHoldRepository seatHoldRepository, ApplicationEventPublisher eventPublisher,
+              CacheManager cacheManager, ObjectProvider<ShardRegistry> shardRegistry, SeatHoldProperties properties,
+              BookingJournal bookingJournal, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.flightRepository = flightRepository;
+        this.seatHoldRepository = seatHoldRepository;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.shardRegistry = shardRegistry;
+        this.properties = properties;
+        this.bookingJournal = bookingJournal;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.wheel = new TimingWheel<>(properties.tick().toMillis(), properties.wheelSize(), System.currentTimeMillis());
+        this.expired = Counter.builder("lot.holds.expired")
+            .description("Seat holds released because their checkout did not confirm them in time")
+            .register(meterRegistry);
+        Gauge.builder("lot.holds.tracked", wheel, TimingWheel::pending)
+            .description("Seat holds waiting for their expiry in the timing wheel")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @throws FeatureDisabledException if seat holds are disabled
+     */
+    void requireEnabled() {
+        if (!properties.enabled()) {
+            log.error("Cannot work with seat holds as they are disabled");
+            throw new FeatureDisabledException("Seat holds are disabled");
+        }
+    }
+
+    /**
+     * Holds a seat of the locked flight: the given one, else the free seat closest to the front if the flight has a
+     * seat map.
+     *
+     * @throws IllegalArgumentException if the flight is full, the seat is taken or the time is out of bounds
+     */
+    SeatHold hold(Flight flight, String seat, Duration ttl) {
+        final var holdFor = ttl == null ? properties.defaultTtl() : ttl;
+        if (holdFor.isNegative() || holdFor.isZero() || holdFor.compareTo(properties.maxTtl()) > 0) {
+            log.error("Cannot hold a seat on flight {} for {}", flight.getFlightNumber(), holdFor);
+            throw new IllegalArgumentException("Seats can be held for at most " + properties.maxTtl());
+        }
+        if (flight.getAvailableSeats() <= 0) {
+            log.error("Flight {} is full, cannot hold a seat", flight.getFlightNumber());
+            throw new IllegalArgumentException("Flight is full");
+        }
+
+        final var held = claimSeat(flight, seat);
+        flight.setAvailableSeats(flight.getAvailableSeats() - 1);
+        final var hold = seatHoldRepository.save(SeatHold.builder()
+            .flightId(flight.getId())
+            .seat(held)
+            .expiresAt(LocalDateTime.now().plus(holdFor))
+            .build());
+        track(currentShard(), flight.getFlightNumber(), hold.getId(), hold.getExpiresAt());
+        eventPublisher.publishEvent(FlightChangedEvent.seats(flight.getId()));
+        bookingJournal.seatHeld(flight.getFlightNumber(), flight.getAvailableSeats());
+        return hold;
+    }
+
+    /**
+     * Turns the hold into a booking of the passenger on the held seat.
+     *
+     * @throws IllegalArgumentException if the hold expired, even if it has not been released yet
+     */
+    void confirm(Flight flight, SeatHold hold, Passenger passenger) {
+        if (hold.getExpiresAt().isBefore(LocalDateTime.now())) {
+            log.error("Cannot confirm hold {} on flight {} as it expired at {}", hold.getId(), flight.getFlightNumber(), hold.getExpiresAt());
+            throw new IllegalArgumentException("Hold expired");
+        }
+        flight.getPassengers().add(passenger);
+        if (hold.getSeat() != null) {
+            flight.getSeatAssignments().put(passenger.getPassengerId(), hold.getSeat());
+        }
+        seatHoldRepository.delete(hold);
+        eventPublisher.publishEvent(FlightChangedEvent.seats(flight.getId()));
+        bookingJournal.passengerBooked(flight.getFlightNumber(), passenger.getPassengerId(), flight.getAvailableSeats());
+    }
+
+    /**
+     * Gives the held seat back to the flight.
+     */
+    void release(Flight flight, SeatHold hold) {
+        if (hold.getSeat() != null && flight.getSeatMap() != null) {
+            flight.getSeatMap().release(hold.getSeat());
+        }
+        flight.setAvailableSeats(flight.getAvailableSeats() + 1);
+        seatHoldRepository.delete(hold);
+        eventPublisher.publishEvent(FlightChangedEvent.seats(flight.getId()));
+        bookingJournal.seatReleased(flight.getFlightNumber(), flight.getAvailableSeats());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void trackOutstanding() {
+        if (!properties.enabled()) {
+            return;
+        }
+        forEachShard(shard -> {
+            final var holds = transactionTemplate.execute(status -> seatHoldRepository.findAllKeys());
+            holds.forEach(hold -> track(shard, hold.getFlightNumber(), hold.getId(), hold.getExpiresAt()));
+            return holds.size();
+        });
+        final var tick = properties.tick().toMillis();
+        ticker.scheduleAtFixedRate(this::expireDue, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        ticker.shutdownNow();
+    }
+
+    private void expireDue() {
+        try {
+            wheel.advance(System.currentTimeMillis()).forEach(this::expire);
+        } catch (RuntimeException e) {
+            // a tick failing must not cancel the ones after it
+            log.error("Cannot expire due seat holds", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${lot.holds.sweep-interval:PT5M}", initialDelayString = "${lot.holds.sweep-interval:PT5M}")
+    void sweepOverdue() {
+        if (!properties.enabled()) {
+            return;
+        }
+        final var cutoff = LocalDateTime.now().minus(properties.sweepInterval());
+        final var swept = forEachShard(shard -> {
+            final var overdue = transactionTemplate.execute(status -> seatHoldRepository.findKeysExpiredBefore(cutoff, Limit.of(properties.sweepBatch())));
+            overdue.forEach(hold -> expire(new Expiry(shard, hold.getFlightNumber(), hold.getId())));
+            return overdue.size();
+        });
+
+        if (swept > 0) {
+            log.warn("Released {} overdue seat holds no instance was tracking", swept);
+        }
+    }
+
+    private Integer claimSeat(Flight flight, String seat) {
+        final var seatMap = flight.getSeatMap();
+        if (seatMap == null) {
+            if (seat != null) {
+                log.error("Cannot hold seat {} on flight {} as it has no seat map", seat, flight.getFlightNumber());
+                throw new IllegalArgumentException("Flight has no seat map");
+            }
+            return null;
+        }
+
+        if (seat == null) {
+            final var held = seatMap.claimFirstFree();
+            if (held < 0) {
+                log.error("Flight {} has no free seat left", flight.getFlightNumber());
+                throw new IllegalArgumentException("Flight is full");
+            }
+            return held;
+        }
+
+        final var held = seatMap.seatOf(seat);
+        if (!seatMap.claim(held)) {
+            log.error("Seat {} on flight {} is already taken", seat, flight.getFlightNumber());
+            throw new IllegalArgumentException("Seat " + seat + " is already taken");
+        }
+        return held;
+    }
+
+    private void expire(Expiry expiry) {
+        try {
+            final var released = call(expiry.shard(), () -> transactionTemplate.execute(status -> {
+                final var flight = flightRepository.findWithLockByFlightNumber(expiry.flightNumber()).orElse(null);
+                final var hold = flight == null ? null : seatHoldRepository.findByIdAndFlightId(expiry.holdId(), flight.getId()).orElse(null);
+                if (hold == null) {
+                    return false;
+                }
+                if (hold.getExpiresAt().isAfter(LocalDateTime.now())) {
+                    track(expiry.shard(), expiry.flightNumber(), hold.getId(), hold.getExpiresAt());
+                    return false;
+                }
+
+                release(flight, hold);
+                flightRepository.save(flight);
+                return true;
+            }));
+
+            if (released) {
+                expired.increment();
+                final var cache = cacheManager.getCache(CacheNames.FLIGHT_DETAILS);
+                if (cache != null) {
+                    cache.evict(expiry.flightNumber());
+                }
+                log.debug("Released expired hold {} on flight {}", expiry.holdId(), expiry.flightNumber());
+            }
+        } catch (RuntimeException e) {
+            log.error("Cannot release expired hold {} on flight {}, retrying later", expiry.holdId(), expiry.flightNumber(), e);
+            wheel.schedule(expiry, System.currentTimeMillis() + properties.tick().multipliedBy(60).toMillis());
+        }
+    }
+
+    private void track(String shard, String flightNumber, UUID holdId, LocalDateTime expiresAt) {
+        wheel.schedule(new Expiry(shard, flightNumber, holdId), expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private String currentShard() {
+        final var shards = shardRegistry.getIfAvailable();
+        return shards == null ? null : shards.currentShard();
+    }
+
+    private <T> T call(String shard, Supplier<T> action) {
+        final var shards = shardRegistry.getIfAvailable();
+        return shards == null || shard == null ? action.get() : shards.callOn(shard, action);
+    }
+
+    private int forEachShard(Function<String, Integer> action) {
+        final var shards = shardRegistry.getIfAvailable();
+        return shards == null
+            ? action.apply(null)
+            : shards.scatter(action).values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private record Expiry(String shard, String flightNumber, UUID holdId) {
+    }
+}
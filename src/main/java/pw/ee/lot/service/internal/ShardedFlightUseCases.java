@@ -0,0 +1,236 @@
+package pw.ee.lot.service.internal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import pw.ee.lot.domain.Flight;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.dto.flight.*;
+import pw.ee.lot.service.FlightUseCases;
+import pw.ee.lot.shared.sharding.ShardRebalancer;
+import pw.ee.lot.shared.sharding.ShardRegistry;
+import pw.ee.lot.shared.sharding.ShardingProperties;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Spreads flights over the shards by flight number. Operations on a single flight run on the shard owning it;
+ * listings and searches query every shard in parallel and merge the results. Passengers are kept on every shard by
+ * {@link ShardedPassengerUseCases}, so a booking never spans shards.
+ * <p>
+ * A page is merged from the first {@code offset + size} flights of each shard, so deep pages cost more than
+ * shallow ones and pages ending beyond {@code lot.sharding.max-page-depth} are refused. A flight being moved between
+ * shards is listed once, and the total leaves out the copies seen while merging. Flight numbers are compared the way
+ * Java compares strings, which matches the database ordering for the upper-case alphanumeric flight numbers in use.
+ */
+@Slf4j
+@Primary
+@Service
+@ConditionalOnProperty(name = "lot.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+class ShardedFlightUseCases implements FlightUseCases {
+
+    private static final String FLIGHT_NUMBER = "flightNumber";
+
+    private final FlightUseCasesImpl flightUseCases;
+    private final FlightRepository flightRepository;
+    private final ShardRegistry shardRegistry;
+    private final ShardRebalancer shardRebalancer;
+    private final ShardingProperties properties;
+
+    @Override
+    public Flight createFlight(CreateFlightRequest request) {
+        if (shardRegistry.previousShardFor(request.flightNumber()).filter(shard -> existsOn(shard, request.flightNumber())).isPresent()) {
+            log.error("Flight with number {} already exists", request.flightNumber());
+            throw new IllegalArgumentException("Flight with number " + request.flightNumber() + " already exists");
+        }
+
+        return shardRegistry.callOn(shardRegistry.shardFor(request.flightNumber()), () -> flightUseCases.createFlight(request));
+    }
+
+    @Override
+    public void deleteFlight(String flightNumber) {
+        shardRegistry.runOn(locate(flightNumber), () -> flightUseCases.deleteFlight(flightNumber));
+    }
+
+    /**
+     * Updates the flight on its shard. A new flight number may belong to another shard, the flight is moved there
+     * right after the update.
+     */
+    @Override
+    public void updateFlight(String flightNumber, UpdateFlightRequest request) {
+        final var shard = locate(flightNumber);
+        final var renamedTo = Optional.ofNullable(request.flightNumber())
+            .filter(newFlightNumber -> !newFlightNumber.equals(flightNumber));
+
+        if (renamedTo.filter(newFlightNumber -> existsOn(locate(newFlightNumber), newFlightNumber)).isPresent()) {
+            log.error("Cannot rename flight {} to {} as it already exists", flightNumber, request.flightNumber());
+            throw new IllegalArgumentException("Flight with number " + request.flightNumber() + " already exists");
+        }
+
+        shardRegistry.runOn(shard, () -> flightUseCases.updateFlight(flightNumber, request));
+
+        renamedTo.ifPresent(newFlightNumber -> {
+            final var owner = shardRegistry.shardFor(newFlightNumber);
+            if (!owner.equals(shard)) {
+                shardRebalancer.moveFlight(newFlightNumber, shard, owner);
+            }
+        });
+    }
+
+    @Override
+    public FlightDetailsResource getFlight(String flightNumber) {
+        return shardRegistry.callOn(locate(flightNumber), () -> flightUseCases.getFlight(flightNumber));
+    }
+
+    @Override
+    public Page<FlightResource> getFlights(Pageable pageable) {
+        return gather(pageable, flightUseCases::getFlights);
+    }
+
+    @Override
+    public void addPassengerToFlight(String flightNumber, UUID passengerId) {
+        shardRegistry.runOn(locate(flightNumber), () -> flightUseCases.addPassengerToFlight(flightNumber, passengerId));
+    }
+
+    @Override
+    public void addPassengerToFlight(String flightNumber, UUID passengerId, String seat) {
+        shardRegistry.runOn(locate(flightNumber), () -> flightUseCases.addPassengerToFlight(flightNumber, passengerId, seat));
+    }
+
+    @Override
+    public GroupBookingResource addGroupToFlight(String flightNumber, List<UUID> passengerIds) {
+        return shardRegistry.callOn(locate(flightNumber), () -> flightUseCases.addGroupToFlight(flightNumber, passengerIds));
+    }
+
+    @Override
+    public SeatMapResource getSeatMap(String flightNumber) {
+        return shardRegistry.callOn(locate(flightNumber), () -> flightUseCases.getSeatMap(flightNumber));
+    }
+
+    @Override
+    public void removePassengerFromFlight(String flightNumber, UUID passengerId) {
+        shardRegistry.runOn(locate(flightNumber), () -> flightUseCases.removePassengerFromFlight(flightNumber, passengerId));
+    }
+
+    @Override
+    public RebookingResource cancelFlight(String flightNumber, Duration window) {
+        return shardRegistry.callOn(locate(flightNumber), () -> flightUseCases.cancelFlight(flightNumber, window));
+    }
+
+    @Override
+    public SeatHoldResource holdSeat(String flightNumber, String seat, Duration ttl) {
+        return shardRegistry.callOn(locate(flightNumber), () -> flightUseCases.holdSeat(flightNumber, seat, ttl));
+    }
+
+    @Override
+    public void confirmHold(String flightNumber, UUID holdId, UUID passengerId) {
+        shardRegistry.runOn(locate(flightNumber), () -> flightUseCases.confirmHold(flightNumber, holdId, passengerId));
+    }
+
+    @Override
+    public void releaseHold(String flightNumber, UUID holdId) {
+        shardRegistry.runOn(locate(flightNumber), () -> flightUseCases.releaseHold(flightNumber, holdId));
+    }
+
+    @Override
+    public Page<FlightResource> searchFlights(Pageable pageable, FlightSearchCriteria criteria) {
+        return gather(pageable, shardPageable -> flightUseCases.searchFlights(shardPageable, criteria));
+    }
+
+    @Override
+    public BulkFlightOperationResource rescheduleFlights(FlightSearchCriteria filter, Duration shift, boolean dryRun) {
+        return sum(dryRun, () -> flightUseCases.rescheduleFlights(filter, shift, dryRun));
+    }
+
+    @Override
+    public BulkFlightOperationResource cancelFlights(FlightSearchCriteria filter, boolean dryRun) {
+        return sum(dryRun, () -> flightUseCases.cancelFlights(filter, dryRun));
+    }
+
+    @Override
+    public BulkFlightOperationResource deleteFlights(FlightSearchCriteria filter, boolean dryRun) {
+        return sum(dryRun, () -> flightUseCases.deleteFlights(filter, dryRun));
+    }
+
+    private BulkFlightOperationResource sum(boolean dryRun, Supplier<BulkFlightOperationResource> operation) {
+        final var flights = shardRegistry.scatter(shard -> operation.get()).values().stream()
+            .mapToLong(BulkFlightOperationResource::flights)
+            .sum();
+        return new BulkFlightOperationResource(flights, dryRun);
+    }
+
+    /**
+     * The owning shard, or while shards are rebalanced the previous owner if the flight has not been moved yet.
+     */
+    private String locate(String flightNumber) {
+        final var owner = shardRegistry.shardFor(flightNumber);
+        return shardRegistry.previousShardFor(flightNumber)
+            .filter(previous -> !existsOn(owner, flightNumber))
+            .orElse(owner);
+    }
+
+    private boolean existsOn(String shard, String flightNumber) {
+        return shardRegistry.callOn(shard, () -> flightRepository.existsByFlightNumber(flightNumber));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the page ends beyond the deepest one listed across shards
+     */
+    private Page<FlightResource> gather(Pageable pageable, Function<Pageable, Page<FlightResource>> query) {
+        if (pageable.isPaged() && pageable.getOffset() + pageable.getPageSize() > properties.maxPageDepth()) {
+            log.error("Cannot list flights {} to {} across shards", pageable.getOffset(), pageable.getOffset() + pageable.getPageSize());
+            throw new IllegalArgumentException("Flights beyond the first " + properties.maxPageDepth() + " cannot be listed, narrow the search");
+        }
+
+        final var sort = pageable.getSort().and(Sort.by(FLIGHT_NUMBER));
+        final var comparator = comparatorOf(sort);
+        final var shardPageable = pageable.isPaged()
+            ? PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), sort)
+            : pageable;
+
+        final var pages = shardRegistry.scatter(shard -> query.apply(shardPageable)).values();
+        final var seen = new HashSet<String>();
+        final var distinct = pages.stream()
+            .flatMap(Page::stream)
+            .sorted(comparator)
+            .filter(flight -> seen.add(flight.flightNumber()))
+            .toList();
+        final var content = pageable.isPaged()
+            ? distinct.stream().skip(pageable.getOffset()).limit(pageable.getPageSize()).toList()
+            : distinct;
+
+        // a flight being moved is on both shards for a moment, count it once like it is listed once
+        final var copies = pages.stream().mapToLong(Page::getNumberOfElements).sum() - distinct.size();
+        final var total = pages.stream().mapToLong(Page::getTotalElements).sum() - copies;
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private static Comparator<FlightResource> comparatorOf(Sort sort) {
+        Comparator<FlightResource> comparator = (left, right) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<FlightResource> byProperty = switch (order.getProperty()) {
+                case FLIGHT_NUMBER -> Comparator.comparing(FlightResource::flightNumber);
+                case "departureTime" -> Comparator.comparing(FlightResource::departureTime);
+                case "availableSeats" -> Comparator.comparing(FlightResource::availableSeats);
+                default -> throw new IllegalArgumentException("Cannot sort flights by " + order.getProperty());
+            };
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+}
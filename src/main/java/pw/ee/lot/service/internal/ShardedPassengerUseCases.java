@@ -0,0 +1,121 @@
+package pw.ee.lot.service.internal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.dto.flight.FlightResource;
+import pw.ee.lot.dto.passenger.CreatePassengerRequest;
+import pw.ee.lot.dto.passenger.PassengerDetailsResource;
+import pw.ee.lot.dto.passenger.UpdatePassengerRequest;
+import pw.ee.lot.service.PassengerUseCases;
+import pw.ee.lot.shared.sharding.ShardRebalancer;
+import pw.ee.lot.shared.sharding.ShardRegistry;
+
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Keeps passengers as reference data on every shard, so that flights can be booked on the shard they live on.
+ * The default shard holds the authoritative copy: it is written first and decides whether a passenger exists.
+ */
+@Slf4j
+@Primary
+@Service
+@ConditionalOnProperty(name = "lot.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+class ShardedPassengerUseCases implements PassengerUseCases {
+
+    private final PassengerUseCasesImpl passengerUseCases;
+    private final PassengerRepository passengerRepository;
+    private final ShardRegistry shardRegistry;
+    private final ShardRebalancer shardRebalancer;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public Passenger createPassenger(CreatePassengerRequest request) {
+        final var passenger = shardRegistry.callOn(shardRegistry.defaultShard(), () -> passengerUseCases.createPassenger(request));
+        forEachOtherShard(shard -> shardRebalancer.copyPassenger(passenger, shard));
+        return passenger;
+    }
+
+    /**
+     * Deletes the passenger from every shard, provided none of the shards has it booked on a flight.
+     */
+    @Override
+    public void deletePassenger(UUID passengerId) {
+        final var readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        final var booked = shardRegistry.scatter(shard -> readOnly.execute(status -> passengerRepository.findById(passengerId)
+                .map(passenger -> !passenger.getFlights().isEmpty())
+                .orElse(false)))
+            .containsValue(true);
+
+        if (booked) {
+            log.error("Cannot delete passenger {} as it's assigned to flights", passengerId);
+            throw new IllegalArgumentException("Passenger is assigned to flights");
+        }
+
+        shardRegistry.runOn(shardRegistry.defaultShard(), () -> passengerUseCases.deletePassenger(passengerId));
+        forEachOtherShard(shard -> ignoringMissing(() -> passengerUseCases.deletePassenger(passengerId)));
+    }
+
+    @Override
+    public void updatePassenger(UUID passengerId, UpdatePassengerRequest request) {
+        shardRegistry.runOn(shardRegistry.defaultShard(), () -> passengerUseCases.updatePassenger(passengerId, request));
+        forEachOtherShard(shard -> ignoringMissing(() -> passengerUseCases.updatePassenger(passengerId, request)));
+    }
+
+    /**
+     * Reads the passenger from every shard and joins the flights booked on each of them.
+     */
+    @Override
+    public PassengerDetailsResource getPassenger(UUID passengerId) {
+        final var details = shardRegistry.scatter(shard -> {
+            try {
+                return Optional.of(passengerUseCases.getPassenger(passengerId));
+            } catch (NoSuchElementException e) {
+                return Optional.<PassengerDetailsResource>empty();
+            }
+        });
+
+        final var passenger = details.get(shardRegistry.defaultShard())
+            .orElseThrow(() -> new NoSuchElementException("Passenger not found"));
+        final var flights = new HashSet<FlightResource>();
+        details.values().forEach(shardDetails -> shardDetails.ifPresent(resource -> flights.addAll(resource.flights())));
+
+        return PassengerDetailsResource.builder()
+            .passengerId(passenger.passengerId())
+            .firstName(passenger.firstName())
+            .lastName(passenger.lastName())
+            .countryCode(passenger.countryCode())
+            .phoneNumber(passenger.phoneNumber())
+            .flights(flights)
+            .build();
+    }
+
+    private void forEachOtherShard(Consumer<String> action) {
+        shardRegistry.shards().stream()
+            .filter(shard -> !shard.equals(shardRegistry.defaultShard()))
+            .forEach(shard -> shardRegistry.runOn(shard, () -> action.accept(shard)));
+    }
+
+    /**
+     * A shard added while the passenger was being changed may not have received its copy yet.
+     */
+    private static void ignoringMissing(Runnable action) {
+        try {
+            action.run();
+        } catch (NoSuchElementException e) {
+            log.debug("Passenger copy missing on a shard", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package pw.ee.lot.shared;
+
+/**
+ * Thrown when a request needs a feature this instance runs without, answered with {@code 501 Not Implemented}.
+ */
+public class FeatureDisabledException extends RuntimeException {
+
+    public FeatureDisabledException(String message) {
+        super(message);
+    }
+}
@@ -11,7 +11,10 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import pw.ee.lot.shared.admission.ServiceOverloadedException;
+import pw.ee.lot.shared.admission.TooManyRequestsException;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -58,6 +61,21 @@ class RestResponseEntityExceptionHandler {
         return createResponse(exception.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, List<String>>> handleTooManyRequestsException(TooManyRequestsException exception) {
+        return createResponse(exception.getMessage(), HttpStatus.TOO_MANY_REQUESTS, exception.getRetryAfter());
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<Map<String, List<String>>> handleServiceOverloadedException(ServiceOverloadedException exception) {
+        return createResponse(exception.getMessage(), HttpStatus.SERVICE_UNAVAILABLE, exception.getRetryAfter());
+    }
+
+    @ExceptionHandler(FeatureDisabledException.class)
+    public ResponseEntity<Map<String, List<String>>> handleFeatureDisabledException(FeatureDisabledException exception) {
+        return createResponse(exception.getMessage(), HttpStatus.NOT_IMPLEMENTED);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, List<String>>> handleException(Exception exception) {
         log.error("Internal server error", exception);
@@ -73,4 +91,10 @@ class RestResponseEntityExceptionHandler {
         return createResponse(List.of(message), status);
     }
 
+    private ResponseEntity<Map<String, List<String>>> createResponse(String message, HttpStatus status, Duration retryAfter) {
+        final var headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, -Math.floorDiv(-retryAfter.toMillis(), 1000))));
+        return new ResponseEntity<>(Map.of(RESPONSE_ERRORS_KEY, List.of(message)), headers, status);
+    }
+
 }
\ No newline at end of file
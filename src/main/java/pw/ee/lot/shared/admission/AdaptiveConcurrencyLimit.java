@@ -0,0 +1,58 @@
+package pw.ee.lot.shared.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adapting to latency by additive increase and multiplicative decrease: a request slower than the
+ * target cuts the limit by a tenth, a request within it raises the limit by one while the limit is in use. Starting at
+ * the maximum, the limit settles where the backend keeps up, so excess requests are turned away right away instead of
+ * queueing for threads and connections.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    AdaptiveConcurrencyLimit(int minLimit, int maxLimit, long targetLatencyNanos) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.limit = this.maxLimit;
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            final var current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long latencyNanos) {
+        final var before = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (latencyNanos > targetLatencyNanos) {
+                limit = Math.max(minLimit, (int) (limit * BACKOFF_RATIO));
+            } else if (before * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+}
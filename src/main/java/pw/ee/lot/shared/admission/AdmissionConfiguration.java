@@ -0,0 +1,23 @@
+package pw.ee.lot.shared.admission;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Puts the {@link AdmissionControlInterceptor} in front of the API controllers. It runs as an interceptor rather
+ * than a filter so that rejections are answered by the exception handler like any other error.
+ */
+@Configuration(proxyBeanMethods = false)
+@RequiredArgsConstructor
+class AdmissionConfiguration implements WebMvcConfigurer {
+
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionControlInterceptor)
+            .addPathPatterns("/flights/**", "/passengers/**", "/archived-flights/**", "/analytics/**", "/departures/**");
+    }
+}
@@ -0,0 +1,102 @@
+package pw.ee.lot.shared.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Admits API requests by the rate of their client and the bulkhead of their {@link EndpointClass}, before any
+ * thread-consuming work starts. Clients are told apart by their address, which behind a proxy is the forwarded one
+ * when {@code server.forward-headers-strategy} is set; a header the client chooses itself could be changed on every
+ * request to get a fresh rate. A client over its rate gets a {@link TooManyRequestsException}, a request finding its
+ * bulkhead full a {@link ServiceOverloadedException}; both are answered right away with a {@code Retry-After}.
+ * Bulkheads keep searches from taking the capacity bookings need, and adapt their limit to the latency the backend
+ * currently delivers.
+ */
+@Component
+class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final int MAX_TRACKED_CLIENTS = 100_000;
+    private static final String ADMITTED_CLASS = AdmissionControlInterceptor.class.getName() + ".class";
+    private static final String ADMITTED_AT = AdmissionControlInterceptor.class.getName() + ".admittedAt";
+
+    private final AdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<EndpointClass, AdaptiveConcurrencyLimit> bulkheads = new EnumMap<>(EndpointClass.class);
+    private final Cache<String, TokenBucket> clients;
+
+    AdmissionControlInterceptor(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clients = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofSeconds(Math.max(1, -Math.floorDiv(-properties.clientBurst(), Math.max(1, properties.clientRate())))))
+            .maximumSize(MAX_TRACKED_CLIENTS)
+            .build();
+
+        bulkheads.put(EndpointClass.SEARCH, limitOf(properties.search()));
+        bulkheads.put(EndpointClass.DETAILS, limitOf(properties.details()));
+        bulkheads.put(EndpointClass.WRITES, limitOf(properties.writes()));
+        bulkheads.put(EndpointClass.ADMIN, limitOf(properties.admin()));
+        bulkheads.forEach((endpointClass, bulkhead) -> {
+            Gauge.builder("lot.admission.limit", bulkhead, AdaptiveConcurrencyLimit::limit)
+                .tag("class", endpointClass.name().toLowerCase())
+                .description("Concurrent requests the bulkhead admits right now")
+                .register(meterRegistry);
+            Gauge.builder("lot.admission.in-flight", bulkhead, AdaptiveConcurrencyLimit::inFlight)
+                .tag("class", endpointClass.name().toLowerCase())
+                .description("Requests running in the bulkhead")
+                .register(meterRegistry);
+        });
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        if (!properties.enabled()) {
+            return true;
+        }
+
+        final var endpointClass = EndpointClass.of(request);
+        final var now = System.nanoTime();
+        final var wait = clients.get(request.getRemoteAddr(), client -> new TokenBucket(properties.clientRate(), properties.clientBurst(), now))
+            .tryTake(now);
+        if (wait > 0) {
+            rejected(endpointClass, "rate");
+            throw new TooManyRequestsException("Too many requests", Duration.ofNanos(wait));
+        }
+
+        if (!bulkheads.get(endpointClass).tryAcquire()) {
+            rejected(endpointClass, "concurrency");
+            throw new ServiceOverloadedException("Service is overloaded", properties.retryAfter());
+        }
+
+        request.setAttribute(ADMITTED_CLASS, endpointClass);
+        request.setAttribute(ADMITTED_AT, now);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED_CLASS) instanceof EndpointClass endpointClass
+            && request.getAttribute(ADMITTED_AT) instanceof Long admittedAt) {
+            bulkheads.get(endpointClass).release(System.nanoTime() - admittedAt);
+        }
+    }
+
+    private void rejected(EndpointClass endpointClass, String reason) {
+        meterRegistry.counter("lot.admission.rejected", "class", endpointClass.name().toLowerCase(), "reason", reason).increment();
+    }
+
+    private static AdaptiveConcurrencyLimit limitOf(AdmissionProperties.Bulkhead bulkhead) {
+        return new AdaptiveConcurrencyLimit(bulkhead.minConcurrency(), bulkhead.maxConcurrency(), bulkhead.targetLatency().toNanos());
+    }
+}
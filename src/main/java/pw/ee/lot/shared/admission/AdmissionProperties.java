@@ -0,0 +1,64 @@
+package pw.ee.lot.shared.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Admission control of API requests.
+ *
+ * @param enabled        whether requests are admitted by the limits below
+ * @param search         bulkhead of flight listings and searches, 4 to 32 requests within 200ms by default
+ * @param details        bulkhead of the other reads, 8 to 64 requests within 100ms by default
+ * @param writes         bulkhead of the other requests changing data, 16 to 64 requests within 500ms by default
+ * @param admin          bulkhead of bulk operations and cancellations, 1 to 4 requests within 10s by default
+ * @param clientRate     requests per second a client may make on average
+ * @param clientBurst    requests a client may make at once after being idle
+ * @param retryAfter     how long a client is told to wait when a bulkhead is full
+ */
+@ConfigurationProperties("lot.admission")
+public record AdmissionProperties(
+    @DefaultValue("true")
+    boolean enabled,
+
+    Bulkhead search,
+
+    Bulkhead details,
+
+    Bulkhead writes,
+
+    Bulkhead admin,
+
+    @DefaultValue("50")
+    int clientRate,
+
+    @DefaultValue("100")
+    int clientBurst,
+
+    @DefaultValue("1s")
+    Duration retryAfter
+) {
+
+    public AdmissionProperties {
+        search = search != null ? search : new Bulkhead(4, 32, Duration.ofMillis(200));
+        details = details != null ? details : new Bulkhead(8, 64, Duration.ofMillis(100));
+        writes = writes != null ? writes : new Bulkhead(16, 64, Duration.ofMillis(500));
+        admin = admin != null ? admin : new Bulkhead(1, 4, Duration.ofSeconds(10));
+    }
+
+    /**
+     * Concurrency limit of a class of endpoints, lowered while requests are slower than the latency target and raised
+     * again while they are faster.
+     *
+     * @param minConcurrency concurrent requests always admitted
+     * @param maxConcurrency concurrent requests never exceeded
+     * @param targetLatency  latency above which the limit is lowered
+     */
+    public record Bulkhead(
+        int minConcurrency,
+        int maxConcurrency,
+        Duration targetLatency
+    ) {
+    }
+}
@@ -0,0 +1,49 @@
+package pw.ee.lot.shared.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+
+import java.util.regex.Pattern;
+
+/**
+ * Classes of endpoints admitted through separate bulkheads, so that one class running hot cannot take the threads and
+ * connections of another.
+ */
+enum EndpointClass {
+
+    /**
+     * Listings, searches and analytics, which scan many rows.
+     */
+    SEARCH,
+
+    /**
+     * Reads of a single flight, passenger, seat map or departures board.
+     */
+    DETAILS,
+
+    /**
+     * Requests changing data, bookings above all.
+     */
+    WRITES,
+
+    /**
+     * Operations changing many flights or passengers at once: bulk operations and cancellations, which rebook the
+     * passengers of the flight.
+     */
+    ADMIN;
+
+    private static final Pattern CANCELLATION = Pattern.compile("/flights/[^/]+/cancel");
+
+    static EndpointClass of(HttpServletRequest request) {
+        final var path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return path.startsWith("/flights/bulk/") || CANCELLATION.matcher(path).matches() ? ADMIN : WRITES;
+        }
+
+        if (path.equals("/flights") || path.equals("/flights/search") || path.startsWith("/archived-flights")
+            || path.startsWith("/analytics")) {
+            return SEARCH;
+        }
+        return DETAILS;
+    }
+}
@@ -0,0 +1,20 @@
+package pw.ee.lot.shared.admission;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the bulkhead of a request is full, answered with {@code 503 Service Unavailable}.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
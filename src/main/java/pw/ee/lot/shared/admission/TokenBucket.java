@@ -0,0 +1,34 @@
+package pw.ee.lot.shared.admission;
+
+/**
+ * Token bucket refilled continuously at a fixed rate up to its capacity, one token per request.
+ */
+final class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final double ratePerNano;
+    private final double capacity;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(int ratePerSecond, int capacity, long nowNanos) {
+        this.ratePerNano = (double) ratePerSecond / NANOS_PER_SECOND;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.refilledAt = nowNanos;
+    }
+
+    /**
+     * @return {@code 0} if a token was taken, else the nanoseconds until one is available
+     */
+    synchronized long tryTake(long nowNanos) {
+        tokens = Math.min(capacity, tokens + (nowNanos - refilledAt) * ratePerNano);
+        refilledAt = nowNanos;
+        if (tokens >= 1) {
+            tokens--;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / ratePerNano);
+    }
+}
@@ -0,0 +1,20 @@
+package pw.ee.lot.shared.admission;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a client exceeds its request rate, answered with {@code 429 Too Many Requests}.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,27 @@
+package pw.ee.lot.shared.analytics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Columnar flight analytics.
+ *
+ * @param refreshInterval how often the columns are read again in full, catching up with the flights changed around
+ *                        the use cases, such as bulk operations and archiving
+ * @param chunkSize       flights read per query while refreshing
+ * @param splitThreshold  flights an aggregation scans on one thread before splitting the range in halves
+ */
+@ConfigurationProperties("lot.analytics")
+public record AnalyticsProperties(
+    @DefaultValue("PT15M")
+    Duration refreshInterval,
+
+    @DefaultValue("1000")
+    int chunkSize,
+
+    @DefaultValue("32768")
+    int splitThreshold
+) {
+}
@@ -0,0 +1,210 @@
+package pw.ee.lot.shared.analytics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.dto.flight.FlightAnalyticsResource;
+import pw.ee.lot.shared.analytics.FlightColumns.FlightKey;
+import pw.ee.lot.shared.readmodel.FlightChangedEvent;
+import pw.ee.lot.shared.readmodel.FlightsChangedEvent;
+import pw.ee.lot.shared.sharding.ShardRegistry;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Answers load factor, bookings per city and departure heatmap reports from {@link FlightColumns}, so reports never
+ * scan the flight tables.
+ * <p>
+ * The columns are read in full on startup and every {@code lot.analytics.refresh-interval}. In between, every
+ * committed flight change is applied right after the commit, like the search read model is kept in sync, so reports
+ * follow the writes made through the use cases and bulk operations; changes made around them wait for the next refresh.
+ */
+@Slf4j
+@Component
+public class FlightAnalytics {
+
+    private static final String DEFAULT_SHARD = "";
+
+    private final FlightRepository flightRepository;
+    private final ObjectProvider<ShardRegistry> shardRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final FlightColumns columns;
+    private final int chunkSize;
+    private final Map<String, Set<Long>> changedWhileRefreshing = new ConcurrentHashMap<>();
+
+    FlightAnalytics(FlightRepository flightRepository, ObjectProvider<ShardRegistry> shardRegistry, PlatformTransactionManager transactionManager,
+                    AnalyticsProperties properties, MeterRegistry meterRegistry) {
+        this.flightRepository = flightRepository;
+        this.shardRegistry = shardRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.columns = new FlightColumns(properties.splitThreshold());
+        this.chunkSize = properties.chunkSize();
+        Gauge.builder("lot.analytics.flights", columns, FlightColumns::flights)
+            .description("Flights held by the analytics columns")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Aggregates the flights departing within the window, both ends included.
+     *
+     * @param departureFrom start of the window, {@code null} for no start
+     * @param departureTo   end of the window, {@code null} for no end
+     */
+    public FlightAnalyticsResource report(LocalDateTime departureFrom, LocalDateTime departureTo) {
+        final var totals = columns.aggregate(
+            departureFrom != null ? departureFrom : LocalDateTime.MIN,
+            departureTo != null ? departureTo : LocalDateTime.MAX);
+
+        final var cities = totals.cities();
+        final var bookingsPerCity = IntStream.range(0, cities.size())
+            .filter(city -> totals.cityBookings[city] > 0)
+            .boxed()
+            .sorted(Comparator.comparingLong((Integer city) -> totals.cityBookings[city]).reversed())
+            .collect(Collectors.toMap(cities::get, city -> totals.cityBookings[city], Long::sum, LinkedHashMap::new));
+
+        final var departures = new long[FlightColumns.DAYS][FlightColumns.HOURS];
+        for (int day = 0; day < FlightColumns.DAYS; day++) {
+            System.arraycopy(totals.departures, day * FlightColumns.HOURS, departures[day], 0, FlightColumns.HOURS);
+        }
+
+        return new FlightAnalyticsResource(
+            totals.flights,
+            totals.seats,
+            totals.bookedSeats,
+            totals.seats == 0 ? 0 : (double) totals.bookedSeats / totals.seats,
+            bookingsPerCity,
+            departures
+        );
+    }
+
+    @TransactionalEventListener
+    public void onFlightChanged(FlightChangedEvent event) {
+        try {
+            apply(currentShard(), List.of(event.flightId()));
+        } catch (RuntimeException e) {
+            log.error("Cannot apply flight {} to the analytics columns, it is fixed by the next refresh", event.flightId(), e);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onFlightsChanged(FlightsChangedEvent event) {
+        try {
+            apply(currentShard(), event.flightIds());
+        } catch (RuntimeException e) {
+            log.error("Cannot apply {} flights to the analytics columns, they are fixed by the next refresh", event.flightIds().size(), e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void load() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${lot.analytics.refresh-interval:PT15M}", initialDelayString = "${lot.analytics.refresh-interval:PT15M}")
+    void refresh() {
+        final var start = System.nanoTime();
+        final var shards = shardRegistry.getIfAvailable();
+        final var removed = shards == null
+            ? refreshShard(DEFAULT_SHARD)
+            : shards.scatter(this::refreshShard).values().stream().mapToInt(Integer::intValue).sum();
+
+        log.info("Refreshed the analytics columns with {} flights in {} ms, {} deleted flights removed", columns.flights(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), removed);
+    }
+
+    /**
+     * Reads the flights of the shard in chunks and removes the ones no longer there.
+     *
+     * @return the number of flights removed
+     */
+    private int refreshShard(String shard) {
+        final var changed = ConcurrentHashMap.<Long>newKeySet();
+        changedWhileRefreshing.put(shard, changed);
+        try {
+            final var seen = new HashSet<Long>();
+            var lastId = 0L;
+            List<FlightRepository.FlightFigures> chunk;
+            do {
+                final var afterId = lastId;
+                chunk = transactionTemplate.execute(status -> readChunk(shard, afterId));
+                chunk.forEach(figures -> seen.add(figures.getId()));
+                if (!chunk.isEmpty()) {
+                    lastId = chunk.get(chunk.size() - 1).getId();
+                }
+            } while (chunk.size() == chunkSize);
+
+            seen.addAll(changed);
+            return columns.retain(shard, seen);
+        } finally {
+            changedWhileRefreshing.remove(shard);
+        }
+    }
+
+    private List<FlightRepository.FlightFigures> readChunk(String shard, long afterId) {
+        final var chunk = flightRepository.findFiguresByIdGreaterThan(afterId, PageRequest.ofSize(chunkSize));
+        putAll(shard, chunk);
+        return chunk;
+    }
+
+    /**
+     * Reads the figures of the flights without loading the entities, removing the ones no longer there.
+     */
+    private void apply(String shard, List<Long> flightIds) {
+        final var changed = changedWhileRefreshing.get(shard);
+        if (changed != null) {
+            changed.addAll(flightIds);
+        }
+
+        final var figures = transactionTemplate.execute(status -> {
+            final var flights = flightRepository.findFiguresByIdIn(flightIds);
+            putAll(shard, flights);
+            return flights;
+        });
+        final var present = figures.stream().map(FlightRepository.FlightFigures::getId).collect(Collectors.toSet());
+        flightIds.stream()
+            .filter(flightId -> !present.contains(flightId))
+            .forEach(flightId -> columns.remove(new FlightKey(shard, flightId)));
+    }
+
+    private void putAll(String shard, List<FlightRepository.FlightFigures> flights) {
+        if (flights.isEmpty()) {
+            return;
+        }
+
+        final var routes = flightRepository.findRouteStops(flights.stream().map(FlightRepository.FlightFigures::getId).toList()).stream()
+            .collect(Collectors.groupingBy(FlightRepository.RouteStop::getFlightId,
+                Collectors.mapping(FlightRepository.RouteStop::getCity, Collectors.toList())));
+        for (var figures : flights) {
+            columns.put(new FlightKey(shard, figures.getId()), figures.getDepartureTime(), figures.getAvailableSeats(), figures.getBookedSeats(),
+                routes.getOrDefault(figures.getId(), List.of()));
+        }
+    }
+
+    private String currentShard() {
+        final var shards = shardRegistry.getIfAvailable();
+        return shards == null ? DEFAULT_SHARD : shards.currentShard();
+    }
+}
@@ -0,0 +1,229 @@
+package pw.ee.lot.shared.analytics;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar copy of the flight figures analytics aggregate over: one primitive array per column, indexed by a slot
+ * per flight, and the route stops encoded as city codes. Slots of removed flights are reused.
+ * <p>
+ * Changes take the write lock for a few array stores; an aggregation holds the read lock while the fork/join pool
+ * scans disjoint slot ranges in parallel, so it sees every flight as a whole.
+ */
+final class FlightColumns {
+
+    static final int DAYS = 7;
+    static final int HOURS = 24;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int[] NO_ROUTE = new int[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<FlightKey, Integer> slots = new HashMap<>();
+    private final Map<String, Integer> cityCodes = new HashMap<>();
+    private final List<String> cities = new ArrayList<>();
+    private final int splitThreshold;
+    private FlightKey[] keys = new FlightKey[INITIAL_CAPACITY];
+    private long[] departures = new long[INITIAL_CAPACITY];
+    private int[] availableSeats = new int[INITIAL_CAPACITY];
+    private int[] capacities = new int[INITIAL_CAPACITY];
+    private int[][] routes = new int[INITIAL_CAPACITY][];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int size;
+
+    FlightColumns(int splitThreshold) {
+        this.splitThreshold = splitThreshold;
+    }
+
+    /**
+     * Adds the flight or replaces its figures.
+     *
+     * @param bookedSeats seats taken by bookings, the capacity is the available seats plus these
+     */
+    void put(FlightKey key, LocalDateTime departureTime, int available, int bookedSeats, List<String> route) {
+        lock.writeLock().lock();
+        try {
+            final var slot = slots.computeIfAbsent(key, this::allocate);
+            keys[slot] = key;
+            departures[slot] = departureTime.toEpochSecond(ZoneOffset.UTC);
+            availableSeats[slot] = available;
+            capacities[slot] = available + bookedSeats;
+            routes[slot] = encode(route);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(FlightKey key) {
+        lock.writeLock().lock();
+        try {
+            final var slot = slots.remove(key);
+            if (slot != null) {
+                release(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the flights of the shard that are not among the ones seen, the flights deleted since the shard was
+     * last read in full.
+     *
+     * @return the number of flights removed
+     */
+    int retain(String shard, Set<Long> seen) {
+        lock.writeLock().lock();
+        try {
+            var removed = 0;
+            final var iterator = slots.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final var entry = iterator.next();
+                final var key = entry.getKey();
+                if (key.shard().equals(shard) && !seen.contains(key.flightId())) {
+                    iterator.remove();
+                    release(entry.getValue());
+                    removed++;
+                }
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int flights() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aggregates the flights departing within the window, both ends included.
+     */
+    FlightTotals aggregate(LocalDateTime from, LocalDateTime to) {
+        lock.readLock().lock();
+        try {
+            final var task = new AggregationTask(from.toEpochSecond(ZoneOffset.UTC), to.toEpochSecond(ZoneOffset.UTC), 0, size);
+            return ForkJoinPool.commonPool().invoke(task).withCities(List.copyOf(cities));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int allocate(FlightKey key) {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+
+        if (size == keys.length) {
+            final var capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            departures = Arrays.copyOf(departures, capacity);
+            availableSeats = Arrays.copyOf(availableSeats, capacity);
+            capacities = Arrays.copyOf(capacities, capacity);
+            routes = Arrays.copyOf(routes, capacity);
+        }
+        return size++;
+    }
+
+    private void release(int slot) {
+        keys[slot] = null;
+        routes[slot] = NO_ROUTE;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private int[] encode(List<String> route) {
+        if (route == null || route.isEmpty()) {
+            return NO_ROUTE;
+        }
+
+        final var codes = new int[route.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = cityCodes.computeIfAbsent(route.get(i), city -> {
+                cities.add(city);
+                return cities.size() - 1;
+            });
+        }
+        return codes;
+    }
+
+    /**
+     * Flight by its id on the shard it is stored on, as ids are assigned by every shard on its own.
+     */
+    record FlightKey(String shard, long flightId) {
+    }
+
+    /**
+     * Aggregates a slot range, splitting it in halves down to {@code lot.analytics.split-threshold} slots. The
+     * arrays are read as they were when the task was created, under the read lock of the calling thread.
+     */
+    private final class AggregationTask extends RecursiveTask<FlightTotals> {
+
+        private final long from;
+        private final long to;
+        private final int start;
+        private final int end;
+        private final FlightKey[] keys = FlightColumns.this.keys;
+        private final long[] departures = FlightColumns.this.departures;
+        private final int[] availableSeats = FlightColumns.this.availableSeats;
+        private final int[] capacities = FlightColumns.this.capacities;
+        private final int[][] routes = FlightColumns.this.routes;
+        private final int cityCount = cities.size();
+
+        AggregationTask(long from, long to, int start, int end) {
+            this.from = from;
+            this.to = to;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected FlightTotals compute() {
+            if (end - start > splitThreshold) {
+                final var middle = (start + end) >>> 1;
+                final var left = new AggregationTask(from, to, start, middle);
+                left.fork();
+                final var right = new AggregationTask(from, to, middle, end).compute();
+                return left.join().add(right);
+            }
+
+            final var totals = new FlightTotals(cityCount);
+            for (int slot = start; slot < end; slot++) {
+                final var departure = departures[slot];
+                if (keys[slot] == null || departure < from || departure > to) {
+                    continue;
+                }
+
+                final var booked = capacities[slot] - availableSeats[slot];
+                totals.flights++;
+                totals.seats += capacities[slot];
+                totals.bookedSeats += booked;
+                for (int city : routes[slot]) {
+                    totals.cityBookings[city] += booked;
+                }
+                final var day = Math.floorDiv(departure, 86_400L);
+                final var dayOfWeek = (int) Math.floorMod(day + 3, DAYS);
+                final var hour = (int) (Math.floorMod(departure, 86_400L) / 3_600);
+                totals.departures[dayOfWeek * HOURS + hour]++;
+            }
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package pw.ee.lot.shared.analytics;
+
+import java.util.List;
+
+/**
+ * Sums over a range of flights, merged pairwise as the aggregation joins.
+ */
+final class FlightTotals {
+
+    long flights;
+    long seats;
+    long bookedSeats;
+    final long[] cityBookings;
+    /**
+     * Departures by day of the week, Monday first, and hour of the day: {@code day * 24 + hour}.
+     */
+    final long[] departures = new long[FlightColumns.DAYS * FlightColumns.HOURS];
+    private List<String> cities = List.of();
+
+    FlightTotals(int cityCount) {
+        this.cityBookings = new long[cityCount];
+    }
+
+    FlightTotals add(FlightTotals other) {
+        flights += other.flights;
+        seats += other.seats;
+        bookedSeats += other.bookedSeats;
+        for (int i = 0; i < cityBookings.length; i++) {
+            cityBookings[i] += other.cityBookings[i];
+        }
+        for (int i = 0; i < departures.length; i++) {
+            departures[i] += other.departures[i];
+        }
+        return this;
+    }
+
+    /**
+     * Names of the city codes the bookings per city are indexed by.
+     */
+    FlightTotals withCities(List<String> cities) {
+        this.cities = cities;
+        return this;
+    }
+
+    List<String> cities() {
+        return cities;
+    }
+}
@@ -0,0 +1,34 @@
+package pw.ee.lot.shared.archive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Archival of departed flights.
+ *
+ * @param enabled          move departed flights into the archive tables
+ * @param interval         how often the archival runs
+ * @param grace            how long after departure a flight stays in the live tables
+ * @param batchSize        flights moved per transaction
+ * @param maxBatchesPerRun batches per run and shard, the rest is left to the next run
+ */
+@ConfigurationProperties("lot.archive")
+public record ArchiveProperties(
+    @DefaultValue("true")
+    boolean enabled,
+
+    @DefaultValue("PT15M")
+    Duration interval,
+
+    @DefaultValue("PT6H")
+    Duration grace,
+
+    @DefaultValue("500")
+    int batchSize,
+
+    @DefaultValue("20")
+    int maxBatchesPerRun
+) {
+}
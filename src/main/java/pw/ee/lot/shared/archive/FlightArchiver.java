@@ -0,0 +1,134 @@
+package pw.ee.lot.shared.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.repository.ArchivedFlightRepository;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.shared.bloom.FlightNumberFilter;
+import pw.ee.lot.shared.cache.CacheNames;
+import pw.ee.lot.shared.journal.BookingJournal;
+import pw.ee.lot.shared.readmodel.FlightsChangedEvent;
+import pw.ee.lot.shared.sharding.ShardRegistry;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves flights that departed more than {@code lot.archive.grace} ago, together with their routes and passenger
+ * manifests, into the archive tables. This keeps the live tables, their indexes and the search read model down to
+ * the current and upcoming flights that nearly all traffic is about.
+ * <p>
+ * Each batch is one transaction of set-based statements over flights locked with {@code SKIP LOCKED}, so runs on
+ * several instances share the work instead of blocking each other. Archived flights are journaled as deleted, as
+ * they leave the live tables the journal mirrors.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "lot.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class FlightArchiver {
+
+    private final FlightRepository flightRepository;
+    private final ArchivedFlightRepository archivedFlightRepository;
+    private final CacheManager cacheManager;
+    private final FlightNumberFilter flightNumberFilter;
+    private final ObjectProvider<ShardRegistry> shardRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingJournal bookingJournal;
+    private final ArchiveProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archived;
+    private final Timer batches;
+
+    FlightArchiver(FlightRepository flightRepository, ArchivedFlightRepository archivedFlightRepository, CacheManager cacheManager,
+                   FlightNumberFilter flightNumberFilter, ObjectProvider<ShardRegistry> shardRegistry,
+                   ApplicationEventPublisher eventPublisher, BookingJournal bookingJournal, ArchiveProperties properties,
+                   PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.flightRepository = flightRepository;
+        this.archivedFlightRepository = archivedFlightRepository;
+        this.cacheManager = cacheManager;
+        this.flightNumberFilter = flightNumberFilter;
+        this.shardRegistry = shardRegistry;
+        this.eventPublisher = eventPublisher;
+        this.bookingJournal = bookingJournal;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archived = Counter.builder("lot.archive.flights")
+            .description("Departed flights moved into the archive")
+            .register(meterRegistry);
+        this.batches = Timer.builder("lot.archive.batch")
+            .description("Duration of an archival batch")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${lot.archive.interval:PT15M}")
+    void archiveOnSchedule() {
+        archiveDepartedFlights();
+    }
+
+    /**
+     * @return the number of flights archived
+     */
+    public int archiveDepartedFlights() {
+        final var cutoff = LocalDateTime.now().minus(properties.grace());
+        final var shards = shardRegistry.getIfAvailable();
+        final var count = shards == null
+            ? archiveDepartedBefore(cutoff)
+            : shards.scatter(shard -> archiveDepartedBefore(cutoff)).values().stream().mapToInt(Integer::intValue).sum();
+
+        if (count > 0) {
+            log.info("Archived {} flights departed before {}", count, cutoff);
+        }
+        return count;
+    }
+
+    private int archiveDepartedBefore(LocalDateTime cutoff) {
+        var count = 0;
+        for (var batch = 0; batch < properties.maxBatchesPerRun(); batch++) {
+            final var flightNumbers = batches.record(() -> transactionTemplate.execute(status -> archiveBatch(cutoff)));
+            evictCachedDetails(flightNumbers);
+            flightNumberFilter.removed(flightNumbers.size());
+            archived.increment(flightNumbers.size());
+            count += flightNumbers.size();
+
+            if (flightNumbers.size() < properties.batchSize()) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private List<String> archiveBatch(LocalDateTime cutoff) {
+        final var departed = flightRepository.lockDepartedBefore(cutoff, properties.batchSize());
+        if (departed.isEmpty()) {
+            return List.of();
+        }
+
+        final var flightIds = departed.stream().map(FlightRepository.FlightKey::getId).toList();
+        archivedFlightRepository.archiveFlights(flightIds, false);
+        archivedFlightRepository.archiveManifests(flightIds);
+        flightRepository.deleteBookingsOf(flightIds);
+        flightRepository.deleteRoutesOf(flightIds);
+        flightRepository.deleteFlights(flightIds);
+        eventPublisher.publishEvent(new FlightsChangedEvent(flightIds));
+        departed.forEach(flight -> bookingJournal.flightDeleted(flight.getFlightNumber()));
+
+        return departed.stream().map(FlightRepository.FlightKey::getFlightNumber).toList();
+    }
+
+    private void evictCachedDetails(List<String> flightNumbers) {
+        final var cache = cacheManager.getCache(CacheNames.FLIGHT_DETAILS);
+        if (cache != null) {
+            flightNumbers.forEach(cache::evict);
+        }
+    }
+}
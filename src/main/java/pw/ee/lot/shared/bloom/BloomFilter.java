@@ -0,0 +1,96 @@
+package pw.ee.lot.shared.bloom;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter of strings sized for an expected number of keys and false-positive rate.
+ * A negative answer is exact; a positive answer is wrong with roughly the configured probability while no more
+ * than the expected number of keys has been added. Keys cannot be removed.
+ */
+final class BloomFilter {
+
+    private final long capacity;
+    private final int bits;
+    private final int hashes;
+    private final AtomicLongArray words;
+    private final AtomicLong insertions = new AtomicLong();
+
+    BloomFilter(long expectedKeys, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1");
+        }
+
+        final var keys = Math.max(expectedKeys, 1);
+        this.capacity = keys;
+        final var optimalBits = Math.ceil(-keys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = (int) Math.min(Math.max(optimalBits, Long.SIZE), Integer.MAX_VALUE - Long.SIZE);
+        this.hashes = Math.max(1, (int) Math.round((double) bits / keys * Math.log(2)));
+        this.words = new AtomicLongArray((bits + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    void put(String key) {
+        final var hash = hash(key);
+        final var h1 = (int) hash;
+        final var h2 = (int) (hash >>> 32);
+        for (var i = 0; i < hashes; i++) {
+            final var bit = Math.floorMod(h1 + i * h2, bits);
+            final var mask = 1L << bit;
+            words.getAndUpdate(bit >>> 6, word -> word | mask);
+        }
+        insertions.incrementAndGet();
+    }
+
+    boolean mightContain(String key) {
+        final var hash = hash(key);
+        final var h1 = (int) hash;
+        final var h2 = (int) (hash >>> 32);
+        for (var i = 0; i < hashes; i++) {
+            final var bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The false-positive rate expected for the keys added so far, {@code (1 - e^(-k * n / m))^k}.
+     */
+    double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashes * insertions.get() / bits), hashes);
+    }
+
+    /**
+     * Keys the filter was sized for; beyond it the false-positive rate climbs above the configured one.
+     */
+    long capacity() {
+        return capacity;
+    }
+
+    long insertions() {
+        return insertions.get();
+    }
+
+    long sizeInBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    int hashes() {
+        return hashes;
+    }
+
+    private static long hash(String key) {
+        var hash = 0xCBF29CE484222325L;
+        for (var i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,166 @@
+package pw.ee.lot.shared.bloom;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.shared.sharding.ShardRegistry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers every flight number in use in a {@link BloomFilter}, so creating a flight with a number the filter has
+ * never seen can skip the uniqueness query and rely on the unique constraint alone.
+ * <p>
+ * The filter is built from all shards right after startup and rebuilt every {@code lot.flight-number-filter.rebuild-interval}
+ * once it holds more numbers than it was sized for or too many removed ones. Until the first build completes, and
+ * whenever it is disabled, every number is reported as possibly in use. A number added while a rebuild scans the
+ * flights may be missed; the unique constraint still rejects it, so a miss costs a failed insert, never a duplicate.
+ */
+@Slf4j
+@Component
+public class FlightNumberFilter {
+
+    private final FlightNumberFilterProperties properties;
+    private final FlightRepository flightRepository;
+    private final ObjectProvider<ShardRegistry> shardRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong removed = new AtomicLong();
+    private final Counter skipped;
+    private final Counter falsePositives;
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+
+    FlightNumberFilter(FlightNumberFilterProperties properties, FlightRepository flightRepository,
+                       ObjectProvider<ShardRegistry> shardRegistry, PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.flightRepository = flightRepository;
+        this.shardRegistry = shardRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.skipped = Counter.builder("lot.flight-numbers.filter.skipped")
+            .description("Uniqueness queries skipped because the flight number was never seen")
+            .register(meterRegistry);
+        this.falsePositives = Counter.builder("lot.flight-numbers.filter.false-positives")
+            .description("Flight numbers the filter reported as possibly in use that were not")
+            .register(meterRegistry);
+        Gauge.builder("lot.flight-numbers.filter.expected-false-positive-rate", this, FlightNumberFilter::expectedFalsePositiveRate)
+            .description("False-positive rate expected for the flight numbers in the filter")
+            .register(meterRegistry);
+        Gauge.builder("lot.flight-numbers.filter.memory", this, FlightNumberFilter::sizeInBytes)
+            .description("Memory held by the flight number filter")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Whether the flight number may be in use. A {@code false} answer is exact.
+     */
+    public boolean mightExist(String flightNumber) {
+        final var current = filter;
+        if (!properties.enabled() || current == null || current.mightContain(flightNumber)) {
+            return true;
+        }
+
+        skipped.increment();
+        return false;
+    }
+
+    public void added(String flightNumber) {
+        final var current = filter;
+        if (current != null) {
+            current.put(flightNumber);
+        }
+        final var next = building;
+        if (next != null) {
+            next.put(flightNumber);
+        }
+    }
+
+    /**
+     * Records flight numbers that are no longer in use. They stay in the filter until the next rebuild.
+     */
+    public void removed(long flights) {
+        removed.addAndGet(flights);
+    }
+
+    /**
+     * Records a number reported as possibly in use which the uniqueness query found free.
+     */
+    public void falsePositive() {
+        falsePositives.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${lot.flight-number-filter.rebuild-interval:PT1H}")
+    void maintain() {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        final var current = filter;
+        if (current != null
+            && current.insertions() <= current.capacity()
+            && removed.get() <= current.insertions() * properties.maxStaleRatio()) {
+            return;
+        }
+
+        rebuild();
+    }
+
+    /**
+     * Builds a new filter from the flights on every shard and swaps it in.
+     */
+    public void rebuild() {
+        final var shards = shardRegistry.getIfAvailable();
+        final var flights = shards == null
+            ? countFlights()
+            : shards.scatter(shard -> countFlights()).values().stream().mapToLong(Long::longValue).sum();
+        final var next = new BloomFilter(Math.max(properties.expectedFlights(), 2 * flights), properties.falsePositiveRate());
+
+        building = next;
+        removed.set(0);
+        try {
+            if (shards == null) {
+                load(next);
+            } else {
+                shards.scatter(shard -> {
+                    load(next);
+                    return null;
+                });
+            }
+            filter = next;
+            log.info("Built flight number filter of {} flights in {} bytes", next.insertions(), next.sizeInBytes());
+        } finally {
+            building = null;
+        }
+    }
+
+    private long countFlights() {
+        return transactionTemplate.execute(status -> flightRepository.count());
+    }
+
+    private void load(BloomFilter next) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (var flightNumbers = flightRepository.streamFlightNumbers()) {
+                flightNumbers.forEach(next::put);
+            }
+        });
+    }
+
+    private double expectedFalsePositiveRate() {
+        final var current = filter;
+        return current != null ? current.expectedFalsePositiveRate() : 1.0;
+    }
+
+    private double sizeInBytes() {
+        final var current = filter;
+        return current != null ? current.sizeInBytes() : 0;
+    }
+}
@@ -0,0 +1,34 @@
+package pw.ee.lot.shared.bloom;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Flight number Bloom filter settings.
+ *
+ * @param enabled           skip the uniqueness query for flight numbers the filter has never seen
+ * @param expectedFlights   flights the filter is sized for, grown to twice the flight count on every rebuild
+ * @param falsePositiveRate target rate of known-looking numbers that still need the uniqueness query
+ * @param rebuildInterval   how often the filter is checked and rebuilt once it is full or stale
+ * @param maxStaleRatio     share of removed flight numbers still set in the filter that triggers a rebuild
+ */
+@ConfigurationProperties("lot.flight-number-filter")
+public record FlightNumberFilterProperties(
+    @DefaultValue("true")
+    boolean enabled,
+
+    @DefaultValue("100000")
+    long expectedFlights,
+
+    @DefaultValue("0.01")
+    double falsePositiveRate,
+
+    @DefaultValue("1h")
+    Duration rebuildInterval,
+
+    @DefaultValue("0.2")
+    double maxStaleRatio
+) {
+}
@@ -0,0 +1,305 @@
+package pw.ee.lot.shared.board;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.dto.flight.DepartureResource;
+import pw.ee.lot.shared.readmodel.FlightChangedEvent;
+import pw.ee.lot.shared.readmodel.FlightsChangedEvent;
+import pw.ee.lot.shared.sharding.ShardRegistry;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Upcoming departures of every city, each city in a skip list ordered by departure time, so the next departures
+ * are found in {@code O(log n)} and read in order from there. A flight is on the board of every city of its route,
+ * the same cities a search by city matches it with.
+ * <p>
+ * The boards are read in full on startup and every {@code lot.departures-board.refresh-interval}. In between, every
+ * committed flight change is applied right after the commit, like the search read model is kept in sync, including
+ * bulk operations and archiving, which change flights in sets. Changes of seats alone leave the boards as they are.
+ * A flight changed while its shard is refreshed keeps the listing its change made, not the older one the refresh
+ * may have read. Departed flights are never shown and are dropped every {@code lot.departures-board.sweep-interval}.
+ */
+@Slf4j
+@Component
+public class DeparturesBoard {
+
+    private static final String DEFAULT_SHARD = "";
+
+    private final FlightRepository flightRepository;
+    private final ObjectProvider<ShardRegistry> shardRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Map<String, ConcurrentSkipListMap<BoardKey, DepartureResource>> boards = new ConcurrentHashMap<>();
+    private final Map<FlightKey, Listing> flights = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> changedWhileRefreshing = new ConcurrentHashMap<>();
+
+    DeparturesBoard(FlightRepository flightRepository, ObjectProvider<ShardRegistry> shardRegistry, PlatformTransactionManager transactionManager,
+                    DeparturesBoardProperties properties, MeterRegistry meterRegistry) {
+        this.flightRepository = flightRepository;
+        this.shardRegistry = shardRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.chunkSize = properties.chunkSize();
+        Gauge.builder("lot.departures-board.flights", flights, Map::size)
+            .description("Upcoming flights on the departures boards")
+            .register(meterRegistry);
+    }
+
+    /**
+     * The next departures of the city, earliest first.
+     */
+    public List<DepartureResource> next(String city, int limit) {
+        final var board = boards.get(city);
+        if (board == null) {
+            return List.of();
+        }
+
+        return board.tailMap(BoardKey.first(LocalDateTime.now())).values().stream()
+            .limit(limit)
+            .toList();
+    }
+
+    @TransactionalEventListener
+    public void onFlightChanged(FlightChangedEvent event) {
+        if (event.seatsOnly()) {
+            return;
+        }
+
+        final var shard = currentShard();
+        try {
+            final var changed = changedWhileRefreshing.get(shard);
+            if (changed != null) {
+                changed.add(event.flightId());
+            }
+
+            final var key = new FlightKey(shard, event.flightId());
+            transactionTemplate.executeWithoutResult(status -> flightRepository.findById(event.flightId())
+                .ifPresentOrElse(flight -> list(key, new DepartureResource(flight.getFlightNumber(), flight.getDepartureTime(),
+                        flight.getRoute() == null ? List.of() : List.copyOf(flight.getRoute())), Set.of()),
+                    () -> unlist(key)));
+        } catch (RuntimeException e) {
+            log.error("Cannot apply flight {} to the departures boards, it is fixed by the next refresh", event.flightId(), e);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onFlightsChanged(FlightsChangedEvent event) {
+        final var shard = currentShard();
+        try {
+            final var changed = changedWhileRefreshing.get(shard);
+            if (changed != null) {
+                changed.addAll(event.flightIds());
+            }
+
+            final var upcoming = transactionTemplate.execute(status -> {
+                final var flights = flightRepository.findUpcomingByIdIn(LocalDateTime.now(), event.flightIds());
+                listAll(shard, flights, Set.of());
+                return flights;
+            });
+            final var listed = upcoming.stream().map(FlightRepository.UpcomingFlight::getId).collect(Collectors.toSet());
+            event.flightIds().stream()
+                .filter(flightId -> !listed.contains(flightId))
+                .forEach(flightId -> unlist(new FlightKey(shard, flightId)));
+        } catch (RuntimeException e) {
+            log.error("Cannot apply {} flights to the departures boards, they are fixed by the next refresh", event.flightIds().size(), e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void load() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${lot.departures-board.refresh-interval:PT15M}", initialDelayString = "${lot.departures-board.refresh-interval:PT15M}")
+    void refresh() {
+        final var start = System.nanoTime();
+        final var shards = shardRegistry.getIfAvailable();
+        if (shards == null) {
+            refreshShard(DEFAULT_SHARD);
+        } else {
+            shards.scatter(this::refreshShard);
+        }
+
+        log.info("Refreshed the departures boards with {} upcoming flights in {} ms", flights.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Scheduled(fixedDelayString = "${lot.departures-board.sweep-interval:PT1M}", initialDelayString = "${lot.departures-board.sweep-interval:PT1M}")
+    void sweep() {
+        final var departed = BoardKey.first(LocalDateTime.now());
+        final var dropped = new AtomicInteger();
+        for (var board : boards.values()) {
+            for (var boardKey : board.headMap(departed).keySet()) {
+                flights.computeIfPresent(new FlightKey(boardKey.shard(), boardKey.flightId()), (key, listing) -> {
+                    if (!listing.boardKey().equals(boardKey)) {
+                        return listing;
+                    }
+                    unlist(listing);
+                    dropped.incrementAndGet();
+                    return null;
+                });
+                board.remove(boardKey);
+            }
+        }
+
+        if (dropped.get() > 0) {
+            log.debug("Dropped {} departed flights from the departures boards", dropped.get());
+        }
+    }
+
+    /**
+     * Reads the upcoming flights of the shard in chunks and drops the ones no longer there.
+     *
+     * @return the number of upcoming flights of the shard
+     */
+    private int refreshShard(String shard) {
+        final var changed = ConcurrentHashMap.<Long>newKeySet();
+        changedWhileRefreshing.put(shard, changed);
+        try {
+            final var now = LocalDateTime.now();
+            final var seen = new HashSet<Long>();
+            var lastId = 0L;
+            List<FlightRepository.UpcomingFlight> chunk;
+            do {
+                final var afterId = lastId;
+                chunk = transactionTemplate.execute(status -> readChunk(shard, now, afterId, changed));
+                chunk.forEach(flight -> seen.add(flight.getId()));
+                if (!chunk.isEmpty()) {
+                    lastId = chunk.get(chunk.size() - 1).getId();
+                }
+            } while (chunk.size() == chunkSize);
+
+            seen.addAll(changed);
+            flights.keySet().stream()
+                .filter(key -> key.shard().equals(shard) && !seen.contains(key.flightId()))
+                .toList()
+                .forEach(this::unlist);
+            return seen.size();
+        } finally {
+            changedWhileRefreshing.remove(shard);
+        }
+    }
+
+    private List<FlightRepository.UpcomingFlight> readChunk(String shard, LocalDateTime now, long afterId, Set<Long> changed) {
+        final var chunk = flightRepository.findUpcomingByIdGreaterThan(now, afterId, PageRequest.ofSize(chunkSize));
+        listAll(shard, chunk, changed);
+        return chunk;
+    }
+
+    private void listAll(String shard, List<FlightRepository.UpcomingFlight> flights, Set<Long> changed) {
+        if (flights.isEmpty()) {
+            return;
+        }
+
+        final var routes = flightRepository.findRouteStops(flights.stream().map(FlightRepository.UpcomingFlight::getId).toList()).stream()
+            .collect(Collectors.groupingBy(FlightRepository.RouteStop::getFlightId,
+                Collectors.mapping(FlightRepository.RouteStop::getCity, Collectors.toList())));
+        for (var flight : flights) {
+            list(new FlightKey(shard, flight.getId()),
+                new DepartureResource(flight.getFlightNumber(), flight.getDepartureTime(), routes.getOrDefault(flight.getId(), List.of())), changed);
+        }
+    }
+
+    /**
+     * Puts the flight on the boards of its cities before taking its previous listing down, so a flight that is
+     * moved stays on the boards throughout. A flight among the changed ones is left as it is: its change has been
+     * applied since the departure was read. The check is made under the lock of the flight, which a change takes
+     * after adding the flight to the changed ones, so the change is never overwritten.
+     */
+    private void list(FlightKey flightKey, DepartureResource departure, Set<Long> changed) {
+        flights.compute(flightKey, (key, previous) -> {
+            if (changed.contains(key.flightId())) {
+                return previous;
+            }
+
+            final var departed = !departure.departureTime().isAfter(LocalDateTime.now());
+            final var boardKey = new BoardKey(departure.departureTime(), key.shard(), key.flightId());
+            final Set<String> cities = departed ? Set.of() : new LinkedHashSet<>(departure.route());
+            cities.forEach(city -> boards.computeIfAbsent(city, name -> new ConcurrentSkipListMap<>()).put(boardKey, departure));
+
+            if (previous != null) {
+                for (String city : previous.cities()) {
+                    if (!previous.boardKey().equals(boardKey) || !cities.contains(city)) {
+                        boards.get(city).remove(previous.boardKey());
+                    }
+                }
+            }
+            return departed ? null : new Listing(boardKey, cities);
+        });
+    }
+
+    private void unlist(FlightKey flightKey) {
+        flights.computeIfPresent(flightKey, (key, listing) -> {
+            unlist(listing);
+            return null;
+        });
+    }
+
+    private void unlist(Listing listing) {
+        listing.cities().forEach(city -> boards.get(city).remove(listing.boardKey()));
+    }
+
+    private String currentShard() {
+        final var shards = shardRegistry.getIfAvailable();
+        return shards == null ? DEFAULT_SHARD : shards.currentShard();
+    }
+
+    /**
+     * Flight by its id on the shard it is stored on, as ids are assigned by every shard on its own.
+     */
+    private record FlightKey(String shard, long flightId) {
+    }
+
+    /**
+     * Where a flight is listed, to take the listing down when the flight changes.
+     */
+    private record Listing(BoardKey boardKey, Set<String> cities) {
+    }
+
+    /**
+     * Position on a board: by departure time, then by flight so simultaneous departures are kept apart.
+     */
+    private record BoardKey(LocalDateTime departureTime, String shard, long flightId) implements Comparable<BoardKey> {
+
+        /**
+         * Position before every departure at the time.
+         */
+        static BoardKey first(LocalDateTime departureTime) {
+            return new BoardKey(departureTime, "", Long.MIN_VALUE);
+        }
+
+        @Override
+        public int compareTo(BoardKey other) {
+            final var byTime = departureTime.compareTo(other.departureTime);
+            if (byTime != 0) {
+                return byTime;
+            }
+            final var byShard = shard.compareTo(other.shard);
+            return byShard != 0 ? byShard : Long.compare(flightId, other.flightId);
+        }
+    }
+}
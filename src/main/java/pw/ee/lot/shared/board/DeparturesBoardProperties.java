@@ -0,0 +1,31 @@
+package pw.ee.lot.shared.board;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Departures boards of the cities.
+ *
+ * @param refreshInterval how often the boards are read again in full, catching up with the flights changed around
+ *                        the use cases, such as bulk operations
+ * @param sweepInterval   how often departed flights are dropped from the boards; they are never shown meanwhile
+ * @param chunkSize       flights read per query while refreshing
+ * @param maxDepartures   most departures a board request may ask for
+ */
+@ConfigurationProperties("lot.departures-board")
+public record DeparturesBoardProperties(
+    @DefaultValue("PT15M")
+    Duration refreshInterval,
+
+    @DefaultValue("PT1M")
+    Duration sweepInterval,
+
+    @DefaultValue("1000")
+    int chunkSize,
+
+    @DefaultValue("100")
+    int maxDepartures
+) {
+}
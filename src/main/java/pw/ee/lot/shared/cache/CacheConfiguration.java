@@ -0,0 +1,23 @@
+package pw.ee.lot.shared.cache;
+
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * The caching interceptor is ordered after read collapsing and ahead of the transactional one, so collapsed reads
+ * share one cache lookup and cache hits do not open a transaction. Caches are transaction aware: puts and evictions
+ * issued inside a transaction are applied after commit.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE + 3)
+class CacheConfiguration {
+
+    @Bean
+    CacheManagerCustomizer<CaffeineCacheManager> transactionAwareCacheManagerCustomizer() {
+        return cacheManager -> cacheManager.setTransactionAware(true);
+    }
+}
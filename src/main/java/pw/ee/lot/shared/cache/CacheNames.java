@@ -0,0 +1,12 @@
+package pw.ee.lot.shared.cache;
+
+public final class CacheNames {
+
+    /**
+     * {@link pw.ee.lot.dto.flight.FlightDetailsResource} by flight number, populated for hot flights only.
+     */
+    public static final String FLIGHT_DETAILS = "flightDetails";
+
+    private CacheNames() {
+    }
+}
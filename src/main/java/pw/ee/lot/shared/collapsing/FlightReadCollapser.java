@@ -0,0 +1,81 @@
+package pw.ee.lot.shared.collapsing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pw.ee.lot.shared.datasource.ReadYourWritesContext;
+import pw.ee.lot.shared.readmodel.FlightChangedEvent;
+import pw.ee.lot.shared.sharding.ShardRegistry;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Lets identical concurrent flight reads share one execution through a {@link SingleFlight}.
+ * <p>
+ * Reads are identical when they call the same method with equal arguments on the same shard and data source. A read
+ * never joins one that started before a flight change was committed: every committed change starts a new generation
+ * of reads, and a writer's response is sent only after that, so a client always sees its own changes. Callers share
+ * the result the way cache hits do, so results must not be changed.
+ */
+@Component
+public class FlightReadCollapser {
+
+    private final ReadCollapsingProperties properties;
+    private final ObjectProvider<ShardRegistry> shardRegistry;
+    private final SingleFlight<Key, Object> singleFlight = new SingleFlight<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final ThreadLocal<Boolean> reading = ThreadLocal.withInitial(() -> false);
+    private final MeterRegistry meterRegistry;
+
+    FlightReadCollapser(ReadCollapsingProperties properties, ObjectProvider<ShardRegistry> shardRegistry, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.shardRegistry = shardRegistry;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("lot.read-collapsing.in-flight", singleFlight, SingleFlight::inFlight)
+            .description("Distinct flight reads running right now")
+            .register(meterRegistry);
+    }
+
+    Object collapse(String method, List<Object> arguments, Supplier<Object> read) {
+        // a read made by a collapsed read runs on its own, it would otherwise wait for itself
+        if (!properties.enabled() || reading.get()) {
+            return read.get();
+        }
+
+        final var shards = shardRegistry.getIfAvailable();
+        final var key = new Key(method, arguments, shards == null ? null : shards.currentShard(),
+            ReadYourWritesContext.isPrimaryRequired(), generation.get());
+        final var result = singleFlight.execute(key, () -> {
+            reading.set(true);
+            try {
+                return read.get();
+            } finally {
+                reading.remove();
+            }
+        });
+        if (result.shared()) {
+            meterRegistry.counter("lot.read-collapsing.collapsed", "method", method).increment();
+        }
+        return result.value();
+    }
+
+    /**
+     * Makes reads arriving from now on run again instead of joining reads that may predate a change, for changes
+     * made without a {@link FlightChangedEvent}.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onFlightChanged(FlightChangedEvent event) {
+        invalidate();
+    }
+
+    private record Key(String method, List<Object> arguments, String shard, boolean primary, long generation) {
+    }
+}
@@ -0,0 +1,48 @@
+package pw.ee.lot.shared.collapsing;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Collapses identical concurrent calls of the {@code FlightUseCases} read methods in the {@link FlightReadCollapser}.
+ * It runs inside the observation and hot flight tracking, so every caller is still measured and counted, and ahead of
+ * the caching and transactional interceptors, so a collapsed read costs one cache lookup or one transaction. With
+ * sharding enabled only the per-shard calls are collapsed, not the sharded use cases delegating to them.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@RequiredArgsConstructor
+class ReadCollapsingAspect {
+
+    private final FlightReadCollapser flightReadCollapser;
+
+    @Pointcut("!within(pw.ee.lot.service.internal.ShardedFlightUseCases)")
+    void notSharding() {
+    }
+
+    @Around("(execution(* pw.ee.lot.service.FlightUseCases.getFlight(..))"
+        + " || execution(* pw.ee.lot.service.FlightUseCases.getFlights(..))"
+        + " || execution(* pw.ee.lot.service.FlightUseCases.searchFlights(..))"
+        + " || execution(* pw.ee.lot.service.FlightUseCases.getSeatMap(..)))"
+        + " && notSharding()")
+    public Object collapse(ProceedingJoinPoint joinPoint) {
+        return flightReadCollapser.collapse(joinPoint.getSignature().getName(), Arrays.asList(joinPoint.getArgs()), () -> {
+            try {
+                return joinPoint.proceed();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,16 @@
+package pw.ee.lot.shared.collapsing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Collapsing of identical concurrent flight reads.
+ *
+ * @param enabled whether concurrent identical reads share one execution
+ */
+@ConfigurationProperties("lot.read-collapsing")
+public record ReadCollapsingProperties(
+    @DefaultValue("true")
+    boolean enabled
+) {
+}
@@ -0,0 +1,62 @@
+package pw.ee.lot.shared.collapsing;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls with equal keys into one: the first caller runs the loader, every caller arriving
+ * while it runs waits for and shares its result or exception. Nothing is kept once the loader returns, so a call
+ * arriving afterwards runs the loader again.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> running = new ConcurrentHashMap<>();
+
+    /**
+     * @return whether the result came from a call already running
+     */
+    public Result<V> execute(K key, Supplier<V> loader) {
+        final var own = new CompletableFuture<V>();
+        final var current = running.putIfAbsent(key, own);
+        if (current != null) {
+            return new Result<>(await(current), true);
+        }
+
+        try {
+            final var value = loader.get();
+            own.complete(value);
+            return new Result<>(value, false);
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            running.remove(key, own);
+        }
+    }
+
+    /**
+     * Calls running right now.
+     */
+    public int inFlight() {
+        return running.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public record Result<V>(V value, boolean shared) {
+    }
+}
@@ -0,0 +1,57 @@
+package pw.ee.lot.shared.datasource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "lot.read-replicas.enabled", havingValue = "true")
+class ReadReplicaConfiguration {
+
+    @Bean
+    ReplicaPool replicaPool(ReadReplicaProperties properties) {
+        return new ReplicaPool(properties);
+    }
+
+    /**
+     * Puts the auto-configured data source behind replica routing. Ordered ahead of the other data source
+     * post-processors, so that statement statistics and tracing cover replica reads as well.
+     * <p>
+     * Shard routing wraps the same data source and the replicas are those of a single database, so the service
+     * refuses to start with sharding enabled too rather than leave one of the two without effect.
+     *
+     * @throws IllegalStateException if sharding is enabled
+     */
+    @Bean
+    static BeanPostProcessor readReplicaRoutingPostProcessor(ObjectProvider<ReplicaPool> replicaPool, Environment environment) {
+        if (environment.getProperty("lot.sharding.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("Read replicas cannot be enabled together with sharding, "
+                + "disable lot.read-replicas.enabled or lot.sharding.enabled");
+        }
+        return new ReadReplicaRoutingPostProcessor(replicaPool);
+    }
+
+    private record ReadReplicaRoutingPostProcessor(ObjectProvider<ReplicaPool> replicaPool) implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource primary && !(bean instanceof LazyConnectionDataSourceProxy)) {
+                return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primary, replicaPool.getObject()));
+            }
+
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package pw.ee.lot.shared.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replica routing settings. The primary is the regular {@code spring.datasource}.
+ *
+ * @param enabled              route read-only transactions to the replicas
+ * @param replicas             replica connection settings
+ * @param maxLag               replicas lagging further behind the primary are skipped until they catch up
+ * @param lagCheckInterval     how often replica lag is measured
+ * @param readYourWritesWindow how long reads of a client go to the primary after its own write, zero to disable
+ * @param clientIdHeader       request header identifying the client for read-your-writes
+ * @param maximumPoolSize      connection pool size of each replica
+ */
+@ConfigurationProperties("lot.read-replicas")
+public record ReadReplicaProperties(
+    @DefaultValue("false")
+    boolean enabled,
+
+    @DefaultValue
+    List<Replica> replicas,
+
+    @DefaultValue("5s")
+    Duration maxLag,
+
+    @DefaultValue("5s")
+    Duration lagCheckInterval,
+
+    @DefaultValue("5s")
+    Duration readYourWritesWindow,
+
+    @DefaultValue("X-Client-Id")
+    String clientIdHeader,
+
+    @DefaultValue("10")
+    int maximumPoolSize
+) {
+
+    public record Replica(
+        String url,
+        String username,
+        String password
+    ) {
+    }
+}
@@ -0,0 +1,41 @@
+package pw.ee.lot.shared.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends read-only transactions to an available replica and everything else to the primary.
+ * <p>
+ * The transaction manager acquires its connection before it marks the transaction read-only, so this data source
+ * has to sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers the
+ * lookup until the first statement.
+ */
+class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    private final ReplicaPool replicaPool;
+
+    ReadReplicaRoutingDataSource(DataSource primary, ReplicaPool replicaPool) {
+        this.replicaPool = replicaPool;
+        final var targets = replicaPool.dataSources();
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadYourWritesContext.isPrimaryRequired()) {
+            return PRIMARY;
+        }
+
+        return replicaPool.next()
+            .<Object>map(ReplicaPool.Replica::name)
+            .orElse(PRIMARY);
+    }
+}
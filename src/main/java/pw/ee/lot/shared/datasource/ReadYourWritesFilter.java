@@ -0,0 +1,73 @@
+package pw.ee.lot.shared.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Pins the reads of a client to the primary for {@code lot.read-replicas.read-your-writes-window} after the client
+ * successfully wrote, so that e.g. a booking is visible to the client even before the replicas caught up.
+ * Clients are identified by the {@code lot.read-replicas.client-id-header} request header.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "lot.read-replicas.enabled", havingValue = "true")
+class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final int MAX_TRACKED_CLIENTS = 100_000;
+
+    private final ReadReplicaProperties properties;
+    private final Cache<String, Boolean> recentWriters;
+
+    ReadYourWritesFilter(ReadReplicaProperties properties) {
+        this.properties = properties;
+        this.recentWriters = Caffeine.newBuilder()
+            .expireAfterWrite(properties.readYourWritesWindow())
+            .maximumSize(MAX_TRACKED_CLIENTS)
+            .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return properties.readYourWritesWindow().isZero() || request.getHeader(properties.clientIdHeader()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        final var clientId = request.getHeader(properties.clientIdHeader());
+
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            if (response.getStatus() < HttpServletResponse.SC_BAD_REQUEST) {
+                recentWriters.put(clientId, Boolean.TRUE);
+            }
+            return;
+        }
+
+        if (recentWriters.getIfPresent(clientId) == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ReadYourWritesContext.requirePrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWritesContext.clear();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package pw.ee.lot.shared.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Read replicas with their measured replication lag. Replicas are picked round robin among those that are
+ * reachable and within {@code lot.read-replicas.max-lag}; when none is, reads fall back to the primary.
+ */
+@Slf4j
+class ReplicaPool implements MeterBinder, DisposableBean {
+
+    /**
+     * Zero on a replica that replayed everything it received, the age of the last replayed transaction otherwise,
+     * and zero on a database that is not a replica at all.
+     */
+    private static final String LAG_QUERY = """
+        SELECT COALESCE(
+            CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                 ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+            END, 0)
+        """;
+
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    ReplicaPool(ReadReplicaProperties properties) {
+        this.maxLag = properties.maxLag();
+        this.replicas = IntStream.range(0, properties.replicas().size())
+            .mapToObj(index -> {
+                final var name = "replica-" + index;
+                return new Replica(name, createDataSource(name, properties.replicas().get(index), properties));
+            })
+            .toList();
+    }
+
+    Optional<Replica> next() {
+        final var size = replicas.size();
+        final var start = Math.floorMod(cursor.getAndIncrement(), Math.max(size, 1));
+        for (var i = 0; i < size; i++) {
+            final var replica = replicas.get((start + i) % size);
+            if (replica.isAvailable(maxLag)) {
+                return Optional.of(replica);
+            }
+        }
+        return Optional.empty();
+    }
+
+    Map<Object, Object> dataSources() {
+        final var dataSources = new HashMap<Object, Object>();
+        replicas.forEach(replica -> dataSources.put(replica.name(), replica.dataSource()));
+        return dataSources;
+    }
+
+    @Scheduled(fixedDelayString = "${lot.read-replicas.lag-check-interval:PT5S}")
+    void checkLag() {
+        for (Replica replica : replicas) {
+            try (var connection = replica.dataSource().getConnection();
+                 var statement = connection.createStatement();
+                 var resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                replica.lagMillis = Math.round(resultSet.getDouble(1) * 1000);
+                replica.reachable = true;
+            } catch (SQLException e) {
+                if (replica.reachable) {
+                    log.error("Replica {} is unreachable, reading from the remaining replicas", replica.name(), e);
+                }
+                replica.reachable = false;
+            }
+
+            if (!replica.isAvailable(maxLag) && replica.reachable) {
+                log.warn("Replica {} lags {} ms behind the primary", replica.name(), replica.lagMillis);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            Gauge.builder("lot.datasource.replica.lag", replica, r -> r.lagMillis)
+                .description("Replication lag of the read replica")
+                .baseUnit("milliseconds")
+                .tag("replica", replica.name())
+                .register(registry);
+        }
+        Gauge.builder("lot.datasource.replicas.available", this, pool -> pool.replicas.stream().filter(replica -> replica.isAvailable(maxLag)).count())
+            .description("Read replicas currently serving reads")
+            .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.dataSource().close());
+    }
+
+    private static HikariDataSource createDataSource(String name, ReadReplicaProperties.Replica replica, ReadReplicaProperties properties) {
+        final var dataSource = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .url(replica.url())
+            .username(replica.username())
+            .password(replica.password())
+            .build();
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(properties.maximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    static final class Replica {
+
+        private final String name;
+        private final HikariDataSource dataSource;
+        private volatile boolean reachable = true;
+        private volatile long lagMillis;
+
+        Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        String name() {
+            return name;
+        }
+
+        HikariDataSource dataSource() {
+            return dataSource;
+        }
+
+        boolean isAvailable(Duration maxLag) {
+            return reachable && lagMillis <= maxLag.toMillis();
+        }
+    }
+}
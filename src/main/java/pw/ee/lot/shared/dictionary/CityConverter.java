@@ -0,0 +1,26 @@
+package pw.ee.lot.shared.dictionary;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Stores city names as their {@link CityDictionary} ids. Only looks the ids up, as it runs while Hibernate flushes and
+ * on query parameters: the cities of a flight are registered before it is saved.
+ */
+@Converter
+@RequiredArgsConstructor
+public class CityConverter implements AttributeConverter<String, Short> {
+
+    private final CityDictionary cityDictionary;
+
+    @Override
+    public Short convertToDatabaseColumn(String name) {
+        return name == null ? null : cityDictionary.idOf(name);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short id) {
+        return id == null ? null : cityDictionary.nameOf(id);
+    }
+}
@@ -0,0 +1,213 @@
+package pw.ee.lot.shared.dictionary;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.City;
+import pw.ee.lot.domain.repository.CityRepository;
+import pw.ee.lot.shared.sharding.ShardRegistry;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps city names to the small integer ids route stops are stored with, and back.
+ * <p>
+ * Each database numbers its cities on its own, so a dictionary is kept per shard and loaded on first use. Unknown
+ * names are added by {@link #register}, called by {@link CityRegistration} as a flight is persisted and before a route
+ * is changed, in the transaction saving the flight, and join the dictionary once it commits, so an id rolled back with
+ * its flight is never handed out. {@link CityConverter} only
+ * looks names up and never touches the database while Hibernate flushes. Names read back are the dictionary's own
+ * instances, shared by every loaded route.
+ * <p>
+ * The repository and transaction manager are resolved lazily: the dictionary is needed by {@link CityConverter}
+ * while the entity manager factory they depend on is still being built.
+ */
+@Slf4j
+@Component
+public class CityDictionary {
+
+    private static final String DEFAULT_SHARD = "";
+    private static final short UNKNOWN = -1;
+
+    private final ObjectProvider<CityRepository> cityRepository;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private final ObjectProvider<ShardRegistry> shardRegistry;
+    private final Map<String, Cities> shards = new ConcurrentHashMap<>();
+    private volatile TransactionTemplate transactionTemplate;
+    private volatile TransactionTemplate joiningTransactionTemplate;
+
+    CityDictionary(ObjectProvider<CityRepository> cityRepository, ObjectProvider<PlatformTransactionManager> transactionManager,
+                   ObjectProvider<ShardRegistry> shardRegistry, MeterRegistry meterRegistry) {
+        this.cityRepository = cityRepository;
+        this.transactionManager = transactionManager;
+        this.shardRegistry = shardRegistry;
+        Gauge.builder("lot.city-dictionary.size", shards, dictionaries -> dictionaries.values().stream().mapToInt(cities -> cities.names.size()).max().orElse(0))
+            .description("Cities in the largest shard dictionary")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Adds the cities not in the dictionary of the current shard yet, within the current transaction if there is one.
+     * Concurrent transactions adding the same city wait for each other instead of failing.
+     */
+    public void register(Collection<String> names) {
+        final var cities = current();
+        final var unknown = names.stream()
+            .filter(name -> name != null && !cities.ids.containsKey(name))
+            .distinct()
+            .toList();
+        if (unknown.isEmpty()) {
+            return;
+        }
+
+        joiningTransaction().executeWithoutResult(status -> {
+            final var added = added(cities);
+            for (String name : unknown) {
+                if (!added.containsKey(name)) {
+                    cityRepository.getObject().insertIfAbsent(name);
+                    added.put(name, cityRepository.getObject().findByName(name).orElseThrow());
+                }
+            }
+        });
+    }
+
+    /**
+     * The id of the city on the current shard, read from the database if another instance added it.
+     */
+    public Optional<Short> find(String name) {
+        final var id = idOf(name);
+        if (id != UNKNOWN) {
+            return Optional.of(id);
+        }
+
+        final var cities = current();
+        return joiningTransaction().execute(status -> cityRepository.getObject().findByName(name))
+            .map(city -> cities.put(city).getId());
+    }
+
+    /**
+     * The id of the city on the current shard, as known to the dictionary or registered by the current transaction.
+     * An unknown city gets an id no city has, so filtering by it matches nothing and saving it fails on the foreign
+     * key.
+     */
+    public short idOf(String name) {
+        final var id = current().ids.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        @SuppressWarnings("unchecked") final var added = (Map<String, City>) TransactionSynchronizationManager.getResource(this);
+        final var city = added == null ? null : added.get(name);
+        return city == null ? UNKNOWN : city.getId();
+    }
+
+    /**
+     * The name of the city with the id on the current shard.
+     *
+     * @throws IllegalStateException if no such city exists
+     */
+    public String nameOf(short id) {
+        final var cities = current();
+        final var name = cities.names.get(id);
+        if (name != null) {
+            return name;
+        }
+
+        load(cities);
+        final var loaded = cities.names.get(id);
+        if (loaded == null) {
+            throw new IllegalStateException("Unknown city " + id);
+        }
+        return loaded;
+    }
+
+    /**
+     * The dictionary's instance of the name when the city is known on the current shard, the name itself otherwise.
+     */
+    public String intern(String name) {
+        final var id = current().ids.get(name);
+        return id == null ? name : nameOf(id);
+    }
+
+    private Cities current() {
+        final var registry = shardRegistry.getIfAvailable();
+        final var shard = registry == null ? DEFAULT_SHARD : registry.currentShard();
+        return shards.computeIfAbsent(shard, key -> load(new Cities()));
+    }
+
+    private Cities load(Cities cities) {
+        transaction().executeWithoutResult(status -> cityRepository.getObject().findAll().forEach(cities::put));
+        return cities;
+    }
+
+    /**
+     * Cities added by the current transaction, which join the dictionary once it commits.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, City> added(Cities cities) {
+        final var bound = (Map<String, City>) TransactionSynchronizationManager.getResource(this);
+        if (bound != null) {
+            return bound;
+        }
+
+        final var added = new HashMap<String, City>();
+        TransactionSynchronizationManager.bindResource(this, added);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                added.values().forEach(city -> {
+                    cities.put(city);
+                    log.info("Added city {} to the dictionary as {}", city.getName(), city.getId());
+                });
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CityDictionary.this);
+            }
+        });
+        return added;
+    }
+
+    private TransactionTemplate joiningTransaction() {
+        var template = joiningTransactionTemplate;
+        if (template == null) {
+            template = new TransactionTemplate(transactionManager.getObject());
+            joiningTransactionTemplate = template;
+        }
+        return template;
+    }
+
+    private TransactionTemplate transaction() {
+        var template = transactionTemplate;
+        if (template == null) {
+            template = new TransactionTemplate(transactionManager.getObject());
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            transactionTemplate = template;
+        }
+        return template;
+    }
+
+    private static final class Cities {
+
+        private final Map<String, Short> ids = new ConcurrentHashMap<>();
+        private final Map<Short, String> names = new ConcurrentHashMap<>();
+
+        City put(City city) {
+            final var name = names.computeIfAbsent(city.getId(), id -> city.getName());
+            ids.putIfAbsent(name, city.getId());
+            return city;
+        }
+    }
+}
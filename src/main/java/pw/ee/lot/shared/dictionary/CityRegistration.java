@@ -0,0 +1,24 @@
+package pw.ee.lot.shared.dictionary;
+
+import jakarta.persistence.PrePersist;
+import lombok.RequiredArgsConstructor;
+import pw.ee.lot.domain.Flight;
+
+/**
+ * Registers the cities of a flight as it is persisted, so every flight inserted, by the use cases or around them,
+ * finds its cities in the {@link CityDictionary}. Persisting a flight inserts it right away, outside of a flush, so the
+ * dictionary may write to the database here. A route changed on a loaded flight is only written by the flush, while
+ * nothing may be written, so its cities are registered before the route is set.
+ */
+@RequiredArgsConstructor
+public class CityRegistration {
+
+    private final CityDictionary cityDictionary;
+
+    @PrePersist
+    public void register(Flight flight) {
+        if (flight.getRoute() != null) {
+            cityDictionary.register(flight.getRoute());
+        }
+    }
+}
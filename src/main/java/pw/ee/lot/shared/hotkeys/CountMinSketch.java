@@ -0,0 +1,82 @@
+package pw.ee.lot.shared.hotkeys;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free count-min sketch estimating key frequencies in fixed memory ({@code width * depth} counters).
+ * Estimates never undercount; they overcount by at most {@code e / width} of the total with probability
+ * {@code 1 - e^-depth}.
+ */
+final class CountMinSketch {
+
+    private static final int[] SEEDS = {
+        0x9E3779B9, 0x7F4A7C15, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F, 0x165667B1, 0xD3A2646C, 0xFD7046C5
+    };
+
+    private final int width;
+    private final int depth;
+    private final AtomicLongArray counters;
+
+    CountMinSketch(int width, int depth) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("Sketch depth must be between 1 and " + SEEDS.length);
+        }
+
+        this.width = Integer.highestOneBit(Math.max(width, 2) - 1) << 1;
+        this.depth = depth;
+        this.counters = new AtomicLongArray(this.width * depth);
+    }
+
+    /**
+     * Count one occurrence of the key.
+     *
+     * @return the frequency estimate of the key including this occurrence
+     */
+    long add(String key) {
+        final var hash = key.hashCode();
+        var estimate = Long.MAX_VALUE;
+        for (var row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    long estimate(String key) {
+        final var hash = key.hashCode();
+        var estimate = Long.MAX_VALUE;
+        for (var row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Halve every counter so that old traffic fades out and recent bursts dominate the estimates.
+     */
+    void decay() {
+        for (var i = 0; i < counters.length(); i++) {
+            counters.updateAndGet(i, count -> count >>> 1);
+        }
+    }
+
+    int width() {
+        return width;
+    }
+
+    int depth() {
+        return depth;
+    }
+
+    private int index(int hash, int row) {
+        return row * width + (mix(hash ^ SEEDS[row]) & (width - 1));
+    }
+
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
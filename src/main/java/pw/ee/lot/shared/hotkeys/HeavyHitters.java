@@ -0,0 +1,91 @@
+package pw.ee.lot.shared.hotkeys;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming top-K tracker on top of a {@link CountMinSketch}.
+ * <p>
+ * Recording a key only touches the sketch unless its estimate reaches the admission threshold (the smallest count
+ * among the current top-K) and it is not a member yet, so the hot path stays lock-free. Membership changes are
+ * serialized; with the small K this is meant for, a linear scan over the members is cheaper than maintaining an
+ * indexed heap.
+ */
+final class HeavyHitters {
+
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final Set<String> members = ConcurrentHashMap.newKeySet();
+    private volatile long admissionThreshold;
+
+    HeavyHitters(CountMinSketch sketch, int capacity) {
+        this.sketch = sketch;
+        this.capacity = capacity;
+    }
+
+    long record(String key) {
+        final var estimate = sketch.add(key);
+        if (estimate >= admissionThreshold && !members.contains(key)) {
+            admit(key, estimate);
+        }
+        return estimate;
+    }
+
+    boolean isMember(String key) {
+        return members.contains(key);
+    }
+
+    long estimate(String key) {
+        return sketch.estimate(key);
+    }
+
+    /**
+     * @return the tracked keys with their estimated counts, most frequent first
+     */
+    List<HotKey> top() {
+        return members.stream()
+            .map(key -> new HotKey(key, sketch.estimate(key)))
+            .sorted(Comparator.comparingLong(HotKey::estimatedCount).reversed())
+            .toList();
+    }
+
+    synchronized void decay() {
+        sketch.decay();
+        admissionThreshold = members.size() < capacity ? 0 : minimumMember().estimatedCount();
+    }
+
+    long admissionThreshold() {
+        return admissionThreshold;
+    }
+
+    private synchronized void admit(String key, long estimate) {
+        if (members.contains(key)) {
+            return;
+        }
+
+        if (members.size() >= capacity) {
+            final var minimum = minimumMember();
+            if (minimum.estimatedCount() >= estimate) {
+                admissionThreshold = minimum.estimatedCount();
+                return;
+            }
+            members.remove(minimum.key());
+        }
+
+        members.add(key);
+        admissionThreshold = members.size() < capacity ? 0 : minimumMember().estimatedCount();
+    }
+
+    private HotKey minimumMember() {
+        HotKey minimum = null;
+        for (String member : members) {
+            final var estimate = sketch.estimate(member);
+            if (minimum == null || estimate < minimum.estimatedCount()) {
+                minimum = new HotKey(member, estimate);
+            }
+        }
+        return minimum;
+    }
+}
@@ -0,0 +1,46 @@
+package pw.ee.lot.shared.hotkeys;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pw.ee.lot.service.FlightUseCases;
+import pw.ee.lot.shared.cache.CacheNames;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Keeps hot flights pinned in the flight details cache: entries that expired or were evicted by a write are loaded
+ * again ahead of the next request, so bursts on a hot flight are served from memory.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "lot.hot-flights.cache-enabled", havingValue = "true", matchIfMissing = true)
+class HotFlightCacheWarmer {
+
+    private final HotFlightTracker hotFlightTracker;
+    private final FlightUseCases flightUseCases;
+    private final CacheManager cacheManager;
+
+    @Scheduled(fixedDelayString = "${lot.hot-flights.warm-interval:PT10S}")
+    void warmUp() {
+        final var cache = cacheManager.getCache(CacheNames.FLIGHT_DETAILS);
+        if (cache == null) {
+            return;
+        }
+
+        hotFlightTracker.untracked(() -> hotFlightTracker.hotFlights().stream()
+            .filter(hotFlight -> cache.get(hotFlight.key()) == null)
+            .forEach(hotFlight -> {
+                try {
+                    // Goes through the caching proxy, which stores the result as the flight is hot
+                    flightUseCases.getFlight(hotFlight.key());
+                } catch (NoSuchElementException e) {
+                    log.debug("Hot flight {} no longer exists", hotFlight.key());
+                }
+            }));
+    }
+}
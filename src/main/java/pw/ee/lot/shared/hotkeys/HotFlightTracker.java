@@ -0,0 +1,101 @@
+package pw.ee.lot.shared.hotkeys;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Tracks which flight numbers receive the most traffic. Accesses are counted in a count-min sketch that is
+ * halved every {@code lot.hot-flights.decay-interval}, so the top-K reflects recent traffic and a sudden burst
+ * (e.g. a charter opening sale) surfaces within one window.
+ */
+@Component(HotFlightTracker.BEAN_NAME)
+public class HotFlightTracker implements MeterBinder {
+
+    public static final String BEAN_NAME = "hotFlightTracker";
+
+    private static final ThreadLocal<Boolean> UNTRACKED = ThreadLocal.withInitial(() -> false);
+
+    private final HotFlightsProperties properties;
+    private final HeavyHitters heavyHitters;
+    private MultiGauge hotFlightsGauge;
+
+    public HotFlightTracker(HotFlightsProperties properties) {
+        this.properties = properties;
+        this.heavyHitters = new HeavyHitters(
+            new CountMinSketch(properties.sketchWidth(), properties.sketchDepth()),
+            properties.topK()
+        );
+    }
+
+    public void record(String flightNumber) {
+        if (flightNumber != null && !UNTRACKED.get()) {
+            heavyHitters.record(flightNumber);
+        }
+    }
+
+    public boolean isHot(String flightNumber) {
+        return heavyHitters.isMember(flightNumber) && heavyHitters.estimate(flightNumber) >= properties.minHits();
+    }
+
+    /**
+     * Whether the details of the flight should be kept in the flight details cache.
+     */
+    public boolean shouldCache(String flightNumber) {
+        return properties.cacheEnabled() && isHot(flightNumber);
+    }
+
+    public List<HotKey> hotFlights() {
+        return heavyHitters.top().stream()
+            .filter(hotKey -> hotKey.estimatedCount() >= properties.minHits())
+            .toList();
+    }
+
+    /**
+     * Run the action without counting the accesses it makes, e.g. when warming caches.
+     */
+    public void untracked(Runnable action) {
+        UNTRACKED.set(true);
+        try {
+            action.run();
+        } finally {
+            UNTRACKED.remove();
+        }
+    }
+
+    @Scheduled(fixedRateString = "${lot.hot-flights.decay-interval:PT1M}", initialDelayString = "${lot.hot-flights.decay-interval:PT1M}")
+    void decay() {
+        publish();
+        heavyHitters.decay();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        hotFlightsGauge = MultiGauge.builder("lot.flights.hot")
+            .description("Estimated accesses of the hottest flights in the last decay window")
+            .baseUnit("requests")
+            .register(registry);
+        Gauge.builder("lot.flights.hot.admission", heavyHitters, HeavyHitters::admissionThreshold)
+            .description("Estimated accesses needed to enter the hot flights top-K")
+            .register(registry);
+    }
+
+    private void publish() {
+        if (hotFlightsGauge == null) {
+            return;
+        }
+
+        hotFlightsGauge.register(
+            heavyHitters.top().stream()
+                .map(hotKey -> MultiGauge.Row.of(Tags.of("flight.number", hotKey.key()), hotKey.estimatedCount()))
+                .toList(),
+            true
+        );
+    }
+}
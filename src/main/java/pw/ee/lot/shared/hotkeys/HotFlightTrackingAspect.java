@@ -0,0 +1,50 @@
+package pw.ee.lot.shared.hotkeys;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import pw.ee.lot.dto.flight.FlightResource;
+
+/**
+ * Feeds flight accesses into the {@link HotFlightTracker}. It runs ahead of the caching interceptor, so cache
+ * hits keep counting towards a flight's hotness. With sharding enabled only the per-shard calls are tracked, not the
+ * sharded use cases delegating to them.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+class HotFlightTrackingAspect {
+
+    private final HotFlightTracker hotFlightTracker;
+
+    @Pointcut("!within(pw.ee.lot.service.internal.ShardedFlightUseCases)")
+    void notSharding() {
+    }
+
+    @Before("execution(* pw.ee.lot.service.FlightUseCases.getFlight(String)) && args(flightNumber) && notSharding()")
+    public void trackRead(String flightNumber) {
+        hotFlightTracker.record(flightNumber);
+    }
+
+    @Before("(execution(* pw.ee.lot.service.FlightUseCases.addPassengerToFlight(String, ..))"
+        + " || execution(* pw.ee.lot.service.FlightUseCases.removePassengerFromFlight(String, ..)))"
+        + " && args(flightNumber, ..) && notSharding()")
+    public void trackBooking(String flightNumber) {
+        hotFlightTracker.record(flightNumber);
+    }
+
+    @AfterReturning(
+        pointcut = "execution(* pw.ee.lot.service.FlightUseCases.searchFlights(..)) && notSharding()",
+        returning = "flights"
+    )
+    public void trackSearch(Page<FlightResource> flights) {
+        flights.forEach(flight -> hotFlightTracker.record(flight.flightNumber()));
+    }
+}
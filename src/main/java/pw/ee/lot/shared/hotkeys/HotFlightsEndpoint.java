@@ -0,0 +1,24 @@
+package pw.ee.lot.shared.hotkeys;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Management endpoint listing the currently hot flight numbers.
+ */
+@Component
+@Endpoint(id = "hotflights")
+@RequiredArgsConstructor
+class HotFlightsEndpoint {
+
+    private final HotFlightTracker hotFlightTracker;
+
+    @ReadOperation
+    public List<HotKey> hotFlights() {
+        return hotFlightTracker.hotFlights();
+    }
+}
@@ -0,0 +1,42 @@
+package pw.ee.lot.shared.hotkeys;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Hot flight detection settings.
+ *
+ * @param topK          number of hottest flight numbers tracked
+ * @param sketchWidth   counters per sketch row, rounded up to a power of two
+ * @param sketchDepth   sketch rows, i.e. independent hash functions
+ * @param minHits       estimated accesses per decay window for a tracked flight to count as hot
+ * @param decayInterval how often all counts are halved
+ * @param cacheEnabled  cache flight details of hot flights and keep them warm
+ * @param warmInterval  how often hot flights missing from the cache are loaded ahead of requests
+ */
+@ConfigurationProperties("lot.hot-flights")
+public record HotFlightsProperties(
+    @DefaultValue("20")
+    int topK,
+
+    @DefaultValue("2048")
+    int sketchWidth,
+
+    @DefaultValue("4")
+    int sketchDepth,
+
+    @DefaultValue("50")
+    long minHits,
+
+    @DefaultValue("1m")
+    Duration decayInterval,
+
+    @DefaultValue("true")
+    boolean cacheEnabled,
+
+    @DefaultValue("10s")
+    Duration warmInterval
+) {
+}
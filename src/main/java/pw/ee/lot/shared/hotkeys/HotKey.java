@@ -0,0 +1,10 @@
+package pw.ee.lot.shared.hotkeys;
+
+/**
+ * A frequently accessed key with its estimated access count in the current decay window.
+ */
+public record HotKey(
+    String key,
+    long estimatedCount
+) {
+}
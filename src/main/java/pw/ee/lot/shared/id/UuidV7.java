@@ -0,0 +1,55 @@
+package pw.ee.lot.shared.id;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Time-ordered UUIDs (version 7, RFC 9562): a 48-bit Unix millisecond timestamp followed by a 12-bit sequence and
+ * 62 random bits. Keys generated later sort after earlier ones, so they are appended to the right edge of a B-tree
+ * index instead of landing on random pages. The sequence keeps keys of one instance monotonic within a millisecond.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int SEQUENCE_BITS = 12;
+    private static final int MAX_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+
+    private static long lastTimestamp;
+    private static int sequence;
+
+    private UuidV7() {
+    }
+
+    public static UUID generate() {
+        final long timestamp;
+        final int currentSequence;
+        synchronized (UuidV7.class) {
+            final var now = System.currentTimeMillis();
+            if (now > lastTimestamp) {
+                lastTimestamp = now;
+                sequence = RANDOM.nextInt(MAX_SEQUENCE / 2);
+            } else if (sequence < MAX_SEQUENCE) {
+                sequence++;
+            } else {
+                lastTimestamp++;
+                sequence = 0;
+            }
+            timestamp = lastTimestamp;
+            currentSequence = sequence;
+        }
+
+        final var mostSignificantBits = timestamp << 16 | 0x7000L | currentSequence;
+        final var leastSignificantBits = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * The creation time of a version 7 UUID in Unix milliseconds.
+     */
+    public static long timestampOf(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
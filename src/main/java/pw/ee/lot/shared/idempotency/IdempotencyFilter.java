@@ -0,0 +1,251 @@
+package pw.ee.lot.shared.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Answers write requests on flights and passengers carrying an {@code Idempotency-Key} at most once: the response of
+ * the first request is kept for {@code lot.idempotency.ttl}, and retries with the same key get it replayed, marked
+ * with {@value #REPLAYED_HEADER}, without running the use case again. A retry arriving while the first request still
+ * runs waits for its response.
+ * <p>
+ * Keys are scoped by client, method and path, and bound to the query string and request body: reusing a key for a
+ * different request, e.g. another {@code ?seat=}, is rejected with {@code 422}. Only successful responses are kept.
+ * Errors change nothing, and whether a retry gets the same one depends on what happened since, e.g. a flight not
+ * found yet, so their retries run again. Responses are kept in memory per instance, so a retry routed to another
+ * instance runs again.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+class IdempotencyFilter extends OncePerRequestFilter {
+
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final IdempotencyProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Entry> responses;
+
+    IdempotencyFilter(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.responses = Caffeine.newBuilder()
+            .expireAfterWrite(properties.ttl())
+            .maximumSize(properties.maxEntries())
+            .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        final var path = request.getRequestURI().substring(request.getContextPath().length());
+        return !properties.enabled()
+            || HttpMethod.GET.matches(request.getMethod())
+            || request.getHeader(properties.header()) == null
+            || !(path.startsWith("/flights") || path.startsWith("/passengers"));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        final var idempotencyKey = request.getHeader(properties.header());
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > properties.maxKeyLength()) {
+            reject(response, HttpStatus.BAD_REQUEST, properties.header() + " must have 1 to " + properties.maxKeyLength() + " characters");
+            return;
+        }
+
+        final var body = request.getInputStream().readAllBytes();
+        final var key = String.join(" ", clientOf(request), request.getMethod(), request.getRequestURI(), idempotencyKey);
+        final var own = new Entry(fingerprint(request.getQueryString(), body), new CompletableFuture<>());
+
+        // a retry of a request that failed without a kept response runs once more, as if it came first
+        for (var attempt = 0; attempt < 2; attempt++) {
+            final var existing = responses.asMap().putIfAbsent(key, own);
+            if (existing == null) {
+                execute(new CachedBodyRequest(request, body), response, filterChain, key, own);
+                return;
+            }
+
+            if (!Arrays.equals(existing.fingerprint(), own.fingerprint())) {
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY, properties.header() + " was used for a different request");
+                return;
+            }
+
+            final StoredResponse stored;
+            try {
+                stored = existing.response().get(properties.inProgressWait().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                reject(response, HttpStatus.CONFLICT, "A request with this " + properties.header() + " is still in progress");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } catch (ExecutionException e) {
+                throw new ServletException(e.getCause());
+            }
+
+            if (stored != null) {
+                replay(response, stored);
+                return;
+            }
+        }
+
+        reject(response, HttpStatus.CONFLICT, "A request with this " + properties.header() + " is still in progress");
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String key, Entry own) throws ServletException, IOException {
+        final var responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } finally {
+            if (isKept(responseWrapper.getStatus())) {
+                own.response().complete(new StoredResponse(
+                    responseWrapper.getStatus(),
+                    responseWrapper.getContentType(),
+                    responseWrapper.getHeader(HttpHeaders.LOCATION),
+                    responseWrapper.getContentAsByteArray()));
+            } else {
+                responses.asMap().remove(key, own);
+                own.response().complete(null);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        meterRegistry.counter("lot.idempotency.replayed").increment();
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        response.getOutputStream().write(stored.body());
+    }
+
+    /**
+     * The client as identified by admission control: its client id, or its address when it sends none.
+     */
+    private String clientOf(HttpServletRequest request) {
+        final var clientId = request.getHeader(properties.clientIdHeader());
+        return clientId != null ? clientId : request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        log.debug("Rejecting idempotent request: {}", message);
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(("{\"errors\":[\"" + message + "\"]}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isKept(int status) {
+        return status < HttpStatus.BAD_REQUEST.value();
+    }
+
+    private static byte[] fingerprint(String queryString, byte[] body) {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256");
+            if (queryString != null) {
+                digest.update(queryString.getBytes(StandardCharsets.UTF_8));
+            }
+            // separates the query string from the body, so moving a parameter between them changes the fingerprint
+            digest.update((byte) '\n');
+            return digest.digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entry(byte[] fingerprint, CompletableFuture<StoredResponse> response) {
+    }
+
+    private record StoredResponse(int status, String contentType, String location, byte[] body) {
+    }
+
+    /**
+     * Request whose body was read up front to fingerprint it, served again to the handler.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            final var input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) {
+                    return input.read(bytes, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            final var encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package pw.ee.lot.shared.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Idempotent replays of write requests.
+ *
+ * @param enabled        whether write requests carrying an idempotency key are answered at most once
+ * @param header         request header carrying the idempotency key
+ * @param ttl            how long a response is kept for replays
+ * @param maxEntries     responses kept at most, the least recently used are dropped first
+ * @param maxKeyLength   longest idempotency key accepted
+ * @param inProgressWait how long a retry waits for the original request to finish before it is turned away
+ * @param clientIdHeader request header identifying a client, keys of different clients never collide
+ */
+@ConfigurationProperties("lot.idempotency")
+public record IdempotencyProperties(
+    @DefaultValue("true")
+    boolean enabled,
+
+    @DefaultValue("Idempotency-Key")
+    String header,
+
+    @DefaultValue("1h")
+    Duration ttl,
+
+    @DefaultValue("100000")
+    int maxEntries,
+
+    @DefaultValue("255")
+    int maxKeyLength,
+
+    @DefaultValue("10s")
+    Duration inProgressWait,
+
+    @DefaultValue("X-Client-Id")
+    String clientIdHeader
+) {
+}
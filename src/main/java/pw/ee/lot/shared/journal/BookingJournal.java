@@ -0,0 +1,159 @@
+package pw.ee.lot.shared.journal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only audit trail of flight and booking changes in a {@link JournalWriter}.
+ * <p>
+ * Changes made in a transaction are journaled right before it commits, while it still holds the lock of the flight,
+ * so the records of a flight are in the order its changes were made and the seats of its last record are current. A
+ * transaction that fails to commit after all revokes its records with {@link JournalEventType#ROLLED_BACK} records.
+ * Appending copies a record of some 60 bytes into a memory-mapped segment; the records are forced to the disk
+ * every {@code lot.journal.sync-interval} rather than per change, keeping the booking path free of I/O, by a thread
+ * of the journal's own, so the interval holds whatever the scheduled jobs take. A failing append is logged and never
+ * fails the change itself. The journal has no default directory: it has to outlive the instance, so
+ * {@code lot.journal.directory} is required while the journal is enabled. {@link SeatCountReplay} rebuilds the seat counts from the
+ * journal.
+ */
+@Slf4j
+@Component
+public class BookingJournal implements DisposableBean {
+
+    private final JournalWriter writer;
+    private final ScheduledExecutorService syncer;
+    private final Counter appended;
+    private final Counter failed;
+
+    BookingJournal(JournalProperties properties, MeterRegistry meterRegistry) {
+        if (properties.enabled() && properties.directory() == null) {
+            throw new IllegalStateException("The booking journal needs lot.journal.directory, set it or disable lot.journal.enabled");
+        }
+        this.writer = properties.enabled()
+            ? new JournalWriter(properties.directory(), (int) properties.segmentSize().toBytes())
+            : null;
+        this.syncer = writer == null ? null : Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("journal-sync-"));
+        this.appended = Counter.builder("lot.journal.records")
+            .description("Records appended to the booking journal")
+            .register(meterRegistry);
+        this.failed = Counter.builder("lot.journal.failures")
+            .description("Changes that could not be appended to the booking journal")
+            .register(meterRegistry);
+        if (writer != null) {
+            final var interval = properties.syncInterval().toMillis();
+            syncer.scheduleWithFixedDelay(this::sync, interval, interval, TimeUnit.MILLISECONDS);
+            log.info("Journaling flight changes to {} from sequence {}", writer.directory(), writer.nextSequence());
+        }
+    }
+
+    public void flightCreated(String flightNumber, int availableSeats) {
+        record(JournalEventType.FLIGHT_CREATED, flightNumber, null, null, availableSeats);
+    }
+
+    public void flightUpdated(String flightNumber, String previousFlightNumber, int availableSeats) {
+        record(JournalEventType.FLIGHT_UPDATED, flightNumber, flightNumber.equals(previousFlightNumber) ? null : previousFlightNumber,
+            null, availableSeats);
+    }
+
+    public void flightDeleted(String flightNumber) {
+        record(JournalEventType.FLIGHT_DELETED, flightNumber, null, null, 0);
+    }
+
+    public void passengerBooked(String flightNumber, UUID passengerId, int availableSeats) {
+        record(JournalEventType.PASSENGER_BOOKED, flightNumber, null, passengerId, availableSeats);
+    }
+
+    public void passengerUnbooked(String flightNumber, UUID passengerId, int availableSeats) {
+        record(JournalEventType.PASSENGER_UNBOOKED, flightNumber, null, passengerId, availableSeats);
+    }
+
+    public void seatHeld(String flightNumber, int availableSeats) {
+        record(JournalEventType.SEAT_HELD, flightNumber, null, null, availableSeats);
+    }
+
+    public void seatReleased(String flightNumber, int availableSeats) {
+        record(JournalEventType.SEAT_RELEASED, flightNumber, null, null, availableSeats);
+    }
+
+    @Override
+    public void destroy() throws IOException, InterruptedException {
+        if (writer != null) {
+            syncer.shutdown();
+            syncer.awaitTermination(1, TimeUnit.SECONDS);
+            writer.close();
+        }
+    }
+
+    private void sync() {
+        try {
+            writer.sync();
+        } catch (RuntimeException e) {
+            // a failing sync must not cancel the ones after it
+            log.error("Cannot sync the booking journal", e);
+        }
+    }
+
+    private void record(JournalEventType type, String flightNumber, String previousFlightNumber, UUID passengerId, int availableSeats) {
+        if (writer == null) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(type, flightNumber, previousFlightNumber, passengerId, availableSeats);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long sequence = -1;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                sequence = append(type, flightNumber, previousFlightNumber, passengerId, availableSeats);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK && sequence >= 0) {
+                    revoke(flightNumber, sequence);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the sequence of the record, {@code -1} if it could not be appended
+     */
+    private long append(JournalEventType type, String flightNumber, String previousFlightNumber, UUID passengerId, int availableSeats) {
+        try {
+            final var sequence = writer.append(type, flightNumber, previousFlightNumber, passengerId, availableSeats);
+            appended.increment();
+            return sequence;
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("Cannot journal {} of flight {}", type, flightNumber, e);
+            return -1;
+        }
+    }
+
+    private void revoke(String flightNumber, long sequence) {
+        try {
+            writer.revoke(flightNumber, sequence);
+            appended.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("Cannot revoke journal record {} of flight {}", sequence, flightNumber, e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package pw.ee.lot.shared.journal;
+
+/**
+ * Kinds of changes recorded in the booking journal, stored as their one-byte code.
+ */
+public enum JournalEventType {
+
+    FLIGHT_CREATED(1),
+    FLIGHT_UPDATED(2),
+    FLIGHT_DELETED(3),
+    PASSENGER_BOOKED(4),
+    PASSENGER_UNBOOKED(5),
+    SEAT_HELD(6),
+    SEAT_RELEASED(7),
+    /**
+     * Revokes a record appended by a transaction that then rolled back.
+     */
+    ROLLED_BACK(8);
+
+    private static final JournalEventType[] BY_CODE = new JournalEventType[9];
+
+    static {
+        for (JournalEventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final byte code;
+
+    JournalEventType(int code) {
+        this.code = (byte) code;
+    }
+
+    byte code() {
+        return code;
+    }
+
+    /**
+     * @return the type with the code, {@code null} for an unknown code
+     */
+    static JournalEventType of(byte code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
@@ -0,0 +1,33 @@
+package pw.ee.lot.shared.journal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Booking journal.
+ *
+ * @param enabled      whether flight and booking changes are journaled
+ * @param directory    directory of the journal segments, of this instance alone and kept across restarts; required
+ *                     while the journal is enabled
+ * @param segmentSize  size of a segment file, a new one is started when it is full
+ * @param syncInterval how often appended records are forced to the disk, at most this much is lost on a power
+ *                     failure; a process crash loses nothing, as the pages are already in the page cache
+ */
+@ConfigurationProperties("lot.journal")
+public record JournalProperties(
+    @DefaultValue("true")
+    boolean enabled,
+
+    Path directory,
+
+    @DefaultValue("64MB")
+    DataSize segmentSize,
+
+    @DefaultValue("100ms")
+    Duration syncInterval
+) {
+}
@@ -0,0 +1,66 @@
+package pw.ee.lot.shared.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reads the {@link JournalRecord}s of a journal directory in sequence order, segment by segment, stopping within a
+ * segment at its end or at the first torn record.
+ */
+public final class JournalReader {
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private JournalReader() {
+    }
+
+    public static void forEach(Path directory, Consumer<JournalRecord> action) {
+        try {
+            for (Path segmentPath : segmentsOf(directory)) {
+                try (var channel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+                    final var segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    for (var record = JournalRecord.decode(segment); record != null; record = JournalRecord.decode(segment)) {
+                        action.accept(record);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Segment files of the directory, oldest first.
+     */
+    static List<Path> segmentsOf(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        }
+    }
+
+    /**
+     * Segments are named by the zero-padded sequence of their first record, so they sort in sequence order.
+     */
+    static Path segmentPath(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+    }
+
+    static long firstSequenceOf(Path segment) {
+        final var name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
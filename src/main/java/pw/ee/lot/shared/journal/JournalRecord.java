@@ -0,0 +1,119 @@
+package pw.ee.lot.shared.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * A change of a flight as stored in the journal.
+ * <p>
+ * Binary layout, big-endian: {@code int} size of the whole record, {@code int} CRC32C of everything after it,
+ * {@code long} sequence, {@code long} timestamp in epoch milliseconds, {@code byte} type, {@code int} available seats
+ * after the change, two {@code long}s of the passenger id (zero if none), {@code long} revoked sequence (zero if none),
+ * then the flight number and the previous flight number (empty if unchanged), each as a {@code short} length and UTF-8
+ * bytes. A size of zero marks the end of a segment.
+ *
+ * @param availableSeats       available seats of the flight after the change
+ * @param previousFlightNumber number the flight had before the change if it was renamed, else {@code null}
+ * @param passengerId          passenger booked or unbooked, else {@code null}
+ * @param revokedSequence      sequence of the record a {@link JournalEventType#ROLLED_BACK} record revokes, else zero
+ */
+public record JournalRecord(
+    long sequence,
+    long timestamp,
+    JournalEventType type,
+    String flightNumber,
+    String previousFlightNumber,
+    UUID passengerId,
+    int availableSeats,
+    long revokedSequence
+) {
+
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int FIXED_SIZE = HEADER_SIZE + 2 * Long.BYTES + 1 + Integer.BYTES + 3 * Long.BYTES + 2 * Short.BYTES;
+    static final int MAX_SIZE = FIXED_SIZE + 2 * Short.MAX_VALUE;
+    private static final byte[] EMPTY = new byte[0];
+
+    /**
+     * Writes the record at the buffer's position, which has to have {@link #size(byte[], byte[])} bytes remaining.
+     */
+    static void encode(ByteBuffer buffer, long sequence, long timestamp, JournalEventType type, byte[] flightNumber,
+                       byte[] previousFlightNumber, UUID passengerId, int availableSeats, long revokedSequence) {
+        final var start = buffer.position();
+        final var size = size(flightNumber, previousFlightNumber);
+        buffer.putInt(size)
+            .putInt(0)
+            .putLong(sequence)
+            .putLong(timestamp)
+            .put(type.code())
+            .putInt(availableSeats)
+            .putLong(passengerId != null ? passengerId.getMostSignificantBits() : 0)
+            .putLong(passengerId != null ? passengerId.getLeastSignificantBits() : 0)
+            .putLong(revokedSequence)
+            .putShort((short) flightNumber.length)
+            .put(flightNumber)
+            .putShort((short) previousFlightNumber.length)
+            .put(previousFlightNumber);
+
+        final var crc = new CRC32C();
+        crc.update(buffer.slice(start + HEADER_SIZE, size - HEADER_SIZE));
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+    }
+
+    /**
+     * Reads the record at the buffer's position and moves past it.
+     *
+     * @return the record, {@code null} at the end of the segment or at a torn or corrupt record
+     */
+    static JournalRecord decode(ByteBuffer buffer) {
+        final var start = buffer.position();
+        if (buffer.remaining() < FIXED_SIZE) {
+            return null;
+        }
+
+        final var size = buffer.getInt(start);
+        if (size < FIXED_SIZE || size > buffer.remaining()) {
+            return null;
+        }
+
+        final var crc = new CRC32C();
+        crc.update(buffer.slice(start + HEADER_SIZE, size - HEADER_SIZE));
+        if ((int) crc.getValue() != buffer.getInt(start + Integer.BYTES)) {
+            return null;
+        }
+
+        buffer.position(start + HEADER_SIZE);
+        final var sequence = buffer.getLong();
+        final var timestamp = buffer.getLong();
+        final var type = JournalEventType.of(buffer.get());
+        final var availableSeats = buffer.getInt();
+        final var mostSignificant = buffer.getLong();
+        final var leastSignificant = buffer.getLong();
+        final var revokedSequence = buffer.getLong();
+        final var flightNumber = readString(buffer);
+        final var previousFlightNumber = readString(buffer);
+        buffer.position(start + size);
+
+        if (type == null) {
+            return null;
+        }
+        return new JournalRecord(sequence, timestamp, type, flightNumber, previousFlightNumber.isEmpty() ? null : previousFlightNumber,
+            mostSignificant == 0 && leastSignificant == 0 ? null : new UUID(mostSignificant, leastSignificant), availableSeats, revokedSequence);
+    }
+
+    static int size(byte[] flightNumber, byte[] previousFlightNumber) {
+        return FIXED_SIZE + flightNumber.length + previousFlightNumber.length;
+    }
+
+    static byte[] bytesOf(String value) {
+        return value == null ? EMPTY : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final var length = Short.toUnsignedInt(buffer.getShort());
+        final var bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,184 @@
+package pw.ee.lot.shared.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Appends {@link JournalRecord}s to memory-mapped segment files of a fixed size in a directory, rolling over to a new
+ * segment when the current one is full. An append only copies the record into the mapping, so it costs no system
+ * call; the records reach the disk when {@link #sync()} is called, or when the operating system writes the pages
+ * back on its own. Opening a directory continues after the last intact record, overwriting a torn one left by a
+ * crash.
+ * <p>
+ * Appends are thread-safe and ordered by their sequence number, {@link #sync()} may run concurrently with them. A
+ * directory is written by one writer at a time, guarded by a lock file.
+ */
+public final class JournalWriter implements Closeable {
+
+    private static final String LOCK_FILE = "journal.lock";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FileChannel lockChannel;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long nextSequence;
+    private volatile int syncedPosition;
+
+    public JournalWriter(Path directory, int segmentSize) {
+        if (segmentSize < JournalRecord.MAX_SIZE + Integer.BYTES) {
+            throw new IllegalArgumentException("Segments must hold at least " + (JournalRecord.MAX_SIZE + Integer.BYTES) + " bytes");
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            lockChannel = lock(directory);
+            final var segments = JournalReader.segmentsOf(directory);
+            if (segments.isEmpty()) {
+                open(1);
+            } else {
+                recover(segments.get(segments.size() - 1));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends a record of the change.
+     *
+     * @return the sequence number of the record
+     */
+    public long append(JournalEventType type, String flightNumber, String previousFlightNumber, UUID passengerId, int availableSeats) {
+        return append(type, flightNumber, previousFlightNumber, passengerId, availableSeats, 0);
+    }
+
+    /**
+     * Appends a record revoking the record with the sequence, which replays skip.
+     *
+     * @return the sequence number of the revoking record
+     */
+    public long revoke(String flightNumber, long sequence) {
+        return append(JournalEventType.ROLLED_BACK, flightNumber, null, null, 0, sequence);
+    }
+
+    private synchronized long append(JournalEventType type, String flightNumber, String previousFlightNumber, UUID passengerId,
+                                     int availableSeats, long revokedSequence) {
+        final var flightNumberBytes = JournalRecord.bytesOf(flightNumber);
+        final var previousFlightNumberBytes = JournalRecord.bytesOf(previousFlightNumber);
+        if (flightNumberBytes.length > Short.MAX_VALUE || previousFlightNumberBytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Flight number is too long to journal");
+        }
+
+        // a segment always keeps room for the size field of zero that ends it
+        final var size = JournalRecord.size(flightNumberBytes, previousFlightNumberBytes);
+        if (segment.remaining() < size + Integer.BYTES) {
+            roll();
+        }
+
+        final var sequence = nextSequence++;
+        JournalRecord.encode(segment, sequence, System.currentTimeMillis(), type, flightNumberBytes, previousFlightNumberBytes,
+            passengerId, availableSeats, revokedSequence);
+        return sequence;
+    }
+
+    /**
+     * Forces the records appended since the last call to the disk.
+     */
+    public void sync() {
+        final MappedByteBuffer current;
+        final int from;
+        final int to;
+        synchronized (this) {
+            current = segment;
+            from = syncedPosition;
+            to = segment.position();
+        }
+
+        if (to > from) {
+            current.force(from, to - from);
+            synchronized (this) {
+                if (segment == current) {
+                    syncedPosition = Math.max(syncedPosition, to);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sequence number the next record gets.
+     */
+    public synchronized long nextSequence() {
+        return nextSequence;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        segment.force();
+        channel.close();
+        lockChannel.close();
+    }
+
+    private static FileChannel lock(Path directory) throws IOException {
+        final var lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (lockChannel.tryLock() != null) {
+                return lockChannel;
+            }
+        } catch (OverlappingFileLockException e) {
+            // locked within this process
+        }
+        lockChannel.close();
+        throw new IllegalStateException("Journal in " + directory + " is written by another writer");
+    }
+
+    private void roll() {
+        segment.force();
+        try {
+            channel.close();
+            open(nextSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot roll journal segment in " + directory, e);
+        }
+    }
+
+    private void open(long firstSequence) throws IOException {
+        channel = FileChannel.open(JournalReader.segmentPath(directory, firstSequence),
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        nextSequence = firstSequence;
+        syncedPosition = 0;
+    }
+
+    private void recover(Path last) throws IOException {
+        channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, channel.size()));
+        nextSequence = JournalReader.firstSequenceOf(last);
+        for (var record = JournalRecord.decode(segment); record != null; record = JournalRecord.decode(segment)) {
+            nextSequence = record.sequence() + 1;
+        }
+
+        // a record torn by a crash is dropped, so no reader mistakes what follows for valid records
+        final var end = segment.position();
+        final var torn = Math.min(segment.limit(), end + JournalRecord.MAX_SIZE);
+        for (var position = end; position < torn; position++) {
+            segment.put(position, (byte) 0);
+        }
+        segment.position(end);
+        syncedPosition = end;
+    }
+}
@@ -0,0 +1,56 @@
+package pw.ee.lot.shared.journal;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rebuilds the available seats of every flight from a journal, e.g. to check the database against it after an
+ * incident, skipping the records revoked by a rollback. Run standalone with the journal directory as the only argument
+ * to print them.
+ */
+public final class SeatCountReplay {
+
+    private SeatCountReplay() {
+    }
+
+    /**
+     * @return available seats by flight number, of the flights existing after the last record
+     */
+    public static Map<String, Integer> replay(Path directory) {
+        final var revoked = new HashSet<Long>();
+        JournalReader.forEach(directory, record -> {
+            if (record.type() == JournalEventType.ROLLED_BACK) {
+                revoked.add(record.revokedSequence());
+            }
+        });
+
+        final var seats = new TreeMap<String, Integer>();
+        JournalReader.forEach(directory, record -> {
+            if (record.type() == JournalEventType.ROLLED_BACK || revoked.contains(record.sequence())) {
+                return;
+            }
+
+            if (record.previousFlightNumber() != null) {
+                seats.remove(record.previousFlightNumber());
+            }
+
+            if (record.type() == JournalEventType.FLIGHT_DELETED) {
+                seats.remove(record.flightNumber());
+            } else {
+                seats.put(record.flightNumber(), record.availableSeats());
+            }
+        });
+        return seats;
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: SeatCountReplay <journal directory>");
+            System.exit(2);
+        }
+
+        replay(Path.of(args[0])).forEach((flightNumber, seats) -> System.out.println(flightNumber + "\t" + seats));
+    }
+}
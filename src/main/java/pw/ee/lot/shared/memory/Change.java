@@ -0,0 +1,21 @@
+package pw.ee.lot.shared.memory;
+
+import java.util.UUID;
+
+/**
+ * A committed change of the store, as applied and as written to the log.
+ */
+interface Change {
+
+    record PutFlight(FlightRow flight) implements Change {
+    }
+
+    record RemoveFlight(long flightId) implements Change {
+    }
+
+    record PutPassenger(PassengerRow passenger) implements Change {
+    }
+
+    record RemovePassenger(UUID passengerId) implements Change {
+    }
+}
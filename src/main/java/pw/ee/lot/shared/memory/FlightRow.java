@@ -0,0 +1,91 @@
+package pw.ee.lot.shared.memory;
+
+import pw.ee.lot.domain.Flight;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.SeatMap;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable committed state of a flight, its bookings included. Entities are built from rows and compared against
+ * them on commit, so a row is never shared with a caller.
+ *
+ * @param passengerIds the booked passengers
+ * @param seatMap      {@code null} for flights sold without seat assignment
+ */
+record FlightRow(
+    long id,
+    String flightNumber,
+    LocalDateTime departureTime,
+    int availableSeats,
+    List<String> route,
+    Set<UUID> passengerIds,
+    SeatMapRow seatMap,
+    Map<UUID, Integer> seatAssignments
+) {
+
+    FlightRow {
+        route = List.copyOf(route);
+        passengerIds = Set.copyOf(passengerIds);
+        seatAssignments = Map.copyOf(seatAssignments);
+    }
+
+    /**
+     * Row of the entity, taking the bookings from {@code passengerIds} as long as its passengers were not loaded.
+     */
+    static FlightRow of(Flight flight, Set<UUID> passengerIds) {
+        return new FlightRow(
+            flight.getId(),
+            flight.getFlightNumber(),
+            flight.getDepartureTime(),
+            flight.getAvailableSeats(),
+            flight.getRoute() == null ? List.of() : flight.getRoute(),
+            passengerIdsOf(flight, passengerIds),
+            flight.getSeatMap() == null ? null : SeatMapRow.of(flight.getSeatMap()),
+            flight.getSeatAssignments() == null ? Map.of() : flight.getSeatAssignments());
+    }
+
+    private static Set<UUID> passengerIdsOf(Flight flight, Set<UUID> passengerIds) {
+        if (flight.getPassengers() instanceof LazySet<Passenger> passengers && !passengers.isLoaded()) {
+            return passengerIds;
+        }
+        if (flight.getPassengers() == null) {
+            return Set.of();
+        }
+
+        final var ids = new HashSet<UUID>();
+        flight.getPassengers().forEach(passenger -> ids.add(passenger.getPassengerId()));
+        return ids;
+    }
+
+    /**
+     * A seat map with the seats taken as a detached bit set, so rows compare by value.
+     */
+    record SeatMapRow(int seatRows, String seatLayout, int premiumRows, BitSet takenSeats) {
+
+        SeatMapRow {
+            takenSeats = (BitSet) takenSeats.clone();
+        }
+
+        static SeatMapRow of(SeatMap seatMap) {
+            return new SeatMapRow(seatMap.getSeatRows(), seatMap.getSeatLayout(), seatMap.getPremiumRows(), seatMap.getTakenSeats());
+        }
+
+        SeatMap toSeatMap() {
+            final var seatMap = SeatMap.of(seatRows, seatLayout, premiumRows);
+            takenSeats.stream().forEach(seatMap::claim);
+            return seatMap;
+        }
+
+        @Override
+        public BitSet takenSeats() {
+            return (BitSet) takenSeats.clone();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package pw.ee.lot.shared.memory;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import pw.ee.lot.domain.Flight;
+import pw.ee.lot.domain.repository.FlightRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link FlightRepository} on the {@link InMemoryStore}. Specifications and the native bulk statements need SQL and
+ * are not supported, so bulk operations, cancelling and archiving are disabled with this storage.
+ */
+class InMemoryFlightRepository extends InMemoryRepository<Flight, Long> implements FlightRepository {
+
+    InMemoryFlightRepository(InMemoryStore store) {
+        super(store);
+    }
+
+    @Override
+    public boolean existsByFlightNumber(String flightNumber) {
+        return store.read(unit -> unit.flightIdOf(flightNumber) != null);
+    }
+
+    @Override
+    public Optional<Flight> findByFlightNumber(String flightNumber) {
+        return store.read(unit -> Optional.ofNullable(unit.flight(flightNumber)));
+    }
+
+    @Override
+    public Optional<Flight> findWithLockByFlightNumber(String flightNumber) {
+        return store.read(unit -> Optional.ofNullable(unit.lockedFlight(flightNumber)));
+    }
+
+    @Override
+    public List<Flight> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit) {
+        return store.read(unit -> {
+            final var flights = store.flights().tailMap(id, false).keySet().stream()
+                .map(unit::flight)
+                .filter(Objects::nonNull);
+            return (limit.isLimited() ? flights.limit(limit.max()) : flights).toList();
+        });
+    }
+
+    @Override
+    public Page<Flight> findAll(Specification<Flight> specification, Pageable pageable) {
+        throw notSupported("Specifications");
+    }
+
+    @Override
+    public long count(Specification<Flight> specification) {
+        throw notSupported("Specifications");
+    }
+
+    @Override
+    public Stream<String> streamFlightNumbers() {
+        return store.flightNumbers().keySet().stream();
+    }
+
+    @Override
+    public long countByDepartureTimeAfterAndAvailableSeatsLessThanEqual(LocalDateTime departureTime, int availableSeats) {
+        return store.departuresBetween(departureTime, LocalDateTime.MAX).stream()
+            .filter(departure -> departure.departureTime().isAfter(departureTime))
+            .map(departure -> store.flight(departure.flightId()))
+            .filter(flight -> flight != null && flight.availableSeats() <= availableSeats)
+            .count();
+    }
+
+    @Override
+    public List<FlightFigures> findFiguresByIdGreaterThan(Long id, Pageable pageable) {
+        final var flights = store.flights().tailMap(id, false).values().stream()
+            .<FlightFigures>map(flight -> new Figures(flight.id(), flight.departureTime(), flight.availableSeats(), flight.passengerIds().size()));
+        return (pageable.isPaged() ? flights.limit(pageable.getPageSize()) : flights).toList();
+    }
+
+    @Override
+    public List<FlightFigures> findFiguresByIdIn(Collection<Long> ids) {
+        return ids.stream()
+            .map(store::flight)
+            .filter(Objects::nonNull)
+            .<FlightFigures>map(flight -> new Figures(flight.id(), flight.departureTime(), flight.availableSeats(), flight.passengerIds().size()))
+            .toList();
+    }
+
+    @Override
+    public List<UpcomingFlight> findUpcomingByIdGreaterThan(LocalDateTime departureTime, Long id, Pageable pageable) {
+        final var flights = store.flights().tailMap(id, false).values().stream()
+            .filter(flight -> flight.departureTime().isAfter(departureTime))
+            .<UpcomingFlight>map(flight -> new Upcoming(flight.id(), flight.flightNumber(), flight.departureTime()));
+        return (pageable.isPaged() ? flights.limit(pageable.getPageSize()) : flights).toList();
+    }
+
+    @Override
+    public List<UpcomingFlight> findUpcomingByIdIn(LocalDateTime departureTime, Collection<Long> ids) {
+        return ids.stream()
+            .map(store::flight)
+            .filter(flight -> flight != null && flight.departureTime().isAfter(departureTime))
+            .<UpcomingFlight>map(flight -> new Upcoming(flight.id(), flight.flightNumber(), flight.departureTime()))
+            .toList();
+    }
+
+    @Override
+    public List<RouteStop> findRouteStops(Collection<Long> flightIds) {
+        return flightIds.stream()
+            .map(store::flight)
+            .filter(Objects::nonNull)
+            .flatMap(flight -> flight.route().stream().<RouteStop>map(city -> new Stop(flight.id(), city)))
+            .toList();
+    }
+
+    @Override
+    public List<FlightKey> lockDepartedBefore(LocalDateTime cutoff, int limit) {
+        throw notSupported("Native statements");
+    }
+
+    @Override
+    public int shiftDepartures(Collection<Long> flightIds, long seconds) {
+        throw notSupported("Native statements");
+    }
+
+    @Override
+    public int deleteBookingsOf(Collection<Long> flightIds) {
+        throw notSupported("Native statements");
+    }
+
+    @Override
+    public int deleteRoutesOf(Collection<Long> flightIds) {
+        throw notSupported("Native statements");
+    }
+
+    @Override
+    public int deleteFlights(Collection<Long> flightIds) {
+        throw notSupported("Native statements");
+    }
+
+    @Override
+    public Optional<Flight> findById(Long id) {
+        return store.read(unit -> Optional.ofNullable(unit.flight(id)));
+    }
+
+    @Override
+    public List<Flight> findAll() {
+        return store.read(UnitOfWork::flights);
+    }
+
+    @Override
+    public long count() {
+        return store.read(UnitOfWork::flightCount);
+    }
+
+    @Override
+    public <S extends Flight> S save(S flight) {
+        return store.write(unit -> {
+            unit.save(flight);
+            return flight;
+        });
+    }
+
+    @Override
+    public void delete(Flight flight) {
+        store.write(unit -> {
+            unit.remove(flight);
+            return null;
+        });
+    }
+
+    @Override
+    protected Comparator<Flight> defaultOrder() {
+        return Comparator.comparing(Flight::getId);
+    }
+
+    @Override
+    protected Comparator<Flight> orderBy(String property) {
+        return switch (property) {
+            case "id" -> Comparator.comparing(Flight::getId);
+            case "flightNumber" -> Comparator.comparing(Flight::getFlightNumber);
+            case "departureTime" -> Comparator.comparing(Flight::getDepartureTime);
+            case "availableSeats" -> Comparator.comparing(Flight::getAvailableSeats);
+            default -> throw new IllegalArgumentException("Flights cannot be sorted by " + property);
+        };
+    }
+
+    private record Figures(Long getId, LocalDateTime getDepartureTime, Integer getAvailableSeats, Integer getBookedSeats) implements FlightFigures {
+    }
+
+    private record Upcoming(Long getId, String getFlightNumber, LocalDateTime getDepartureTime) implements UpcomingFlight {
+    }
+
+    private record Stop(Long getFlightId, String getCity) implements RouteStop {
+    }
+}
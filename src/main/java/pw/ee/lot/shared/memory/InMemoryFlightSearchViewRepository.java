@@ -0,0 +1,159 @@
+package pw.ee.lot.shared.memory;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import pw.ee.lot.domain.FlightSearchView;
+import pw.ee.lot.domain.repository.FlightSearchViewRepository;
+import pw.ee.lot.dto.flight.FlightSearchCriteria;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link FlightSearchViewRepository} deriving the views from the flights of the {@link InMemoryStore}, so they are
+ * never stale: saving, deleting and projecting views are no-ops and there is nothing to reconcile. Searches start from
+ * the flight number or departure time index when the criteria have one.
+ */
+class InMemoryFlightSearchViewRepository extends InMemoryRepository<FlightSearchView, Long> implements FlightSearchViewRepository {
+
+    private static final Comparator<FlightSearchView> BY_DEPARTURE = Comparator.comparing(FlightSearchView::getDepartureTime)
+        .thenComparing(FlightSearchView::getFlightNumber);
+
+    InMemoryFlightSearchViewRepository(InMemoryStore store) {
+        super(store);
+    }
+
+    @Override
+    public Page<FlightSearchView> findAll(Specification<FlightSearchView> specification, Pageable pageable) {
+        throw notSupported("Specifications");
+    }
+
+    @Override
+    public Page<FlightSearchView> search(FlightSearchCriteria criteria, Specification<FlightSearchView> specification, Pageable pageable) {
+        return page(candidates(criteria).filter(flight -> matches(flight, criteria)).map(InMemoryFlightSearchViewRepository::viewOf), pageable);
+    }
+
+    @Override
+    public List<FlightSearchView> findAlternatives(String route, LocalDateTime from, LocalDateTime to) {
+        return store.departuresBetween(from, to).stream()
+            .map(departure -> store.flight(departure.flightId()))
+            .filter(flight -> flight != null && flight.availableSeats() > 0 && FlightSearchView.encodeRoute(flight.route()).equals(route))
+            .map(InMemoryFlightSearchViewRepository::viewOf)
+            .sorted(BY_DEPARTURE)
+            .toList();
+    }
+
+    @Override
+    public int shiftDepartures(Collection<Long> flightIds, long seconds) {
+        throw notSupported("Native statements");
+    }
+
+    @Override
+    public int project(long flightId) {
+        return 0;
+    }
+
+    @Override
+    public int reconcile() {
+        return 0;
+    }
+
+    @Override
+    public int lockProjection(long flightId) {
+        throw notSupported("Native statements");
+    }
+
+    @Override
+    public int upsert(long flightId) {
+        throw notSupported("Native statements");
+    }
+
+    @Override
+    public List<Long> findDrifted() {
+        throw notSupported("Native statements");
+    }
+
+    @Override
+    public Optional<FlightSearchView> findById(Long id) {
+        return Optional.ofNullable(store.flight(id)).map(InMemoryFlightSearchViewRepository::viewOf);
+    }
+
+    @Override
+    public List<FlightSearchView> findAll() {
+        return store.flights().values().stream().map(InMemoryFlightSearchViewRepository::viewOf).toList();
+    }
+
+    @Override
+    public long count() {
+        return store.flights().size();
+    }
+
+    @Override
+    public <S extends FlightSearchView> S save(S view) {
+        return view;
+    }
+
+    @Override
+    public void delete(FlightSearchView view) {
+    }
+
+    @Override
+    protected Comparator<FlightSearchView> defaultOrder() {
+        return Comparator.comparing(FlightSearchView::getFlightId);
+    }
+
+    @Override
+    protected Comparator<FlightSearchView> orderBy(String property) {
+        return switch (property) {
+            case "flightId" -> defaultOrder();
+            case "flightNumber" -> Comparator.comparing(FlightSearchView::getFlightNumber);
+            case "departureTime" -> Comparator.comparing(FlightSearchView::getDepartureTime);
+            case "availableSeats" -> Comparator.comparing(FlightSearchView::getAvailableSeats);
+            case "route" -> Comparator.comparing(FlightSearchView::getRoute);
+            default -> throw new IllegalArgumentException("Flights cannot be sorted by " + property);
+        };
+    }
+
+    private Stream<FlightRow> candidates(FlightSearchCriteria criteria) {
+        if (criteria.flightNumber() != null) {
+            return store.flightNumbers().tailMap(criteria.flightNumber()).entrySet().stream()
+                .takeWhile(entry -> entry.getKey().startsWith(criteria.flightNumber()))
+                .map(entry -> store.flight(entry.getValue()))
+                .filter(Objects::nonNull);
+        }
+
+        if (criteria.departureTimeFrom() != null || criteria.departureTimeTo() != null) {
+            final var from = criteria.departureTimeFrom() != null ? criteria.departureTimeFrom() : LocalDateTime.MIN;
+            final var to = criteria.departureTimeTo() != null ? criteria.departureTimeTo() : LocalDateTime.MAX;
+            return from.isAfter(to) ? Stream.empty() : store.departuresBetween(from, to).stream()
+                .map(departure -> store.flight(departure.flightId()))
+                .filter(Objects::nonNull);
+        }
+
+        return store.flights().values().stream();
+    }
+
+    private static boolean matches(FlightRow flight, FlightSearchCriteria criteria) {
+        return (criteria.flightNumber() == null || flight.flightNumber().startsWith(criteria.flightNumber()))
+            && (criteria.departureTimeFrom() == null || !flight.departureTime().isBefore(criteria.departureTimeFrom()))
+            && (criteria.departureTimeTo() == null || !flight.departureTime().isAfter(criteria.departureTimeTo()))
+            && (criteria.availableSeatsFrom() == null || flight.availableSeats() >= criteria.availableSeatsFrom())
+            && (criteria.city() == null || flight.route().contains(criteria.city()));
+    }
+
+    private static FlightSearchView viewOf(FlightRow flight) {
+        return FlightSearchView.builder()
+            .flightId(flight.id())
+            .flightNumber(flight.flightNumber())
+            .departureTime(flight.departureTime())
+            .availableSeats(flight.availableSeats())
+            .route(FlightSearchView.encodeRoute(flight.route()))
+            .build();
+    }
+}
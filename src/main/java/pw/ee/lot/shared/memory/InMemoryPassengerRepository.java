@@ -0,0 +1,77 @@
+package pw.ee.lot.shared.memory;
+
+import org.springframework.data.domain.Limit;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.repository.PassengerRepository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * {@link PassengerRepository} on the {@link InMemoryStore}.
+ */
+class InMemoryPassengerRepository extends InMemoryRepository<Passenger, UUID> implements PassengerRepository {
+
+    InMemoryPassengerRepository(InMemoryStore store) {
+        super(store);
+    }
+
+    @Override
+    public List<Passenger> findByPassengerIdGreaterThanOrderByPassengerIdAsc(UUID passengerId, Limit limit) {
+        return store.read(unit -> {
+            final var passengers = store.passengers().tailMap(passengerId, false).keySet().stream()
+                .map(unit::passenger)
+                .filter(Objects::nonNull);
+            return (limit.isLimited() ? passengers.limit(limit.max()) : passengers).toList();
+        });
+    }
+
+    @Override
+    public Optional<Passenger> findById(UUID id) {
+        return store.read(unit -> Optional.ofNullable(unit.passenger(id)));
+    }
+
+    @Override
+    public List<Passenger> findAll() {
+        return store.read(UnitOfWork::passengers);
+    }
+
+    @Override
+    public long count() {
+        return store.read(UnitOfWork::passengerCount);
+    }
+
+    @Override
+    public <S extends Passenger> S save(S passenger) {
+        return store.write(unit -> {
+            unit.save(passenger);
+            return passenger;
+        });
+    }
+
+    @Override
+    public void delete(Passenger passenger) {
+        store.write(unit -> {
+            unit.remove(passenger);
+            return null;
+        });
+    }
+
+    @Override
+    protected Comparator<Passenger> defaultOrder() {
+        return Comparator.comparing(Passenger::getPassengerId, InMemoryStore.passengerOrder());
+    }
+
+    @Override
+    protected Comparator<Passenger> orderBy(String property) {
+        return switch (property) {
+            case "passengerId" -> defaultOrder();
+            case "firstName" -> Comparator.comparing(Passenger::getFirstName);
+            case "lastName" -> Comparator.comparing(Passenger::getLastName);
+            default -> throw new IllegalArgumentException("Passengers cannot be sorted by " + property);
+        };
+    }
+}
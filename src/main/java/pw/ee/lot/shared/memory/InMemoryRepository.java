@@ -0,0 +1,219 @@
+package pw.ee.lot.shared.memory;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.FluentQuery;
+import pw.ee.lot.shared.FeatureDisabledException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * The part of {@link JpaRepository} the in-memory repositories share, built on finding, saving and deleting single
+ * entities. Operations on many entities outside of a transaction are committed at once. Flushing is a no-op, as
+ * changes are written when the transaction commits, and queries by example are not supported.
+ */
+abstract class InMemoryRepository<T, ID> implements JpaRepository<T, ID> {
+
+    protected final InMemoryStore store;
+
+    protected InMemoryRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Order of the entities of an unsorted page.
+     */
+    protected abstract Comparator<T> defaultOrder();
+
+    /**
+     * Order by the property, ascending.
+     *
+     * @throws IllegalArgumentException if the entity cannot be sorted by the property
+     */
+    protected abstract Comparator<T> orderBy(String property);
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        return store.write(unit -> {
+            final var saved = new ArrayList<S>();
+            entities.forEach(entity -> saved.add(save(entity)));
+            return saved;
+        });
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        final var found = new ArrayList<T>();
+        ids.forEach(id -> findById(id).ifPresent(found::add));
+        return found;
+    }
+
+    @Override
+    public boolean existsById(ID id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public void deleteById(ID id) {
+        findById(id).ifPresent(this::delete);
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends ID> ids) {
+        store.write(unit -> {
+            ids.forEach(this::deleteById);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        store.write(unit -> {
+            entities.forEach(this::delete);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAll() {
+        store.write(unit -> {
+            findAll().forEach(this::delete);
+            return null;
+        });
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        return sorted(findAll().stream(), sort).toList();
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        return page(findAll().stream(), pageable);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public <S extends T> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends T> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<T> entities) {
+        deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<ID> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    @Deprecated
+    public T getOne(ID id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public T getById(ID id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public T getReferenceById(ID id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException("Unable to find entity with id " + id));
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw unsupported("Queries by example");
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw unsupported("Queries by example");
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw unsupported("Queries by example");
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw unsupported("Queries by example");
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        throw unsupported("Queries by example");
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        throw unsupported("Queries by example");
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw unsupported("Queries by example");
+    }
+
+    /**
+     * The page of the entities, sorted by the page request or else in the default order.
+     */
+    protected Page<T> page(Stream<T> entities, Pageable pageable) {
+        final var all = sorted(entities, pageable.getSort()).toList();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(all, pageable, all.size());
+        }
+
+        final var from = (int) Math.min(pageable.getOffset(), all.size());
+        final var to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
+
+    protected Stream<T> sorted(Stream<T> entities, Sort sort) {
+        Comparator<T> order = null;
+        for (Sort.Order by : sort) {
+            final var property = by.isAscending() ? orderBy(by.getProperty()) : orderBy(by.getProperty()).reversed();
+            order = order == null ? property : order.thenComparing(property);
+        }
+        return entities.sorted(order == null ? defaultOrder() : order.thenComparing(defaultOrder()));
+    }
+
+    protected static UnsupportedOperationException unsupported(String operation) {
+        return new UnsupportedOperationException(operation + " are not supported by the in-memory storage engine");
+    }
+
+    /**
+     * For the queries only the features the in-memory profile disables run, e.g. bulk operations and archiving.
+     */
+    protected static FeatureDisabledException notSupported(String operation) {
+        return new FeatureDisabledException(operation + " are not supported by the in-memory storage engine");
+    }
+}
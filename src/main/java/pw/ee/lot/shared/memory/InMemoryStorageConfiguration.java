@@ -0,0 +1,72 @@
+package pw.ee.lot.shared.memory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.FlightSearchViewRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+
+import java.util.Map;
+
+/**
+ * Keeps flights, passengers and bookings in the {@link InMemoryStore} instead of PostgreSQL, taking over their
+ * repositories. PostgreSQL is still needed: the remaining tables, cities and the archive among them, stay with JPA.
+ * <p>
+ * The engine runs a reduced feature set. Seat holds, bulk operations, cancelling with rebooking, archiving and
+ * sharding move flights with native statements or store rows referencing flights in PostgreSQL, so the profile
+ * disables them, their endpoints answer {@code 501 Not Implemented}, and the service refuses to start with any of them
+ * enabled rather than fail on their first request.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("in-memory")
+class InMemoryStorageConfiguration {
+
+    /**
+     * The features the engine cannot run, with their defaults.
+     */
+    private static final Map<String, Boolean> UNSUPPORTED_FEATURES = Map.of(
+        "lot.holds.enabled", true,
+        "lot.bulk.enabled", true,
+        "lot.rebooking.enabled", true,
+        "lot.archive.enabled", true,
+        "lot.sharding.enabled", false
+    );
+
+    /**
+     * @throws IllegalStateException if a feature the engine cannot run is enabled
+     */
+    @Bean
+    InMemoryStore inMemoryStore(InMemoryStorageProperties properties, MeterRegistry meterRegistry, Environment environment) {
+        final var enabled = UNSUPPORTED_FEATURES.entrySet().stream()
+            .filter(feature -> environment.getProperty(feature.getKey(), Boolean.class, feature.getValue()))
+            .map(Map.Entry::getKey)
+            .sorted()
+            .toList();
+        if (!enabled.isEmpty()) {
+            throw new IllegalStateException("The in-memory storage engine cannot run with " + String.join(", ", enabled) + ", disable them");
+        }
+        return new InMemoryStore(properties, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    FlightRepository inMemoryFlightRepository(InMemoryStore store) {
+        return new InMemoryFlightRepository(store);
+    }
+
+    @Bean
+    @Primary
+    PassengerRepository inMemoryPassengerRepository(InMemoryStore store) {
+        return new InMemoryPassengerRepository(store);
+    }
+
+    @Bean
+    @Primary
+    FlightSearchViewRepository inMemoryFlightSearchViewRepository(InMemoryStore store) {
+        return new InMemoryFlightSearchViewRepository(store);
+    }
+}
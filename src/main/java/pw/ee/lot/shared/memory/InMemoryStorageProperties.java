@@ -0,0 +1,32 @@
+package pw.ee.lot.shared.memory;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * In-memory storage engine of the {@code in-memory} profile.
+ *
+ * @param directory        directory of the write-ahead log and the snapshots, of this instance alone
+ * @param snapshotInterval how often a snapshot is taken, which bounds how much of the log is replayed on startup
+ * @param syncOnCommit     whether a commit waits for its log record to be forced to the disk; without it a power
+ *                         failure loses the commits still in the page cache, a process crash loses nothing
+ * @param lockTimeout      how long to wait for a flight locked by another transaction
+ */
+@ConfigurationProperties("lot.in-memory")
+public record InMemoryStorageProperties(
+    @DefaultValue("in-memory")
+    Path directory,
+
+    @DefaultValue("PT5M")
+    Duration snapshotInterval,
+
+    @DefaultValue("true")
+    boolean syncOnCommit,
+
+    @DefaultValue("PT10S")
+    Duration lockTimeout
+) {
+}
@@ -0,0 +1,448 @@
+package pw.ee.lot.shared.memory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Flights, passengers and bookings held in concurrent maps, with the secondary indexes the repositories query:
+ * flight numbers in order for exact and prefix lookups, departure times for time windows and the flights of every
+ * passenger.
+ * <p>
+ * Repositories work on entities through a {@link UnitOfWork} per transaction, which is committed to the store right
+ * before the transaction commits: the changes are checked against the unique and foreign keys the schema has,
+ * appended to the {@link WriteAheadLog} and applied under one lock, so commits are serialized like in a database.
+ * The log is forced to the disk outside of the lock, a commit waiting for it shares the force with the commits that
+ * arrived meanwhile. Rows are immutable, so reads go to the maps without locking and see every commit as a whole
+ * per flight or passenger.
+ * <p>
+ * A {@link Snapshots snapshot} is taken every {@code lot.in-memory.snapshot-interval} and on shutdown; startup loads
+ * the latest one and replays the logs written since.
+ */
+@Slf4j
+final class InMemoryStore implements DisposableBean {
+
+    private static final String LOCK_FILE = "store.lock";
+    private static final Comparator<UUID> PASSENGER_ORDER = (a, b) -> {
+        final var high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    };
+
+    private final ConcurrentSkipListMap<Long, FlightRow> flights = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Long> flightNumbers = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListSet<Departure> departures = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListMap<UUID, PassengerRow> passengers = new ConcurrentSkipListMap<>(PASSENGER_ORDER);
+    private final ConcurrentHashMap<UUID, Set<Long>> bookings = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, ReentrantLock> locks = new ConcurrentHashMap<>();
+    private final AtomicLong lastFlightId = new AtomicLong();
+    private final ThreadLocal<UnitOfWork> ownUnit = new ThreadLocal<>();
+    private final Object commitLock = new Object();
+    private final Object snapshotLock = new Object();
+    private final Path directory;
+    private final boolean syncOnCommit;
+    private final Duration lockTimeout;
+    private final FileChannel lockChannel;
+    private final WriteAheadLog writeAheadLog;
+    private final Timer commits;
+    private long changesSinceSnapshot;
+
+    InMemoryStore(InMemoryStorageProperties properties, MeterRegistry meterRegistry) {
+        this.directory = properties.directory();
+        this.syncOnCommit = properties.syncOnCommit();
+        this.lockTimeout = properties.lockTimeout();
+        try {
+            Files.createDirectories(directory);
+            this.lockChannel = lock(directory);
+            this.writeAheadLog = new WriteAheadLog(directory, recover());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the store in " + directory, e);
+        }
+
+        this.commits = Timer.builder("lot.in-memory.commit")
+            .description("Time to check, log and apply a commit to the in-memory store, forcing the log included")
+            .register(meterRegistry);
+        Gauge.builder("lot.in-memory.flights", flights, ConcurrentSkipListMap::size)
+            .description("Flights held by the in-memory store")
+            .register(meterRegistry);
+        Gauge.builder("lot.in-memory.passengers", passengers, ConcurrentSkipListMap::size)
+            .description("Passengers held by the in-memory store")
+            .register(meterRegistry);
+        log.info("Opened in-memory store in {} with {} flights and {} passengers", directory, flights.size(), passengers.size());
+    }
+
+    FlightRow flight(long flightId) {
+        return flights.get(flightId);
+    }
+
+    Long flightIdOf(String flightNumber) {
+        return flightNumbers.get(flightNumber);
+    }
+
+    /**
+     * Flights in the order of their ids.
+     */
+    NavigableMap<Long, FlightRow> flights() {
+        return flights;
+    }
+
+    /**
+     * Flight ids by flight number, in order.
+     */
+    NavigableMap<String, Long> flightNumbers() {
+        return flightNumbers;
+    }
+
+    /**
+     * Departures in the window, both ends included, earliest first.
+     */
+    NavigableSet<Departure> departuresBetween(LocalDateTime from, LocalDateTime to) {
+        return departures.subSet(new Departure(from, Long.MIN_VALUE), true, new Departure(to, Long.MAX_VALUE), true);
+    }
+
+    PassengerRow passenger(UUID passengerId) {
+        return passengers.get(passengerId);
+    }
+
+    /**
+     * Passengers in the order of their ids as PostgreSQL compares them.
+     */
+    NavigableMap<UUID, PassengerRow> passengers() {
+        return passengers;
+    }
+
+    static Comparator<UUID> passengerOrder() {
+        return PASSENGER_ORDER;
+    }
+
+    Set<Long> flightIdsOf(UUID passengerId) {
+        return bookings.getOrDefault(passengerId, Set.of());
+    }
+
+    long nextFlightId() {
+        return lastFlightId.incrementAndGet();
+    }
+
+    /**
+     * Locks the flight until {@code release} is called, like a pessimistic row lock.
+     *
+     * @throws CannotAcquireLockException if the flight stays locked for {@code lot.in-memory.lock-timeout}
+     */
+    ReentrantLock lock(long flightId) {
+        final var lock = locks.computeIfAbsent(flightId, id -> new ReentrantLock());
+        try {
+            if (!lock.tryLock(lockTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new CannotAcquireLockException("Flight " + flightId + " stayed locked for " + lockTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while locking flight " + flightId, e);
+        }
+        return lock;
+    }
+
+    /**
+     * Runs a read on the unit of work of the running transaction, else on a unit of its own.
+     */
+    <R> R read(Function<UnitOfWork, R> action) {
+        final var unit = currentUnit();
+        return action.apply(unit != null ? unit : new UnitOfWork(this, false));
+    }
+
+    /**
+     * Runs a change on the unit of work of the running transaction, committed with it, else on a unit of its own
+     * committed once the outermost change returns.
+     */
+    <R> R write(Function<UnitOfWork, R> action) {
+        final var unit = currentUnit();
+        if (unit != null) {
+            return action.apply(unit);
+        }
+
+        final var own = new UnitOfWork(this, false);
+        ownUnit.set(own);
+        try {
+            final var result = action.apply(own);
+            commit(own.changes());
+            return result;
+        } finally {
+            ownUnit.remove();
+        }
+    }
+
+    /**
+     * Checks the changes against the unique and foreign keys, logs and applies them.
+     *
+     * @throws DataIntegrityViolationException if a flight number is taken, a booking refers to a missing passenger
+     *                                         or a booked passenger is removed; nothing is applied then
+     */
+    void commit(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        final var start = System.nanoTime();
+        final long position;
+        synchronized (commitLock) {
+            verify(changes);
+            position = writeAheadLog.append(changes);
+            changes.forEach(this::apply);
+            changesSinceSnapshot += changes.size();
+        }
+        if (syncOnCommit) {
+            writeAheadLog.sync(position);
+        }
+        commits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Scheduled(initialDelayString = "${lot.in-memory.snapshot-interval:PT5M}", fixedDelayString = "${lot.in-memory.snapshot-interval:PT5M}")
+    void snapshot() {
+        synchronized (snapshotLock) {
+            final long generation;
+            final long lastId;
+            final List<FlightRow> flightRows;
+            final List<PassengerRow> passengerRows;
+            synchronized (commitLock) {
+                if (changesSinceSnapshot == 0) {
+                    return;
+                }
+                generation = writeAheadLog.generation() + 1;
+                writeAheadLog.roll(generation);
+                lastId = lastFlightId.get();
+                flightRows = List.copyOf(flights.values());
+                passengerRows = List.copyOf(passengers.values());
+                changesSinceSnapshot = 0;
+            }
+
+            final var start = System.nanoTime();
+            Snapshots.write(directory, generation, lastId, flightRows, passengerRows);
+            Snapshots.snapshotsOf(directory).headMap(generation).values().forEach(this::deleteQuietly);
+            WriteAheadLog.logsOf(directory).headMap(generation).values().forEach(this::deleteQuietly);
+            log.info("Took snapshot {} of {} flights and {} passengers in {} ms", generation, flightRows.size(), passengerRows.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        try {
+            snapshot();
+        } finally {
+            writeAheadLog.close();
+            lockChannel.close();
+        }
+    }
+
+    private UnitOfWork currentUnit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return ownUnit.get();
+        }
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof UnitOfWork unit && unit.belongsTo(this)) {
+                return unit;
+            }
+        }
+        final var unit = new UnitOfWork(this, true);
+        TransactionSynchronizationManager.registerSynchronization(unit);
+        return unit;
+    }
+
+    /**
+     * Loads the latest snapshot and replays the logs written since, cutting off a record torn by a crash.
+     *
+     * @return the generation to continue the log with
+     */
+    private long recover() throws IOException {
+        var generation = 0L;
+        final var snapshots = Snapshots.snapshotsOf(directory);
+        if (!snapshots.isEmpty()) {
+            generation = snapshots.lastKey();
+            lastFlightId.set(Snapshots.read(snapshots.get(generation), this::putFlight,
+                passenger -> passengers.put(passenger.passengerId(), passenger)));
+        }
+
+        final var logs = WriteAheadLog.logsOf(directory).tailMap(generation);
+        for (var entry : logs.entrySet()) {
+            final var intact = WriteAheadLog.replay(entry.getValue(), changes -> changes.forEach(this::apply));
+            if (intact < Files.size(entry.getValue())) {
+                if (!entry.getKey().equals(logs.lastKey())) {
+                    throw new IllegalStateException("Log " + entry.getValue() + " is corrupt after " + intact + " bytes, later logs cannot be replayed");
+                }
+                log.warn("Cutting off the torn tail of the log {} after {} bytes", entry.getValue(), intact);
+                try (var channel = FileChannel.open(entry.getValue(), StandardOpenOption.WRITE)) {
+                    channel.truncate(intact);
+                }
+            }
+            generation = entry.getKey();
+        }
+        return generation;
+    }
+
+    private void verify(List<Change> changes) {
+        final var changedFlights = new HashMap<Long, FlightRow>();
+        final var changedPassengers = new HashMap<UUID, PassengerRow>();
+        for (Change change : changes) {
+            if (change instanceof Change.PutFlight put) {
+                changedFlights.put(put.flight().id(), put.flight());
+            } else if (change instanceof Change.RemoveFlight remove) {
+                changedFlights.put(remove.flightId(), null);
+            } else if (change instanceof Change.PutPassenger put) {
+                changedPassengers.put(put.passenger().passengerId(), put.passenger());
+            } else if (change instanceof Change.RemovePassenger remove) {
+                changedPassengers.put(remove.passengerId(), null);
+            }
+        }
+
+        final var numbers = new HashMap<String, Long>();
+        for (FlightRow flight : changedFlights.values()) {
+            if (flight == null) {
+                continue;
+            }
+
+            final var owner = flightNumbers.get(flight.flightNumber());
+            final var ownerKeepsNumber = owner != null && owner != flight.id()
+                && (!changedFlights.containsKey(owner) || changedFlights.get(owner) != null && changedFlights.get(owner).flightNumber().equals(flight.flightNumber()));
+            if (ownerKeepsNumber || numbers.put(flight.flightNumber(), flight.id()) != null) {
+                throw new DataIntegrityViolationException("Flight number " + flight.flightNumber() + " is already taken");
+            }
+
+            for (UUID passengerId : flight.passengerIds()) {
+                final var exists = changedPassengers.containsKey(passengerId)
+                    ? changedPassengers.get(passengerId) != null
+                    : passengers.containsKey(passengerId);
+                if (!exists) {
+                    throw new DataIntegrityViolationException("Passenger " + passengerId + " booked on flight " + flight.flightNumber() + " does not exist");
+                }
+            }
+        }
+
+        for (var passenger : changedPassengers.entrySet()) {
+            if (passenger.getValue() != null) {
+                continue;
+            }
+
+            final var passengerId = passenger.getKey();
+            final var bookedCommitted = flightIdsOf(passengerId).stream().anyMatch(flightId -> !changedFlights.containsKey(flightId));
+            final var bookedNow = changedFlights.values().stream().anyMatch(flight -> flight != null && flight.passengerIds().contains(passengerId));
+            if (bookedCommitted || bookedNow) {
+                throw new DataIntegrityViolationException("Passenger " + passengerId + " is still booked on flights");
+            }
+        }
+    }
+
+    private void apply(Change change) {
+        if (change instanceof Change.PutFlight put) {
+            putFlight(put.flight());
+        } else if (change instanceof Change.RemoveFlight remove) {
+            final var previous = flights.remove(remove.flightId());
+            if (previous != null) {
+                unindex(previous, null);
+            }
+            locks.remove(remove.flightId());
+        } else if (change instanceof Change.PutPassenger put) {
+            passengers.put(put.passenger().passengerId(), put.passenger());
+        } else if (change instanceof Change.RemovePassenger remove) {
+            passengers.remove(remove.passengerId());
+            bookings.remove(remove.passengerId());
+        }
+    }
+
+    private void putFlight(FlightRow flight) {
+        final var previous = flights.put(flight.id(), flight);
+        if (previous != null) {
+            unindex(previous, flight);
+        }
+
+        flightNumbers.put(flight.flightNumber(), flight.id());
+        departures.add(new Departure(flight.departureTime(), flight.id()));
+        for (UUID passengerId : flight.passengerIds()) {
+            bookings.compute(passengerId, (id, flightIds) -> {
+                final var booked = flightIds != null ? flightIds : ConcurrentHashMap.<Long>newKeySet();
+                booked.add(flight.id());
+                return booked;
+            });
+        }
+        lastFlightId.accumulateAndGet(flight.id(), Math::max);
+    }
+
+    private void unindex(FlightRow previous, FlightRow next) {
+        if (next == null || !previous.flightNumber().equals(next.flightNumber())) {
+            flightNumbers.remove(previous.flightNumber(), previous.id());
+        }
+        if (next == null || !previous.departureTime().equals(next.departureTime())) {
+            departures.remove(new Departure(previous.departureTime(), previous.id()));
+        }
+        for (UUID passengerId : previous.passengerIds()) {
+            if (next == null || !next.passengerIds().contains(passengerId)) {
+                bookings.computeIfPresent(passengerId, (id, flightIds) -> {
+                    flightIds.remove(previous.id());
+                    return flightIds.isEmpty() ? null : flightIds;
+                });
+            }
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete {}, it is deleted after the next snapshot", file, e);
+        }
+    }
+
+    private static FileChannel lock(Path directory) throws IOException {
+        final var lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (lockChannel.tryLock() != null) {
+                return lockChannel;
+            }
+        } catch (OverlappingFileLockException e) {
+            // locked within this process
+        }
+        lockChannel.close();
+        throw new IllegalStateException("Store in " + directory + " is used by another instance");
+    }
+
+    /**
+     * Entry of the departure time index.
+     */
+    record Departure(LocalDateTime departureTime, long flightId) implements Comparable<Departure> {
+
+        @Override
+        public int compareTo(Departure other) {
+            final var byTime = departureTime.compareTo(other.departureTime);
+            return byTime != 0 ? byTime : Long.compare(flightId, other.flightId);
+        }
+    }
+}
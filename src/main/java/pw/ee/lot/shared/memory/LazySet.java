@@ -0,0 +1,62 @@
+package pw.ee.lot.shared.memory;
+
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Association loaded on its first use, like a lazy JPA collection, so loading a flight does not load the passengers
+ * of its bookings and their flights in turn.
+ */
+final class LazySet<E> extends AbstractSet<E> {
+
+    private final Supplier<? extends Set<E>> loader;
+    private Set<E> elements;
+
+    LazySet(Supplier<? extends Set<E>> loader) {
+        this.loader = loader;
+    }
+
+    boolean isLoaded() {
+        return elements != null;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return elements().iterator();
+    }
+
+    @Override
+    public int size() {
+        return elements().size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return elements().contains(o);
+    }
+
+    @Override
+    public boolean add(E e) {
+        return elements().add(e);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return elements().remove(o);
+    }
+
+    @Override
+    public void clear() {
+        elements = new HashSet<>();
+    }
+
+    private Set<E> elements() {
+        if (elements == null) {
+            elements = new HashSet<>(loader.get());
+        }
+        return elements;
+    }
+}
@@ -0,0 +1,30 @@
+package pw.ee.lot.shared.memory;
+
+import pw.ee.lot.domain.Passenger;
+
+import java.util.UUID;
+
+/**
+ * Immutable committed state of a passenger. The flights of a passenger are not part of it, they follow from the
+ * bookings of the flights.
+ *
+ * @param countryCode {@code null} with the phone number for a passenger without one
+ */
+record PassengerRow(
+    UUID passengerId,
+    String firstName,
+    String lastName,
+    String countryCode,
+    String phoneNumber
+) {
+
+    static PassengerRow of(Passenger passenger) {
+        final var phone = passenger.getPhoneNumber();
+        return new PassengerRow(
+            passenger.getPassengerId(),
+            passenger.getFirstName(),
+            passenger.getLastName(),
+            phone == null ? null : phone.getCountryCode(),
+            phone == null ? null : phone.getPhoneNumber());
+    }
+}
@@ -0,0 +1,110 @@
+package pw.ee.lot.shared.memory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.CRC32C;
+
+/**
+ * Snapshots of the whole store, {@code snapshot-<generation>.bin}: {@code int} magic, {@code long} last flight id,
+ * the {@code int} number of flights and the flights, the {@code int} number of passengers and the passengers, as
+ * written by {@link StorageCodec}, then the {@code int} CRC32C of all that. A snapshot is written to a temporary file
+ * and moved into place once it is on the disk, so a snapshot that exists is complete.
+ */
+final class Snapshots {
+
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+    private static final int MAGIC = 0x4c4f5431;
+
+    private Snapshots() {
+    }
+
+    static SortedMap<Long, Path> snapshotsOf(Path directory) {
+        final var snapshots = new TreeMap<Long, Path>();
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> {
+                final var name = file.getFileName().toString();
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    snapshots.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), file);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return snapshots;
+    }
+
+    static void write(Path directory, long generation, long lastFlightId, Collection<FlightRow> flights,
+                      Collection<PassengerRow> passengers) {
+        final var target = directory.resolve(PREFIX + String.format("%020d", generation) + SUFFIX);
+        final var temporary = directory.resolve(target.getFileName() + ".tmp");
+        try (var channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final var crc = new CRC32C();
+            final var out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+            out.writeInt(MAGIC);
+            out.writeLong(lastFlightId);
+            out.writeInt(flights.size());
+            for (FlightRow flight : flights) {
+                StorageCodec.writeFlight(out, flight);
+            }
+            out.writeInt(passengers.size());
+            for (PassengerRow passenger : passengers) {
+                StorageCodec.writePassenger(out, passenger);
+            }
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the snapshot " + target, e);
+        }
+
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot move the snapshot " + target + " into place", e);
+        }
+    }
+
+    /**
+     * @return the last flight id the snapshot was taken with
+     */
+    static long read(Path file, Consumer<FlightRow> flights, Consumer<PassengerRow> passengers) {
+        final var crc = new CRC32C();
+        try (var in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16), crc))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a snapshot");
+            }
+            final var lastFlightId = in.readLong();
+            for (var i = in.readInt(); i > 0; i--) {
+                flights.accept(StorageCodec.readFlight(in));
+            }
+            for (var i = in.readInt(); i > 0; i--) {
+                passengers.accept(StorageCodec.readPassenger(in));
+            }
+
+            final var checksum = (int) crc.getValue();
+            if (in.readInt() != checksum) {
+                throw new IOException("Checksum mismatch");
+            }
+            return lastFlightId;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the snapshot " + file, e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package pw.ee.lot.shared.memory;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.UUID;
+
+/**
+ * Binary form of rows and changes shared by the log and the snapshots. Strings are modified UTF-8 as written by
+ * {@link DataOutput#writeUTF(String)}, times are UTC epoch seconds and nanos, absent values are preceded by a
+ * {@code boolean}.
+ */
+final class StorageCodec {
+
+    private static final byte PUT_FLIGHT = 1;
+    private static final byte REMOVE_FLIGHT = 2;
+    private static final byte PUT_PASSENGER = 3;
+    private static final byte REMOVE_PASSENGER = 4;
+
+    private StorageCodec() {
+    }
+
+    static void writeChange(DataOutput out, Change change) throws IOException {
+        if (change instanceof Change.PutFlight put) {
+            out.writeByte(PUT_FLIGHT);
+            writeFlight(out, put.flight());
+        } else if (change instanceof Change.RemoveFlight remove) {
+            out.writeByte(REMOVE_FLIGHT);
+            out.writeLong(remove.flightId());
+        } else if (change instanceof Change.PutPassenger put) {
+            out.writeByte(PUT_PASSENGER);
+            writePassenger(out, put.passenger());
+        } else if (change instanceof Change.RemovePassenger remove) {
+            out.writeByte(REMOVE_PASSENGER);
+            writeUuid(out, remove.passengerId());
+        }
+    }
+
+    static Change readChange(DataInput in) throws IOException {
+        final var type = in.readByte();
+        return switch (type) {
+            case PUT_FLIGHT -> new Change.PutFlight(readFlight(in));
+            case REMOVE_FLIGHT -> new Change.RemoveFlight(in.readLong());
+            case PUT_PASSENGER -> new Change.PutPassenger(readPassenger(in));
+            case REMOVE_PASSENGER -> new Change.RemovePassenger(readUuid(in));
+            default -> throw new IOException("Unknown change type " + type);
+        };
+    }
+
+    static void writeFlight(DataOutput out, FlightRow flight) throws IOException {
+        out.writeLong(flight.id());
+        out.writeUTF(flight.flightNumber());
+        out.writeLong(flight.departureTime().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(flight.departureTime().getNano());
+        out.writeInt(flight.availableSeats());
+
+        out.writeInt(flight.route().size());
+        for (String city : flight.route()) {
+            out.writeUTF(city);
+        }
+
+        out.writeInt(flight.passengerIds().size());
+        for (UUID passengerId : flight.passengerIds()) {
+            writeUuid(out, passengerId);
+        }
+
+        out.writeBoolean(flight.seatMap() != null);
+        if (flight.seatMap() != null) {
+            out.writeInt(flight.seatMap().seatRows());
+            out.writeUTF(flight.seatMap().seatLayout());
+            out.writeInt(flight.seatMap().premiumRows());
+            final var takenSeats = flight.seatMap().takenSeats().toByteArray();
+            out.writeInt(takenSeats.length);
+            out.write(takenSeats);
+        }
+
+        out.writeInt(flight.seatAssignments().size());
+        for (var assignment : flight.seatAssignments().entrySet()) {
+            writeUuid(out, assignment.getKey());
+            out.writeInt(assignment.getValue());
+        }
+    }
+
+    static FlightRow readFlight(DataInput in) throws IOException {
+        final var id = in.readLong();
+        final var flightNumber = in.readUTF();
+        final var departureTime = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        final var availableSeats = in.readInt();
+
+        final var route = new ArrayList<String>();
+        for (var i = in.readInt(); i > 0; i--) {
+            route.add(in.readUTF());
+        }
+
+        final var passengerIds = new HashSet<UUID>();
+        for (var i = in.readInt(); i > 0; i--) {
+            passengerIds.add(readUuid(in));
+        }
+
+        FlightRow.SeatMapRow seatMap = null;
+        if (in.readBoolean()) {
+            final var seatRows = in.readInt();
+            final var seatLayout = in.readUTF();
+            final var premiumRows = in.readInt();
+            final var takenSeats = new byte[in.readInt()];
+            in.readFully(takenSeats);
+            seatMap = new FlightRow.SeatMapRow(seatRows, seatLayout, premiumRows, BitSet.valueOf(takenSeats));
+        }
+
+        final var seatAssignments = new HashMap<UUID, Integer>();
+        for (var i = in.readInt(); i > 0; i--) {
+            seatAssignments.put(readUuid(in), in.readInt());
+        }
+
+        return new FlightRow(id, flightNumber, departureTime, availableSeats, route, passengerIds, seatMap, seatAssignments);
+    }
+
+    static void writePassenger(DataOutput out, PassengerRow passenger) throws IOException {
+        writeUuid(out, passenger.passengerId());
+        out.writeUTF(passenger.firstName());
+        out.writeUTF(passenger.lastName());
+        out.writeBoolean(passenger.countryCode() != null);
+        if (passenger.countryCode() != null) {
+            out.writeUTF(passenger.countryCode());
+            out.writeUTF(passenger.phoneNumber());
+        }
+    }
+
+    static PassengerRow readPassenger(DataInput in) throws IOException {
+        final var passengerId = readUuid(in);
+        final var firstName = in.readUTF();
+        final var lastName = in.readUTF();
+        if (!in.readBoolean()) {
+            return new PassengerRow(passengerId, firstName, lastName, null, null);
+        }
+        return new PassengerRow(passengerId, firstName, lastName, in.readUTF(), in.readUTF());
+    }
+
+    private static void writeUuid(DataOutput out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInput in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+}
@@ -0,0 +1,290 @@
+package pw.ee.lot.shared.memory;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import pw.ee.lot.domain.Flight;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.PhoneNumber;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The entities a transaction works on, like a JPA persistence context: every flight and passenger is loaded once
+ * per unit, so the same id gives the same instance, and is written back on commit if it differs from the row it was
+ * loaded from. Flight locks are held until the transaction completes.
+ */
+final class UnitOfWork implements TransactionSynchronization {
+
+    private final InMemoryStore store;
+    private final boolean transactional;
+    private final Map<Long, Flight> flights = new LinkedHashMap<>();
+    private final Map<Long, FlightRow> loadedFlights = new HashMap<>();
+    private final Set<Long> removedFlights = new HashSet<>();
+    private final Map<UUID, Passenger> passengers = new LinkedHashMap<>();
+    private final Map<UUID, PassengerRow> loadedPassengers = new HashMap<>();
+    private final Set<UUID> removedPassengers = new HashSet<>();
+    private final Map<Long, ReentrantLock> locks = new HashMap<>();
+
+    UnitOfWork(InMemoryStore store, boolean transactional) {
+        this.store = store;
+        this.transactional = transactional;
+    }
+
+    boolean belongsTo(InMemoryStore store) {
+        return this.store == store;
+    }
+
+    Flight flight(long flightId) {
+        final var managed = flights.get(flightId);
+        if (managed != null || removedFlights.contains(flightId)) {
+            return managed;
+        }
+
+        final var row = store.flight(flightId);
+        if (row == null) {
+            return null;
+        }
+        final var flight = toFlight(row);
+        flights.put(flightId, flight);
+        loadedFlights.put(flightId, row);
+        return flight;
+    }
+
+    Flight flight(String flightNumber) {
+        final var flightId = flightIdOf(flightNumber);
+        return flightId == null ? null : flight(flightId);
+    }
+
+    /**
+     * Loads the flight locked for the rest of the transaction, reading it again once the lock is held.
+     */
+    Flight lockedFlight(String flightNumber) {
+        final var flightId = flightIdOf(flightNumber);
+        if (flightId == null || !transactional || locks.containsKey(flightId)) {
+            return flightId == null ? null : flight(flightId);
+        }
+
+        locks.put(flightId, store.lock(flightId));
+        if (!flights.containsKey(flightId)) {
+            final var flight = flight(flightId);
+            return flight != null && flightNumber.equals(flight.getFlightNumber()) ? flight : null;
+        }
+        return flight(flightId);
+    }
+
+    Passenger passenger(UUID passengerId) {
+        final var managed = passengers.get(passengerId);
+        if (managed != null || removedPassengers.contains(passengerId)) {
+            return managed;
+        }
+
+        final var row = store.passenger(passengerId);
+        if (row == null) {
+            return null;
+        }
+        final var passenger = toPassenger(row);
+        passengers.put(passengerId, passenger);
+        loadedPassengers.put(passengerId, row);
+        return passenger;
+    }
+
+    /**
+     * Every flight as the transaction sees it, its own changes included.
+     */
+    List<Flight> flights() {
+        final var flightIds = new LinkedHashSet<>(store.flights().keySet());
+        flightIds.addAll(flights.keySet());
+        return flightIds.stream().map(this::flight).filter(Objects::nonNull).toList();
+    }
+
+    List<Passenger> passengers() {
+        final var passengerIds = new LinkedHashSet<>(store.passengers().keySet());
+        passengerIds.addAll(passengers.keySet());
+        return passengerIds.stream().map(this::passenger).filter(Objects::nonNull).toList();
+    }
+
+    long flightCount() {
+        var count = (long) store.flights().size();
+        count += flights.keySet().stream().filter(flightId -> store.flight(flightId) == null).count();
+        count -= removedFlights.stream().filter(flightId -> store.flight(flightId) != null).count();
+        return count;
+    }
+
+    long passengerCount() {
+        var count = (long) store.passengers().size();
+        count += passengers.keySet().stream().filter(passengerId -> store.passenger(passengerId) == null).count();
+        count -= removedPassengers.stream().filter(passengerId -> store.passenger(passengerId) != null).count();
+        return count;
+    }
+
+    /**
+     * Adds the flight to the unit, a new flight gets its id right away like with an identity column.
+     *
+     * @throws DataIntegrityViolationException if another flight has the flight number
+     */
+    Flight save(Flight flight) {
+        final var owner = flightIdOf(flight.getFlightNumber());
+        if (owner != null && !owner.equals(flight.getId())) {
+            throw new DataIntegrityViolationException("Flight number " + flight.getFlightNumber() + " is already taken");
+        }
+
+        if (flight.getId() == null) {
+            flight.setId(store.nextFlightId());
+        } else if (!loadedFlights.containsKey(flight.getId())) {
+            final var row = store.flight(flight.getId());
+            if (row != null) {
+                loadedFlights.put(flight.getId(), row);
+            }
+        }
+
+        removedFlights.remove(flight.getId());
+        flights.put(flight.getId(), flight);
+        return flight;
+    }
+
+    Passenger save(Passenger passenger) {
+        if (!loadedPassengers.containsKey(passenger.getPassengerId())) {
+            final var row = store.passenger(passenger.getPassengerId());
+            if (row != null) {
+                loadedPassengers.put(passenger.getPassengerId(), row);
+            }
+        }
+
+        removedPassengers.remove(passenger.getPassengerId());
+        passengers.put(passenger.getPassengerId(), passenger);
+        return passenger;
+    }
+
+    void remove(Flight flight) {
+        if (flight.getId() != null) {
+            flights.remove(flight.getId());
+            removedFlights.add(flight.getId());
+        }
+    }
+
+    void remove(Passenger passenger) {
+        passengers.remove(passenger.getPassengerId());
+        removedPassengers.add(passenger.getPassengerId());
+    }
+
+    /**
+     * The rows that differ from what was loaded, and the removals of loaded rows.
+     */
+    List<Change> changes() {
+        final var changes = new ArrayList<Change>();
+        for (Long flightId : removedFlights) {
+            if (loadedFlights.containsKey(flightId) || store.flight(flightId) != null) {
+                changes.add(new Change.RemoveFlight(flightId));
+            }
+        }
+        for (var flight : flights.entrySet()) {
+            final var loaded = loadedFlights.get(flight.getKey());
+            final var row = FlightRow.of(flight.getValue(), loaded == null ? Set.of() : loaded.passengerIds());
+            if (!row.equals(loaded)) {
+                changes.add(new Change.PutFlight(row));
+            }
+        }
+
+        for (var passenger : passengers.entrySet()) {
+            final var row = PassengerRow.of(passenger.getValue());
+            if (!row.equals(loadedPassengers.get(passenger.getKey()))) {
+                changes.add(new Change.PutPassenger(row));
+            }
+        }
+        for (UUID passengerId : removedPassengers) {
+            if (loadedPassengers.containsKey(passengerId) || store.passenger(passengerId) != null) {
+                changes.add(new Change.RemovePassenger(passengerId));
+            }
+        }
+        return changes;
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+        if (!readOnly) {
+            store.commit(changes());
+        }
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        locks.values().forEach(ReentrantLock::unlock);
+        locks.clear();
+    }
+
+    /**
+     * Id of the flight with the number as the transaction sees it, without loading the flight.
+     */
+    Long flightIdOf(String flightNumber) {
+        for (Flight flight : flights.values()) {
+            if (flightNumber.equals(flight.getFlightNumber())) {
+                return flight.getId();
+            }
+        }
+
+        final var flightId = store.flightIdOf(flightNumber);
+        if (flightId == null || flights.containsKey(flightId) || removedFlights.contains(flightId)) {
+            return null;
+        }
+        return flightId;
+    }
+
+    private Flight toFlight(FlightRow row) {
+        return Flight.builder()
+            .id(row.id())
+            .flightNumber(row.flightNumber())
+            .departureTime(row.departureTime())
+            .availableSeats(row.availableSeats())
+            .route(new ArrayList<>(row.route()))
+            .passengers(new LazySet<>(() -> passengersOf(row.passengerIds())))
+            .seatMap(row.seatMap() == null ? null : row.seatMap().toSeatMap())
+            .seatAssignments(new HashMap<>(row.seatAssignments()))
+            .build();
+    }
+
+    private Passenger toPassenger(PassengerRow row) {
+        return Passenger.builder()
+            .passengerId(row.passengerId())
+            .firstName(row.firstName())
+            .lastName(row.lastName())
+            .phoneNumber(row.countryCode() == null ? null : PhoneNumber.builder()
+                .countryCode(row.countryCode())
+                .phoneNumber(row.phoneNumber())
+                .build())
+            .flights(new LazySet<>(() -> flightsOf(row.passengerId())))
+            .persisted(true)
+            .build();
+    }
+
+    private Set<Passenger> passengersOf(Set<UUID> passengerIds) {
+        final var booked = new HashSet<Passenger>();
+        for (UUID passengerId : passengerIds) {
+            final var passenger = passenger(passengerId);
+            if (passenger != null) {
+                booked.add(passenger);
+            }
+        }
+        return booked;
+    }
+
+    private Set<Flight> flightsOf(UUID passengerId) {
+        final var booked = new HashSet<Flight>();
+        for (Long flightId : store.flightIdsOf(passengerId)) {
+            final var flight = flight(flightId);
+            if (flight != null) {
+                booked.add(flight);
+            }
+        }
+        return booked;
+    }
+}
@@ -0,0 +1,215 @@
+package pw.ee.lot.shared.memory;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Log of the committed changes, one file per snapshot generation: {@code wal-<generation>.log} holds the changes
+ * made after {@code snapshot-<generation>.bin} was taken.
+ * <p>
+ * A record holds the changes of one commit: {@code int} size of the payload, {@code int} CRC32C of the payload, then
+ * the {@code int} number of changes and the changes as written by {@link StorageCodec}. Records are forced to the
+ * disk by {@link #sync(long)}, so commits arriving while one is forced share the next force.
+ */
+@Slf4j
+final class WriteAheadLog implements Closeable {
+
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final Object syncLock = new Object();
+    private FileChannel channel;
+    private long generation;
+    private volatile long written;
+    private long forced;
+
+    WriteAheadLog(Path directory, long generation) {
+        this.directory = directory;
+        this.generation = generation;
+        this.channel = open(pathOf(directory, generation));
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * Writes the changes of a commit, without forcing them to the disk.
+     *
+     * @return the log position to {@link #sync(long)} the commit up to
+     */
+    synchronized long append(List<Change> changes) {
+        final var payload = new ByteArrayOutputStream(256);
+        try (var out = new DataOutputStream(payload)) {
+            out.writeInt(changes.size());
+            for (Change change : changes) {
+                StorageCodec.writeChange(out, change);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final var bytes = payload.toByteArray();
+        final var crc = new CRC32C();
+        crc.update(bytes);
+        final var record = ByteBuffer.allocate(HEADER_SIZE + bytes.length)
+            .putInt(bytes.length)
+            .putInt((int) crc.getValue())
+            .put(bytes)
+            .flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write to the log " + pathOf(directory, generation), e);
+        }
+
+        written += record.limit();
+        return written;
+    }
+
+    /**
+     * Forces the log to the disk up to the position, unless a concurrent commit forced it already.
+     */
+    void sync(long position) {
+        synchronized (syncLock) {
+            if (forced >= position) {
+                return;
+            }
+
+            final var upTo = written;
+            final FileChannel current;
+            synchronized (this) {
+                current = channel;
+            }
+            try {
+                current.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot force the log " + pathOf(directory, generation) + " to the disk", e);
+            }
+            forced = upTo;
+        }
+    }
+
+    /**
+     * Forces the current file to the disk and starts the log of the next generation.
+     */
+    void roll(long nextGeneration) {
+        synchronized (syncLock) {
+            synchronized (this) {
+                try {
+                    channel.force(false);
+                    channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot close the log " + pathOf(directory, generation), e);
+                }
+                channel = open(pathOf(directory, nextGeneration));
+                generation = nextGeneration;
+                forced = written;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    static SortedMap<Long, Path> logsOf(Path directory) {
+        final var logs = new TreeMap<Long, Path>();
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> {
+                final var name = file.getFileName().toString();
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    logs.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), file);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return logs;
+    }
+
+    static Path pathOf(Path directory, long generation) {
+        return directory.resolve(PREFIX + String.format("%020d", generation) + SUFFIX);
+    }
+
+    /**
+     * Passes the changes of every intact record to the consumer, stopping at the first torn or corrupt one.
+     *
+     * @return the length of the intact part of the file
+     */
+    static long replay(Path file, Consumer<List<Change>> consumer) {
+        var intact = 0L;
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            final var length = Files.size(file);
+            while (true) {
+                final int size;
+                final int checksum;
+                final byte[] payload;
+                try {
+                    size = in.readInt();
+                    checksum = in.readInt();
+                    if (size <= 0 || size > length - intact - HEADER_SIZE) {
+                        return intact;
+                    }
+                    payload = new byte[size];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    return intact;
+                }
+
+                final var crc = new CRC32C();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Log {} has a corrupt record at {}", file, intact);
+                    return intact;
+                }
+
+                final var record = new DataInputStream(new ByteArrayInputStream(payload));
+                final var changes = new ArrayList<Change>();
+                for (var i = record.readInt(); i > 0; i--) {
+                    changes.add(StorageCodec.readChange(record));
+                }
+                consumer.accept(changes);
+                intact += HEADER_SIZE + size;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the log " + file, e);
+        }
+    }
+
+    private static FileChannel open(Path file) {
+        try {
+            final var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            return channel;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the log " + file, e);
+        }
+    }
+}
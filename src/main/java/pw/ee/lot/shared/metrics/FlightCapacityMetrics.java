@@ -0,0 +1,52 @@
+package pw.ee.lot.shared.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.shared.sharding.ShardRegistry;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publishes the number of upcoming flights that are close to being sold out.
+ * The gauge is evaluated lazily, so the count query only runs when metrics are scraped; with sharding enabled it
+ * runs on every shard.
+ */
+@Component
+@RequiredArgsConstructor
+class FlightCapacityMetrics implements MeterBinder {
+
+    private final FlightRepository flightRepository;
+    private final LotMetricsProperties properties;
+    private final ObjectProvider<ShardRegistry> shardRegistry;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("lot.flights.nearly.full", this, FlightCapacityMetrics::countNearlyFullFlights)
+            .description("Upcoming flights with at most " + properties.nearlyFullSeatThreshold() + " available seats")
+            .baseUnit("flights")
+            .register(registry);
+    }
+
+    private double countNearlyFullFlights() {
+        final var shards = shardRegistry.getIfAvailable();
+        if (shards == null) {
+            return countNearlyFullFlightsOnShard();
+        }
+
+        return shards.scatter(shard -> countNearlyFullFlightsOnShard()).values().stream()
+            .mapToLong(Long::longValue)
+            .sum();
+    }
+
+    private long countNearlyFullFlightsOnShard() {
+        return flightRepository.countByDepartureTimeAfterAndAvailableSeatsLessThanEqual(
+            LocalDateTime.now(),
+            properties.nearlyFullSeatThreshold()
+        );
+    }
+}
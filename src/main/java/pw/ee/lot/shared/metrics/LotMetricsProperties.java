@@ -0,0 +1,16 @@
+package pw.ee.lot.shared.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Application specific metrics settings.
+ *
+ * @param nearlyFullSeatThreshold upcoming flights with this many or fewer available seats are reported as nearly full
+ */
+@ConfigurationProperties("lot.metrics")
+public record LotMetricsProperties(
+    @DefaultValue("10")
+    int nearlyFullSeatThreshold
+) {
+}
@@ -0,0 +1,101 @@
+package pw.ee.lot.shared.metrics;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps every {@code *UseCases} method in a {@code lot.usecase} observation. With actuator on the classpath each
+ * observation is recorded as a timer tagged with the use case, the method and the outcome ({@code success},
+ * {@code not_found}, {@code conflict} or {@code error}); the timer count doubles as the per-outcome counter.
+ * <p>
+ * The aspect runs outside of the transactional proxy so that the recorded latency includes the commit. Use cases
+ * called from within another use case, such as the per-shard calls of the sharded use cases, are covered by the
+ * outer observation and not recorded again.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+class UseCaseObservationAspect {
+
+    static final String OBSERVATION_NAME = "lot.usecase";
+    static final String OUTCOME_SUCCESS = "success";
+    static final String OUTCOME_NOT_FOUND = "not_found";
+    static final String OUTCOME_CONFLICT = "conflict";
+    static final String OUTCOME_ERROR = "error";
+
+    private final ObservationRegistry observationRegistry;
+    private final Map<Class<?>, String> useCaseNames = new ConcurrentHashMap<>();
+
+    @Around("execution(public * pw.ee.lot.service.*UseCases+.*(..))")
+    public Object observe(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (isNested()) {
+            return joinPoint.proceed();
+        }
+
+        final var useCase = useCaseNames.computeIfAbsent(AopUtils.getTargetClass(joinPoint.getTarget()), UseCaseObservationAspect::useCaseName);
+        final var method = joinPoint.getSignature().getName();
+        final var observation = Observation.createNotStarted(OBSERVATION_NAME, observationRegistry)
+            .contextualName(useCase + "." + method)
+            .lowCardinalityKeyValue("use.case", useCase)
+            .lowCardinalityKeyValue("method", method)
+            .start();
+
+        var outcome = OUTCOME_SUCCESS;
+        try (var ignored = observation.openScope()) {
+            return joinPoint.proceed();
+        } catch (Throwable throwable) {
+            outcome = outcomeOf(throwable);
+            observation.error(throwable);
+            throw throwable;
+        } finally {
+            observation.lowCardinalityKeyValue("outcome", outcome).stop();
+        }
+    }
+
+    private boolean isNested() {
+        for (var current = observationRegistry.getCurrentObservation(); current != null; current = current.getContextView().getParentObservation()) {
+            if (OBSERVATION_NAME.equals(current.getContextView().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String outcomeOf(Throwable throwable) {
+        if (throwable instanceof NoSuchElementException) {
+            return OUTCOME_NOT_FOUND;
+        }
+
+        if (throwable instanceof IllegalArgumentException
+            || throwable instanceof IllegalStateException
+            || throwable instanceof DataIntegrityViolationException) {
+            return OUTCOME_CONFLICT;
+        }
+
+        return OUTCOME_ERROR;
+    }
+
+    private static String useCaseName(Class<?> targetClass) {
+        return Arrays.stream(ClassUtils.getAllInterfacesForClass(targetClass))
+            .map(Class::getSimpleName)
+            .filter(name -> name.endsWith("UseCases"))
+            .findFirst()
+            .orElse(targetClass.getSimpleName());
+    }
+}
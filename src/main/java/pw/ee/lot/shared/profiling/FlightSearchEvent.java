@@ -0,0 +1,29 @@
+package pw.ee.lot.shared.profiling;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event covering the execution of a flight search, from building the query to mapping the page.
+ */
+@Name("pw.ee.lot.FlightSearch")
+@Label("Flight Search")
+@Category({"LOT", "Search"})
+@Description("Paged flight search")
+@StackTrace(false)
+public class FlightSearchEvent extends Event {
+
+    @Label("Criteria")
+    public String criteria;
+
+    @Label("Page")
+    public int page;
+
+    @Label("Page Size")
+    public int pageSize;
+
+    @Label("Rows Returned")
+    public int rowsReturned;
+
+    @Label("Total Rows")
+    public long totalRows;
+}
@@ -0,0 +1,97 @@
+package pw.ee.lot.shared.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Management endpoint recording the running JVM with Flight Recorder for a bounded time and streaming back the
+ * {@code .jfr} file. The custom {@link SeatClaimEvent}, {@link FlightSearchEvent} and {@link MappingEvent} are
+ * always part of the recording. Only one recording runs at a time; concurrent requests get {@code 429}.
+ * <p>
+ * Recording is a {@code POST}, as it holds the request for the whole recording and changes what the JVM records, e.g.
+ * {@code {"seconds": 60}}; without a body it records for {@code lot.profiling.default-duration}.
+ */
+@Slf4j
+@Component
+@WebEndpoint(id = "jfr")
+@RequiredArgsConstructor
+class JfrRecordingEndpoint {
+
+    private final ProfilingProperties properties;
+    private final Lock recordingLock = new ReentrantLock();
+
+    @WriteOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> record(@Nullable Integer seconds) throws IOException, ParseException {
+        if (!recordingLock.tryLock()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+
+        try {
+            final var duration = recordingDuration(seconds);
+            final var file = Files.createTempFile("lot-", ".jfr");
+            log.info("Starting {} JFR recording to {}", duration, file);
+
+            try (var recording = new Recording(Configuration.getConfiguration(properties.settings()))) {
+                recording.setName("lot-on-demand");
+                recording.enable(SeatClaimEvent.class);
+                recording.enable(FlightSearchEvent.class);
+                recording.enable(MappingEvent.class);
+                recording.start();
+                Thread.sleep(duration.toMillis());
+                recording.stop();
+                recording.dump(file);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Files.deleteIfExists(file);
+                return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+            }
+
+            return new WebEndpointResponse<>(new TemporaryFileResource(file));
+        } finally {
+            recordingLock.unlock();
+        }
+    }
+
+    private Duration recordingDuration(@Nullable Integer seconds) {
+        if (seconds == null || seconds <= 0) {
+            return properties.defaultDuration();
+        }
+
+        final var requested = Duration.ofSeconds(seconds);
+        return requested.compareTo(properties.maxDuration()) > 0 ? properties.maxDuration() : requested;
+    }
+
+    /**
+     * Recording file that is removed once it has been streamed to the client.
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(getFile().toPath(), StandardOpenOption.DELETE_ON_CLOSE);
+        }
+    }
+}
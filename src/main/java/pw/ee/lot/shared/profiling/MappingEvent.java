@@ -0,0 +1,29 @@
+package pw.ee.lot.shared.profiling;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event covering the mapping of an entity into a resource, including any lazy loading it triggers.
+ */
+@Name("pw.ee.lot.Mapping")
+@Label("Mapping")
+@Category({"LOT", "Mapping"})
+@Description("Entity to resource mapping")
+@StackTrace(false)
+public class MappingEvent extends Event {
+
+    @Label("Resource")
+    public String resource;
+
+    @Label("Key")
+    @Description("Flight number or passenger id of the mapped entity")
+    public String key;
+
+    @Label("Associations")
+    @Description("Number of associated entities mapped along")
+    public int associations;
+
+    public MappingEvent(String resource) {
+        this.resource = resource;
+    }
+}
@@ -0,0 +1,26 @@
+package pw.ee.lot.shared.profiling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * On-demand JFR recording settings.
+ *
+ * @param defaultDuration recording length when the caller does not ask for one
+ * @param maxDuration     upper bound of a single recording
+ * @param settings        JFR configuration the recording starts from, {@code default} or {@code profile}
+ */
+@ConfigurationProperties("lot.profiling")
+public record ProfilingProperties(
+    @DefaultValue("30s")
+    Duration defaultDuration,
+
+    @DefaultValue("2m")
+    Duration maxDuration,
+
+    @DefaultValue("profile")
+    String settings
+) {
+}
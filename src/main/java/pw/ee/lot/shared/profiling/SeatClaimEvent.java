@@ -0,0 +1,41 @@
+package pw.ee.lot.shared.profiling;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event covering a successful seat claim or release on a flight.
+ */
+@Name("pw.ee.lot.SeatClaim")
+@Label("Seat Claim")
+@Category({"LOT", "Booking"})
+@Description("Passenger added to or removed from a flight")
+@StackTrace(false)
+public class SeatClaimEvent extends Event {
+
+    public static final String CLAIM = "claim";
+    public static final String RELEASE = "release";
+
+    @Label("Flight Number")
+    public String flightNumber;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Lock Wait")
+    @Description("Time spent acquiring the flight row")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lockWait;
+
+    @Label("Available Seats")
+    @Description("Available seats after the operation")
+    public int availableSeats;
+
+    @Label("Bookings")
+    @Description("Passengers added in the transaction, concurrent bookings on the flight share one")
+    public int bookings;
+
+    public SeatClaimEvent(String flightNumber, String operation) {
+        this.flightNumber = flightNumber;
+        this.operation = operation;
+    }
+}
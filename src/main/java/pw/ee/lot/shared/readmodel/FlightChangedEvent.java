@@ -0,0 +1,24 @@
+package pw.ee.lot.shared.readmodel;
+
+/**
+ * Published within a transaction that created, changed or deleted a flight. The read model is brought up to date
+ * once the transaction commits.
+ *
+ * @param flightId      id of the changed flight
+ * @param seatsOnly     whether only the seats of the flight changed, e.g. by a booking or a hold, leaving its number,
+ *                      departure and route as they were
+ * @param publishedTime {@link System#nanoTime()} at publication, the start of the read model lag
+ */
+public record FlightChangedEvent(Long flightId, boolean seatsOnly, long publishedTime) {
+
+    public FlightChangedEvent(Long flightId) {
+        this(flightId, false, System.nanoTime());
+    }
+
+    /**
+     * A change of the seats of the flight alone.
+     */
+    public static FlightChangedEvent seats(Long flightId) {
+        return new FlightChangedEvent(flightId, true, System.nanoTime());
+    }
+}
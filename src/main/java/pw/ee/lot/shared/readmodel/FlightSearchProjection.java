@@ -0,0 +1,116 @@
+package pw.ee.lot.shared.readmodel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.repository.FlightSearchViewRepository;
+import pw.ee.lot.shared.sharding.ShardRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the {@link pw.ee.lot.domain.FlightSearchView} read model in sync with the flights.
+ * <p>
+ * Every committed flight change is projected right after the commit, on the writing thread, so a client reads its
+ * own writes. The row is built from the flight as committed when the projection runs, and projections of a flight
+ * wait for each other, so they cannot land out of order. A projection that fails, or a change made around the use
+ * cases, is caught by the periodic reconciliation every {@code lot.read-model.reconcile-interval}.
+ * <p>
+ * The projection lag, the rows corrected by reconciliation and the staleness of the read model are published as
+ * metrics. The staleness is the age of the oldest change whose projection failed and that no reconciliation has
+ * covered yet; changes made around the use cases are not seen until reconciliation corrects them.
+ */
+@Slf4j
+@Component
+class FlightSearchProjection {
+
+    private final FlightSearchViewRepository flightSearchViewRepository;
+    private final ObjectProvider<ShardRegistry> shardRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer lag;
+    private final Counter failures;
+    private final Counter drift;
+    private final Map<Unprojected, Long> unprojected = new ConcurrentHashMap<>();
+
+    FlightSearchProjection(FlightSearchViewRepository flightSearchViewRepository, ObjectProvider<ShardRegistry> shardRegistry,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.flightSearchViewRepository = flightSearchViewRepository;
+        this.shardRegistry = shardRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.lag = Timer.builder("lot.readmodel.lag")
+            .description("Time from a flight change to its projection into the search read model")
+            .register(meterRegistry);
+        this.failures = Counter.builder("lot.readmodel.failures")
+            .description("Flight changes that could not be projected and wait for reconciliation")
+            .register(meterRegistry);
+        this.drift = Counter.builder("lot.readmodel.drift")
+            .description("Search read model rows corrected by reconciliation")
+            .register(meterRegistry);
+        Gauge.builder("lot.readmodel.staleness", unprojected, FlightSearchProjection::staleness)
+            .description("Age of the oldest flight change that could not be projected and waits for reconciliation")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @TransactionalEventListener
+    public void onFlightChanged(FlightChangedEvent event) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> flightSearchViewRepository.project(event.flightId()));
+            lag.record(System.nanoTime() - event.publishedTime(), TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            failures.increment();
+            unprojected.put(new Unprojected(currentShard(), event.flightId(), System.nanoTime()), event.publishedTime());
+            log.error("Cannot project flight {} into the search read model, it is fixed by the next reconciliation", event.flightId(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${lot.read-model.reconcile-interval:PT5M}")
+    void reconcile() {
+        final var started = System.nanoTime();
+        final var shards = shardRegistry.getIfAvailable();
+        final var corrected = shards == null
+            ? reconcileShard()
+            : shards.scatter(shard -> reconcileShard()).values().stream().mapToInt(Integer::intValue).sum();
+
+        unprojected.keySet().removeIf(failure -> failure.failedTime() - started < 0);
+        if (corrected > 0) {
+            drift.increment(corrected);
+            log.warn("Reconciliation corrected {} flights in the search read model", corrected);
+        }
+    }
+
+    private int reconcileShard() {
+        return transactionTemplate.execute(status -> flightSearchViewRepository.reconcile());
+    }
+
+    private String currentShard() {
+        final var shards = shardRegistry.getIfAvailable();
+        return shards == null ? "" : shards.currentShard();
+    }
+
+    private static double staleness(Map<Unprojected, Long> unprojected) {
+        final var now = System.nanoTime();
+        return unprojected.values().stream()
+            .mapToLong(publishedTime -> now - publishedTime)
+            .max()
+            .orElse(0) / 1e9;
+    }
+
+    /**
+     * A failed projection, covered by the first reconciliation that starts after it.
+     */
+    private record Unprojected(String shard, long flightId, long failedTime) {
+    }
+}
@@ -0,0 +1,12 @@
+package pw.ee.lot.shared.readmodel;
+
+import java.util.List;
+
+/**
+ * Published within a transaction that changed or deleted flights with set-based statements, which keep the search
+ * read model in step themselves. The read models held in memory re-read the flights once the transaction commits.
+ *
+ * @param flightIds ids of the changed flights
+ */
+public record FlightsChangedEvent(List<Long> flightIds) {
+}
@@ -0,0 +1,116 @@
+package pw.ee.lot.shared.scheduling;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed timing wheel: deadlines are hashed into a ring of buckets one tick wide, so scheduling and cancelling cost
+ * O(1) and advancing the clock only visits the buckets of the elapsed ticks, however many timeouts are outstanding.
+ * A deadline further away than one turn of the wheel waits out the remaining turns in its bucket. Timeouts fire
+ * up to one tick late, never early.
+ * <p>
+ * Any thread may schedule or cancel; {@link #advance} must be called from one thread at a time.
+ */
+public final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final List<Timeout<T>>[] buckets;
+    private final Queue<Timeout<T>> scheduled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int size, long startMillis) {
+        if (tickMillis < 1 || size < 1) {
+            throw new IllegalArgumentException("Timing wheel needs a positive tick and size");
+        }
+
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.buckets = new List[Integer.highestOneBit(Math.max(size, 2) - 1) << 1];
+        for (var i = 0; i < buckets.length; i++) {
+            buckets[i] = new LinkedList<>();
+        }
+    }
+
+    public Timeout<T> schedule(T task, long deadlineMillis) {
+        final var timeout = new Timeout<>(task, deadlineMillis);
+        pending.incrementAndGet();
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Moves the wheel to the given time.
+     *
+     * @return the tasks whose deadline passed, in no particular order
+     */
+    public List<T> advance(long nowMillis) {
+        transferScheduled();
+
+        final var expired = new ArrayList<T>();
+        final var targetTick = (nowMillis - startMillis) / tickMillis;
+        while (currentTick <= targetTick) {
+            final Iterator<Timeout<T>> timeouts = buckets[(int) (currentTick & (buckets.length - 1))].iterator();
+            while (timeouts.hasNext()) {
+                final var timeout = timeouts.next();
+                if (timeout.cancelled) {
+                    timeouts.remove();
+                    pending.decrementAndGet();
+                } else if (timeout.remainingRounds <= 0) {
+                    timeouts.remove();
+                    pending.decrementAndGet();
+                    expired.add(timeout.task);
+                } else {
+                    timeout.remainingRounds--;
+                }
+            }
+            currentTick++;
+        }
+        return expired;
+    }
+
+    /**
+     * Scheduled timeouts that have neither fired nor been swept out after cancellation.
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    private void transferScheduled() {
+        Timeout<T> timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.cancelled) {
+                pending.decrementAndGet();
+                continue;
+            }
+
+            final var deadlineTick = Math.max(-Math.floorDiv(startMillis - timeout.deadlineMillis, tickMillis), currentTick);
+            timeout.remainingRounds = (deadlineTick - currentTick) / buckets.length;
+            buckets[(int) (deadlineTick & (buckets.length - 1))].add(timeout);
+        }
+    }
+
+    public static final class Timeout<T> {
+
+        private final T task;
+        private final long deadlineMillis;
+        private volatile boolean cancelled;
+        private long remainingRounds;
+
+        private Timeout(T task, long deadlineMillis) {
+            this.task = task;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
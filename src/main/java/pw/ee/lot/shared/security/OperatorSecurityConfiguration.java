@@ -0,0 +1,32 @@
+package pw.ee.lot.shared.security;
+
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Restricts the operator endpoints (profiling and shard management) to operators authenticated with HTTP basic.
+ * Only the matched endpoints are secured; since a filter chain is defined, Spring Boot's default chain backs off and
+ * the API stays open as before.
+ */
+@Configuration(proxyBeanMethods = false)
+class OperatorSecurityConfiguration {
+
+    static final String OPERATOR_ROLE = "OPS";
+
+    @Bean
+    SecurityFilterChain operatorSecurityFilterChain(HttpSecurity http) throws Exception {
+        return http
+            .securityMatcher(EndpointRequest.to("jfr", "shards"))
+            .authorizeHttpRequests(requests -> requests.anyRequest().hasRole(OPERATOR_ROLE))
+            .httpBasic(Customizer.withDefaults())
+            .csrf(AbstractHttpConfigurer::disable)
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .build();
+    }
+}
@@ -0,0 +1,227 @@
+package pw.ee.lot.shared.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.Flight;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.PhoneNumber;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.domain.repository.SeatHoldRepository;
+import pw.ee.lot.shared.readmodel.FlightChangedEvent;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Moves data between shards: flights whose owner changed and the passenger copies every shard keeps.
+ * <p>
+ * Adding a shard does not stop the service. The new shard is migrated and registered first, then receives a copy of
+ * every passenger, and only then joins the ring; from that moment flights are moved over one at a time in the
+ * background while lookups fall back to the previous owner. A flight is locked on its source while it is copied, so
+ * a concurrent booking waits and then fails on the deleted row instead of being lost. Seat holds are not moved: their
+ * seats are given back on the target, and the checkouts holding them have to hold again.
+ */
+@Slf4j
+public class ShardRebalancer implements DisposableBean {
+
+    private final ShardRegistry shardRegistry;
+    private final FlightRepository flightRepository;
+    private final PassengerRepository passengerRepository;
+    private final SeatHoldRepository seatHoldRepository;
+    private final Flyway flyway;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("shard-rebalance-"));
+    private volatile CompletableFuture<Void> running = CompletableFuture.completedFuture(null);
+
+    ShardRebalancer(ShardRegistry shardRegistry, FlightRepository flightRepository, PassengerRepository passengerRepository,
+                    SeatHoldRepository seatHoldRepository, Flyway flyway, ApplicationEventPublisher eventPublisher,
+                    PlatformTransactionManager transactionManager, ShardingProperties properties) {
+        this.shardRegistry = shardRegistry;
+        this.flightRepository = flightRepository;
+        this.passengerRepository = passengerRepository;
+        this.seatHoldRepository = seatHoldRepository;
+        this.flyway = flyway;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = properties.rebalanceBatchSize();
+    }
+
+    /**
+     * Adds the shard and starts moving flights onto it. Adding a shard that is already registered resumes a
+     * rebalance that failed.
+     *
+     * @return completes when every flight is on its owner
+     * @throws IllegalStateException if a rebalance is still running
+     */
+    public synchronized CompletableFuture<Void> addShard(ShardingProperties.Shard shard) {
+        if (!running.isDone()) {
+            throw new IllegalStateException("Shards are still being rebalanced");
+        }
+
+        if (!shardRegistry.isRegistered(shard.name())) {
+            log.info("Adding shard {}", shard.name());
+            migrate(flyway, shardRegistry.register(shard));
+        }
+
+        running = CompletableFuture.runAsync(() -> rebalance(shard.name()), executor);
+        return running;
+    }
+
+    public boolean isRunning() {
+        return !running.isDone();
+    }
+
+    /**
+     * Moves a flight, its route, its bookings and its seat map from one shard to another. Passengers are looked up on the target
+     * by their passenger id, the copies kept by {@link #copyPassenger} must therefore exist there.
+     */
+    public void moveFlight(String flightNumber, String source, String target) {
+        shardRegistry.runOn(source, () -> transactionTemplate.executeWithoutResult(status -> {
+            final var flight = flightRepository.findWithLockByFlightNumber(flightNumber).orElse(null);
+            if (flight == null) {
+                return;
+            }
+
+            final var route = new ArrayList<>(flight.getRoute());
+            final var seatMap = flight.getSeatMap() == null ? null : flight.getSeatMap().copy();
+            final var holds = seatHoldRepository.findAllByFlightId(flight.getId());
+            holds.stream()
+                .filter(hold -> hold.getSeat() != null && seatMap != null)
+                .forEach(hold -> seatMap.release(hold.getSeat()));
+            final var seatAssignments = new HashMap<>(flight.getSeatAssignments());
+            final var passengerIds = flight.getPassengers().stream()
+                .map(Passenger::getPassengerId)
+                .toList();
+
+            shardRegistry.runOn(target, () -> transactionTemplate.executeWithoutResult(inner -> {
+                if (flightRepository.existsByFlightNumber(flightNumber)) {
+                    return;
+                }
+
+                final var passengers = new HashSet<Passenger>();
+                passengerIds.forEach(passengerId -> passengers.add(passengerRepository.findById(passengerId)
+                    .orElseThrow(() -> new IllegalStateException("Passenger " + passengerId + " is missing on shard " + target))));
+
+                final var moved = flightRepository.save(Flight.builder()
+                    .flightNumber(flight.getFlightNumber())
+                    .departureTime(flight.getDepartureTime())
+                    .availableSeats(flight.getAvailableSeats() + holds.size())
+                    .route(route)
+                    .passengers(passengers)
+                    .seatMap(seatMap)
+                    .seatAssignments(seatAssignments)
+                    .build());
+                eventPublisher.publishEvent(new FlightChangedEvent(moved.getId()));
+            }));
+
+            log.debug("Moved flight {} from shard {} to shard {}", flightNumber, source, target);
+            flightRepository.delete(flight);
+            eventPublisher.publishEvent(new FlightChangedEvent(flight.getId()));
+        }));
+    }
+
+    /**
+     * Stores a copy of the passenger on the shard unless one with the same passenger id is there already.
+     */
+    public void copyPassenger(Passenger passenger, String shard) {
+        shardRegistry.runOn(shard, () -> transactionTemplate.executeWithoutResult(status -> {
+            if (passengerRepository.findById(passenger.getPassengerId()).isPresent()) {
+                return;
+            }
+
+            final var phoneNumber = passenger.getPhoneNumber();
+            passengerRepository.save(Passenger.builder()
+                .passengerId(passenger.getPassengerId())
+                .firstName(passenger.getFirstName())
+                .lastName(passenger.getLastName())
+                .phoneNumber(phoneNumber == null ? null : PhoneNumber.builder()
+                    .countryCode(phoneNumber.getCountryCode())
+                    .phoneNumber(phoneNumber.getPhoneNumber())
+                    .build())
+                .build());
+        }));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    static void migrate(Flyway flyway, DataSource dataSource) {
+        Flyway.configure()
+            .configuration(flyway.getConfiguration())
+            .dataSource(dataSource)
+            .load()
+            .migrate();
+    }
+
+    private void rebalance(String newShard) {
+        try {
+            copyPassengers(newShard);
+            shardRegistry.beginRebalance(newShard);
+
+            for (String shard : shardRegistry.shards()) {
+                if (!shard.equals(newShard)) {
+                    moveMisplacedFlights(shard);
+                }
+            }
+
+            shardRegistry.finishRebalance();
+            log.info("Shard {} added, flights are rebalanced", newShard);
+        } catch (RuntimeException e) {
+            log.error("Rebalancing onto shard {} failed, flights not moved yet are still read from their previous shards", newShard, e);
+            throw e;
+        }
+    }
+
+    private void copyPassengers(String shard) {
+        var lastId = new UUID(0, 0);
+        List<Passenger> batch;
+        do {
+            final var after = lastId;
+            batch = shardRegistry.callOn(shardRegistry.defaultShard(),
+                () -> transactionTemplate.execute(status -> passengerRepository.findByPassengerIdGreaterThanOrderByPassengerIdAsc(after, Limit.of(batchSize))));
+            batch.forEach(passenger -> copyPassenger(passenger, shard));
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getPassengerId();
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private void moveMisplacedFlights(String shard) {
+        var lastId = 0L;
+        List<Flight> batch;
+        do {
+            final var after = lastId;
+            batch = shardRegistry.callOn(shard,
+                () -> transactionTemplate.execute(status -> flightRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(batchSize))));
+            for (Flight flight : batch) {
+                final var owner = shardRegistry.shardFor(flight.getFlightNumber());
+                if (!owner.equals(shard)) {
+                    moveFlight(flight.getFlightNumber(), shard, owner);
+                }
+            }
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == batchSize);
+    }
+}
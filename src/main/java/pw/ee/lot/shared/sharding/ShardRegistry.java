@@ -0,0 +1,205 @@
+package pw.ee.lot.shared.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import pw.ee.lot.shared.sql.SqlStatementStatistics;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Shards with their data sources and the hash ring assigning flight numbers to them.
+ * <p>
+ * While flights are being moved onto a newly added shard the ring it replaced is kept as well: a flight that is not
+ * yet on its new owner is still found on its previous one.
+ */
+public class ShardRegistry implements DisposableBean {
+
+    static final String SCATTER_OBSERVATION = "lot.shard.query";
+
+    private final ShardingProperties properties;
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+    private final Map<String, DataSource> dataSources = new ConcurrentHashMap<>();
+    private final List<String> registered = new CopyOnWriteArrayList<>();
+    private final List<HikariDataSource> pools = new CopyOnWriteArrayList<>();
+    private final ExecutorService scatterExecutor;
+    private volatile ShardRing ring;
+    private volatile ShardRing previousRing;
+
+    ShardRegistry(ShardingProperties properties, ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.properties = properties;
+        this.observationRegistry = observationRegistry;
+        this.scatterExecutor = Executors.newFixedThreadPool(properties.scatterThreads(), scatterThreadFactory());
+
+        registered.add(properties.defaultShard());
+        for (ShardingProperties.Shard shard : properties.shards()) {
+            dataSources.put(shard.name(), createDataSource(shard));
+            registered.add(shard.name());
+        }
+        this.ring = new ShardRing(registered, properties.virtualNodes());
+    }
+
+    public String defaultShard() {
+        return properties.defaultShard();
+    }
+
+    /**
+     * The shard the current thread talks to.
+     */
+    public String currentShard() {
+        final var shard = ShardContext.current();
+        return shard != null ? shard : properties.defaultShard();
+    }
+
+    /**
+     * All registered shards, the default one first. A shard being rebalanced onto is listed before it owns flights.
+     */
+    public List<String> shards() {
+        return List.copyOf(registered);
+    }
+
+    public String shardFor(String flightNumber) {
+        return ring.shardFor(flightNumber);
+    }
+
+    /**
+     * The shard that owned the flight number before the running rebalance, if it differs from the current owner.
+     */
+    public Optional<String> previousShardFor(String flightNumber) {
+        final var previous = previousRing;
+        if (previous == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(previous.shardFor(flightNumber))
+            .filter(shard -> !shard.equals(shardFor(flightNumber)));
+    }
+
+    public boolean isRebalancing() {
+        return previousRing != null;
+    }
+
+    public <T> T callOn(String shard, Supplier<T> action) {
+        final var outer = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.set(outer);
+        }
+    }
+
+    public void runOn(String shard, Runnable action) {
+        callOn(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the action on every shard in parallel, each in its own {@value #SCATTER_OBSERVATION} observation.
+     *
+     * @return results keyed by shard, in {@link #shards()} order
+     */
+    public <T> Map<String, T> scatter(Function<String, T> action) {
+        final var registry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+        final var parent = registry.getCurrentObservation();
+        final var futures = new LinkedHashMap<String, CompletableFuture<T>>();
+        for (String shard : shards()) {
+            futures.put(shard, CompletableFuture.supplyAsync(SqlStatementStatistics.propagate(() -> Observation.createNotStarted(SCATTER_OBSERVATION, registry)
+                .parentObservation(parent)
+                .contextualName("shard " + shard)
+                .lowCardinalityKeyValue("shard", shard)
+                .observe(() -> callOn(shard, () -> action.apply(shard)))), scatterExecutor));
+        }
+
+        final var results = new LinkedHashMap<String, T>();
+        try {
+            futures.forEach((shard, future) -> results.put(shard, future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    DataSource dataSource(String shard) {
+        final var dataSource = dataSources.get(shard != null ? shard : properties.defaultShard());
+        if (dataSource == null) {
+            throw new IllegalStateException("Unknown shard " + shard);
+        }
+        return dataSource;
+    }
+
+    void registerDefault(DataSource dataSource) {
+        dataSources.put(properties.defaultShard(), dataSource);
+    }
+
+    boolean isRegistered(String shard) {
+        return registered.contains(shard);
+    }
+
+    /**
+     * Makes the shard reachable through {@link #callOn} and {@link #scatter} without handing it any flights yet.
+     */
+    DataSource register(ShardingProperties.Shard shard) {
+        final var dataSource = createDataSource(shard);
+        dataSources.put(shard.name(), dataSource);
+        registered.add(shard.name());
+        return dataSource;
+    }
+
+    void beginRebalance(String shard) {
+        if (!ring.shards().contains(shard)) {
+            previousRing = ring;
+            ring = ring.withShard(shard);
+        }
+    }
+
+    void finishRebalance() {
+        previousRing = null;
+    }
+
+    @Override
+    public void destroy() {
+        scatterExecutor.shutdown();
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private HikariDataSource createDataSource(ShardingProperties.Shard shard) {
+        final var dataSource = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .url(shard.url())
+            .username(shard.username())
+            .password(shard.password())
+            .build();
+        dataSource.setPoolName(shard.name());
+        dataSource.setMaximumPoolSize(properties.maximumPoolSize());
+        pools.add(dataSource);
+        return dataSource;
+    }
+
+    private static CustomizableThreadFactory scatterThreadFactory() {
+        final var threadFactory = new CustomizableThreadFactory("shard-scatter-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+}
@@ -0,0 +1,66 @@
+package pw.ee.lot.shared.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring assigning flight numbers to shards. Every shard owns {@code virtualNodes} points of the
+ * ring, so adding a shard only moves the keys that fall into its arcs, roughly {@code 1 / shards} of them.
+ */
+final class ShardRing {
+
+    private final NavigableMap<Integer, String> ring = new TreeMap<>();
+    private final List<String> shards;
+    private final int virtualNodes;
+
+    ShardRing(Collection<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("Shard ring needs at least one shard");
+        }
+
+        this.shards = List.copyOf(shards);
+        this.virtualNodes = virtualNodes;
+        for (String shard : this.shards) {
+            for (var node = 0; node < virtualNodes; node++) {
+                ring.put(hash(shard + "#" + node), shard);
+            }
+        }
+    }
+
+    String shardFor(String key) {
+        final var entry = ring.ceilingEntry(hash(key));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    ShardRing withShard(String shard) {
+        final var extended = new ArrayList<>(shards);
+        extended.add(shard);
+        return new ShardRing(extended, virtualNodes);
+    }
+
+    List<String> shards() {
+        return shards;
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes with a murmur3 finalizer, so that short, similar flight numbers spread evenly.
+     */
+    static int hash(String key) {
+        var hash = 0x811C9DC5;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x01000193;
+        }
+
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
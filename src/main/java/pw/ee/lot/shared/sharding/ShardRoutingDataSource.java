@@ -0,0 +1,47 @@
+package pw.ee.lot.shared.sharding;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands out connections of the shard selected in the {@link ShardContext}.
+ * <p>
+ * Shards can be registered at runtime, which rules out {@link org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource}
+ * and its fixed target map. Like replica routing it sits behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so the shard is resolved at the first
+ * statement of a transaction.
+ */
+class ShardRoutingDataSource extends AbstractDataSource {
+
+    private final ShardRegistry shardRegistry;
+
+    ShardRoutingDataSource(ShardRegistry shardRegistry) {
+        this.shardRegistry = shardRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return shardRegistry.dataSource(ShardContext.current()).getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return shardRegistry.dataSource(ShardContext.current()).getConnection(username, password);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+
+        return shardRegistry.dataSource(null).unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || shardRegistry.dataSource(null).isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,79 @@
+package pw.ee.lot.shared.sharding;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.domain.repository.SeatHoldRepository;
+
+import javax.sql.DataSource;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "lot.sharding.enabled", havingValue = "true")
+class ShardingConfiguration {
+
+    @Bean
+    ShardRegistry shardRegistry(ShardingProperties properties, ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new ShardRegistry(properties, observationRegistry);
+    }
+
+    @Bean
+    ShardRebalancer shardRebalancer(ShardRegistry shardRegistry, FlightRepository flightRepository, PassengerRepository passengerRepository,
+                                    SeatHoldRepository seatHoldRepository, Flyway flyway, ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager, ShardingProperties properties) {
+        return new ShardRebalancer(shardRegistry, flightRepository, passengerRepository, seatHoldRepository, flyway, eventPublisher,
+            transactionManager, properties);
+    }
+
+    @Bean
+    ShardsEndpoint shardsEndpoint(ShardRegistry shardRegistry, ShardRebalancer shardRebalancer) {
+        return new ShardsEndpoint(shardRegistry, shardRebalancer);
+    }
+
+    /**
+     * Applies the migrations to every configured shard, not just to the default one behind the routing data source.
+     */
+    @Bean
+    FlywayMigrationStrategy shardingFlywayMigrationStrategy(ShardRegistry shardRegistry) {
+        return flyway -> shardRegistry.shards()
+            .forEach(shard -> ShardRebalancer.migrate(flyway, shardRegistry.dataSource(shard)));
+    }
+
+    /**
+     * Puts the auto-configured data source behind shard routing as the default shard. Ordered ahead of the other
+     * data source post-processors, so that statement statistics and tracing cover every shard.
+     */
+    @Bean
+    static BeanPostProcessor shardRoutingPostProcessor(ObjectProvider<ShardRegistry> shardRegistry) {
+        return new ShardRoutingPostProcessor(shardRegistry);
+    }
+
+    private record ShardRoutingPostProcessor(ObjectProvider<ShardRegistry> shardRegistry) implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource primary && !(bean instanceof LazyConnectionDataSourceProxy)) {
+                final var registry = shardRegistry.getObject();
+                registry.registerDefault(primary);
+                return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(registry));
+            }
+
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package pw.ee.lot.shared.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Sharding settings. The regular {@code spring.datasource} becomes the default shard; it keeps the schema
+ * migrations history and is the home of passengers, which are replicated to every other shard. Sharding replaces
+ * read replica routing: the service does not start with both enabled.
+ *
+ * @param enabled            spread flights over the shards by flight number
+ * @param defaultShard       name of the shard backed by {@code spring.datasource}
+ * @param shards             connection settings of the remaining shards
+ * @param virtualNodes       points each shard owns on the hash ring
+ * @param maximumPoolSize    connection pool size of each additional shard
+ * @param scatterThreads     threads querying the shards in parallel for listings and searches
+ * @param rebalanceBatchSize flights inspected per batch when moving flights onto a new shard
+ * @param maxPageDepth       deepest flight a listing or search may page to, as each shard is asked for every
+ *                           flight up to the end of the page
+ */
+@ConfigurationProperties("lot.sharding")
+public record ShardingProperties(
+    @DefaultValue("false")
+    boolean enabled,
+
+    @DefaultValue("shard-0")
+    String defaultShard,
+
+    @DefaultValue
+    List<Shard> shards,
+
+    @DefaultValue("128")
+    int virtualNodes,
+
+    @DefaultValue("10")
+    int maximumPoolSize,
+
+    @DefaultValue("16")
+    int scatterThreads,
+
+    @DefaultValue("500")
+    int rebalanceBatchSize,
+
+    @DefaultValue("10000")
+    int maxPageDepth
+) {
+
+    public record Shard(
+        String name,
+        String url,
+        String username,
+        String password
+    ) {
+    }
+}
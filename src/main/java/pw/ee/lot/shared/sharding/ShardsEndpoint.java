@@ -0,0 +1,36 @@
+package pw.ee.lot.shared.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * Management endpoint listing the shards and adding new ones while the service keeps running. The shard added here
+ * lives only in this instance; add it to {@code lot.sharding.shards} as well so that it survives a restart.
+ */
+@Endpoint(id = "shards")
+@RequiredArgsConstructor
+class ShardsEndpoint {
+
+    private final ShardRegistry shardRegistry;
+    private final ShardRebalancer shardRebalancer;
+
+    @ReadOperation
+    public ShardsDescriptor shards() {
+        return new ShardsDescriptor(shardRegistry.shards(), shardRegistry.isRebalancing(), shardRebalancer.isRunning());
+    }
+
+    @WriteOperation
+    public ShardsDescriptor addShard(@Selector String name, String url, @Nullable String username, @Nullable String password) {
+        shardRebalancer.addShard(new ShardingProperties.Shard(name, url, username, password));
+        return shards();
+    }
+
+    public record ShardsDescriptor(List<String> shards, boolean rebalancing, boolean moving) {
+    }
+}
@@ -0,0 +1,33 @@
+package pw.ee.lot.shared.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Feeds executed statements into the {@link SqlStatementStatistics} of the current thread.
+ * A JDBC batch is one round trip and therefore counts as a single statement. The start of a statement is kept on its
+ * execution, as threads sharing the statistics run statements at the same time.
+ */
+class SqlStatementCountingListener implements QueryExecutionListener {
+
+    private static final String STARTED_AT = SqlStatementCountingListener.class.getName() + ".startedAt";
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (SqlStatementStatistics.current() != null) {
+            execInfo.addCustomValue(STARTED_AT, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        final var statistics = SqlStatementStatistics.current();
+        final var startedAt = execInfo.getCustomValue(STARTED_AT, Long.class);
+        if (statistics != null && startedAt != null) {
+            statistics.statementFinished(execInfo.isBatch() ? 1 : queryInfoList.size(), System.nanoTime() - startedAt);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package pw.ee.lot.shared.sql;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Statement count and accumulated JDBC time of the unit of work (usually an HTTP request) bound to the current thread.
+ * <p>
+ * Statistics are only collected between {@link #begin()} and {@link #end()}; outside of such a scope recording is a
+ * no-op, so the proxy layer costs a single thread-local lookup per statement. Work the unit hands to other threads,
+ * such as shard scatters and rebooking placements, is counted when it is wrapped by {@link #propagate}. Bookings
+ * coalesced by the booking combiner are the exception: the batch runs on the thread of its first booking, so that
+ * request counts the statements of the whole batch and the other requests none.
+ */
+public final class SqlStatementStatistics {
+
+    public static final String STATEMENT_COUNT_HEADER = "X-Sql-Statement-Count";
+    public static final String STATEMENT_TIME_HEADER = "X-Sql-Time-Millis";
+
+    private static final ThreadLocal<SqlStatementStatistics> CURRENT = new ThreadLocal<>();
+
+    private final AtomicInteger statementCount = new AtomicInteger();
+    private final AtomicLong elapsedNanos = new AtomicLong();
+
+    private SqlStatementStatistics() {
+    }
+
+    public static SqlStatementStatistics begin() {
+        final var statistics = new SqlStatementStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static SqlStatementStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * The task recording into the statistics of the current thread, whichever thread it runs on.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        final var statistics = CURRENT.get();
+        if (statistics == null) {
+            return task;
+        }
+
+        return () -> {
+            final var outer = CURRENT.get();
+            CURRENT.set(statistics);
+            try {
+                return task.get();
+            } finally {
+                if (outer != null) {
+                    CURRENT.set(outer);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    void statementFinished(int statements, long elapsedNanos) {
+        this.statementCount.addAndGet(statements);
+        this.elapsedNanos.addAndGet(elapsedNanos);
+    }
+
+    public int getStatementCount() {
+        return statementCount.get();
+    }
+
+    public Duration getElapsed() {
+        return Duration.ofNanos(elapsedNanos.get());
+    }
+}
@@ -0,0 +1,37 @@
+package pw.ee.lot.shared.sql;
+
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration(proxyBeanMethods = false)
+class SqlStatisticsConfiguration {
+
+    /**
+     * Wraps every {@link DataSource} bean in a datasource-proxy that reports executed statements to
+     * {@link SqlStatementStatistics}. Any {@link QueryExecutionListener} beans are attached to the same proxy.
+     */
+    @Bean
+    static BeanPostProcessor sqlStatisticsDataSourcePostProcessor(ObjectProvider<QueryExecutionListener> listeners) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    final var builder = ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(new SqlStatementCountingListener());
+                    listeners.orderedStream().forEach(builder::listener);
+                    return builder.build();
+                }
+
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package pw.ee.lot.shared.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements and JDBC time spent by each HTTP request when {@code lot.sql-statistics.debug} is on.
+ * The figures are returned in the {@value SqlStatementStatistics#STATEMENT_COUNT_HEADER} and
+ * {@value SqlStatementStatistics#STATEMENT_TIME_HEADER} headers and recorded per endpoint as
+ * {@code lot.http.sql.statements} and {@code lot.http.sql.time}.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    private final SqlStatisticsProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.debug();
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        // Headers have to be set after the handler ran, so the body is buffered until then
+        final var responseWrapper = new ContentCachingResponseWrapper(response);
+        final var statistics = SqlStatementStatistics.begin();
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } finally {
+            SqlStatementStatistics.end();
+            report(request, responseWrapper, statistics);
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private void report(HttpServletRequest request, HttpServletResponse response, SqlStatementStatistics statistics) {
+        final var uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern
+            ? pattern
+            : "UNKNOWN";
+
+        response.setHeader(SqlStatementStatistics.STATEMENT_COUNT_HEADER, String.valueOf(statistics.getStatementCount()));
+        response.setHeader(SqlStatementStatistics.STATEMENT_TIME_HEADER, String.valueOf(statistics.getElapsed().toMillis()));
+
+        DistributionSummary.builder("lot.http.sql.statements")
+            .description("SQL statements executed per HTTP request")
+            .tags("method", request.getMethod(), "uri", uri)
+            .register(meterRegistry)
+            .record(statistics.getStatementCount());
+        Timer.builder("lot.http.sql.time")
+            .description("JDBC time spent per HTTP request")
+            .tags("method", request.getMethod(), "uri", uri)
+            .register(meterRegistry)
+            .record(statistics.getElapsed());
+
+        if (statistics.getStatementCount() > properties.warnThreshold()) {
+            log.warn("{} {} executed {} SQL statements, possible N+1",
+                request.getMethod(), uri, statistics.getStatementCount());
+        }
+    }
+}
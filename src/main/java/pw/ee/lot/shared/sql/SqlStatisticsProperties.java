@@ -0,0 +1,20 @@
+package pw.ee.lot.shared.sql;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Per-request SQL statistics settings.
+ *
+ * @param debug         expose statement count and JDBC time as response headers and metrics
+ * @param warnThreshold log a warning for requests issuing more statements than this, a typical sign of an N+1
+ */
+@ConfigurationProperties("lot.sql-statistics")
+public record SqlStatisticsProperties(
+    @DefaultValue("false")
+    boolean debug,
+
+    @DefaultValue("20")
+    int warnThreshold
+) {
+}
@@ -0,0 +1,55 @@
+package pw.ee.lot.shared.tracing;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the most recently exported spans in memory, allowing traces to be inspected offline and in tests.
+ */
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final ConcurrentLinkedDeque<SpanData> spans = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+
+    public InMemorySpanExporter(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> batch) {
+        for (SpanData span : batch) {
+            spans.addLast(span);
+            if (size.incrementAndGet() > capacity && spans.pollFirst() != null) {
+                size.decrementAndGet();
+            }
+        }
+
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    public List<SpanData> getFinishedSpans() {
+        return List.copyOf(spans);
+    }
+
+    public void reset() {
+        spans.clear();
+        size.set(0);
+    }
+}
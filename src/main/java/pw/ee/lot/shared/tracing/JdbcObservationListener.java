@@ -0,0 +1,72 @@
+package pw.ee.lot.shared.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Reports every JDBC statement executed within an observed operation of a sampled trace as a {@code lot.jdbc.query}
+ * observation, which distinguishes e.g. the page query from the count query of a paged search. Statements issued
+ * outside of any observation (schema validation, gauges) or of a sampled trace are not traced, and cost no SQL string
+ * or observation.
+ */
+@Component
+@RequiredArgsConstructor
+class JdbcObservationListener implements QueryExecutionListener {
+
+    private static final ThreadLocal<Observation> CURRENT = new ThreadLocal<>();
+
+    private final ObservationRegistry observationRegistry;
+    private final SampledTrace sampledTrace;
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (observationRegistry.isNoop() || observationRegistry.getCurrentObservation() == null || !sampledTrace.isSampled()) {
+            return;
+        }
+
+        final var sql = queryInfoList.stream()
+            .map(QueryInfo::getQuery)
+            .collect(Collectors.joining(";\n"));
+        final var type = statementType(sql);
+        final var observation = Observation.createNotStarted("lot.jdbc.query", observationRegistry)
+            .contextualName("jdbc " + type)
+            .lowCardinalityKeyValue("type", type)
+            .lowCardinalityKeyValue("batch", String.valueOf(execInfo.isBatch()))
+            .highCardinalityKeyValue("sql", sql)
+            .start();
+        CURRENT.set(observation);
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        final var observation = CURRENT.get();
+        if (observation == null) {
+            return;
+        }
+
+        CURRENT.remove();
+        if (execInfo.getThrowable() != null) {
+            observation.error(execInfo.getThrowable());
+        }
+        observation.stop();
+    }
+
+    private static String statementType(String sql) {
+        final var trimmed = sql.stripLeading();
+        final var end = trimmed.indexOf(' ');
+        final var keyword = (end < 0 ? trimmed : trimmed.substring(0, end)).toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "insert", "update", "delete" -> keyword;
+            default -> "other";
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package pw.ee.lot.shared.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Observes the controller, repository and mapping layers so that a trace of a request shows where its time goes.
+ * Together with the {@code lot.usecase} observations and the JDBC listener this yields the span tree
+ * controller → use case → repository → JDBC statement, with mapping and serialization alongside. Calls outside of a
+ * sampled trace proceed without an observation, so their layer timers only reflect the sampled requests.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+class LayerObservationAspect {
+
+    private static final String MAPPING_OBSERVATION_NAME = "lot.mapping";
+
+    private final ObservationRegistry observationRegistry;
+    private final SampledTrace sampledTrace;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("within(pw.ee.lot.web..*) && @within(org.springframework.web.bind.annotation.RestController)")
+    public Object observeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!sampledTrace.isSampled()) {
+            return joinPoint.proceed();
+        }
+
+        final var controller = AopUtils.getTargetClass(joinPoint.getTarget()).getSimpleName();
+        return observe("lot.controller", controller, joinPoint);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object observeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!sampledTrace.isSampled()) {
+            return joinPoint.proceed();
+        }
+
+        final var repository = repositoryNames.computeIfAbsent(joinPoint.getThis().getClass(), LayerObservationAspect::repositoryName);
+        return observe("lot.repository", repository, joinPoint);
+    }
+
+    @Around("within(pw.ee.lot.dto.mapper..*)")
+    public Object observeMapping(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!sampledTrace.isSampled()) {
+            return joinPoint.proceed();
+        }
+
+        // Mappers call each other per element; only the outermost call gets its own observation
+        final var current = observationRegistry.getCurrentObservation();
+        if (current != null && MAPPING_OBSERVATION_NAME.equals(current.getContext().getName())) {
+            return joinPoint.proceed();
+        }
+
+        final var mapper = AopUtils.getTargetClass(joinPoint.getTarget()).getSimpleName();
+        return observe(MAPPING_OBSERVATION_NAME, mapper, joinPoint);
+    }
+
+    private Object observe(String name, String component, ProceedingJoinPoint joinPoint) throws Throwable {
+        final var method = joinPoint.getSignature().getName();
+        final var observation = Observation.createNotStarted(name, observationRegistry)
+            .contextualName(component + "." + method)
+            .lowCardinalityKeyValue("component", component)
+            .lowCardinalityKeyValue("method", method)
+            .start();
+
+        try (var ignored = observation.openScope()) {
+            return joinPoint.proceed();
+        } catch (Throwable throwable) {
+            observation.error(throwable);
+            throw throwable;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private static String repositoryName(Class<?> proxyClass) {
+        return Arrays.stream(proxyClass.getInterfaces())
+            .filter(type -> type.getPackageName().startsWith("pw.ee.lot"))
+            .map(Class::getSimpleName)
+            .findFirst()
+            .orElse(proxyClass.getSimpleName());
+    }
+}
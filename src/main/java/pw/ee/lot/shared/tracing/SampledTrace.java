@@ -0,0 +1,24 @@
+package pw.ee.lot.shared.tracing;
+
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells whether the current thread works for a sampled trace. The fine-grained observations are only built there: an
+ * unsampled trace exports none of their spans, and the use case and HTTP request observations keep the metrics.
+ */
+@Component
+class SampledTrace {
+
+    private final Tracer tracer;
+
+    SampledTrace(ObjectProvider<Tracer> tracer) {
+        this.tracer = tracer.getIfAvailable(() -> Tracer.NOOP);
+    }
+
+    boolean isSampled() {
+        final var span = tracer.currentSpan();
+        return span != null && Boolean.TRUE.equals(span.context().sampled());
+    }
+}
@@ -0,0 +1,35 @@
+package pw.ee.lot.shared.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+
+@Configuration(proxyBeanMethods = false)
+class TracingConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "lot.tracing.exporter", havingValue = "memory")
+    InMemorySpanExporter inMemorySpanExporter(TracingProperties properties) {
+        return new InMemorySpanExporter(properties.memoryCapacity());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "lot.tracing.exporter", havingValue = "file")
+    FileSpanExporter fileSpanExporter(TracingProperties properties, ObjectMapper objectMapper) throws IOException {
+        return new FileSpanExporter(properties.file(), objectMapper);
+    }
+
+    /**
+     * Replaces the auto-configured Jackson converter, which backs off when one is defined.
+     */
+    @Bean
+    MappingJackson2HttpMessageConverter observedJacksonHttpMessageConverter(ObjectMapper objectMapper,
+                                                                           ObservationRegistry observationRegistry) {
+        return new ObservedJacksonHttpMessageConverter(objectMapper, observationRegistry);
+    }
+}
@@ -0,0 +1,33 @@
+package pw.ee.lot.shared.tracing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * Span export settings. Sampling itself is configured through {@code management.tracing.sampling.probability};
+ * any additional {@link io.opentelemetry.sdk.trace.export.SpanExporter} bean (e.g. OTLP) is picked up as well.
+ *
+ * @param exporter       built-in exporter to register
+ * @param file           target of the {@link Exporter#FILE} exporter, one JSON document per span
+ * @param memoryCapacity number of most recent spans kept by the {@link Exporter#MEMORY} exporter
+ */
+@ConfigurationProperties("lot.tracing")
+public record TracingProperties(
+    @DefaultValue("none")
+    Exporter exporter,
+
+    @DefaultValue("traces.jsonl")
+    Path file,
+
+    @DefaultValue("10000")
+    int memoryCapacity
+) {
+
+    public enum Exporter {
+        NONE,
+        MEMORY,
+        FILE
+    }
+}
@@ -0,0 +1,26 @@
+package pw.ee.lot.web;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pw.ee.lot.dto.flight.ArchivedFlightResource;
+import pw.ee.lot.service.ArchivedFlightUseCases;
+
+@RestController
+@RequestMapping("/archived-flights")
+@RequiredArgsConstructor
+public class ArchivedFlightController {
+
+    private final ArchivedFlightUseCases archivedFlightUseCases;
+
+    @GetMapping("/{flightNumber}")
+    public ResponseEntity<Page<ArchivedFlightResource>> getArchivedFlights(@PathVariable String flightNumber, Pageable pageable) {
+        final var flights = archivedFlightUseCases.getArchivedFlights(flightNumber, pageable);
+        return ResponseEntity.ok(flights);
+    }
+}
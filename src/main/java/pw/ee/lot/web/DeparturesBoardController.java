@@ -0,0 +1,27 @@
+package pw.ee.lot.web;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pw.ee.lot.dto.flight.DepartureResource;
+import pw.ee.lot.service.DeparturesBoardUseCases;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/departures")
+@RequiredArgsConstructor
+public class DeparturesBoardController {
+
+    private final DeparturesBoardUseCases departuresBoardUseCases;
+
+    @GetMapping("/{city}")
+    public ResponseEntity<List<DepartureResource>> getDepartures(@PathVariable String city, @RequestParam(defaultValue = "20") int limit) {
+        final var departures = departuresBoardUseCases.getDepartures(city, limit);
+        return ResponseEntity.ok(departures);
+    }
+}
@@ -0,0 +1,29 @@
+package pw.ee.lot.web;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pw.ee.lot.dto.flight.FlightAnalyticsResource;
+import pw.ee.lot.service.FlightAnalyticsUseCases;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/analytics/flights")
+@RequiredArgsConstructor
+public class FlightAnalyticsController {
+
+    private final FlightAnalyticsUseCases flightAnalyticsUseCases;
+
+    @GetMapping
+    public ResponseEntity<FlightAnalyticsResource> getFlightAnalytics(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime departureFrom,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime departureTo) {
+        final var analytics = flightAnalyticsUseCases.getFlightAnalytics(departureFrom, departureTo);
+        return ResponseEntity.ok(analytics);
+    }
+}
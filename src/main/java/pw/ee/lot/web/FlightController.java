@@ -61,10 +61,74 @@ public class FlightController {
         return ResponseEntity.ok(flights);
     }
 
+    @PostMapping("/{flightNumber}/cancel")
+    public ResponseEntity<RebookingResource> cancelFlight(@PathVariable String flightNumber, @RequestBody @Valid RebookingRequest request) {
+        final var result = flightUseCases.cancelFlight(flightNumber, request.window());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/bulk/reschedule")
+    public ResponseEntity<BulkFlightOperationResource> rescheduleFlights(@RequestBody @Valid BulkFlightOperationRequest request) {
+        final var result = flightUseCases.rescheduleFlights(request.filter(), request.shift(), request.dryRun());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/bulk/cancel")
+    public ResponseEntity<BulkFlightOperationResource> cancelFlights(@RequestBody @Valid BulkFlightOperationRequest request) {
+        final var result = flightUseCases.cancelFlights(request.filter(), request.dryRun());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkFlightOperationResource> deleteFlights(@RequestBody @Valid BulkFlightOperationRequest request) {
+        final var result = flightUseCases.deleteFlights(request.filter(), request.dryRun());
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/{flightNumber}/seats")
+    public ResponseEntity<SeatMapResource> getSeatMap(@PathVariable String flightNumber) {
+        final var seatMap = flightUseCases.getSeatMap(flightNumber);
+        return ResponseEntity.ok(seatMap);
+    }
+
+    @PostMapping("/{flightNumber}/group")
+    public ResponseEntity<GroupBookingResource> addGroupToFlight(@PathVariable String flightNumber, @RequestBody @Valid GroupBookingRequest request) {
+        final var booking = flightUseCases.addGroupToFlight(flightNumber, request.passengerIds());
+        return ResponseEntity.ok(booking);
+    }
+
+    @PostMapping("/{flightNumber}/holds")
+    public ResponseEntity<SeatHoldResource> holdSeat(@PathVariable String flightNumber, @RequestBody @Valid HoldSeatRequest request) {
+        final var hold = flightUseCases.holdSeat(flightNumber, request.seat(), request.ttl());
+
+        final var location = ServletUriComponentsBuilder
+            .fromCurrentRequest()
+            .path("/{holdId}")
+            .buildAndExpand(hold.holdId()).toUri();
+
+        return ResponseEntity.created(location).body(hold);
+    }
+
+    @PostMapping("/{flightNumber}/holds/{holdId}/confirm")
+    public ResponseEntity<Void> confirmHold(@PathVariable String flightNumber, @PathVariable UUID holdId, @RequestBody @Valid ConfirmHoldRequest request) {
+        flightUseCases.confirmHold(flightNumber, holdId, request.passengerId());
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{flightNumber}/holds/{holdId}")
+    public ResponseEntity<Void> releaseHold(@PathVariable String flightNumber, @PathVariable UUID holdId) {
+        flightUseCases.releaseHold(flightNumber, holdId);
+        return ResponseEntity.noContent().build();
+    }
 
     @PostMapping("/{flightNumber}/{passengerId}")
-    public ResponseEntity<Void> addPassengerToFlight(@PathVariable String flightNumber, @PathVariable UUID passengerId) {
-        flightUseCases.addPassengerToFlight(flightNumber, passengerId);
+    public ResponseEntity<Void> addPassengerToFlight(@PathVariable String flightNumber, @PathVariable UUID passengerId,
+                                                     @RequestParam(required = false) String seat) {
+        if (seat == null) {
+            flightUseCases.addPassengerToFlight(flightNumber, passengerId);
+        } else {
+            flightUseCases.addPassengerToFlight(flightNumber, passengerId, seat);
+        }
         return ResponseEntity.noContent().build();
     }
 
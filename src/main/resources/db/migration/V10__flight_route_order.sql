@@ -0,0 +1,16 @@
+-- Route stops keep their position, the physical order of the rows changes as soon as a row is updated or vacuumed.
+-- Existing routes are numbered in their physical order, which is the order they were read in so far.
+
+ALTER TABLE flight_route ADD COLUMN route_order INTEGER;
+
+UPDATE flight_route r
+SET route_order = o.position
+FROM (SELECT ctid, row_number() OVER (PARTITION BY flight_id ORDER BY ctid) - 1 AS position
+      FROM flight_route) o
+WHERE o.ctid = r.ctid;
+
+ALTER TABLE flight_route ALTER COLUMN route_order SET NOT NULL;
+
+-- Loading the route of a flight in its order, replaces ix_flight_route_flight_id
+ALTER TABLE flight_route ADD CONSTRAINT pk_flight_route PRIMARY KEY (flight_id, route_order);
+DROP INDEX IF EXISTS ix_flight_route_flight_id;
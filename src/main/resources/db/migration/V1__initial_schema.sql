@@ -0,0 +1,35 @@
+-- Schema previously generated by hibernate.ddl-auto=update.
+-- Databases created that way are baselined at this version and only receive the later migrations.
+
+CREATE TABLE flight
+(
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    flight_number   VARCHAR(255) NOT NULL,
+    departure_time  TIMESTAMP(6) NOT NULL,
+    available_seats INTEGER      NOT NULL,
+    CONSTRAINT uk_flight_flight_number UNIQUE (flight_number)
+);
+
+CREATE TABLE flight_route
+(
+    flight_id BIGINT NOT NULL REFERENCES flight (id),
+    route     VARCHAR(255)
+);
+
+CREATE TABLE passenger
+(
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    passenger_id UUID         NOT NULL,
+    first_name   VARCHAR(255) NOT NULL,
+    last_name    VARCHAR(255) NOT NULL,
+    country_code VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255) NOT NULL
+);
+
+-- The primary key doubles as the flight -> passengers index
+CREATE TABLE flight_passengers
+(
+    flights_id    BIGINT NOT NULL REFERENCES flight (id),
+    passengers_id BIGINT NOT NULL REFERENCES passenger (id),
+    PRIMARY KEY (flights_id, passengers_id)
+);
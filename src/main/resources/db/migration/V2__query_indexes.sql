@@ -0,0 +1,19 @@
+-- Indexes backing the repository queries, see SchemaIndexTests.
+
+-- PassengerRepository.findByPassengerId, used by every passenger lookup of the API
+CREATE UNIQUE INDEX IF NOT EXISTS ux_passenger_passenger_id ON passenger (passenger_id);
+
+-- searchFlights departure time windows and seat filters, nearly full flights gauge
+CREATE INDEX IF NOT EXISTS ix_flight_departure_time_available_seats ON flight (departure_time, available_seats);
+
+-- searchFlights flight number prefix (LIKE 'LOT%'), which a collation aware unique index cannot serve
+CREATE INDEX IF NOT EXISTS ix_flight_flight_number_pattern ON flight (flight_number varchar_pattern_ops);
+
+-- searchFlights city filter
+CREATE INDEX IF NOT EXISTS ix_flight_route_route ON flight_route (route);
+
+-- Loading the route of a flight
+CREATE INDEX IF NOT EXISTS ix_flight_route_flight_id ON flight_route (flight_id);
+
+-- Loading the flights of a passenger; the other direction is served by the primary key
+CREATE INDEX IF NOT EXISTS ix_flight_passengers_passengers_id ON flight_passengers (passengers_id, flights_id);
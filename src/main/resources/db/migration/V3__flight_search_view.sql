@@ -0,0 +1,30 @@
+-- Denormalized read model serving flight listings and searches, kept in sync by FlightSearchProjection.
+-- The route is stored as '|WAW|JFK|', so that a city filter becomes LIKE '%|WAW|%' served by a trigram index.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE TABLE flight_search_view
+(
+    flight_id       BIGINT PRIMARY KEY REFERENCES flight (id) ON DELETE CASCADE,
+    flight_number   VARCHAR(255)  NOT NULL,
+    departure_time  TIMESTAMP(6)  NOT NULL,
+    available_seats INTEGER       NOT NULL,
+    route           VARCHAR(2048) NOT NULL
+);
+
+-- Default listing order and flight number prefix search
+CREATE INDEX ix_flight_search_view_flight_number ON flight_search_view (flight_number);
+CREATE INDEX ix_flight_search_view_flight_number_pattern ON flight_search_view (flight_number varchar_pattern_ops);
+
+-- Departure time windows and seat filters
+CREATE INDEX ix_flight_search_view_departure_time_available_seats ON flight_search_view (departure_time, available_seats);
+
+-- City filter
+CREATE INDEX ix_flight_search_view_route ON flight_search_view USING gin (route gin_trgm_ops);
+
+INSERT INTO flight_search_view (flight_id, flight_number, departure_time, available_seats, route)
+SELECT f.id, f.flight_number, f.departure_time, f.available_seats,
+       COALESCE('|' || string_agg(r.route, '|' ORDER BY r.ctid) || '|', '')
+FROM flight f
+         LEFT JOIN flight_route r ON r.flight_id = f.id
+GROUP BY f.id;
@@ -0,0 +1,28 @@
+-- Departed flights and their manifests, moved out of the live tables by FlightArchiver.
+-- The manifest is a snapshot of the passengers, so archived flights do not keep passengers from being deleted.
+
+CREATE TABLE archived_flight
+(
+    id              BIGINT PRIMARY KEY,
+    flight_number   VARCHAR(255)  NOT NULL,
+    departure_time  TIMESTAMP(6)  NOT NULL,
+    available_seats INTEGER       NOT NULL,
+    route           VARCHAR(2048) NOT NULL,
+    archived_at     TIMESTAMP(6)  NOT NULL
+);
+
+CREATE TABLE archived_flight_passengers
+(
+    archived_flight_id BIGINT       NOT NULL REFERENCES archived_flight (id) ON DELETE CASCADE,
+    passenger_id       UUID         NOT NULL,
+    first_name         VARCHAR(255) NOT NULL,
+    last_name          VARCHAR(255) NOT NULL,
+    country_code       VARCHAR(255) NOT NULL,
+    phone_number       VARCHAR(255) NOT NULL
+);
+
+-- Archived departures of a flight number, latest first
+CREATE INDEX ix_archived_flight_flight_number_departure_time ON archived_flight (flight_number, departure_time);
+
+-- Loading the manifest of an archived flight
+CREATE INDEX ix_archived_flight_passengers_archived_flight_id ON archived_flight_passengers (archived_flight_id);
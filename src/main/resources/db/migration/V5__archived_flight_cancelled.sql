@@ -0,0 +1,2 @@
+-- Cancelled flights are archived right away, see FlightUseCases.cancelFlights.
+ALTER TABLE archived_flight ADD COLUMN cancelled BOOLEAN NOT NULL DEFAULT FALSE;
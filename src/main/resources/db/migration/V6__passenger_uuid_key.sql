@@ -0,0 +1,22 @@
+-- Passengers are keyed by their public UUID instead of a surrogate BIGINT, so API lookups hit the primary key and
+-- bookings reference the passenger directly. Existing passengers keep their UUIDs; new ones get time-ordered
+-- version 7 UUIDs, which are inserted at the right edge of the index like the sequence they replace.
+
+ALTER TABLE flight_passengers ADD COLUMN passenger_id UUID;
+
+UPDATE flight_passengers fp
+SET passenger_id = p.passenger_id
+FROM passenger p
+WHERE p.id = fp.passengers_id;
+
+-- Also drops the primary key, the foreign key and ix_flight_passengers_passengers_id of the join table
+ALTER TABLE flight_passengers DROP COLUMN passengers_id;
+ALTER TABLE flight_passengers RENAME COLUMN passenger_id TO passengers_id;
+ALTER TABLE flight_passengers ALTER COLUMN passengers_id SET NOT NULL;
+
+ALTER TABLE passenger DROP COLUMN id;
+ALTER TABLE passenger ADD CONSTRAINT passenger_pkey PRIMARY KEY USING INDEX ux_passenger_passenger_id;
+
+ALTER TABLE flight_passengers ADD CONSTRAINT flight_passengers_pkey PRIMARY KEY (flights_id, passengers_id);
+ALTER TABLE flight_passengers ADD CONSTRAINT fk_flight_passengers_passenger FOREIGN KEY (passengers_id) REFERENCES passenger (passenger_id);
+CREATE INDEX ix_flight_passengers_passengers_id ON flight_passengers (passengers_id, flights_id);
@@ -0,0 +1,28 @@
+-- Route stops reference a dictionary of city names instead of repeating the name in every row.
+-- Ids are assigned per database, the application keeps one dictionary per shard.
+
+CREATE TABLE city
+(
+    id   SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_city_name UNIQUE (name)
+);
+
+INSERT INTO city (name)
+SELECT DISTINCT route
+FROM flight_route
+WHERE route IS NOT NULL
+ORDER BY route;
+
+ALTER TABLE flight_route ADD COLUMN city_id SMALLINT REFERENCES city (id);
+
+UPDATE flight_route r
+SET city_id = c.id
+FROM city c
+WHERE c.name = r.route;
+
+-- Also drops ix_flight_route_route
+ALTER TABLE flight_route DROP COLUMN route;
+
+-- Bulk operation city filter
+CREATE INDEX ix_flight_route_city_id ON flight_route (city_id);
@@ -0,0 +1,16 @@
+-- Optional seat map of a flight, taken seats as a bitmap with one bit per seat in row-major order
+ALTER TABLE flight
+    ADD COLUMN seat_rows    INTEGER,
+    ADD COLUMN seat_layout  VARCHAR(255),
+    ADD COLUMN premium_rows INTEGER,
+    ADD COLUMN taken_seats  BYTEA;
+
+-- The unique seat backs the bitmap up: a seat is never assigned twice even if the bitmap were out of date
+CREATE TABLE flight_seat_assignments
+(
+    flight_id    BIGINT  NOT NULL REFERENCES flight (id) ON DELETE CASCADE,
+    passenger_id UUID    NOT NULL REFERENCES passenger (passenger_id),
+    seat         INTEGER NOT NULL,
+    PRIMARY KEY (flight_id, passenger_id),
+    CONSTRAINT uk_flight_seat_assignments_seat UNIQUE (flight_id, seat)
+);
@@ -0,0 +1,12 @@
+-- Seats held for a checkout, taken out of the available seats until confirmed as a booking or expired
+CREATE TABLE seat_hold
+(
+    id         UUID PRIMARY KEY,
+    flight_id  BIGINT       NOT NULL REFERENCES flight (id) ON DELETE CASCADE,
+    seat       INTEGER,
+    expires_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_seat_hold_seat UNIQUE (flight_id, seat)
+);
+
+-- Sweep of overdue holds no instance is tracking
+CREATE INDEX ix_seat_hold_expires_at ON seat_hold (expires_at);
@@ -0,0 +1,78 @@
+package pw.ee.lot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.service.FlightUseCases;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"lot.admission.client-rate=1", "lot.admission.client-burst=2"})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class AdmissionControlTests {
+
+    private final static String flightsEndpoint = "/flights";
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+        flightUseCases.createFlight(new CreateFlightRequest("LOT100", LocalDateTime.now().plusDays(1), 100, List.of("WAW", "JFK")));
+    }
+
+    @Test
+    public void givenClientOverItsRate_whenGetFlight_thenTooManyRequestsWithRetryAfter() throws Exception {
+        // given
+        mockMvc.perform(get(flightsEndpoint + "/LOT100").with(from("10.0.0.1")))
+            .andExpect(status().isOk());
+        mockMvc.perform(get(flightsEndpoint + "/LOT100").with(from("10.0.0.1")))
+            .andExpect(status().isOk());
+
+        // when and then
+        mockMvc.perform(get(flightsEndpoint + "/LOT100").with(from("10.0.0.1")))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "1"))
+            .andExpect(jsonPath("$.errors[0]").value("Too many requests"));
+        mockMvc.perform(get(flightsEndpoint + "/LOT100").with(from("10.0.0.2")))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    public void givenClientOverItsRate_whenGetFlightWithAnotherClientId_thenTooManyRequests() throws Exception {
+        // given
+        mockMvc.perform(get(flightsEndpoint + "/LOT100").with(from("10.0.0.3")).header("X-Client-Id", "greedy"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get(flightsEndpoint + "/LOT100").with(from("10.0.0.3")).header("X-Client-Id", "greedy"))
+            .andExpect(status().isOk());
+
+        // when and then
+        mockMvc.perform(get(flightsEndpoint + "/LOT100").with(from("10.0.0.3")).header("X-Client-Id", "innocent"))
+            .andExpect(status().isTooManyRequests());
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
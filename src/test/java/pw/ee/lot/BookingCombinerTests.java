@@ -0,0 +1,87 @@
+package pw.ee.lot;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.PhoneNumber;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.service.FlightUseCases;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "lot.booking-combiner.window=200ms")
+@ActiveProfiles("test")
+public class BookingCombinerTests {
+
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+        passengerRepository.deleteAll();
+        flightUseCases.createFlight(new CreateFlightRequest("LOT100", LocalDateTime.now().plusDays(1), 10, List.of("WAW", "JFK")));
+    }
+
+    @Test
+    public void givenConcurrentBookings_whenAddPassengers_thenAppliedTogetherAndRejectedOneByOne() {
+        // given
+        final var passengerIds = new ArrayList<>(IntStream.range(0, 8).mapToObj(i -> createPassenger()).toList());
+        passengerIds.add(UUID.randomUUID());
+        final var executor = Executors.newFixedThreadPool(passengerIds.size());
+        final var batches = meterRegistry.summary("lot.bookings.batch-size").count();
+
+        // when
+        final var bookings = passengerIds.stream()
+            .map(passengerId -> CompletableFuture.runAsync(() -> flightUseCases.addPassengerToFlight("LOT100", passengerId), executor))
+            .toList();
+        final var failures = bookings.stream()
+            .map(booking -> {
+                try {
+                    booking.join();
+                    return null;
+                } catch (CompletionException e) {
+                    return e.getCause();
+                }
+            })
+            .filter(failure -> failure != null)
+            .toList();
+        executor.shutdown();
+
+        // then
+        assertThat(failures).singleElement().isInstanceOf(NoSuchElementException.class);
+        assertThat(flightUseCases.getFlight("LOT100").availableSeats()).isEqualTo(2);
+        assertThat(meterRegistry.summary("lot.bookings.batch-size").count() - batches).isLessThan(passengerIds.size());
+    }
+
+    private UUID createPassenger() {
+        return passengerRepository.save(Passenger.builder()
+            .passengerId(UUID.randomUUID())
+            .firstName("John")
+            .lastName("Doe")
+            .phoneNumber(PhoneNumber.builder().countryCode("+48").phoneNumber("123456789").build())
+            .build()).getPassengerId();
+    }
+}
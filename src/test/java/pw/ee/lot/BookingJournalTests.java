@@ -0,0 +1,162 @@
+package pw.ee.lot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.PhoneNumber;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.dto.flight.UpdateFlightRequest;
+import pw.ee.lot.service.FlightUseCases;
+import pw.ee.lot.shared.archive.FlightArchiver;
+import pw.ee.lot.shared.journal.JournalWriter;
+import pw.ee.lot.shared.journal.SeatCountReplay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookingJournalTests {
+
+    private final static Path journalDirectory = createJournalDirectory();
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+    @Autowired
+    private FlightArchiver flightArchiver;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("lot.journal.enabled", () -> true);
+        registry.add("lot.journal.directory", journalDirectory::toString);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+        passengerRepository.deleteAll();
+    }
+
+    @Test
+    public void givenBookings_whenReplayJournal_thenSeatCountsMatch() {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT700", LocalDateTime.now().plusDays(1), 10, List.of("WAW", "JFK"), null));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT701", LocalDateTime.now().plusDays(1), 10, List.of("WAW", "JFK"), null));
+        final var passengerId = createPassenger();
+        flightUseCases.addPassengerToFlight("LOT700", passengerId);
+        flightUseCases.addGroupToFlight("LOT700", List.of(createPassenger(), createPassenger()));
+        flightUseCases.removePassengerFromFlight("LOT700", passengerId);
+        flightUseCases.holdSeat("LOT701", null, null);
+
+        // when
+        final var seats = SeatCountReplay.replay(journalDirectory);
+
+        // then
+        assertThat(seats).containsEntry("LOT700", 8).containsEntry("LOT701", 9);
+    }
+
+    @Test
+    public void givenRenamedAndDeletedFlights_whenReplayJournal_thenOnlyExistingFlightsReplayed() {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT710", LocalDateTime.now().plusDays(1), 10, List.of("WAW", "JFK"), null));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT711", LocalDateTime.now().plusDays(1), 10, List.of("WAW", "JFK"), null));
+        flightUseCases.updateFlight("LOT710", new UpdateFlightRequest("LOT712", null, null, 12));
+        flightUseCases.deleteFlight("LOT711");
+
+        // when
+        final var seats = SeatCountReplay.replay(journalDirectory);
+
+        // then
+        assertThat(seats).containsEntry("LOT712", 12).doesNotContainKeys("LOT710", "LOT711");
+    }
+
+    @Test
+    public void givenArchivedFlight_whenReplayJournal_thenFlightNotReplayed() {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT730", LocalDateTime.now().minusDays(2), 10, List.of("WAW", "JFK"), null));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT731", LocalDateTime.now().plusDays(2), 10, List.of("WAW", "JFK"), null));
+        flightArchiver.archiveDepartedFlights();
+
+        // when
+        final var seats = SeatCountReplay.replay(journalDirectory);
+
+        // then
+        assertThat(seats).containsEntry("LOT731", 10).doesNotContainKey("LOT730");
+    }
+
+    @Test
+    public void givenConcurrentBookings_whenReplayJournal_thenSeatCountsMatchDatabase() {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT720", LocalDateTime.now().plusDays(1), 50, List.of("WAW", "JFK"), null));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT721", LocalDateTime.now().plusDays(1), 50, List.of("WAW", "JFK"), null));
+        final var passengerIds = IntStream.range(0, 40).mapToObj(i -> createPassenger()).toList();
+        final var executor = Executors.newFixedThreadPool(8);
+        try {
+            CompletableFuture.allOf(IntStream.range(0, passengerIds.size())
+                .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    final var flightNumber = i % 2 == 0 ? "LOT720" : "LOT721";
+                    flightUseCases.addPassengerToFlight(flightNumber, passengerIds.get(i));
+                    if (i % 4 == 0) {
+                        flightUseCases.removePassengerFromFlight(flightNumber, passengerIds.get(i));
+                    }
+                }, executor))
+                .toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        // when
+        final var seats = SeatCountReplay.replay(journalDirectory);
+
+        // then
+        assertThat(seats)
+            .containsEntry("LOT720", flightRepository.findByFlightNumber("LOT720").orElseThrow().getAvailableSeats())
+            .containsEntry("LOT721", flightRepository.findByFlightNumber("LOT721").orElseThrow().getAvailableSeats())
+            .containsEntry("LOT721", 30);
+    }
+
+    @Test
+    public void givenJournalInUse_whenOpenSecondWriter_thenRejected() {
+        // when and then
+        assertThatThrownBy(() -> new JournalWriter(journalDirectory, 1 << 20))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static Path createJournalDirectory() {
+        try {
+            return Files.createTempDirectory("lot-journal");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private UUID createPassenger() {
+        return passengerRepository.save(Passenger.builder()
+            .passengerId(UUID.randomUUID())
+            .firstName("John")
+            .lastName("Doe")
+            .phoneNumber(PhoneNumber.builder().countryCode("+48").phoneNumber("123456789").build())
+            .build()).getPassengerId();
+    }
+}
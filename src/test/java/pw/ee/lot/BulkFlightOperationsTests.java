@@ -0,0 +1,118 @@
+package pw.ee.lot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import pw.ee.lot.domain.repository.ArchivedFlightRepository;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.dto.flight.FlightSearchCriteria;
+import pw.ee.lot.service.FlightUseCases;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "lot.bulk.chunk-size=2")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class BulkFlightOperationsTests {
+
+    private final static String flightsEndpoint = "/flights";
+    private final static String archivedFlightsEndpoint = "/archived-flights";
+    private final static LocalDateTime departure = LocalDateTime.of(2030, 1, 1, 12, 0);
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private ArchivedFlightRepository archivedFlightRepository;
+
+    @BeforeEach
+    public void setUp() {
+        archivedFlightRepository.deleteAll();
+        flightRepository.deleteAll();
+        flightUseCases.createFlight(new CreateFlightRequest("LOT100", departure, 100, List.of("WAW", "JFK")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT101", departure, 100, List.of("WAW", "CDG")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT102", departure, 100, List.of("KRK", "JFK")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT200", departure, 100, List.of("GDN", "LHR")));
+    }
+
+    @Test
+    public void givenMatchingFlights_whenDryRun_thenCountedAndNotChanged() throws Exception {
+        // given
+        final var request = """
+            {"filter": {"city": "JFK"}, "dryRun": true}
+            """;
+
+        // when and then
+        mockMvc.perform(post(flightsEndpoint + "/bulk/delete").contentType(MediaType.APPLICATION_JSON).content(request))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.flights").value(2))
+            .andExpect(jsonPath("$.dryRun").value(true));
+        mockMvc.perform(get(flightsEndpoint))
+            .andExpect(jsonPath("$.totalElements").value(4));
+    }
+
+    @Test
+    public void givenMatchingFlights_whenReschedule_thenDeparturesMovedInEveryChunk() throws Exception {
+        // given
+        final var request = """
+            {"filter": {"flightNumber": "LOT1"}, "shift": "PT2H"}
+            """;
+
+        // when and then
+        mockMvc.perform(post(flightsEndpoint + "/bulk/reschedule").contentType(MediaType.APPLICATION_JSON).content(request))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.flights").value(3));
+        assertThat(flightRepository.findByFlightNumber("LOT102").orElseThrow().getDepartureTime()).isEqualTo(departure.plusHours(2));
+        assertThat(flightRepository.findByFlightNumber("LOT200").orElseThrow().getDepartureTime()).isEqualTo(departure);
+        assertThat(flightUseCases.searchFlights(Pageable.unpaged(), new FlightSearchCriteria(null, departure.plusHours(2), null, null, null))
+            .getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    public void givenMatchingFlights_whenCancel_thenArchivedAsCancelled() throws Exception {
+        // given
+        final var request = """
+            {"filter": {"city": "WAW"}}
+            """;
+
+        // when and then
+        mockMvc.perform(post(flightsEndpoint + "/bulk/cancel").contentType(MediaType.APPLICATION_JSON).content(request))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.flights").value(2));
+        mockMvc.perform(get(flightsEndpoint + "/LOT100"))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get(archivedFlightsEndpoint + "/LOT100"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].cancelled").value(true));
+    }
+
+    @Test
+    public void givenEmptyFilter_whenDelete_thenBadRequest() throws Exception {
+        // given
+        final var request = """
+            {"filter": {}}
+            """;
+
+        // when and then
+        mockMvc.perform(post(flightsEndpoint + "/bulk/delete").contentType(MediaType.APPLICATION_JSON).content(request))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get(flightsEndpoint))
+            .andExpect(jsonPath("$.totalElements").value(4));
+    }
+}
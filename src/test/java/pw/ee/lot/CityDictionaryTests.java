@@ -0,0 +1,112 @@
+package pw.ee.lot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.Flight;
+import pw.ee.lot.domain.repository.CityRepository;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.dto.flight.FlightSearchCriteria;
+import pw.ee.lot.service.FlightUseCases;
+import pw.ee.lot.shared.dictionary.CityDictionary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CityDictionaryTests {
+
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private CityRepository cityRepository;
+    @Autowired
+    private CityDictionary cityDictionary;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+    }
+
+    @Test
+    public void givenFlightsThroughSameCity_whenLoadRoutes_thenCityStoredOnceAndNameShared() {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT100", LocalDateTime.now().plusDays(1), 100, List.of("WAW", "JFK")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT101", LocalDateTime.now().plusDays(1), 100, List.of("KRK", "WAW")));
+
+        // when
+        final var routes = transactionTemplate.execute(status -> List.of(
+            List.copyOf(flightRepository.findByFlightNumber("LOT100").orElseThrow().getRoute()),
+            List.copyOf(flightRepository.findByFlightNumber("LOT101").orElseThrow().getRoute())
+        ));
+
+        // then
+        assertThat(routes.get(0)).containsExactly("WAW", "JFK");
+        assertThat(routes.get(1)).containsExactly("KRK", "WAW");
+        assertThat(routes.get(0).get(0)).isSameAs(routes.get(1).get(1));
+        assertThat(cityRepository.findByName("WAW")).isPresent();
+    }
+
+    @Test
+    public void givenUnknownCityInFilter_whenBulkOperation_thenNothingMatchedAndCityNotAdded() {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT110", LocalDateTime.now().plusDays(1), 100, List.of("WAW", "JFK")));
+        final var filter = new FlightSearchCriteria(null, null, null, null, "XYZ");
+
+        // when
+        final var counted = flightUseCases.deleteFlights(filter, true);
+        final var deleted = flightUseCases.deleteFlights(filter, false);
+
+        // then
+        assertThat(counted.flights()).isZero();
+        assertThat(deleted.flights()).isZero();
+        assertThat(flightRepository.findByFlightNumber("LOT110")).isPresent();
+        assertThat(cityRepository.findByName("XYZ")).isEmpty();
+    }
+
+    @Test
+    public void givenCityRegisteredInRolledBackTransaction_whenCreateFlight_thenCityAddedAgain() {
+        // given
+        transactionTemplate.executeWithoutResult(status -> {
+            cityDictionary.register(List.of("RZE"));
+            status.setRollbackOnly();
+        });
+
+        // when
+        flightUseCases.createFlight(new CreateFlightRequest("LOT120", LocalDateTime.now().plusDays(1), 100, List.of("RZE", "WAW")));
+
+        // then
+        final var route = transactionTemplate.execute(status ->
+            List.copyOf(flightRepository.findByFlightNumber("LOT120").orElseThrow().getRoute()));
+        assertThat(route).containsExactly("RZE", "WAW");
+        assertThat(cityRepository.findByName("RZE")).isPresent();
+    }
+
+    @Test
+    public void givenFlightSavedAroundUseCases_whenSaveWithUnknownCity_thenCityRegistered() {
+        // when
+        flightRepository.save(Flight.builder()
+            .flightNumber("LOT130")
+            .departureTime(LocalDateTime.now().plusDays(1))
+            .availableSeats(100)
+            .route(List.of("WAW", "BZG"))
+            .build());
+
+        // then
+        final var route = transactionTemplate.execute(status ->
+            List.copyOf(flightRepository.findByFlightNumber("LOT130").orElseThrow().getRoute()));
+        assertThat(route).containsExactly("WAW", "BZG");
+        assertThat(cityRepository.findByName("BZG")).isPresent();
+    }
+}
@@ -0,0 +1,133 @@
+package pw.ee.lot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.repository.ArchivedFlightRepository;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.dto.flight.FlightSearchCriteria;
+import pw.ee.lot.dto.flight.UpdateFlightRequest;
+import pw.ee.lot.service.FlightUseCases;
+import pw.ee.lot.shared.readmodel.FlightChangedEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class DeparturesBoardTests {
+
+    private final static String departuresEndpoint = "/departures";
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+    @Autowired
+    private ArchivedFlightRepository archivedFlightRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    public void setUp() {
+        archivedFlightRepository.deleteAll();
+        flightRepository.deleteAll();
+        passengerRepository.deleteAll();
+    }
+
+    @Test
+    public void givenFlightsStoppingAtCity_whenGetDepartures_thenReturnNextUpcomingInOrder() throws Exception {
+        // given
+        final var now = LocalDateTime.now();
+        flightUseCases.createFlight(new CreateFlightRequest("LOT901", now.plusHours(3), 10, List.of("GDN", "JFK")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT902", now.plusHours(1), 10, List.of("WAW", "GDN")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT903", now.plusHours(2), 10, List.of("GDN", "CDG")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT904", now.minusHours(1), 10, List.of("GDN", "CDG")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT905", now.plusMinutes(30), 10, List.of("WAW", "CDG")));
+
+        // when and then
+        mockMvc.perform(get(departuresEndpoint + "/GDN").param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].flightNumber").value(contains("LOT902", "LOT903")));
+    }
+
+    @Test
+    public void givenRescheduledAndDeletedFlights_whenGetDepartures_thenReturnBoardAfterChanges() throws Exception {
+        // given
+        final var now = LocalDateTime.now();
+        flightUseCases.createFlight(new CreateFlightRequest("LOT911", now.plusHours(1), 10, List.of("KRK", "JFK")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT912", now.plusHours(2), 10, List.of("KRK", "JFK")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT913", now.plusHours(3), 10, List.of("KRK", "JFK")));
+        flightUseCases.updateFlight("LOT913", new UpdateFlightRequest(null, now.plusMinutes(30), null, null));
+        flightUseCases.updateFlight("LOT911", new UpdateFlightRequest(null, null, List.of("WAW", "JFK"), null));
+        flightUseCases.deleteFlight("LOT912");
+
+        // when and then
+        mockMvc.perform(get(departuresEndpoint + "/KRK"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].flightNumber").value(contains("LOT913")));
+    }
+
+    @Test
+    public void givenBulkCancelledAndRescheduledFlights_whenGetDepartures_thenReturnBoardAfterBulkOperations() throws Exception {
+        // given
+        final var now = LocalDateTime.now();
+        flightUseCases.createFlight(new CreateFlightRequest("LOT921", now.plusHours(1), 10, List.of("POZ", "JFK")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT922", now.plusHours(2), 10, List.of("POZ", "CDG")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT931", now.plusHours(3), 10, List.of("POZ", "LHR")));
+        flightUseCases.cancelFlights(new FlightSearchCriteria("LOT92", null, null, null, null), false);
+        flightUseCases.rescheduleFlights(new FlightSearchCriteria("LOT931", null, null, null, null), Duration.ofHours(-4), false);
+        flightUseCases.createFlight(new CreateFlightRequest("LOT941", now.plusHours(4), 10, List.of("POZ", "LHR")));
+
+        // when and then
+        mockMvc.perform(get(departuresEndpoint + "/POZ"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].flightNumber").value(contains("LOT941")));
+    }
+
+    @Test
+    public void givenSeatsOnlyChange_whenGetDepartures_thenBoardNotReadAgain() throws Exception {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT951", LocalDateTime.now().plusHours(1), 10, List.of("SZZ", "JFK")));
+        final var flightId = flightRepository.findByFlightNumber("LOT951").orElseThrow().getId();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE flight SET flight_number = 'LOT952' WHERE id = ?", flightId);
+            eventPublisher.publishEvent(FlightChangedEvent.seats(flightId));
+        });
+
+        // when and then
+        mockMvc.perform(get(departuresEndpoint + "/SZZ"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].flightNumber").value(contains("LOT951")));
+    }
+
+    @Test
+    public void givenLimitOutOfRange_whenGetDepartures_thenReturnHttpBadRequest() throws Exception {
+        // when and then
+        mockMvc.perform(get(departuresEndpoint + "/WAW").param("limit", "0"))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,122 @@
+package pw.ee.lot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.PhoneNumber;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.dto.flight.FlightSearchCriteria;
+import pw.ee.lot.service.FlightUseCases;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class FlightAnalyticsTests {
+
+    private final static String analyticsEndpoint = "/analytics/flights";
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+        passengerRepository.deleteAll();
+    }
+
+    @Test
+    public void givenBookedFlights_whenGetAnalytics_thenReturnLoadFactorBookingsPerCityAndDepartures() throws Exception {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT810", LocalDateTime.of(2031, 1, 6, 8, 30), 10, List.of("WAW", "JFK"), null));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT811", LocalDateTime.of(2031, 1, 7, 20, 0), 4, List.of("WAW", "CDG"), null));
+        flightUseCases.addGroupToFlight("LOT810", List.of(createPassenger(), createPassenger()));
+        flightUseCases.addPassengerToFlight("LOT811", createPassenger());
+
+        // when and then
+        mockMvc.perform(get(analyticsEndpoint)
+                .param("departureFrom", "2031-01-01T00:00:00")
+                .param("departureTo", "2031-01-31T23:59:59"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.flights").value(2))
+            .andExpect(jsonPath("$.seats").value(14))
+            .andExpect(jsonPath("$.bookedSeats").value(3))
+            .andExpect(jsonPath("$.loadFactor").value(closeTo(3.0 / 14, 1e-9)))
+            .andExpect(jsonPath("$.bookingsPerCity.WAW").value(3))
+            .andExpect(jsonPath("$.bookingsPerCity.JFK").value(2))
+            .andExpect(jsonPath("$.bookingsPerCity.CDG").value(1))
+            .andExpect(jsonPath("$.departures[0][8]").value(1))
+            .andExpect(jsonPath("$.departures[1][20]").value(1));
+    }
+
+    @Test
+    public void givenDeletedFlight_whenGetAnalytics_thenFlightNotCounted() throws Exception {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT820", LocalDateTime.of(2032, 2, 2, 10, 0), 10, List.of("WAW", "JFK"), null));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT821", LocalDateTime.of(2032, 2, 3, 10, 0), 10, List.of("WAW", "JFK"), null));
+        flightUseCases.deleteFlight("LOT821");
+
+        // when and then
+        mockMvc.perform(get(analyticsEndpoint)
+                .param("departureFrom", "2032-02-01T00:00:00")
+                .param("departureTo", "2032-02-28T23:59:59"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.flights").value(1))
+            .andExpect(jsonPath("$.seats").value(10));
+    }
+
+    @Test
+    public void givenBulkDeletedFlights_whenGetAnalytics_thenFlightsNotCounted() throws Exception {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT830", LocalDateTime.of(2033, 3, 2, 10, 0), 10, List.of("WAW", "JFK"), null));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT831", LocalDateTime.of(2033, 3, 3, 10, 0), 10, List.of("WAW", "JFK"), null));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT840", LocalDateTime.of(2033, 3, 4, 10, 0), 10, List.of("WAW", "JFK"), null));
+        flightUseCases.deleteFlights(new FlightSearchCriteria("LOT83", null, null, null, null), false);
+
+        // when and then
+        mockMvc.perform(get(analyticsEndpoint)
+                .param("departureFrom", "2033-03-01T00:00:00")
+                .param("departureTo", "2033-03-31T23:59:59"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.flights").value(1))
+            .andExpect(jsonPath("$.seats").value(10));
+    }
+
+    @Test
+    public void givenWindowEndingBeforeStart_whenGetAnalytics_thenReturnHttpBadRequest() throws Exception {
+        // when and then
+        mockMvc.perform(get(analyticsEndpoint)
+                .param("departureFrom", "2031-02-01T00:00:00")
+                .param("departureTo", "2031-01-01T00:00:00"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private UUID createPassenger() {
+        return passengerRepository.save(Passenger.builder()
+            .passengerId(UUID.randomUUID())
+            .firstName("John")
+            .lastName("Doe")
+            .phoneNumber(PhoneNumber.builder().countryCode("+48").phoneNumber("123456789").build())
+            .build()).getPassengerId();
+    }
+}
@@ -0,0 +1,108 @@
+package pw.ee.lot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.PhoneNumber;
+import pw.ee.lot.domain.repository.ArchivedFlightRepository;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.service.FlightUseCases;
+import pw.ee.lot.shared.archive.FlightArchiver;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class FlightArchiveTests {
+
+    private final static String flightsEndpoint = "/flights";
+    private final static String archivedFlightsEndpoint = "/archived-flights";
+    private final static String passengersEndpoint = "/passengers";
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private FlightArchiver flightArchiver;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private ArchivedFlightRepository archivedFlightRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        archivedFlightRepository.deleteAll();
+        flightRepository.deleteAll();
+        passengerRepository.deleteAll();
+    }
+
+    @Test
+    public void givenDepartedFlightWithPassenger_whenArchive_thenMovedToArchive() throws Exception {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT100", LocalDateTime.now().minusDays(2), 100, List.of("WAW", "JFK")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT200", LocalDateTime.now().plusDays(2), 100, List.of("WAW", "CDG")));
+        final var passenger = passengerRepository.save(Passenger.builder()
+            .passengerId(UUID.randomUUID())
+            .firstName("John")
+            .lastName("Doe")
+            .phoneNumber(PhoneNumber.builder().countryCode("+48").phoneNumber("123456789").build())
+            .build());
+        flightUseCases.addPassengerToFlight("LOT100", passenger.getPassengerId());
+
+        // when
+        final var archived = flightArchiver.archiveDepartedFlights();
+
+        // then
+        assertThat(archived).isEqualTo(1);
+        mockMvc.perform(get(flightsEndpoint + "/LOT100"))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get(flightsEndpoint))
+            .andExpect(jsonPath("$.totalElements").value(1))
+            .andExpect(jsonPath("$.content[0].flightNumber").value("LOT200"));
+        mockMvc.perform(get(archivedFlightsEndpoint + "/LOT100"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].route[1]").value("JFK"))
+            .andExpect(jsonPath("$.content[0].availableSeats").value(99))
+            .andExpect(jsonPath("$.content[0].passengers[0].passengerId").value(passenger.getPassengerId().toString()));
+        mockMvc.perform(delete(passengersEndpoint + "/" + passenger.getPassengerId()))
+            .andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void givenRouteRowsMovedOnDisk_whenArchive_thenRouteKeepsItsOrder() throws Exception {
+        // given
+        final var flight = flightUseCases.createFlight(new CreateFlightRequest("LOT300", LocalDateTime.now().minusDays(2), 100, List.of("WAW", "KRK", "JFK")));
+        // An update writes a new row version, behind the other stops of the route
+        jdbcTemplate.update("UPDATE flight_route SET city_id = city_id WHERE flight_id = ? AND route_order = 0", flight.getId());
+
+        // when
+        flightArchiver.archiveDepartedFlights();
+
+        // then
+        mockMvc.perform(get(archivedFlightsEndpoint + "/LOT300"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].route").value(contains("WAW", "KRK", "JFK")));
+    }
+}
@@ -17,6 +17,7 @@ import pw.ee.lot.domain.PhoneNumber;
 import pw.ee.lot.domain.repository.FlightRepository;
 import pw.ee.lot.domain.repository.PassengerRepository;
 import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.dto.flight.SeatMapRequest;
 import pw.ee.lot.service.FlightUseCases;
 
 import java.time.LocalDateTime;
@@ -24,6 +25,7 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static pw.ee.lot.SqlStatementMatchers.maxSqlStatements;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -72,7 +74,8 @@ public class FlightModuleTests {
 
         // when and then
         mockMvc.perform(get(flightsEndpoint + "/" + flight.getFlightNumber()))
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(maxSqlStatements(3));
         assertThat(flightRepository.findByFlightNumber(flight.getFlightNumber())).isNotEmpty();
     }
 
@@ -277,6 +280,38 @@ public class FlightModuleTests {
             .isEqualTo(availableSeats);
     }
 
+    @Test
+    public void givenUsedIdempotencyKey_whenAddPassengerOnDifferentSeat_thenReturnHttpUnprocessableEntity() throws Exception {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT123", LocalDateTime.now().plusDays(1), 24, List.of("WAW", "JFK"),
+            new SeatMapRequest(4, "ABC-DEF", 1)));
+        final var passengerId = createPassenger();
+        mockMvc.perform(post(flightsEndpoint + "/LOT123/" + passengerId + "?seat=1A")
+                .header("Idempotency-Key", "book-once"))
+            .andExpect(status().isNoContent());
+
+        // when and then
+        mockMvc.perform(post(flightsEndpoint + "/LOT123/" + passengerId + "?seat=1B")
+                .header("Idempotency-Key", "book-once"))
+            .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    public void givenRequestFailedWithNotFound_whenRetriedWithIdempotencyKey_thenRunAgain() throws Exception {
+        // given
+        final var passengerId = createPassenger();
+        mockMvc.perform(post(flightsEndpoint + "/LOT123/" + passengerId)
+                .header("Idempotency-Key", "book-later"))
+            .andExpect(status().isNotFound());
+        flightUseCases.createFlight(new CreateFlightRequest("LOT123", LocalDateTime.now().plusDays(1), 100, List.of("WAW", "JFK")));
+
+        // when and then
+        mockMvc.perform(post(flightsEndpoint + "/LOT123/" + passengerId)
+                .header("Idempotency-Key", "book-later"))
+            .andExpect(status().isNoContent());
+        assertThat(flightRepository.findByFlightNumber("LOT123").get().getAvailableSeats()).isEqualTo(99);
+    }
+
     @Test
     public void givenWrongFlightNumber_whenAddPassengerToFlight_thenReturnHttpNotFound() throws Exception {
         // given
@@ -332,4 +367,13 @@ public class FlightModuleTests {
         mockMvc.perform(delete(flightsEndpoint + "/" + flight.getFlightNumber() + "/" + passengerId))
             .andExpect(status().isNotFound());
     }
+
+    private UUID createPassenger() {
+        return passengerRepository.save(Passenger.builder()
+            .passengerId(UUID.randomUUID())
+            .firstName("John")
+            .lastName("Smith")
+            .phoneNumber(PhoneNumber.builder().countryCode("48").phoneNumber("123456789").build())
+            .build()).getPassengerId();
+    }
 }
@@ -0,0 +1,70 @@
+package pw.ee.lot;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.service.FlightUseCases;
+import pw.ee.lot.shared.bloom.FlightNumberFilter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class FlightNumberFilterTests {
+
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private FlightNumberFilter flightNumberFilter;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+        flightUseCases.createFlight(new CreateFlightRequest("LOT100", LocalDateTime.now().plusDays(1), 100, List.of("WAW", "JFK")));
+        flightNumberFilter.rebuild();
+    }
+
+    @Test
+    public void givenBuiltFilter_whenCreateNewFlight_thenUniquenessQuerySkipped() {
+        // given
+        final var skipped = skippedChecks();
+
+        // when
+        flightUseCases.createFlight(new CreateFlightRequest("LOT101", LocalDateTime.now().plusDays(1), 100, List.of("WAW", "CDG")));
+
+        // then
+        assertThat(skippedChecks()).isEqualTo(skipped + 1);
+        assertThat(flightNumberFilter.mightExist("LOT101")).isTrue();
+    }
+
+    @Test
+    public void givenBuiltFilter_whenCreateExistingFlight_thenRejected() {
+        // given
+        final var request = new CreateFlightRequest("LOT100", LocalDateTime.now().plusDays(1), 100, List.of("WAW", "JFK"));
+
+        // when and then
+        assertThatThrownBy(() -> flightUseCases.createFlight(request))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("already exists");
+        assertThat(meterRegistry.get("lot.flight-numbers.filter.memory").gauge().value()).isPositive();
+    }
+
+    private double skippedChecks() {
+        return meterRegistry.get("lot.flight-numbers.filter.skipped").counter().count();
+    }
+}
@@ -0,0 +1,136 @@
+package pw.ee.lot;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.Flight;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.PhoneNumber;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.FlightSearchViewRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.service.FlightUseCases;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class FlightSearchReadModelTests {
+
+    private final static String flightsEndpoint = "/flights";
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private FlightSearchViewRepository flightSearchViewRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+        passengerRepository.deleteAll();
+    }
+
+    @Test
+    public void givenCreatedFlight_whenSearchByCity_thenReturnFlightFromReadModel() throws Exception {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT123", LocalDateTime.now().plusDays(1), 100, List.of("WAW", "JFK")));
+
+        // when and then
+        mockMvc.perform(get(flightsEndpoint + "/search").param("city", "JFK"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(1))
+            .andExpect(jsonPath("$.content[0].route[0]").value("WAW"))
+            .andExpect(jsonPath("$.content[0].route[1]").value("JFK"));
+        mockMvc.perform(get(flightsEndpoint + "/search").param("city", "JF"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(0));
+        assertThat(meterRegistry.get("lot.readmodel.lag").timer().count()).isPositive();
+    }
+
+    @Test
+    public void givenBookedPassenger_whenGetFlights_thenReturnRemainingSeats() throws Exception {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT123", LocalDateTime.now().plusDays(1), 100, List.of("WAW", "JFK")));
+        final var passenger = passengerRepository.save(Passenger.builder()
+            .passengerId(UUID.randomUUID())
+            .firstName("John")
+            .lastName("Doe")
+            .phoneNumber(PhoneNumber.builder().countryCode("+48").phoneNumber("123456789").build())
+            .build());
+
+        // when
+        flightUseCases.addPassengerToFlight("LOT123", passenger.getPassengerId());
+
+        // then
+        mockMvc.perform(get(flightsEndpoint))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].availableSeats").value(99));
+    }
+
+    @Test
+    public void givenFlightSavedAroundUseCases_whenReconcile_thenFlightIsSearchable() throws Exception {
+        // given
+        flightRepository.save(Flight.builder()
+            .flightNumber("LOT123")
+            .departureTime(LocalDateTime.now().plusDays(1))
+            .availableSeats(100)
+            .route(List.of("WAW", "JFK"))
+            .build());
+        mockMvc.perform(get(flightsEndpoint + "/search").param("flightNumber", "LOT"))
+            .andExpect(jsonPath("$.totalElements").value(0));
+
+        // when
+        final var corrected = transactionTemplate.execute(status -> flightSearchViewRepository.reconcile());
+
+        // then
+        assertThat(corrected).isEqualTo(1);
+        mockMvc.perform(get(flightsEndpoint + "/search").param("flightNumber", "LOT"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(1))
+            .andExpect(jsonPath("$.content[0].route[1]").value("JFK"));
+    }
+
+    @Test
+    public void givenFlightChangedAroundUseCases_whenProjectTwice_thenRowChangedOnce() throws Exception {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT123", LocalDateTime.now().plusDays(1), 100, List.of("WAW", "JFK")));
+        final var flight = flightRepository.findByFlightNumber("LOT123").orElseThrow();
+        transactionTemplate.executeWithoutResult(status -> flightRepository.findById(flight.getId()).orElseThrow().setAvailableSeats(42));
+
+        // when
+        final var first = transactionTemplate.execute(status -> flightSearchViewRepository.project(flight.getId()));
+        final var second = transactionTemplate.execute(status -> flightSearchViewRepository.project(flight.getId()));
+
+        // then
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isZero();
+        assertThat(meterRegistry.get("lot.readmodel.staleness").gauge().value()).isZero();
+        mockMvc.perform(get(flightsEndpoint + "/search").param("flightNumber", "LOT123"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].availableSeats").value(42));
+    }
+}
@@ -0,0 +1,99 @@
+package pw.ee.lot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.service.FlightUseCases;
+import pw.ee.lot.shared.cache.CacheNames;
+import pw.ee.lot.shared.hotkeys.HotFlightTracker;
+import pw.ee.lot.shared.hotkeys.HotKey;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "lot.hot-flights.cache-enabled=true",
+    "lot.hot-flights.min-hits=3",
+    "lot.hot-flights.warm-interval=PT0.1S"
+})
+@ActiveProfiles("test")
+public class HotFlightCacheTests {
+
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private HotFlightTracker hotFlightTracker;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+        passengerRepository.deleteAll();
+        cacheManager.getCache(CacheNames.FLIGHT_DETAILS).clear();
+    }
+
+    @Test
+    public void givenFlightReadRepeatedly_whenBecomesHot_thenDetailsCached() {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT100", LocalDateTime.now().plusDays(1), 100, List.of("WAW", "JFK")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT200", LocalDateTime.now().plusDays(1), 100, List.of("WAW", "CDG")));
+        final var cache = cacheManager.getCache(CacheNames.FLIGHT_DETAILS);
+
+        // when
+        flightUseCases.getFlight("LOT100");
+        flightUseCases.getFlight("LOT100");
+        final var cachedBeforeHot = cache.get("LOT100") != null;
+        flightUseCases.getFlight("LOT100");
+        flightUseCases.getFlight("LOT200");
+
+        // then
+        assertThat(cachedBeforeHot).isFalse();
+        assertThat(hotFlightTracker.isHot("LOT100")).isTrue();
+        assertThat(cache.get("LOT100")).isNotNull();
+        assertThat(cache.get("LOT200")).isNull();
+    }
+
+    @Test
+    public void givenHotFlightEvicted_whenWarmUp_thenDetailsCachedAgainWithoutCountingAccesses() throws InterruptedException {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT300", LocalDateTime.now().plusDays(1), 100, List.of("WAW", "JFK")));
+        for (int i = 0; i < 3; i++) {
+            flightUseCases.getFlight("LOT300");
+        }
+        final var accesses = estimatedAccessesOf("LOT300");
+        final var cache = cacheManager.getCache(CacheNames.FLIGHT_DETAILS);
+
+        // when
+        cache.evict("LOT300");
+
+        // then
+        final var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (cache.get("LOT300") == null) {
+            assertThat(System.nanoTime() - deadline).as("hot flight warmed").isNegative();
+            Thread.sleep(50);
+        }
+        assertThat(estimatedAccessesOf("LOT300")).isEqualTo(accesses);
+    }
+
+    private long estimatedAccessesOf(String flightNumber) {
+        return hotFlightTracker.hotFlights().stream()
+            .filter(hotFlight -> hotFlight.key().equals(flightNumber))
+            .mapToLong(HotKey::estimatedCount)
+            .findFirst()
+            .orElse(0);
+    }
+}
@@ -0,0 +1,32 @@
+package pw.ee.lot;
+
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The flight module tests against the in-memory storage engine.
+ */
+@ActiveProfiles("in-memory")
+public class InMemoryFlightModuleTests extends FlightModuleTests {
+
+    private final static Path storeDirectory = createStoreDirectory();
+
+    @DynamicPropertySource
+    static void inMemoryProperties(DynamicPropertyRegistry registry) {
+        registry.add("lot.in-memory.directory", storeDirectory::toString);
+    }
+
+    private static Path createStoreDirectory() {
+        try {
+            return Files.createTempDirectory("lot-in-memory");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package pw.ee.lot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.service.FlightUseCases;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The features the in-memory storage engine cannot run are disabled: their requests are refused without touching the
+ * flights, and the service does not start with them enabled.
+ */
+@SpringBootTest
+@ActiveProfiles({"test", "in-memory"})
+@AutoConfigureMockMvc
+public class InMemoryStorageTests {
+
+    private final static String flightsEndpoint = "/flights";
+    private final static Path storeDirectory = createStoreDirectory();
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @DynamicPropertySource
+    static void inMemoryProperties(DynamicPropertyRegistry registry) {
+        registry.add("lot.in-memory.directory", storeDirectory::toString);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+        flightUseCases.createFlight(new CreateFlightRequest("LOT100", LocalDateTime.now().plusDays(1), 10, List.of("WAW", "JFK")));
+    }
+
+    @Test
+    public void givenInMemoryStorage_whenHoldSeat_thenReturnHttpNotImplementedAndSeatsKept() throws Exception {
+        // when and then
+        mockMvc.perform(post(flightsEndpoint + "/LOT100/holds")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+            .andExpect(status().isNotImplemented());
+        assertThat(flightUseCases.getFlight("LOT100").availableSeats()).isEqualTo(10);
+    }
+
+    @Test
+    public void givenInMemoryStorage_whenCancelFlight_thenReturnHttpNotImplementedAndFlightKept() throws Exception {
+        // when and then
+        mockMvc.perform(post(flightsEndpoint + "/LOT100/cancel")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+            .andExpect(status().isNotImplemented());
+        assertThat(flightRepository.existsByFlightNumber("LOT100")).isTrue();
+    }
+
+    @Test
+    public void givenInMemoryStorage_whenBulkDelete_thenReturnHttpNotImplementedAndFlightKept() throws Exception {
+        // when and then
+        mockMvc.perform(post(flightsEndpoint + "/bulk/delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"filter\": {\"city\": \"JFK\"}}"))
+            .andExpect(status().isNotImplemented());
+        assertThat(flightRepository.existsByFlightNumber("LOT100")).isTrue();
+    }
+
+    @Test
+    public void givenSeatHoldsEnabled_whenStartApplication_thenFail() {
+        // given
+        final var application = new SpringApplicationBuilder(LotApplication.class)
+            .profiles("test", "in-memory")
+            .properties("lot.holds.enabled=true", "lot.in-memory.directory=" + storeDirectory.resolve("holds"),
+                "spring.main.web-application-type=none");
+
+        // when and then
+        assertThatThrownBy(() -> application.run().close())
+            .hasStackTraceContaining("The in-memory storage engine cannot run with lot.holds.enabled");
+    }
+
+    private static Path createStoreDirectory() {
+        try {
+            return Files.createTempDirectory("lot-in-memory");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package pw.ee.lot;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.dto.flight.FlightSearchCriteria;
+import pw.ee.lot.dto.passenger.CreatePassengerRequest;
+import pw.ee.lot.service.FlightUseCases;
+import pw.ee.lot.service.PassengerUseCases;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.security.user.password=" + JfrRecordingEndpointTests.PASSWORD
+})
+@ActiveProfiles("test")
+public class JfrRecordingEndpointTests {
+
+    static final String PASSWORD = "secret";
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    @LocalManagementPort
+    private int managementPort;
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private PassengerUseCases passengerUseCases;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+        passengerRepository.deleteAll();
+    }
+
+    @Test
+    public void givenOperator_whenRecordWhileBooking_thenReturnRecordingWithCustomEvents() throws Exception {
+        // given
+        flightUseCases.createFlight(new CreateFlightRequest("LOT100", LocalDateTime.now().plusDays(1), 100, List.of("WAW", "JFK")));
+        final var passenger = passengerUseCases.createPassenger(new CreatePassengerRequest("John", "Doe", "+48", "123456789"));
+        final var recording = httpClient.sendAsync(record("{\"seconds\": 3}"), HttpResponse.BodyHandlers.ofByteArray());
+        awaitRecording();
+
+        // when
+        flightUseCases.searchFlights(PageRequest.of(0, 10), new FlightSearchCriteria("LOT", null, null, null, null));
+        flightUseCases.addPassengerToFlight("LOT100", passenger.getPassengerId());
+        final var response = recording.get();
+
+        // then
+        assertThat(response.statusCode()).isEqualTo(200);
+        final var file = Files.createTempFile("lot-test-", ".jfr");
+        try {
+            Files.write(file, response.body());
+            assertThat(RecordingFile.readAllEvents(file))
+                .extracting(RecordedEvent::getEventType)
+                .extracting(EventType::getName)
+                .contains("pw.ee.lot.FlightSearch", "pw.ee.lot.Mapping", "pw.ee.lot.SeatClaim");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void givenRecordingRunning_whenRecordAgain_thenReturnTooManyRequests() throws Exception {
+        // given
+        final var running = httpClient.sendAsync(record("{\"seconds\": 2}"), HttpResponse.BodyHandlers.discarding());
+        awaitRecording();
+
+        // when
+        final var response = httpClient.send(record("{\"seconds\": 1}"), HttpResponse.BodyHandlers.discarding());
+
+        // then
+        assertThat(response.statusCode()).isEqualTo(429);
+        assertThat(running.get().statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    public void givenNoCredentials_whenRecord_thenReturnUnauthorized() throws Exception {
+        // given
+        final var request = HttpRequest.newBuilder(jfrEndpoint())
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"seconds\": 1}"))
+            .build();
+
+        // when
+        final var response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+
+        // then
+        assertThat(response.statusCode()).isEqualTo(401);
+    }
+
+    @Test
+    public void givenWrongPassword_whenRecord_thenReturnUnauthorized() throws Exception {
+        // given
+        final var request = HttpRequest.newBuilder(jfrEndpoint())
+            .header("Authorization", basic("ops", "wrong"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"seconds\": 1}"))
+            .build();
+
+        // when
+        final var response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+
+        // then
+        assertThat(response.statusCode()).isEqualTo(401);
+    }
+
+    @Test
+    public void givenOperator_whenGetRecording_thenReturnMethodNotAllowed() throws Exception {
+        // given
+        final var request = HttpRequest.newBuilder(jfrEndpoint())
+            .header("Authorization", basic("ops", PASSWORD))
+            .GET()
+            .build();
+
+        // when
+        final var response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+
+        // then
+        assertThat(response.statusCode()).isEqualTo(405);
+    }
+
+    private HttpRequest record(String body) {
+        return HttpRequest.newBuilder(jfrEndpoint())
+            .header("Authorization", basic("ops", PASSWORD))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    private URI jfrEndpoint() {
+        return URI.create("http://localhost:" + managementPort + "/actuator/jfr");
+    }
+
+    private static String basic(String user, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Waits until the endpoint has started its recording, so the events that follow are part of it.
+     */
+    private static void awaitRecording() throws InterruptedException {
+        final var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (FlightRecorder.getFlightRecorder().getRecordings().stream()
+            .noneMatch(recording -> recording.getName().equals("lot-on-demand") && recording.getState() == RecordingState.RUNNING)) {
+            assertThat(System.nanoTime() - deadline).as("recording started").isNegative();
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package pw.ee.lot;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import pw.ee.lot.domain.Flight;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class MetricsModuleTests {
+
+    private final static String flightsEndpoint = "/flights";
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+        passengerRepository.deleteAll();
+    }
+
+    @Test
+    public void givenFlightNumber_whenGetFlight_thenRecordSuccessfulUseCase() throws Exception {
+        // given
+        Flight flight = Flight.builder()
+            .flightNumber("LOT123")
+            .departureTime(LocalDateTime.now())
+            .availableSeats(100)
+            .route(List.of("WAW", "JFK"))
+            .build();
+        flightRepository.save(flight);
+
+        // when
+        mockMvc.perform(get(flightsEndpoint + "/" + flight.getFlightNumber()))
+            .andExpect(status().isOk());
+
+        // then
+        assertThat(meterRegistry.find("lot.usecase")
+            .tags("use.case", "FlightUseCases", "method", "getFlight", "outcome", "success")
+            .timer())
+            .isNotNull()
+            .satisfies(timer -> assertThat(timer.count()).isPositive());
+    }
+
+    @Test
+    public void givenWrongFlightNumber_whenGetFlight_thenRecordNotFoundUseCase() throws Exception {
+        // given
+        String wrongFlightNumber = "WRONG_ID";
+
+        // when
+        mockMvc.perform(get(flightsEndpoint + "/" + wrongFlightNumber))
+            .andExpect(status().isNotFound());
+
+        // then
+        assertThat(meterRegistry.find("lot.usecase")
+            .tags("use.case", "FlightUseCases", "method", "getFlight", "outcome", "not_found")
+            .timer())
+            .isNotNull();
+    }
+
+    @Test
+    public void givenNearlyFullFlight_whenReadGauge_thenCountIt() {
+        // given
+        Flight flight = Flight.builder()
+            .flightNumber("LOT123")
+            .departureTime(LocalDateTime.now().plusDays(1))
+            .availableSeats(1)
+            .route(List.of("WAW", "JFK"))
+            .build();
+        flightRepository.save(flight);
+
+        // when and then
+        assertThat(meterRegistry.get("lot.flights.nearly.full").gauge().value())
+            .isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,126 @@
+package pw.ee.lot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import pw.ee.lot.shared.id.UuidV7;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the passenger key layouts behind {@code V6__passenger_uuid_key.sql} on PostgreSQL: the former surrogate
+ * {@code BIGINT} key with a unique random UUID, a random UUID key and the time-ordered UUID key passengers have now.
+ * Each layout gets the same inserts, in batches like a busy booking day, and the same lookups by UUID, which is how
+ * the API finds passengers. Run with {@code ./gradlew benchmark}; the figures are logged, only the index sizes are
+ * asserted, as timings depend on the machine.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+public class PassengerKeyBenchmarkTests {
+
+    private static final int PASSENGERS = 200_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final int LOOKUPS = 20_000;
+    private static final int WARMUP_ROUNDS = 1;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        for (Layout layout : Layout.values()) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + layout.table);
+        }
+    }
+
+    @Test
+    public void givenPassengerKeyLayouts_whenInsertAndLookUp_thenTimeOrderedKeyIndexIsSmallest() {
+        // given
+        final var results = new ArrayList<Result>();
+
+        // when
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            results.clear();
+            for (Layout layout : Layout.values()) {
+                results.add(run(layout));
+            }
+        }
+
+        // then
+        results.forEach(result -> log.info("{}: {} inserts/s, {} lookups/s, UUID index {} kB",
+            result.layout(), result.insertsPerSecond(), result.lookupsPerSecond(), result.uuidIndexBytes() / 1024));
+        final var timeOrdered = results.get(Layout.UUID_V7_KEY.ordinal());
+        final var random = results.get(Layout.UUID_V4_KEY.ordinal());
+        assertThat(timeOrdered.uuidIndexBytes()).isLessThan(random.uuidIndexBytes());
+    }
+
+    private Result run(Layout layout) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + layout.table);
+        jdbcTemplate.execute("CREATE TABLE " + layout.table + " (" + layout.columns + ", first_name VARCHAR(255), last_name VARCHAR(255))");
+
+        final var ids = new ArrayList<UUID>(PASSENGERS);
+        final var insertStart = System.nanoTime();
+        for (int from = 0; from < PASSENGERS; from += BATCH_SIZE) {
+            final var batch = new ArrayList<Object[]>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                final var id = layout.ids.get();
+                ids.add(id);
+                batch.add(new Object[]{id, "John", "Doe"});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO " + layout.table + " (passenger_id, first_name, last_name) VALUES (?, ?, ?)", batch);
+        }
+        final var insertNanos = System.nanoTime() - insertStart;
+
+        final var random = new Random(42);
+        final var lookupStart = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            jdbcTemplate.queryForObject("SELECT first_name FROM " + layout.table + " WHERE passenger_id = ?", String.class,
+                ids.get(random.nextInt(ids.size())));
+        }
+        final var lookupNanos = System.nanoTime() - lookupStart;
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM " + layout.table, Long.class)).isEqualTo(PASSENGERS);
+        final var indexBytes = jdbcTemplate.queryForObject("""
+            SELECT pg_relation_size(i.indexrelid)
+            FROM pg_index i
+                     JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = ANY (i.indkey)
+            WHERE i.indrelid = ?::regclass AND a.attname = 'passenger_id'
+            """, Long.class, layout.table);
+        return new Result(layout, perSecond(PASSENGERS, insertNanos), perSecond(LOOKUPS, lookupNanos), indexBytes);
+    }
+
+    private static long perSecond(int operations, long nanos) {
+        return operations * TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos);
+    }
+
+    private enum Layout {
+        BIGINT_KEY("bench_passenger_bigint", "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, passenger_id UUID NOT NULL UNIQUE", UUID::randomUUID),
+        UUID_V4_KEY("bench_passenger_uuid_v4", "passenger_id UUID PRIMARY KEY", UUID::randomUUID),
+        UUID_V7_KEY("bench_passenger_uuid_v7", "passenger_id UUID PRIMARY KEY", UuidV7::generate);
+
+        private final String table;
+        private final String columns;
+        private final Supplier<UUID> ids;
+
+        Layout(String table, String columns, Supplier<UUID> ids) {
+            this.table = table;
+            this.columns = columns;
+            this.ids = ids;
+        }
+    }
+
+    private record Result(Layout layout, long insertsPerSecond, long lookupsPerSecond, long uuidIndexBytes) {
+    }
+}
@@ -19,7 +19,9 @@ import pw.ee.lot.dto.passenger.CreatePassengerRequest;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static pw.ee.lot.SqlStatementMatchers.maxSqlStatements;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -67,7 +69,8 @@ public class PassengerModuleTests {
 
         // when and then
         mockMvc.perform(get(passengersEndpoint + "/" + passenger.getPassengerId().toString()))
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(maxSqlStatements(2));
     }
 
     @Test
@@ -87,6 +90,103 @@ public class PassengerModuleTests {
             .andExpect(status().isCreated());
     }
 
+    @Test
+    public void givenCreatePassengerRequest_whenCreatePassenger_thenTimeOrderedIdInsertedWithoutLookup() throws Exception {
+        // given
+        CreatePassengerRequest createPassengerRequest = new CreatePassengerRequest(
+            "John",
+            "Smith",
+            "48",
+            "123456789"
+        );
+
+        // when
+        final var location = mockMvc.perform(post(passengersEndpoint)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ow.writeValueAsString(createPassengerRequest)))
+            .andExpect(status().isCreated())
+            .andExpect(maxSqlStatements(1))
+            .andReturn().getResponse().getHeader("Location");
+
+        // then
+        final var passengerId = UUID.fromString(location.substring(location.lastIndexOf('/') + 1));
+        assertThat(passengerId.version()).isEqualTo(7);
+        assertThat(passengerRepository.findById(passengerId)).isPresent();
+    }
+
+    @Test
+    public void givenIdempotencyKey_whenCreatePassengerRetried_thenFirstResponseReplayed() throws Exception {
+        // given
+        CreatePassengerRequest createPassengerRequest = new CreatePassengerRequest(
+            "John",
+            "Smith",
+            "48",
+            "123456789"
+        );
+        final var location = mockMvc.perform(post(passengersEndpoint)
+                .header("Idempotency-Key", "create-john")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ow.writeValueAsString(createPassengerRequest)))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getHeader("Location");
+
+        // when and then
+        mockMvc.perform(post(passengersEndpoint)
+                .header("Idempotency-Key", "create-john")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ow.writeValueAsString(createPassengerRequest)))
+            .andExpect(status().isCreated())
+            .andExpect(header().string("Location", location))
+            .andExpect(header().string("Idempotent-Replayed", "true"))
+            .andExpect(maxSqlStatements(0));
+        assertThat(passengerRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenUsedIdempotencyKey_whenCreateDifferentPassenger_thenReturnHttpUnprocessableEntity() throws Exception {
+        // given
+        mockMvc.perform(post(passengersEndpoint)
+                .header("Idempotency-Key", "create-once")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ow.writeValueAsString(new CreatePassengerRequest("John", "Smith", "48", "123456789"))))
+            .andExpect(status().isCreated());
+
+        // when and then
+        mockMvc.perform(post(passengersEndpoint)
+                .header("Idempotency-Key", "create-once")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ow.writeValueAsString(new CreatePassengerRequest("Jane", "Smith", "48", "123456789"))))
+            .andExpect(status().isUnprocessableEntity());
+        assertThat(passengerRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenKeyUsedByAnotherClient_whenCreatePassengerWithoutClientId_thenCreatedForEachClient() throws Exception {
+        // given
+        mockMvc.perform(post(passengersEndpoint)
+                .with(request -> {
+                    request.setRemoteAddr("10.0.0.1");
+                    return request;
+                })
+                .header("Idempotency-Key", "create-per-client")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ow.writeValueAsString(new CreatePassengerRequest("John", "Smith", "48", "123456789"))))
+            .andExpect(status().isCreated());
+
+        // when and then
+        mockMvc.perform(post(passengersEndpoint)
+                .with(request -> {
+                    request.setRemoteAddr("10.0.0.2");
+                    return request;
+                })
+                .header("Idempotency-Key", "create-per-client")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ow.writeValueAsString(new CreatePassengerRequest("Jane", "Smith", "48", "987654321"))))
+            .andExpect(status().isCreated())
+            .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        assertThat(passengerRepository.count()).isEqualTo(2);
+    }
+
     @Test
     public void givenUpdatePassengerRequest_whenUpdatePassenger_thenReturnHttpNoContent() throws Exception {
         // given
@@ -121,7 +221,7 @@ public class PassengerModuleTests {
                 .content(ow.writeValueAsString(updatePassengerRequest)))
             .andExpect(status().isNoContent());
 
-        final Passenger updatedPassenger = passengerRepository.findByPassengerId(passenger.getPassengerId()).get();
+        final Passenger updatedPassenger = passengerRepository.findById(passenger.getPassengerId()).get();
         assertThat(updatedPassenger.getFirstName()).isEqualTo(updatedFirstName);
         assertThat(updatedPassenger.getLastName()).isEqualTo(updatedLastName);
         assertThat(updatedPassenger.getPhoneNumber().getCountryCode()).isEqualTo(updatedCountryCode);
@@ -147,7 +247,7 @@ public class PassengerModuleTests {
         // when and then
         mockMvc.perform(delete(passengersEndpoint + "/" + passenger.getPassengerId().toString()))
             .andExpect(status().isNoContent());
-        assertThat(passengerRepository.findByPassengerId(passenger.getPassengerId())).isEmpty();
+        assertThat(passengerRepository.findById(passenger.getPassengerId())).isEmpty();
     }
 
     @Test
@@ -0,0 +1,123 @@
+package pw.ee.lot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.interceptor.CacheInterceptor;
+import org.springframework.core.Ordered;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.dto.flight.UpdateFlightRequest;
+import pw.ee.lot.service.FlightUseCases;
+import pw.ee.lot.shared.collapsing.SingleFlight;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ReadCollapsingTests {
+
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+        flightUseCases.createFlight(new CreateFlightRequest("LOT100", LocalDateTime.now().plusDays(1), 100, List.of("WAW", "JFK")));
+    }
+
+    @Test
+    public void givenRunningCall_whenSameKeyCalled_thenSharesItsResult() throws Exception {
+        // given
+        final var singleFlight = new SingleFlight<String, Integer>();
+        final var loads = new AtomicInteger();
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var first = CompletableFuture.supplyAsync(() -> singleFlight.execute("LOT100", () -> {
+            started.countDown();
+            await(release);
+            return loads.incrementAndGet();
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        // when
+        final var second = CompletableFuture.supplyAsync(() -> singleFlight.execute("LOT100", loads::incrementAndGet));
+        Thread.sleep(100);
+        release.countDown();
+
+        // then
+        assertThat(first.get().value()).isEqualTo(1);
+        assertThat(second.get().value()).isEqualTo(1);
+        assertThat(second.get().shared()).isTrue();
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    public void givenConcurrentReads_whenFlightUpdated_thenLaterReadsSeeTheUpdate() {
+        // given
+        final var executor = Executors.newFixedThreadPool(16);
+        final var reads = IntStream.range(0, 64)
+            .mapToObj(i -> CompletableFuture.supplyAsync(() -> flightUseCases.getFlight("LOT100"), executor))
+            .toList();
+
+        // when
+        flightUseCases.updateFlight("LOT100", new UpdateFlightRequest(null, null, null, 42));
+        final var afterUpdate = flightUseCases.getFlight("LOT100");
+        executor.shutdown();
+
+        // then
+        assertThat(afterUpdate.availableSeats()).isEqualTo(42);
+        reads.forEach(read -> assertThat(read.join().availableSeats()).isIn(100, 42));
+    }
+
+    @Test
+    public void givenFlightUseCasesProxy_whenListAdvisors_thenCollapsingRunsBeforeCachingBeforeTransactions() {
+        // given
+        final var advisors = List.of(((Advised) flightUseCases).getAdvisors());
+
+        // when
+        final var collapsing = orderOf(advisors, advisor -> advisor.getAdvice() instanceof AbstractAspectJAdvice advice
+            && advice.getAspectName().equals("readCollapsingAspect"));
+        final var caching = orderOf(advisors, advisor -> advisor.getAdvice() instanceof CacheInterceptor);
+        final var transactions = orderOf(advisors, advisor -> advisor.getAdvice() instanceof TransactionInterceptor);
+
+        // then
+        assertThat(collapsing).isLessThan(caching);
+        assertThat(caching).isLessThan(transactions);
+    }
+
+    private static int orderOf(List<Advisor> advisors, Predicate<Advisor> advisor) {
+        return advisors.stream()
+            .filter(advisor)
+            .map(found -> ((Ordered) found).getOrder())
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No such advisor among " + advisors));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
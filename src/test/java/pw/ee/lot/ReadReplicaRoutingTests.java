@@ -0,0 +1,114 @@
+package pw.ee.lot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.dto.flight.UpdateFlightRequest;
+import pw.ee.lot.service.FlightUseCases;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Uses a second, unreplicated database as the replica: data present only there proves a read was routed to it.
+ */
+@SpringBootTest(properties = {
+    "lot.read-replicas.enabled=true",
+    "lot.read-replicas.replicas[0].url=" + ReadReplicaRoutingTests.REPLICA_URL,
+    "lot.read-replicas.read-your-writes-window=1m"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class ReadReplicaRoutingTests {
+
+    static final String REPLICA_URL = "jdbc:tc:postgresql:latest:///replicadb?TC_DAEMON=true";
+    private final static String flightsEndpoint = "/flights";
+    private final static String clientIdHeader = "X-Client-Id";
+    private final ObjectWriter ow = new ObjectMapper().registerModule(new JavaTimeModule()).writer().withDefaultPrettyPrinter();
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL));
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @BeforeEach
+    public void setUp() {
+        Flyway.configure().dataSource(REPLICA_URL, "test", "test").load().migrate();
+        replica.update("DELETE FROM flight_route");
+        replica.update("DELETE FROM flight");
+        flightRepository.deleteAll();
+        passengerRepository.deleteAll();
+    }
+
+    @Test
+    public void givenFlightOnlyOnReplica_whenGetFlight_thenReadFromReplica() {
+        // given
+        replica.update("INSERT INTO flight (flight_number, departure_time, available_seats) VALUES ('REPL1', now(), 100)");
+
+        // when and then
+        assertThatCode(() -> flightUseCases.getFlight("REPL1"))
+            .doesNotThrowAnyException();
+        assertThatThrownBy(() -> flightUseCases.updateFlight("REPL1", new UpdateFlightRequest(null, null, null, 10)))
+            .isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    public void givenClientCreatedFlight_whenClientGetsFlight_thenReadFromPrimary() throws Exception {
+        // given
+        CreateFlightRequest createFlightRequest = new CreateFlightRequest(
+            "LOT123",
+            LocalDateTime.now(),
+            100,
+            List.of("WAW", "JFK")
+        );
+        mockMvc.perform(post(flightsEndpoint)
+                .header(clientIdHeader, "writer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ow.writeValueAsString(createFlightRequest)))
+            .andExpect(status().isCreated());
+
+        // when and then
+        mockMvc.perform(get(flightsEndpoint + "/LOT123").header(clientIdHeader, "writer"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get(flightsEndpoint + "/LOT123").header(clientIdHeader, "someone-else"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void givenShardingEnabledToo_whenStartApplication_thenFail() {
+        // given
+        final var application = new SpringApplicationBuilder(LotApplication.class)
+            .profiles("test")
+            .properties("lot.read-replicas.enabled=true", "lot.sharding.enabled=true", "spring.main.web-application-type=none");
+
+        // when and then
+        assertThatThrownBy(() -> application.run().close())
+            .hasStackTraceContaining("Read replicas cannot be enabled together with sharding");
+    }
+}
@@ -0,0 +1,99 @@
+package pw.ee.lot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.PhoneNumber;
+import pw.ee.lot.domain.repository.ArchivedFlightRepository;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.service.FlightUseCases;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "lot.rebooking.batch-size=2")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class RebookingTests {
+
+    private final static String flightsEndpoint = "/flights";
+    private final static LocalDateTime departure = LocalDateTime.of(2030, 1, 1, 12, 0);
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+    @Autowired
+    private ArchivedFlightRepository archivedFlightRepository;
+
+    @BeforeEach
+    public void setUp() {
+        archivedFlightRepository.deleteAll();
+        flightRepository.deleteAll();
+        passengerRepository.deleteAll();
+        flightUseCases.createFlight(new CreateFlightRequest("LOT100", departure, 10, List.of("WAW", "JFK")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT200", departure.plusHours(2), 2, List.of("WAW", "JFK")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT300", departure.plusHours(5), 3, List.of("WAW", "JFK")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT400", departure.plusHours(3), 10, List.of("WAW", "CDG")));
+        flightUseCases.createFlight(new CreateFlightRequest("LOT500", departure.plusDays(3), 10, List.of("WAW", "JFK")));
+    }
+
+    @Test
+    public void givenCancelledFlight_whenCancelFlight_thenPassengersRebookedOntoLaterFlightsOnRoute() throws Exception {
+        // given
+        final var passengerIds = List.of(createPassenger(), createPassenger(), createPassenger(), createPassenger(), createPassenger(), createPassenger());
+        passengerIds.forEach(passengerId -> flightUseCases.addPassengerToFlight("LOT100", passengerId));
+
+        // when
+        final var result = flightUseCases.cancelFlight("LOT100", Duration.ofHours(24));
+
+        // then
+        assertThat(result.rebooked()).hasSize(5);
+        assertThat(result.rebooked().values()).containsOnly("LOT200", "LOT300");
+        assertThat(result.unplaced()).hasSize(1);
+        assertThat(flightUseCases.getFlight("LOT200").availableSeats()).isZero();
+        assertThat(flightUseCases.getFlight("LOT300").availableSeats()).isZero();
+        assertThat(flightUseCases.getFlight("LOT400").availableSeats()).isEqualTo(10);
+        assertThat(flightRepository.existsByFlightNumber("LOT100")).isFalse();
+        mockMvc.perform(get("/archived-flights/LOT100"))
+            .andExpect(jsonPath("$.content[0].cancelled").value(true));
+    }
+
+    @Test
+    public void givenTooLongWindow_whenCancelFlight_thenRejectedAndFlightKept() throws Exception {
+        // when and then
+        mockMvc.perform(post(flightsEndpoint + "/LOT100/cancel")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"window\": \"P30D\"}"))
+            .andExpect(status().isBadRequest());
+        assertThat(flightRepository.existsByFlightNumber("LOT100")).isTrue();
+    }
+
+    private UUID createPassenger() {
+        return passengerRepository.save(Passenger.builder()
+            .passengerId(UUID.randomUUID())
+            .firstName("John")
+            .lastName("Doe")
+            .phoneNumber(PhoneNumber.builder().countryCode("+48").phoneNumber("123456789").build())
+            .build()).getPassengerId();
+    }
+}
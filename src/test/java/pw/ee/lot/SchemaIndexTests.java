@@ -0,0 +1,178 @@
+package pw.ee.lot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.dto.flight.FlightSearchCriteria;
+import pw.ee.lot.dto.passenger.CreatePassengerRequest;
+import pw.ee.lot.service.FlightUseCases;
+import pw.ee.lot.service.PassengerUseCases;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks with {@code EXPLAIN} that the statements issued by the repositories are served by an index. The statements
+ * are captured from the data source while the repositories run, so the plans are those of the SQL Hibernate
+ * generates, with the parameters it binds. Sequential scans are disabled for the session, as the planner would
+ * rightly prefer them on near-empty tables.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class SchemaIndexTests {
+
+    private static final LocalDateTime departureTime = LocalDateTime.of(2030, 6, 1, 12, 0);
+    @Autowired
+    private SqlStatementCapture sqlStatementCapture;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private PassengerUseCases passengerUseCases;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+    private UUID passengerId;
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+        passengerRepository.deleteAll();
+        flightUseCases.createFlight(new CreateFlightRequest("LOT123", departureTime, 100, List.of("WAW", "JFK")));
+        passengerId = passengerUseCases.createPassenger(new CreatePassengerRequest("John", "Doe", "+48", "123456789")).getPassengerId();
+        flightUseCases.addPassengerToFlight("LOT123", passengerId);
+    }
+
+    @Test
+    public void givenFlightNumber_whenFindByFlightNumber_thenUseIndex() {
+        assertThat(explain("flight", () -> flightRepository.findByFlightNumber("LOT123")))
+            .doesNotContain("Seq Scan")
+            .contains("Index");
+    }
+
+    @Test
+    public void givenFlightNumberPrefix_whenFilterFlights_thenUsePatternIndex() {
+        assertThat(explain("flight", () -> flightUseCases.deleteFlights(new FlightSearchCriteria("LOT", null, null, null, null), true)))
+            .doesNotContain("Seq Scan")
+            .contains("ix_flight_flight_number_pattern");
+    }
+
+    @Test
+    public void givenDepartureWindow_whenFilterFlights_thenUseCompositeIndex() {
+        final var filter = new FlightSearchCriteria(null, departureTime.minusHours(1), departureTime.plusHours(1), 2, null);
+        assertThat(explain("flight", () -> flightUseCases.deleteFlights(filter, true)))
+            .doesNotContain("Seq Scan")
+            .contains("ix_flight_departure_time_available_seats");
+    }
+
+    @Test
+    public void givenSeatThreshold_whenCountNearlyFullFlights_thenUseCompositeIndex() {
+        assertThat(explain("flight", () -> flightRepository.countByDepartureTimeAfterAndAvailableSeatsLessThanEqual(departureTime.minusDays(1), 10)))
+            .doesNotContain("Seq Scan")
+            .contains("ix_flight_departure_time_available_seats");
+    }
+
+    @Test
+    public void givenCity_whenFilterFlights_thenUseCityIndex() {
+        assertThat(explain("flight", () -> flightUseCases.deleteFlights(new FlightSearchCriteria(null, null, null, null, "WAW"), true)))
+            .doesNotContain("Seq Scan")
+            .contains("ix_flight_route_city_id");
+    }
+
+    @Test
+    public void givenFlightNumberPrefix_whenSearchReadModel_thenUsePatternIndex() {
+        assertThat(explain("flight_search_view", () -> flightUseCases.searchFlights(PageRequest.of(0, 20), new FlightSearchCriteria("LOT", null, null, null, null))))
+            .doesNotContain("Seq Scan")
+            .contains("ix_flight_search_view_flight_number_pattern");
+    }
+
+    @Test
+    public void givenDepartureWindow_whenSearchReadModel_thenUseCompositeIndex() {
+        final var criteria = new FlightSearchCriteria(null, departureTime.minusHours(1), departureTime.plusHours(1), 2, null);
+        assertThat(explain("flight_search_view", () -> flightUseCases.searchFlights(PageRequest.of(0, 20), criteria)))
+            .doesNotContain("Seq Scan")
+            .contains("ix_flight_search_view_departure_time_available_seats");
+    }
+
+    @Test
+    public void givenCity_whenSearchReadModel_thenUseTrigramIndex() {
+        assertThat(explain("flight_search_view", () -> flightUseCases.searchFlights(PageRequest.of(0, 20), new FlightSearchCriteria(null, null, null, null, "WAW"))))
+            .doesNotContain("Seq Scan")
+            .contains("ix_flight_search_view_route");
+    }
+
+    @Test
+    public void givenFlight_whenLoadRoute_thenUsePrimaryKey() {
+        assertThat(explain("flight_route", () -> transactionTemplate.executeWithoutResult(status ->
+            flightRepository.findByFlightNumber("LOT123").orElseThrow().getRoute().size())))
+            .doesNotContain("Seq Scan")
+            .contains("pk_flight_route");
+    }
+
+    @Test
+    public void givenPassengerId_whenFindById_thenUsePrimaryKey() {
+        assertThat(explain("passenger", () -> passengerRepository.findById(passengerId)))
+            .doesNotContain("Seq Scan")
+            .contains("passenger_pkey");
+    }
+
+    @Test
+    public void givenFlight_whenLoadPassengers_thenUsePrimaryKey() {
+        assertThat(explain("flight_passengers", () -> transactionTemplate.executeWithoutResult(status ->
+            flightRepository.findByFlightNumber("LOT123").orElseThrow().getPassengers().size())))
+            .doesNotContain("Seq Scan")
+            .contains("flight_passengers_pkey");
+    }
+
+    @Test
+    public void givenPassenger_whenLoadFlights_thenUseReverseJoinIndex() {
+        assertThat(explain("flight_passengers", () -> transactionTemplate.executeWithoutResult(status ->
+            passengerRepository.findById(passengerId).orElseThrow().getFlights().size())))
+            .doesNotContain("Seq Scan")
+            .contains("ix_flight_passengers_passengers_id");
+    }
+
+    /**
+     * Explains the first query the action runs that reads from the table.
+     */
+    private String explain(String table, Runnable action) {
+        final var reads = Pattern.compile("^\\s*select\\b.*\\b(from|join)\\s+" + table + "\\s", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+        final var statements = sqlStatementCapture.capture(action);
+        final var statement = statements.stream()
+            .filter(captured -> reads.matcher(captured.sql()).find())
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No query on " + table + " among " + statements));
+
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + statement.sql(), String.class, statement.parameters().toArray()));
+        });
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class SqlStatementCaptureConfig {
+
+        @Bean
+        SqlStatementCapture sqlStatementCapture() {
+            return new SqlStatementCapture();
+        }
+    }
+}
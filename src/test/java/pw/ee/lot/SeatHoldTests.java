@@ -0,0 +1,136 @@
+package pw.ee.lot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.PhoneNumber;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.domain.repository.SeatHoldRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.dto.flight.SeatMapRequest;
+import pw.ee.lot.service.FlightUseCases;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "lot.holds.tick=PT0.1S")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class SeatHoldTests {
+
+    private final static String flightsEndpoint = "/flights";
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+    @Autowired
+    private SeatHoldRepository seatHoldRepository;
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+        passengerRepository.deleteAll();
+        flightUseCases.createFlight(new CreateFlightRequest("LOT100", LocalDateTime.now().plusDays(1), 24, List.of("WAW", "JFK"),
+            new SeatMapRequest(4, "ABC-DEF", 1)));
+    }
+
+    @Test
+    public void givenHeldSeat_whenConfirmHold_thenPassengerBookedOnHeldSeat() throws Exception {
+        // given
+        final var passengerId = createPassenger();
+        final var hold = flightUseCases.holdSeat("LOT100", "2C", null);
+
+        // when and then
+        mockMvc.perform(get(flightsEndpoint + "/LOT100"))
+            .andExpect(jsonPath("$.availableSeats").value(23));
+        mockMvc.perform(post(flightsEndpoint + "/LOT100/" + createPassenger()).param("seat", "2C"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post(flightsEndpoint + "/LOT100/holds/" + hold.holdId() + "/confirm")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"passengerId\": \"" + passengerId + "\"}"))
+            .andExpect(status().isNoContent());
+        mockMvc.perform(get(flightsEndpoint + "/LOT100"))
+            .andExpect(jsonPath("$.availableSeats").value(23))
+            .andExpect(jsonPath("$.seats." + passengerId).value("2C"));
+        assertThat(seatHoldRepository.count()).isZero();
+    }
+
+    @Test
+    public void givenExpiredHoldNotReleasedYet_whenConfirmHold_thenRejected() throws Exception {
+        // given
+        final var passengerId = createPassenger();
+        final var hold = flightUseCases.holdSeat("LOT100", "2C", null);
+        final var expired = seatHoldRepository.findById(hold.holdId()).orElseThrow();
+        expired.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        seatHoldRepository.save(expired);
+
+        // when and then
+        mockMvc.perform(post(flightsEndpoint + "/LOT100/holds/" + hold.holdId() + "/confirm")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"passengerId\": \"" + passengerId + "\"}"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get(flightsEndpoint + "/LOT100"))
+            .andExpect(jsonPath("$.seats." + passengerId).doesNotExist());
+    }
+
+    @Test
+    public void givenShortHold_whenNotConfirmed_thenSeatReleased() throws Exception {
+        // given
+        mockMvc.perform(post(flightsEndpoint + "/LOT100/holds")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"seat\": \"1A\", \"ttl\": \"PT0.3S\"}"))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.seat").value("1A"));
+
+        // when
+        final var deadline = System.currentTimeMillis() + Duration.ofSeconds(10).toMillis();
+        while (seatHoldRepository.count() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        // then
+        assertThat(seatHoldRepository.count()).isZero();
+        mockMvc.perform(get(flightsEndpoint + "/LOT100/seats"))
+            .andExpect(jsonPath("$.freeSeats").value(24))
+            .andExpect(jsonPath("$.seats[0].taken").value(false));
+        mockMvc.perform(get(flightsEndpoint + "/LOT100"))
+            .andExpect(jsonPath("$.availableSeats").value(24));
+    }
+
+    @Test
+    public void givenTooLongHold_whenHoldSeat_thenRejected() throws Exception {
+        // when and then
+        mockMvc.perform(post(flightsEndpoint + "/LOT100/holds")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ttl\": \"PT2H\"}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private UUID createPassenger() {
+        return passengerRepository.save(Passenger.builder()
+            .passengerId(UUID.randomUUID())
+            .firstName("John")
+            .lastName("Doe")
+            .phoneNumber(PhoneNumber.builder().countryCode("+48").phoneNumber("123456789").build())
+            .build()).getPassengerId();
+    }
+}
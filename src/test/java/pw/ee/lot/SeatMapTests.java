@@ -0,0 +1,138 @@
+package pw.ee.lot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import pw.ee.lot.domain.Passenger;
+import pw.ee.lot.domain.PhoneNumber;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.dto.flight.SeatMapRequest;
+import pw.ee.lot.service.FlightUseCases;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class SeatMapTests {
+
+    private final static String flightsEndpoint = "/flights";
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+        passengerRepository.deleteAll();
+        flightUseCases.createFlight(new CreateFlightRequest("LOT100", LocalDateTime.now().plusDays(1), 24, List.of("WAW", "JFK"),
+            new SeatMapRequest(4, "ABC-DEF", 1)));
+    }
+
+    @Test
+    public void givenFreeSeat_whenClaimSeat_thenSeatTakenAndSecondClaimRejected() throws Exception {
+        // given
+        final var first = createPassenger();
+        final var second = createPassenger();
+
+        // when and then
+        mockMvc.perform(post(flightsEndpoint + "/LOT100/" + first).param("seat", "2C"))
+            .andExpect(status().isNoContent());
+        mockMvc.perform(post(flightsEndpoint + "/LOT100/" + second).param("seat", "2C"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get(flightsEndpoint + "/LOT100"))
+            .andExpect(jsonPath("$.seats." + first).value("2C"));
+        mockMvc.perform(get(flightsEndpoint + "/LOT100/seats"))
+            .andExpect(jsonPath("$.freeSeats").value(23))
+            .andExpect(jsonPath("$.seats[0].cabin").value("PREMIUM"))
+            .andExpect(jsonPath("$.seats[8].seat").value("2C"))
+            .andExpect(jsonPath("$.seats[8].taken").value(true));
+    }
+
+    @Test
+    public void givenGroup_whenAddGroupToFlight_thenSeatedNextToEachOther() throws Exception {
+        // given
+        mockMvc.perform(post(flightsEndpoint + "/LOT100/" + createPassenger()).param("seat", "1B"))
+            .andExpect(status().isNoContent());
+        final var group = List.of(createPassenger(), createPassenger(), createPassenger());
+
+        // when and then
+        mockMvc.perform(post(flightsEndpoint + "/LOT100/group")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"passengerIds\": [\"" + String.join("\", \"", group.stream().map(UUID::toString).toList()) + "\"]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.seats." + group.get(0)).value("1D"))
+            .andExpect(jsonPath("$.seats." + group.get(1)).value("1E"))
+            .andExpect(jsonPath("$.seats." + group.get(2)).value("1F"));
+    }
+
+    @Test
+    public void givenSeatedPassenger_whenRemovePassenger_thenSeatReleased() throws Exception {
+        // given
+        final var passengerId = createPassenger();
+        flightUseCases.addPassengerToFlight("LOT100", passengerId, "3A");
+
+        // when
+        mockMvc.perform(delete(flightsEndpoint + "/LOT100/" + passengerId))
+            .andExpect(status().isNoContent());
+
+        // then
+        mockMvc.perform(get(flightsEndpoint + "/LOT100/seats"))
+            .andExpect(jsonPath("$.freeSeats").value(24))
+            .andExpect(jsonPath("$.seats[12].taken").value(false));
+    }
+
+    @Test
+    public void givenConcurrentBookings_whenAddPassengers_thenEverySeatAssignedOnce() {
+        // given
+        final var passengerIds = IntStream.range(0, 24).mapToObj(i -> createPassenger()).toList();
+        final var executor = Executors.newFixedThreadPool(8);
+
+        // when
+        CompletableFuture.allOf(passengerIds.stream()
+            .map(passengerId -> CompletableFuture.runAsync(() -> flightUseCases.addPassengerToFlight("LOT100", passengerId), executor))
+            .toArray(CompletableFuture[]::new)).join();
+        executor.shutdown();
+
+        // then
+        final var seatMap = flightUseCases.getSeatMap("LOT100");
+        final var details = flightUseCases.getFlight("LOT100");
+        assertThat(seatMap.freeSeats()).isZero();
+        assertThat(details.availableSeats()).isZero();
+        assertThat(new HashSet<>(details.seats().values())).hasSize(24);
+    }
+
+    private UUID createPassenger() {
+        return passengerRepository.save(Passenger.builder()
+            .passengerId(UUID.randomUUID())
+            .firstName("John")
+            .lastName("Doe")
+            .phoneNumber(PhoneNumber.builder().countryCode("+48").phoneNumber("123456789").build())
+            .build()).getPassengerId();
+    }
+}
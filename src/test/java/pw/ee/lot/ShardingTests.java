@@ -0,0 +1,159 @@
+package pw.ee.lot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.dto.flight.CreateFlightRequest;
+import pw.ee.lot.dto.passenger.CreatePassengerRequest;
+import pw.ee.lot.service.FlightUseCases;
+import pw.ee.lot.service.PassengerUseCases;
+import pw.ee.lot.shared.analytics.FlightAnalytics;
+import pw.ee.lot.shared.sharding.ShardRebalancer;
+import pw.ee.lot.shared.sharding.ShardRegistry;
+import pw.ee.lot.shared.sharding.ShardingProperties;
+import pw.ee.lot.shared.sql.SqlStatementStatistics;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "lot.sharding.enabled=true",
+    "lot.sharding.shards[0].name=shard-1",
+    "lot.sharding.shards[0].url=jdbc:tc:postgresql:latest:///shard1?TC_DAEMON=true"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class ShardingTests {
+
+    private final static String flightsEndpoint = "/flights";
+    @Autowired
+    private FlightUseCases flightUseCases;
+    @Autowired
+    private PassengerUseCases passengerUseCases;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+    @Autowired
+    private ShardRegistry shardRegistry;
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+    @Autowired
+    private FlightAnalytics flightAnalytics;
+
+    @BeforeEach
+    public void setUp() {
+        shardRegistry.shards().forEach(shard -> shardRegistry.runOn(shard, () -> {
+            flightRepository.deleteAll();
+            passengerRepository.deleteAll();
+        }));
+    }
+
+    @Test
+    public void givenFlightsOnEveryShard_whenGetFlights_thenReturnMergedPage() throws Exception {
+        // given
+        createFlights(20);
+        assertThat(shardRegistry.scatter(shard -> flightRepository.count()).values())
+            .allSatisfy(count -> assertThat(count).isPositive());
+
+        // when and then
+        mockMvc.perform(get(flightsEndpoint).param("page", "1").param("size", "5").param("sort", "flightNumber"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(20))
+            .andExpect(jsonPath("$.content.length()").value(5))
+            .andExpect(jsonPath("$.content[0].flightNumber").value("LOT105"))
+            .andExpect(jsonPath("$.content[4].flightNumber").value("LOT109"));
+    }
+
+    @Test
+    public void givenFlightsOnEveryShard_whenGetFlights_thenCountStatementsOfEveryShard() throws Exception {
+        // given
+        createFlights(4);
+
+        // when
+        final var response = mockMvc.perform(get(flightsEndpoint).param("sort", "flightNumber"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse();
+
+        // then
+        assertThat(Integer.parseInt(response.getHeader(SqlStatementStatistics.STATEMENT_COUNT_HEADER)))
+            .isGreaterThanOrEqualTo(shardRegistry.shards().size());
+    }
+
+    @Test
+    public void givenPageBeyondMaxDepth_whenGetFlights_thenReturnHttpBadRequest() throws Exception {
+        // when and then
+        mockMvc.perform(get(flightsEndpoint).param("page", "500").param("size", "20"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void givenPassengerBookedOnTwoShards_whenGetPassenger_thenReturnBothFlights() {
+        // given
+        createFlights(20);
+        final var passenger = passengerUseCases.createPassenger(new CreatePassengerRequest("John", "Doe", "+48", "123456789"));
+        final var onDefaultShard = flightNumberOn(shardRegistry.defaultShard());
+        final var onOtherShard = flightNumberOn("shard-1");
+
+        // when
+        flightUseCases.addPassengerToFlight(onDefaultShard, passenger.getPassengerId());
+        flightUseCases.addPassengerToFlight(onOtherShard, passenger.getPassengerId());
+
+        // then
+        assertThat(passengerUseCases.getPassenger(passenger.getPassengerId()).flights())
+            .extracting("flightNumber")
+            .containsExactlyInAnyOrder(onDefaultShard, onOtherShard);
+    }
+
+    @Test
+    public void givenNewShard_whenAdded_thenFlightsAreMovedToIt() throws Exception {
+        // given
+        createFlights(30);
+        final var analyzedFlights = flightAnalytics.report(null, null).flights();
+
+        // when
+        shardRebalancer.addShard(new ShardingProperties.Shard("shard-2", "jdbc:tc:postgresql:latest:///shard2?TC_DAEMON=true", null, null))
+            .get(1, TimeUnit.MINUTES);
+
+        // then
+        assertThat(shardRegistry.isRebalancing()).isFalse();
+        assertThat(shardRegistry.callOn("shard-2", () -> flightRepository.count())).isPositive();
+        IntStream.range(100, 130).forEach(number -> assertThatCode(() -> flightUseCases.getFlight("LOT" + number))
+            .doesNotThrowAnyException());
+        assertThat(flightAnalytics.report(null, null).flights()).isEqualTo(analyzedFlights);
+    }
+
+    private void createFlights(int count) {
+        IntStream.range(100, 100 + count).forEach(number -> flightUseCases.createFlight(new CreateFlightRequest(
+            "LOT" + number,
+            LocalDateTime.now().plusDays(1),
+            100,
+            List.of("WAW", "JFK")
+        )));
+    }
+
+    private String flightNumberOn(String shard) {
+        return IntStream.range(100, 120)
+            .mapToObj(number -> "LOT" + number)
+            .filter(flightNumber -> shardRegistry.shardFor(flightNumber).equals(shard))
+            .findFirst()
+            .orElseThrow();
+    }
+}
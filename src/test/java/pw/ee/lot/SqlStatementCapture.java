@@ -0,0 +1,60 @@
+package pw.ee.lot;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Records the statements executed on the current thread with their parameters, as seen by the datasource-proxy the
+ * {@link QueryExecutionListener} beans are attached to. Register it as a bean to use it.
+ */
+public final class SqlStatementCapture implements QueryExecutionListener {
+
+    private static final ThreadLocal<List<Statement>> CAPTURED = new ThreadLocal<>();
+
+    /**
+     * Runs the action and returns the statements it executed, in order.
+     */
+    public List<Statement> capture(Runnable action) {
+        final var captured = new ArrayList<Statement>();
+        CAPTURED.set(captured);
+        try {
+            action.run();
+        } finally {
+            CAPTURED.remove();
+        }
+        return captured;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        final var captured = CAPTURED.get();
+        if (captured == null) {
+            return;
+        }
+
+        for (var queryInfo : queryInfoList) {
+            final var parameters = queryInfo.getParametersList().isEmpty() ? List.<ParameterSetOperation>of() : queryInfo.getParametersList().get(0);
+            captured.add(new Statement(queryInfo.getQuery(), parameters.stream()
+                .sorted(Comparator.comparingInt(operation -> (Integer) operation.getArgs()[0]))
+                .map(operation -> ParameterSetOperation.isSetNullParameterOperation(operation) ? null : operation.getArgs()[1])
+                .toList()));
+        }
+    }
+
+    /**
+     * @param sql        the statement with its {@code ?} placeholders
+     * @param parameters the values bound to the placeholders, in order
+     */
+    public record Statement(String sql, List<Object> parameters) {
+    }
+}
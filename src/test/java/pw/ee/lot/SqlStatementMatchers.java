@@ -0,0 +1,32 @@
+package pw.ee.lot;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+import pw.ee.lot.shared.sql.SqlStatementStatistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MockMvc matchers over the per-request SQL statistics headers. Requires {@code lot.sql-statistics.debug} to be on,
+ * which the {@code test} profile does.
+ */
+public final class SqlStatementMatchers {
+
+    private SqlStatementMatchers() {
+    }
+
+    /**
+     * Assert that the request executed at most {@code maxStatements} SQL statements.
+     */
+    public static ResultMatcher maxSqlStatements(int maxStatements) {
+        return result -> {
+            final var header = result.getResponse().getHeader(SqlStatementStatistics.STATEMENT_COUNT_HEADER);
+            assertThat(header)
+                .as("%s response header", SqlStatementStatistics.STATEMENT_COUNT_HEADER)
+                .isNotNull();
+            assertThat(Integer.parseInt(header))
+                .as("SQL statements executed by %s %s",
+                    result.getRequest().getMethod(), result.getRequest().getRequestURI())
+                .isLessThanOrEqualTo(maxStatements);
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package pw.ee.lot;
+
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import pw.ee.lot.domain.Flight;
+import pw.ee.lot.domain.repository.FlightRepository;
+import pw.ee.lot.domain.repository.PassengerRepository;
+import pw.ee.lot.shared.tracing.InMemorySpanExporter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class TracingModuleTests {
+
+    private final static String flightsEndpoint = "/flights";
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @BeforeEach
+    public void setUp() {
+        flightRepository.deleteAll();
+        passengerRepository.deleteAll();
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        spanExporter.reset();
+    }
+
+    @Test
+    public void givenFlight_whenSearchFlights_thenExportSpansOfEveryLayer() throws Exception {
+        // given
+        Flight flight = Flight.builder()
+            .flightNumber("LOT123")
+            .departureTime(LocalDateTime.now())
+            .availableSeats(100)
+            .route(List.of("WAW", "JFK"))
+            .build();
+        flightRepository.save(flight);
+
+        // when
+        mockMvc.perform(get(flightsEndpoint + "/search").param("city", "WAW"))
+            .andExpect(status().isOk());
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+
+        // then
+        final var spanNames = spanExporter.getFinishedSpans().stream()
+            .map(SpanData::getName)
+            .toList();
+        assertThat(spanNames)
+            .contains("FlightController.getFlights", "FlightUseCases.searchFlights", "FlightRepository.findAll", "jdbc select")
+            .anyMatch(name -> name.startsWith("FlightMapper."));
+    }
+
+    @Test
+    public void givenUnsampledTrace_whenSearchFlights_thenExportNoLayerSpans() throws Exception {
+        // given
+        flightRepository.save(Flight.builder()
+            .flightNumber("LOT123")
+            .departureTime(LocalDateTime.now())
+            .availableSeats(100)
+            .route(List.of("WAW", "JFK"))
+            .build());
+
+        // when
+        mockMvc.perform(get(flightsEndpoint + "/search").param("city", "WAW")
+                .header("traceparent", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00"))
+            .andExpect(status().isOk());
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+
+        // then
+        assertThat(spanExporter.getFinishedSpans())
+            .extracting(SpanData::getName)
+            .doesNotContain("FlightController.getFlights", "FlightRepository.findAll", "jdbc select");
+    }
+}
@@ -0,0 +1,111 @@
+package pw.ee.lot.service.internal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BookingCombinerBatchTests {
+
+    private final BookingCombiner bookingCombiner = new BookingCombiner(
+        new BookingCombinerProperties(true, Duration.ofMillis(200), 2, Duration.ofSeconds(5)),
+        new NoOpTransactionManager(),
+        new SimpleMeterRegistry());
+
+    @Test
+    public void givenBatchFailingWithError_whenBook_thenEveryBookingFails() throws Exception {
+        // given
+        final Consumer<List<BookingCombiner.Booking>> apply = bookings -> {
+            throw new StackOverflowError();
+        };
+        final var executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // when
+            final var bookings = book(executor, apply);
+
+            // then
+            for (CompletableFuture<Void> booking : bookings) {
+                assertThatThrownBy(() -> booking.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void givenSlowListenerAfterCommit_whenBook_thenFollowerReleasedBeforeListenerEnds() throws Exception {
+        // given
+        final var listenerReleased = new CountDownLatch(1);
+        final Consumer<List<BookingCombiner.Booking>> apply = bookings ->
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    try {
+                        listenerReleased.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        final var executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // when
+            final var bookings = book(executor, apply);
+
+            // then
+            assertThat(CompletableFuture.anyOf(bookings.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS)).isNull();
+            listenerReleased.countDown();
+            CompletableFuture.allOf(bookings.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        } finally {
+            listenerReleased.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private List<CompletableFuture<Void>> book(ExecutorService executor, Consumer<List<BookingCombiner.Booking>> apply) {
+        return List.of(
+            CompletableFuture.runAsync(() -> bookingCombiner.book("LOT100", UUID.randomUUID(), null, apply), executor),
+            CompletableFuture.runAsync(() -> bookingCombiner.book("LOT100", UUID.randomUUID(), null, apply), executor));
+    }
+
+    /**
+     * Runs transaction synchronization without a resource behind it.
+     */
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
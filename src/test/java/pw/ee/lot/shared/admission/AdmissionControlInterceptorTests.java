@@ -0,0 +1,76 @@
+package pw.ee.lot.shared.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AdmissionControlInterceptorTests {
+
+    private final AdmissionProperties.Bulkhead single = new AdmissionProperties.Bulkhead(1, 1, Duration.ofSeconds(1));
+    private final AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(
+        new AdmissionProperties(true, single, single, single, single, 1000, 1000, Duration.ofSeconds(2)),
+        new SimpleMeterRegistry());
+
+    @Test
+    public void givenFullBulkhead_whenAdmit_thenServiceOverloadedUntilReleased() {
+        // given
+        final var running = request("GET", "/flights/LOT100");
+        interceptor.preHandle(running, new MockHttpServletResponse(), new Object());
+
+        // when and then
+        assertThatThrownBy(() -> interceptor.preHandle(request("GET", "/flights/LOT200"), new MockHttpServletResponse(), new Object()))
+            .isInstanceOf(ServiceOverloadedException.class)
+            .satisfies(exception -> assertThat(((ServiceOverloadedException) exception).getRetryAfter()).isEqualTo(Duration.ofSeconds(2)));
+        assertThat(interceptor.preHandle(request("POST", "/flights/bulk/cancel"), new MockHttpServletResponse(), new Object())).isTrue();
+
+        interceptor.afterCompletion(running, new MockHttpServletResponse(), new Object(), null);
+        assertThat(interceptor.preHandle(request("GET", "/flights/LOT200"), new MockHttpServletResponse(), new Object())).isTrue();
+    }
+
+    @Test
+    public void givenBulkOperationsAndCancellations_whenClassify_thenAdmin() {
+        // when and then
+        assertThat(EndpointClass.of(request("POST", "/flights/bulk/reschedule"))).isEqualTo(EndpointClass.ADMIN);
+        assertThat(EndpointClass.of(request("POST", "/flights/LOT100/cancel"))).isEqualTo(EndpointClass.ADMIN);
+        assertThat(EndpointClass.of(request("POST", "/flights/LOT100/holds"))).isEqualTo(EndpointClass.WRITES);
+        assertThat(EndpointClass.of(request("GET", "/flights/search"))).isEqualTo(EndpointClass.SEARCH);
+    }
+
+    @Test
+    public void givenSlowRequests_whenRelease_thenLimitLoweredAndRaisedAgainWhenFast() {
+        // given
+        final var limit = new AdaptiveConcurrencyLimit(2, 20, Duration.ofMillis(100).toNanos());
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+            limit.release(Duration.ofMillis(500).toNanos());
+        }
+        final var lowered = limit.limit();
+        var admitted = 0;
+        while (limit.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limit.release(Duration.ofMillis(10).toNanos());
+        }
+
+        // then
+        assertThat(lowered).isLessThan(20).isGreaterThanOrEqualTo(2);
+        assertThat(admitted).isEqualTo(lowered);
+        assertThat(limit.limit()).isGreaterThan(lowered);
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        final var request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+}
@@ -0,0 +1,74 @@
+package pw.ee.lot.shared.hotkeys;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CountMinSketchTests {
+
+    @Test
+    public void givenSkewedTraffic_whenEstimate_thenNeverUndercountAndOvercountWithinBound() {
+        // given
+        final var sketch = new CountMinSketch(1024, 4);
+        final var random = new Random(42);
+        final var counts = new HashMap<String, Long>();
+        final var total = 200_000;
+        for (int i = 0; i < total; i++) {
+            // Squaring a uniform value favours the low keys, like traffic concentrating on a few flights
+            final var sample = random.nextDouble();
+            final var key = "LOT" + (int) (sample * sample * 10_000);
+            sketch.add(key);
+            counts.merge(key, 1L, Long::sum);
+        }
+
+        // when
+        final var bound = Math.E / sketch.width() * total;
+        final var beyondBound = counts.entrySet().stream()
+            .filter(entry -> sketch.estimate(entry.getKey()) - entry.getValue() > bound)
+            .count();
+
+        // then
+        assertThat(counts).allSatisfy((key, count) -> assertThat(sketch.estimate(key)).isGreaterThanOrEqualTo(count));
+        // Expected share beyond the bound is e^-depth, below 2%
+        assertThat((double) beyondBound / counts.size()).isLessThan(0.02);
+    }
+
+    @Test
+    public void givenCountedKey_whenDecay_thenEstimateHalved() {
+        // given
+        final var sketch = new CountMinSketch(1024, 4);
+        for (int i = 0; i < 10; i++) {
+            sketch.add("LOT100");
+        }
+
+        // when
+        sketch.decay();
+
+        // then
+        assertThat(sketch.estimate("LOT100")).isEqualTo(5);
+        assertThat(sketch.add("LOT100")).isEqualTo(6);
+    }
+
+    @Test
+    public void givenWidthNotPowerOfTwo_whenCreate_thenRoundedUp() {
+        // when
+        final var sketch = new CountMinSketch(1000, 4);
+
+        // then
+        assertThat(sketch.width()).isEqualTo(1024);
+        assertThat(sketch.depth()).isEqualTo(4);
+    }
+
+    @Test
+    public void givenDepthOutOfRange_whenCreate_thenThrow() {
+        // when and then
+        assertThatThrownBy(() -> new CountMinSketch(1024, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CountMinSketch(1024, 9))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
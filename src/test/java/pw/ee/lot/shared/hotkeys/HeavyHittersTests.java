@@ -0,0 +1,74 @@
+package pw.ee.lot.shared.hotkeys;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HeavyHittersTests {
+
+    @Test
+    public void givenFullTopK_whenKeyOvertakesMinimum_thenMinimumEvicted() {
+        // given
+        final var heavyHitters = new HeavyHitters(new CountMinSketch(4096, 4), 3);
+        record(heavyHitters, "LOT100", 10);
+        record(heavyHitters, "LOT200", 8);
+        record(heavyHitters, "LOT300", 6);
+
+        // when
+        record(heavyHitters, "LOT400", 6);
+        final var tiedWithMinimum = heavyHitters.isMember("LOT400");
+        record(heavyHitters, "LOT400", 1);
+
+        // then
+        assertThat(tiedWithMinimum).isFalse();
+        assertThat(heavyHitters.top())
+            .extracting(HotKey::key)
+            .containsExactly("LOT100", "LOT200", "LOT400");
+        assertThat(heavyHitters.isMember("LOT300")).isFalse();
+        assertThat(heavyHitters.admissionThreshold()).isEqualTo(7);
+    }
+
+    @Test
+    public void givenStaleMember_whenDecayed_thenRecentBurstTakesItsPlace() {
+        // given
+        final var heavyHitters = new HeavyHitters(new CountMinSketch(4096, 4), 1);
+        record(heavyHitters, "LOT100", 100);
+        record(heavyHitters, "LOT200", 13);
+        final var admittedBeforeDecay = heavyHitters.isMember("LOT200");
+
+        // when
+        heavyHitters.decay();
+        heavyHitters.decay();
+        heavyHitters.decay();
+        record(heavyHitters, "LOT300", 13);
+
+        // then
+        assertThat(admittedBeforeDecay).isFalse();
+        assertThat(heavyHitters.top())
+            .extracting(HotKey::key)
+            .containsExactly("LOT300");
+        assertThat(heavyHitters.estimate("LOT100")).isEqualTo(12);
+    }
+
+    @Test
+    public void givenFullTopK_whenDecay_thenAdmissionThresholdFollowsDecayedMinimum() {
+        // given
+        final var heavyHitters = new HeavyHitters(new CountMinSketch(4096, 4), 1);
+        record(heavyHitters, "LOT100", 10);
+        record(heavyHitters, "LOT200", 1);
+        final var thresholdBeforeDecay = heavyHitters.admissionThreshold();
+
+        // when
+        heavyHitters.decay();
+
+        // then
+        assertThat(thresholdBeforeDecay).isEqualTo(10);
+        assertThat(heavyHitters.admissionThreshold()).isEqualTo(5);
+    }
+
+    private static void record(HeavyHitters heavyHitters, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            heavyHitters.record(key);
+        }
+    }
+}